@@ -0,0 +1,139 @@
+package com.rbbozkurt.ethmonitor.benchmark;
+
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Metadata;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.RawContract;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+import com.rbbozkurt.ethmonitor.service.impls.HistoricalTransferConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting a wallet history of {@value #TRANSFERS} transfers into {@link HistoricalTransfer}s the way
+ * {@code AlchemyTransferService} used to, one virtual-thread task per transfer collected into a
+ * {@link CopyOnWriteArrayList}, with the {@link HistoricalTransferConverter} on the calling thread and on the
+ * common fork-join pool. Scores are per transfer.
+ * <p>
+ * Run with {@code mvn -Pjmh compile exec:exec}; the profile passes {@code -prof gc}, whose
+ * {@code gc.alloc.rate.norm} is the allocation per transfer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoricalTransferConversionBenchmark {
+
+    private static final int TRANSFERS = 10_000;
+
+    private List<Transfer> transfers;
+    private ExecutorService virtualThreadExecutor;
+    private HistoricalTransferConverter callerConverter;
+    private HistoricalTransferConverter forkJoinConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        transfers = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            transfers.add(transfer(random, i));
+        }
+        virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        callerConverter = new HistoricalTransferConverter(null);
+        forkJoinConverter = new HistoricalTransferConverter(ForkJoinPool.commonPool());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        virtualThreadExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public List<HistoricalTransfer> perTransferTasks() throws InterruptedException {
+        List<Callable<HistoricalTransfer>> tasks = new ArrayList<>(transfers.size());
+        for (Transfer tx : transfers) {
+            tasks.add(() -> HistoricalTransferConverter.convert(tx));
+        }
+        List<Future<HistoricalTransfer>> futures = virtualThreadExecutor.invokeAll(tasks);
+        List<HistoricalTransfer> result = new CopyOnWriteArrayList<>();
+        for (Future<HistoricalTransfer> future : futures) {
+            try {
+                result.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public List<HistoricalTransfer> batchOnCaller() {
+        return callerConverter.convertAll(transfers);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public List<HistoricalTransfer> batchOnForkJoinPool() {
+        return forkJoinConverter.convertAll(transfers);
+    }
+
+    /**
+     * Builds a transfer shaped like the ones the Transfers API returns.
+     *
+     * @param random the source of the varying fields
+     * @param index the position of the transfer in the history
+     * @return the transfer
+     */
+    private static Transfer transfer(SplittableRandom random, int index) {
+        boolean erc20 = random.nextBoolean();
+        String hash = "0x" + String.format("%016x%016x%016x%016x",
+                random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong());
+
+        Transfer transfer = new Transfer();
+        transfer.setHash(hash);
+        transfer.setUniqueId(hash + (erc20 ? ":log:" + random.nextInt(300) : ":external"));
+        transfer.setBlockNum("0x" + Long.toHexString(17_000_000L + index * 50L));
+        transfer.setFrom(String.format("0x%040x", random.nextLong() & Long.MAX_VALUE));
+        transfer.setTo(String.format("0x%040x", random.nextLong() & Long.MAX_VALUE));
+        transfer.setCategory(erc20 ? "erc20" : "external");
+        transfer.setAsset(erc20 ? "USDC" : "ETH");
+        transfer.setValue(Double.toString(random.nextDouble(0.001, 10_000)));
+
+        RawContract rawContract = new RawContract();
+        rawContract.setAddress(erc20 ? "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48" : null);
+        rawContract.setDecimal(erc20 ? "0x6" : "0x12");
+        transfer.setRawContract(rawContract);
+
+        Metadata metadata = new Metadata();
+        metadata.setBlockTimestamp(Instant.ofEpochSecond(1_600_000_000L + index * 600L).toString());
+        transfer.setMetadata(metadata);
+        return transfer;
+    }
+}
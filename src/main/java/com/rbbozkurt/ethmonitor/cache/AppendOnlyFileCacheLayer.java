@@ -0,0 +1,260 @@
+package com.rbbozkurt.ethmonitor.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * A {@link CacheLayer} persisted in an append-only file, for values that practically never change, such as
+ * token metadata. Entries survive JVM restarts and never expire.
+ * <p>
+ * Every {@link #put} appends one JSON line {@code {"k":key,"v":value}} and every {@link #invalidate} a tombstone
+ * {@code {"k":key,"d":true}}; later lines win. The file is read into memory on first access rather than at
+ * startup, so commands that never need it do not pay for it. A line that cannot be parsed, such as one cut
+ * short by a crash, is skipped. When more than half of the lines are superseded, the file is compacted on load.
+ *
+ * @param <V> the type of values stored in the cache, serialized with Jackson
+ */
+public class AppendOnlyFileCacheLayer<V> implements CacheLayer<String, V> {
+
+    private static final Logger logger = Logger.getLogger(AppendOnlyFileCacheLayer.class.getName());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path file;  // The append-only file backing the cache
+    private final Class<V> type;  // Type the values are deserialized to
+    private volatile Map<String, V> entries;  // Live entries, loaded from the file on first access
+    private BufferedWriter writer;  // Appends to the file, opened on the first write
+
+    /**
+     * Constructs a new file-backed cache layer. The file is created on the first write if it does not exist.
+     * Use {@link CacheLayerFactory} to share one instance per file.
+     *
+     * @param file the file backing the cache
+     * @param type the type of the values
+     */
+    public AppendOnlyFileCacheLayer(Path file, Class<V> type) {
+        this.file = file;
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or {@code null} if not present.
+     *
+     * @param key the key to look up in the cache
+     * @return the cached value, or {@code null} if not present
+     */
+    @Override
+    public V get(String key) {
+        return entries().get(key);
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or computes and persists it using the provided
+     * loader if not cached. Concurrent misses of the same key may each run the loader; the last value wins.
+     *
+     * @param key the key to look up or compute
+     * @param loader a function to compute the value if absent
+     * @return the cached or newly computed value
+     */
+    @Override
+    public V getOrCompute(String key, Function<String, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Stores the specified value under the given key and appends it to the file. A value equal to the stored
+     * one is not written again.
+     *
+     * @param key the key to associate with the value
+     * @param value the value to cache
+     */
+    @Override
+    public void put(String key, V value) {
+        if (value == null) {
+            return;
+        }
+        V previous = entries().put(key, value);
+        if (!value.equals(previous)) {
+            ObjectNode line = objectMapper.createObjectNode().put("k", key);
+            line.set("v", objectMapper.valueToTree(value));
+            append(line);
+        }
+    }
+
+    /**
+     * Removes the entry associated with the specified key and appends a tombstone to the file.
+     *
+     * @param key the key to invalidate
+     */
+    @Override
+    public void invalidate(String key) {
+        if (entries().remove(key) != null) {
+            append(objectMapper.createObjectNode().put("k", key).put("d", true));
+        }
+    }
+
+    /**
+     * Clears all entries and truncates the file.
+     */
+    @Override
+    public synchronized void clear() {
+        entries().clear();
+        try {
+            closeWriter();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear " + file, e);
+        }
+    }
+
+    /**
+     * Returns a copy of all live entries, e.g. to export them.
+     *
+     * @return the live entries by key
+     */
+    public Map<String, V> snapshot() {
+        return Map.copyOf(entries());
+    }
+
+    /**
+     * Returns the live entries, loading them from the file on first access.
+     *
+     * @return the live entries
+     */
+    private Map<String, V> entries() {
+        Map<String, V> loaded = entries;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = entries;
+                if (loaded == null) {
+                    loaded = load();
+                    entries = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Reads the file, replaying puts and tombstones in order, and compacts it if most lines are superseded.
+     *
+     * @return the live entries
+     */
+    private Map<String, V> load() {
+        Map<String, V> loaded = new ConcurrentHashMap<>();
+        if (!Files.exists(file)) {
+            return loaded;
+        }
+
+        long started = System.nanoTime();
+        int lines = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) continue;
+                lines++;
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    String key = node.get("k").asText();
+                    if (node.path("d").asBoolean(false)) {
+                        loaded.remove(key);
+                    } else {
+                        loaded.put(key, objectMapper.treeToValue(node.get("v"), type));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("⚠️ Failed to read " + file + ", starting empty: " + e.getMessage());
+            return loaded;
+        }
+
+        int total = lines;
+        int corrupt = skipped;
+        logger.fine(() -> "📂 Loaded " + loaded.size() + " entries from " + file + " in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms" + (corrupt > 0 ? ", skipped " + corrupt + " unreadable lines" : ""));
+        if (total > 2 * loaded.size()) {
+            compact(loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Rewrites the file with one line per live entry, replacing it atomically.
+     *
+     * @param live the live entries
+     */
+    private void compact(Map<String, V> live) {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, V> entry : live.entrySet()) {
+                ObjectNode line = objectMapper.createObjectNode().put("k", entry.getKey());
+                line.set("v", objectMapper.valueToTree(entry.getValue()));
+                out.write(line.toString());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            logger.warning("⚠️ Failed to compact " + file + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("⚠️ Failed to replace " + file + " with its compacted copy: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends a line to the file and flushes it. A failed write is logged; the entry then only lives in memory.
+     *
+     * @param line the JSON line
+     */
+    private synchronized void append(ObjectNode line) {
+        try {
+            if (writer == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(line.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.warning("⚠️ Failed to append to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the writer, if open, so the next append reopens the file.
+     *
+     * @throws IOException if the writer cannot be closed
+     */
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.rbbozkurt.ethmonitor.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -29,6 +34,39 @@ public interface CacheLayer<K, V> {
      */
     V getOrCompute(K key, Function<K, V> loader);
 
+    /**
+     * Retrieves the cached value associated with the specified key, like {@link #get(Object)}. Layers that
+     * support refresh-ahead additionally reload a value that is due for a refresh in the background with the
+     * given reloader, while still returning the current value.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param reloader a function loading a fresh value asynchronously
+     * @return the cached value, or {@code null} if not present
+     */
+    default V getAndRefresh(K key, Function<K, CompletableFuture<V>> reloader) {
+        return get(key);
+    }
+
+    /**
+     * Retrieves the cached values associated with the specified keys. Layers that support refresh-ahead
+     * additionally reload the values that are due for a refresh in the background, with a single call to
+     * the reloader, while still returning the current values.
+     *
+     * @param keys the keys whose associated values are to be returned
+     * @param reloader a function loading fresh values for a set of keys asynchronously
+     * @return the cached values, keyed by key; keys without a cached value are absent
+     */
+    default Map<K, V> getAllAndRefresh(Collection<K> keys, Function<Set<K>, CompletableFuture<Map<K, V>>> reloader) {
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
     /**
      * Caches the specified value with the associated key.
      *
@@ -1,11 +1,16 @@
 package com.rbbozkurt.ethmonitor.cache;
 
 import com.rbbozkurt.ethmonitor.dto.*;
-import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+import com.rbbozkurt.ethmonitor.model.TransferTable;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.TokenBalance;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Factory class for creating pre-configured {@link CacheLayer} instances
@@ -15,6 +20,18 @@ public class CacheLayerFactory {
 
     private static final CacheLayerFactory INSTANCE = new CacheLayerFactory();
 
+    public static final String METADATA_STORE_PROPERTY = "ethmonitor.tokens.metadataStore";  // Path of the token metadata file, or "none"
+    public static final String SYNC_STORE_PROPERTY = "ethmonitor.transfers.syncStore";  // Directory of the transfer sync segments, or "none"
+
+    private static final int MAX_SYNC_HEADS = 10_000;  // Wallets whose sync state head is held in memory
+
+    // File-backed caches by file, so every service appending to the same file shares one writer
+    private final ConcurrentHashMap<Path, AppendOnlyFileCacheLayer<?>> fileCaches = new ConcurrentHashMap<>();
+    // Transfer sync stores by directory, so every service syncing into the same directory shares one store
+    private final ConcurrentHashMap<Path, TransferSyncStore> syncStores = new ConcurrentHashMap<>();
+    // Runs the background reloads of every refresh-ahead cache; the loaders mostly wait on the network
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     /**
      * Returns the singleton instance of the factory.
      *
@@ -37,29 +54,116 @@ public class CacheLayerFactory {
     }
 
     /**
-     * Creates a cache layer for token prices with a TTL of 30 seconds and maximum size of 1,000.
+     * Creates a refresh-ahead cache layer for token prices with a maximum size of 1,000. Prices older than
+     * 30 seconds are reloaded in the background on access, on the virtual threads shared by every refresh-ahead
+     * cache of this factory, and no price older than 90 seconds is served.
      *
      * @return configured {@link CacheLayer} for {@link TokenPriceResponse}
      */
     public CacheLayer<String, TokenPriceResponse> createPricesCache() {
         return new CaffeineCacheLayerBuilder<String, TokenPriceResponse>()
                 .withMaxSize(1_000)
-                .withTTL(Duration.ofSeconds(30))
+                .withRefreshAfterWrite(Duration.ofSeconds(30))
+                .withTTL(Duration.ofSeconds(90))
+                .withRefreshExecutor(refreshExecutor)
+                .build();
+    }
+
+    /**
+     * Creates a cache layer for last known token prices with a TTL of 6 hours and maximum size of 1,000.
+     * It outlives the regular prices cache so a price can still be served while the prices endpoint is down.
+     *
+     * @return configured {@link CacheLayer} for {@link TokenPriceResponse}
+     */
+    public CacheLayer<String, TokenPriceResponse> createLastKnownPricesCache() {
+        return new CaffeineCacheLayerBuilder<String, TokenPriceResponse>()
+                .withMaxSize(1_000)
+                .withTTL(Duration.ofHours(6))
                 .build();
     }
 
     /**
-     * Creates a cache layer for token metadata with a TTL of 1 hour and maximum size of 5,000.
+     * Creates a cache layer of tokens known to have no price or no metadata with a TTL of 1 hour and maximum
+     * size of 20,000. Spam tokens are numerous and rarely gain a price, so entries are small and long-lived.
+     *
+     * @return configured {@link CacheLayer} mapping negative-result keys to the reason
+     */
+    public CacheLayer<String, String> createNegativeResultsCache() {
+        return new CaffeineCacheLayerBuilder<String, String>()
+                .withMaxSize(20_000)
+                .withTTL(Duration.ofHours(1))
+                .build();
+    }
+
+    /**
+     * Creates a cache layer for hourly historical token prices with a TTL of 7 days and maximum size of 250,000.
+     * Past prices do not change, so entries only expire to bound memory over long-running processes.
+     *
+     * @return configured {@link CacheLayer} mapping token and hour keys to the USD price
+     */
+    public CacheLayer<String, BigDecimal> createHistoricalPricesCache() {
+        return new CaffeineCacheLayerBuilder<String, BigDecimal>()
+                .withMaxSize(250_000)
+                .withTTL(Duration.ofDays(7))
+                .build();
+    }
+
+    /**
+     * Creates a cache layer for token metadata. Decimals, symbol and name practically never change, so the
+     * metadata is kept in an on-disk store that survives restarts: the file named by the
+     * {@value #METADATA_STORE_PROPERTY} system property, {@code ~/.eth-monitor/token-metadata.jsonl} by default.
+     * With the property set to {@code none}, an in-memory cache with a TTL of 1 hour and maximum size of 5,000 is used instead.
      *
      * @return configured {@link CacheLayer} for {@link TokenMetadataResponse}
      */
     public CacheLayer<String, TokenMetadataResponse> createTokenCache() {
+        Path store = getMetadataStorePath();
+        if (store != null) {
+            return createFileCache(store, TokenMetadataResponse.class);
+        }
         return new CaffeineCacheLayerBuilder<String, TokenMetadataResponse>()
                 .withMaxSize(5_000)
                 .withTTL(Duration.ofHours(1))
                 .build();
     }
 
+    /**
+     * Returns the path of the on-disk token metadata store, as configured by {@value #METADATA_STORE_PROPERTY}.
+     * Unless the property is set, the store is written to {@code ~/.eth-monitor/token-metadata.jsonl}; the README
+     * and the command-line help list this default together with the transfer sync store.
+     *
+     * @return the store path, or {@code null} if the store is disabled
+     */
+    public Path getMetadataStorePath() {
+        String store = System.getProperty(METADATA_STORE_PROPERTY, defaultStorePath("token-metadata.jsonl")).trim();
+        return "none".equalsIgnoreCase(store) ? null : Path.of(store);
+    }
+
+    /**
+     * Returns the default location of an on-disk store, in the {@code .eth-monitor} directory of the user's home.
+     *
+     * @param name the file or directory name of the store
+     * @return the store path
+     */
+    private static String defaultStorePath(String name) {
+        return Path.of(System.getProperty("user.home"), ".eth-monitor", name).toString();
+    }
+
+    /**
+     * Returns the file-backed cache layer of a file, creating it on first use. All callers asking for the same
+     * file share one instance.
+     *
+     * @param file the file backing the cache
+     * @param type the type of the values
+     * @param <V> the type of the values
+     * @return the {@link AppendOnlyFileCacheLayer} of the file
+     */
+    @SuppressWarnings("unchecked")
+    public <V> CacheLayer<String, V> createFileCache(Path file, Class<V> type) {
+        return (CacheLayer<String, V>) fileCaches.computeIfAbsent(file.toAbsolutePath().normalize(),
+                f -> new AppendOnlyFileCacheLayer<>(f, type));
+    }
+
     /**
      * Creates a cache layer for ETH balances with a TTL of 2 minutes and maximum size of 2,000.
      *
@@ -73,24 +177,32 @@ public class CacheLayerFactory {
     }
 
     /**
-     * Creates a cache layer for transfer responses with a TTL of 10 minutes and maximum size of 1,000.
+     * Creates the store of the transfer sync state of each wallet: its ingested transfers and the block up to which
+     * they are complete. Ingested history never changes, so each wallet's state is kept in a segment file that
+     * survives restarts, in the directory named by the {@value #SYNC_STORE_PROPERTY} system property,
+     * {@code ~/.eth-monitor/transfer-sync} by default. The heads of at most 10,000 wallets are held in memory.
+     * With the property set to {@code none}, no state is kept and every sync fetches the full history.
      *
-     * @return configured {@link CacheLayer} for {@link TransferResponse}
+     * @return the shared {@link TransferSyncStore} of the directory, or {@code null} if the store is disabled
      */
-    public CacheLayer<String, TransferResponse> createTransferResponseCache() {
-        return new CaffeineCacheLayerBuilder<String, TransferResponse>()
-                .withMaxSize(1_000)
-                .withTTL(Duration.ofMinutes(10))
-                .build();
+    public TransferSyncStore createTransferSyncStore() {
+        String store = System.getProperty(SYNC_STORE_PROPERTY, defaultStorePath("transfer-sync")).trim();
+        if ("none".equalsIgnoreCase(store)) {
+            return null;
+        }
+        return syncStores.computeIfAbsent(Path.of(store).toAbsolutePath().normalize(),
+                directory -> new TransferSyncStore(directory, MAX_SYNC_HEADS));
     }
 
     /**
-     * Creates a cache layer for historical token transfers with a TTL of 10 minutes and maximum size of 1,000.
+     * Creates a cache layer for historical transfers in their compact columnar form, with a TTL of 10 minutes and
+     * maximum size of 1,000. This is the only form in which transfer histories are held in memory; the
+     * downloaded transfers themselves are kept on disk by the {@link TransferSyncStore} only.
      *
-     * @return configured {@link CacheLayer} for list of {@link HistoricalTransfer}
+     * @return configured {@link CacheLayer} for {@link TransferTable}
      */
-    public CacheLayer<String, List<HistoricalTransfer>> createHistoricalTransfersCache() {
-        return new CaffeineCacheLayerBuilder<String, List<HistoricalTransfer>>()
+    public CacheLayer<TransferTable.Key, TransferTable> createTransferTableCache() {
+        return new CaffeineCacheLayerBuilder<TransferTable.Key, TransferTable>()
                 .withMaxSize(1_000)
                 .withTTL(Duration.ofMinutes(10))
                 .build();
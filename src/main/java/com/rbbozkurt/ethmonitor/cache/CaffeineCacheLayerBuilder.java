@@ -4,10 +4,15 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
 
 /**
  * A builder class for constructing {@link CaffeineCacheLayer} instances
  * with configurable maximum size and time-to-live (TTL).
+ * <p>
+ * With a refresh interval set, a {@link RefreshingCaffeineCacheLayer} is built instead: entries older than
+ * the interval are reloaded in the background on access, and the TTL becomes their staleness bound. The reloads
+ * run on a refresh executor, which the caller provides so that every refreshing cache can share one.
  *
  * @param <K> the type of keys used in the cache
  * @param <V> the type of values stored in the cache
@@ -16,6 +21,8 @@ public class CaffeineCacheLayerBuilder<K, V> {
 
     private int maxSize = 1_000;
     private Duration ttl = Duration.ofMinutes(10);
+    private Duration refreshAfterWrite;  // Null disables refresh-ahead
+    private Executor refreshExecutor;  // Required with refresh-ahead
 
     /**
      * Sets the maximum number of entries the cache may contain.
@@ -39,12 +46,40 @@ public class CaffeineCacheLayerBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Enables refresh-ahead: an entry older than the given interval is reloaded in the background the next
+     * time it is read, while readers keep getting the current value. The interval must be shorter than the TTL.
+     *
+     * @param refreshAfterWrite the age after which an entry is reloaded
+     * @return the current builder instance
+     */
+    public CaffeineCacheLayerBuilder<K, V> withRefreshAfterWrite(Duration refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+        return this;
+    }
+
+    /**
+     * Sets the executor running background reloads of synchronous loaders, required with refresh-ahead.
+     * Loaders usually block on network calls, so virtual threads suit them.
+     *
+     * @param refreshExecutor the executor for reloads
+     * @return the current builder instance
+     */
+    public CaffeineCacheLayerBuilder<K, V> withRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+        return this;
+    }
+
     /**
      * Builds and returns a {@link CacheLayer} backed by a configured Caffeine cache.
      *
      * @return the configured {@link CacheLayer} instance
      */
     public CacheLayer<K, V> build() {
+        if (refreshAfterWrite != null) {
+            return buildRefreshing();
+        }
+
         Cache<K, V> cache = Caffeine.newBuilder()
                 .maximumSize(maxSize)
                 .expireAfterWrite(ttl)
@@ -52,4 +87,24 @@ public class CaffeineCacheLayerBuilder<K, V> {
 
         return new CaffeineCacheLayer<>(cache);
     }
+
+    /**
+     * Builds a refresh-ahead cache layer whose TTL bounds the staleness of every entry.
+     *
+     * @return the configured {@link RefreshingCaffeineCacheLayer}
+     */
+    private CacheLayer<K, V> buildRefreshing() {
+        if (refreshAfterWrite.compareTo(ttl) >= 0) {
+            throw new IllegalStateException("Refresh interval " + refreshAfterWrite + " must be shorter than TTL " + ttl);
+        }
+        if (refreshExecutor == null) {
+            throw new IllegalStateException("A refresh executor is required with a refresh interval");
+        }
+        Cache<K, RefreshingCaffeineCacheLayer.Entry<V>> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        return new RefreshingCaffeineCacheLayer<>(cache, refreshAfterWrite.toNanos(), refreshExecutor);
+    }
 }
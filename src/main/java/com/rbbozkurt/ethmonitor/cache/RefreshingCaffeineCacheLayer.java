@@ -0,0 +1,218 @@
+package com.rbbozkurt.ethmonitor.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A Caffeine-based {@link CacheLayer} with refresh-ahead. Every entry records when it was loaded; once it
+ * is older than the refresh interval, the next read starts a background reload and keeps returning the
+ * current value until the reload completes. The underlying cache expires entries after the staleness
+ * bound, so a value that could not be refreshed is never served beyond it and the next read blocks on
+ * a fresh load instead.
+ * <p>
+ * At most one reload per key is in flight; a failed reload is logged and retried by a later read.
+ *
+ * @param <K> the type of keys used for cache entries
+ * @param <V> the type of values stored in the cache
+ */
+public class RefreshingCaffeineCacheLayer<K, V> implements CacheLayer<K, V> {
+
+    private static final Logger logger = Logger.getLogger(RefreshingCaffeineCacheLayer.class.getName());
+
+    /**
+     * A cached value together with the time it was loaded.
+     *
+     * @param value the cached value
+     * @param loadedAtNanos the {@link System#nanoTime()} at which the value was loaded
+     * @param <V> the type of the value
+     */
+    record Entry<V>(V value, long loadedAtNanos) {}
+
+    private final Cache<K, Entry<V>> cache;  // Expires entries after the staleness bound
+    private final long refreshAfterNanos;  // Age after which a read triggers a background reload
+    private final Executor executor;  // Runs reloads of synchronous loaders
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();  // Keys with a reload in flight
+
+    /**
+     * Constructs a new refresh-ahead cache layer. Use {@link CaffeineCacheLayerBuilder#withRefreshAfterWrite} to create instances.
+     *
+     * @param cache the underlying Caffeine cache, expiring entries after the staleness bound
+     * @param refreshAfterNanos the age after which a read triggers a background reload
+     * @param executor the executor running reloads of synchronous loaders
+     */
+    RefreshingCaffeineCacheLayer(Cache<K, Entry<V>> cache, long refreshAfterNanos, Executor executor) {
+        this.cache = cache;
+        this.refreshAfterNanos = refreshAfterNanos;
+        this.executor = executor;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or {@code null} if not present. A plain
+     * read has no loader and therefore never triggers a reload.
+     *
+     * @param key the key to look up in the cache
+     * @return the cached value, or {@code null} if not present
+     */
+    @Override
+    public V get(K key) {
+        Entry<V> entry = cache.getIfPresent(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or computes it using the provided loader
+     * if not cached. A value due for a refresh is returned as is while the loader reloads it in the background.
+     *
+     * @param key the key to look up or compute
+     * @param loader a function to compute the value
+     * @return the cached or newly computed value
+     */
+    @Override
+    public V getOrCompute(K key, Function<K, V> loader) {
+        Entry<V> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            entry = cache.get(key, k -> {
+                V value = loader.apply(k);
+                return value != null ? new Entry<>(value, System.nanoTime()) : null;
+            });
+            return entry != null ? entry.value() : null;
+        }
+        if (isRefreshDue(entry) && refreshing.add(key)) {
+            reload(key, () -> CompletableFuture.supplyAsync(() -> loader.apply(key), executor));
+        }
+        return entry.value();
+    }
+
+    /**
+     * Retrieves the cached value of the key and, if it is due for a refresh, reloads it in the background.
+     *
+     * @param key the key to look up
+     * @param reloader a function loading a fresh value asynchronously
+     * @return the cached value, or {@code null} if not present
+     */
+    @Override
+    public V getAndRefresh(K key, Function<K, CompletableFuture<V>> reloader) {
+        Entry<V> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isRefreshDue(entry) && refreshing.add(key)) {
+            reload(key, () -> reloader.apply(key));
+        }
+        return entry.value();
+    }
+
+    /**
+     * Retrieves the cached values of the keys and reloads the ones due for a refresh in the background,
+     * with a single call to the reloader.
+     *
+     * @param keys the keys to look up
+     * @param reloader a function loading fresh values for a set of keys asynchronously
+     * @return the cached values, keyed by key; keys without a value are absent
+     */
+    @Override
+    public Map<K, V> getAllAndRefresh(Collection<K> keys, Function<Set<K>, CompletableFuture<Map<K, V>>> reloader) {
+        Map<K, V> values = new HashMap<>();
+        Set<K> due = new HashSet<>();
+        for (K key : keys) {
+            Entry<V> entry = cache.getIfPresent(key);
+            if (entry == null) continue;
+            values.put(key, entry.value());
+            if (isRefreshDue(entry) && refreshing.add(key)) {
+                due.add(key);
+            }
+        }
+        if (!due.isEmpty()) {
+            CompletableFuture<Map<K, V>> reload;
+            try {
+                reload = reloader.apply(due);
+            } catch (RuntimeException e) {
+                reload = CompletableFuture.failedFuture(e);
+            }
+            reload.whenComplete((fresh, e) -> {
+                if (e != null) {
+                    logger.warning("⚠️ Background refresh of " + due.size() + " entries failed: " + e.getMessage());
+                } else if (fresh != null) {
+                    fresh.forEach(this::put);
+                }
+                refreshing.removeAll(due);
+            });
+        }
+        return values;
+    }
+
+    /**
+     * Stores the specified value under the given key, restarting its refresh interval and staleness bound.
+     *
+     * @param key the key to associate with the value
+     * @param value the value to cache
+     */
+    @Override
+    public void put(K key, V value) {
+        if (value != null) {
+            cache.put(key, new Entry<>(value, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Removes the entry associated with the specified key from the cache.
+     *
+     * @param key the key to invalidate
+     */
+    @Override
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * Clears all entries from the cache.
+     */
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns whether an entry is older than the refresh interval.
+     *
+     * @param entry the cached entry
+     * @return {@code true} if the entry should be reloaded
+     */
+    private boolean isRefreshDue(Entry<V> entry) {
+        return System.nanoTime() - entry.loadedAtNanos() >= refreshAfterNanos;
+    }
+
+    /**
+     * Runs a reload whose key has already been claimed, stores its result and releases the claim.
+     *
+     * @param key the key being reloaded
+     * @param reload starts the reload
+     */
+    private void reload(K key, Supplier<CompletableFuture<V>> reload) {
+        CompletableFuture<V> future;
+        try {
+            future = reload.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                logger.warning("⚠️ Background refresh of " + key + " failed: " + e.getMessage());
+            } else {
+                put(key, value);
+            }
+            refreshing.remove(key);
+        });
+    }
+}
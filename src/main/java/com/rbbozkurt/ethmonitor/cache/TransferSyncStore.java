@@ -0,0 +1,360 @@
+package com.rbbozkurt.ethmonitor.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * The transfer sync state of every wallet, kept in one append-only segment file per wallet, so that a sync only
+ * persists the transfers it newly fetched and its new cursor, however long the wallet's history already is.
+ * <p>
+ * A segment file holds one JSON line {@code {"t":transfer}} per ingested transfer, oldest first, and closes every
+ * sync with a commit line {@code {"c":cursor,"n":count}}. Transfers after the last commit line, left behind by a
+ * sync that did not finish, are ignored and overwritten by the next sync of the wallet.
+ * <p>
+ * Only a small {@link Head} per wallet is held in memory, in a cache bounded to the most recently used wallets;
+ * an evicted head is read back from its file on the next access. The transfers themselves are streamed from the
+ * file whenever they are needed, so memory does not grow with the histories held.
+ */
+public class TransferSyncStore {
+
+    private static final Logger logger = Logger.getLogger(TransferSyncStore.class.getName());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final int FLUSH_BYTES = 64 * 1024;  // Lines a sync buffers before writing them out
+
+    /**
+     * The committed state of a wallet's history.
+     *
+     * @param cursor the last block whose transfers are all ingested, -1 if none is
+     * @param count the number of ingested transfers
+     * @param length the length in bytes of the committed part of the segment file
+     * @param tailIds the unique ids of the ingested transfers after the cursor, all in the block after it
+     */
+    public record Head(long cursor, int count, long length, Set<String> tailIds) {
+
+        public static final Head EMPTY = new Head(-1, 0, 0, Set.of());
+    }
+
+    private final Path directory;  // Directory of the segment files
+    private final CacheLayer<String, Head> heads;  // Committed state by state key, most recently used only
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();  // Open syncs by state key
+
+    /**
+     * Constructs a store keeping its segment files in the given directory, which is created on the first write.
+     * Use {@link CacheLayerFactory} to share one instance per directory.
+     *
+     * @param directory the directory of the segment files
+     * @param maxHeads the most wallets whose head is held in memory
+     */
+    public TransferSyncStore(Path directory, int maxHeads) {
+        this.directory = directory;
+        this.heads = new CaffeineCacheLayerBuilder<String, Head>()
+                .withMaxSize(maxHeads)
+                .withTTL(Duration.ofDays(1))
+                .build();
+    }
+
+    /**
+     * Returns the committed state of a wallet's history, reading it from its segment file if it is not in memory.
+     *
+     * @param key the state key of the wallet
+     * @return the head, {@link Head#EMPTY} if nothing is ingested
+     */
+    public Head head(String key) {
+        return heads.getOrCompute(key, this::scan);
+    }
+
+    /**
+     * Streams the oldest ingested transfers of a wallet from its segment file.
+     *
+     * @param key the state key of the wallet
+     * @param maxCount the maximum number of transfers to stream
+     * @return the stream of at most {@code maxCount} committed transfers, oldest first, to be closed by the caller
+     */
+    public TransferStream read(String key, int maxCount) {
+        int limit = Math.min(maxCount, head(key).count());
+        if (limit <= 0) {
+            return TransferStream.of(List.of());
+        }
+        BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(file(key), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file(key), e);
+        }
+        return new SegmentStream(reader, limit);
+    }
+
+    /**
+     * Starts persisting a sync of a wallet. Only one sync of a wallet is persisted at a time, and only on top of
+     * the state it started from.
+     *
+     * @param key the state key of the wallet
+     * @param base the head the sync started from
+     * @return the session receiving the newly ingested transfers, or {@code null} if another sync of the wallet
+     *         is being persisted or has been committed since {@code base}, or the segment file cannot be opened
+     */
+    public Session begin(String key, Head base) {
+        Session session = new Session(key, base);
+        if (sessions.putIfAbsent(key, session) != null) {
+            return null;
+        }
+        if (!head(key).equals(base)) {
+            sessions.remove(key, session);
+            return null;
+        }
+        try {
+            session.open();
+            return session;
+        } catch (IOException e) {
+            sessions.remove(key, session);
+            logger.warning("⚠️ Failed to open " + file(key) + ", the sync is not persisted: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The persisting of one sync: the transfers it ingests are appended to the segment file as they are added,
+     * and become visible once the sync is committed.
+     */
+    public final class Session {
+
+        private final String key;
+        private final Head base;  // The head the sync started from
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();  // Lines not written out yet
+        private FileChannel channel;
+        private long length;  // Bytes written, committed or not
+        private int added;  // Transfers added by the sync
+        private long tailBlock;  // Block of the latest transfer
+        private Set<String> tailIds;  // Ids of the transfers in the tail block
+        private boolean failed;
+
+        private Session(String key, Head base) {
+            this.key = key;
+            this.base = base;
+            this.length = base.length();
+            this.tailBlock = base.cursor() + 1;
+            this.tailIds = new HashSet<>(base.tailIds());
+        }
+
+        private void open() throws IOException {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(file(key), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Drops what an unfinished sync left after the last commit
+            channel.truncate(base.length());
+            channel.position(base.length());
+        }
+
+        /**
+         * Appends a newly ingested transfer. A transfer must not be older than the ones ingested before it.
+         *
+         * @param transfer the transfer
+         */
+        public void add(Transfer transfer) {
+            long block = transfer.blockNumber();
+            if (block > tailBlock) {
+                tailBlock = block;
+                tailIds = new HashSet<>();
+            }
+            if (block == tailBlock && transfer.getUniqueId() != null) {
+                tailIds.add(transfer.getUniqueId());
+            }
+            added++;
+            ObjectNode line = objectMapper.createObjectNode();
+            line.set("t", objectMapper.valueToTree(transfer));
+            write(line);
+            if (buffer.size() >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        /**
+         * Makes the added transfers visible and advances the cursor, ending the session.
+         *
+         * @param cursor the last block whose transfers are now all ingested
+         */
+        public void commit(long cursor) {
+            int count = base.count() + added;
+            write(objectMapper.createObjectNode().put("c", cursor).put("n", count));
+            flush();
+            close();
+            if (!failed) {
+                heads.put(key, new Head(cursor, count, length, tailBlock > cursor ? Set.copyOf(tailIds) : Set.of()));
+            }
+        }
+
+        /**
+         * Ends the session without committing; the added transfers are discarded by the next sync.
+         */
+        public void abort() {
+            close();
+        }
+
+        private void write(ObjectNode line) {
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            buffer.writeBytes(bytes);
+            length += bytes.length;
+        }
+
+        private void flush() {
+            if (failed || buffer.size() == 0) {
+                buffer.reset();
+                return;
+            }
+            try {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+                failed = true;
+                logger.warning("⚠️ Failed to append to " + file(key) + ", the sync is not persisted: " + e.getMessage());
+            }
+            buffer.reset();
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failed = true;
+                logger.warning("⚠️ Failed to close " + file(key) + ": " + e.getMessage());
+            }
+            sessions.remove(key, this);
+        }
+    }
+
+    /**
+     * Streams the transfer lines of a segment file up to a number of committed transfers.
+     */
+    private static final class SegmentStream implements TransferStream {
+
+        private final BufferedReader reader;
+        private final int limit;  // Committed transfers to read
+        private int read;
+        private Transfer next;
+
+        SegmentStream(BufferedReader reader, int limit) {
+            this.reader = reader;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && read < limit) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    JsonNode node = objectMapper.readTree(line);
+                    if (node.has("t")) {
+                        next = objectMapper.treeToValue(node.get("t"), Transfer.class);
+                        read++;
+                    }
+                }
+                return next != null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read a transfer segment", e);
+            }
+        }
+
+        @Override
+        public Transfer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transfer transfer = next;
+            next = null;
+            return transfer;
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                logger.fine(() -> "Failed to close a transfer segment: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the committed state of a wallet from its segment file. Reading stops at the first line that cannot
+     * be parsed, such as one cut short by a crash; only what the last commit before it covers counts.
+     *
+     * @param key the state key of the wallet
+     * @return the head, {@link Head#EMPTY} if the file does not exist or holds no commit
+     */
+    private Head scan(String key) {
+        Path file = file(key);
+        if (!Files.exists(file)) {
+            return Head.EMPTY;
+        }
+
+        Head committed = Head.EMPTY;
+        long length = 0;
+        int count = 0;
+        long tailBlock = -1;
+        Set<String> tailIds = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                length += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    break;
+                }
+                if (node.has("t")) {
+                    Transfer transfer = objectMapper.treeToValue(node.get("t"), Transfer.class);
+                    count++;
+                    if (transfer.blockNumber() > tailBlock) {
+                        tailBlock = transfer.blockNumber();
+                        tailIds = new HashSet<>();
+                    }
+                    if (transfer.getUniqueId() != null) {
+                        tailIds.add(transfer.getUniqueId());
+                    }
+                } else if (node.has("c")) {
+                    long cursor = node.get("c").asLong();
+                    committed = new Head(cursor, count, length, tailBlock > cursor ? Set.copyOf(tailIds) : Set.of());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("⚠️ Failed to read " + file + ", keeping its last readable commit: " + e.getMessage());
+        }
+        return committed;
+    }
+
+    /**
+     * Returns the segment file of a wallet.
+     *
+     * @param key the state key of the wallet
+     * @return the file, named after the key with characters unsafe in file names replaced
+     */
+    private Path file(String key) {
+        return directory.resolve(key.replaceAll("[^0-9A-Za-z.,_-]", "_") + ".jsonl");
+    }
+}
@@ -1,11 +1,13 @@
 package com.rbbozkurt.ethmonitor.cli;
 
+import com.rbbozkurt.ethmonitor.cache.CacheLayerFactory;
 import com.rbbozkurt.ethmonitor.service.impls.AlchemyWalletAnalyzerBuilder;
 import com.rbbozkurt.ethmonitor.service.interfaces.SwapDetectorService;
 import com.rbbozkurt.ethmonitor.service.interfaces.WalletAnalyzer;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport;
 import com.rbbozkurt.ethmonitor.factory.AlchemyServiceFactory;
 import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.service.interfaces.HistoricalPriceService;
 import com.rbbozkurt.ethmonitor.service.interfaces.TransferService;
 import com.rbbozkurt.ethmonitor.util.AddressUtils;
 import picocli.CommandLine;
@@ -22,7 +24,17 @@ import java.util.concurrent.Callable;
         name = "eth-monitor",
         mixinStandardHelpOptions = true,
         version = "2.0",
-        description = "Monitors an Ethereum address and prints transaction & token stats."
+        description = "Monitors an Ethereum address and prints transaction & token stats.",
+        footer = {
+                "",
+                "Files written by default:",
+                "  ~/.eth-monitor/token-metadata.jsonl  Token metadata, kept across runs",
+                "  ~/.eth-monitor/transfer-sync/        Transfers per wallet, so later runs",
+                "                                       only fetch newer ones",
+                "Move them, or set none to write nothing, with the JVM system properties:",
+                "  -D" + CacheLayerFactory.METADATA_STORE_PROPERTY + "=<file>|none",
+                "  -D" + CacheLayerFactory.SYNC_STORE_PROPERTY + "=<directory>|none"
+        }
 )
 public class EthMonitorCLI implements Callable<Integer> {
 
@@ -80,11 +92,15 @@ public class EthMonitorCLI implements Callable<Integer> {
         SwapDetectorService swapDetectorService = AlchemyServiceFactory.getInstance()
                 .getSwapDetectorService();
 
+        HistoricalPriceService historicalPriceService = AlchemyServiceFactory.getInstance()
+                .getHistoricalPriceService(pricesApiKey);
+
         // Build the wallet analyzer
         WalletAnalyzer analyzer = new AlchemyWalletAnalyzerBuilder()
                 .withTransferService(transferService)
                 .withBalanceService(balanceService)
                 .withSwapDetectorService(swapDetectorService)
+                .withHistoricalPriceService(historicalPriceService)
                 .build();
 
         // Validate the address
@@ -0,0 +1,126 @@
+package com.rbbozkurt.ethmonitor.cli;
+
+import com.rbbozkurt.ethmonitor.cache.AppendOnlyFileCacheLayer;
+import com.rbbozkurt.ethmonitor.cache.CacheLayerFactory;
+import com.rbbozkurt.ethmonitor.dto.TokenMetadataResponse;
+import com.rbbozkurt.ethmonitor.registry.TokenRegistry;
+import com.rbbozkurt.ethmonitor.util.AddressUtils;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Command that regenerates the {@link TokenRegistry} file from the local token metadata store, which holds the
+ * metadata of every token previously analyzed. Tokens without decimals or with symbols unfit for the registry
+ * format are left out. By default the bundled registry entries are kept and the version is incremented.
+ * <p>
+ * The registry is written to {@code ~/.eth-monitor/token-registry.csv} unless {@code --output} says otherwise, never
+ * relative to the working directory. To bundle it, copy it over {@code src/main/resources/tokens/token-registry.csv};
+ * to use it without a rebuild, point {@value TokenRegistry#REGISTRY_PROPERTY} at it.
+ * <p>
+ * Run with {@code mvn exec:java -Dexec.mainClass=com.rbbozkurt.ethmonitor.cli.TokenRegistryCommand}.
+ */
+@Command(
+        name = "eth-monitor-registry",
+        mixinStandardHelpOptions = true,
+        description = "Regenerates the bundled token registry from the local token metadata store."
+)
+public class TokenRegistryCommand implements Callable<Integer> {
+
+    @Option(names = {"-s", "--store"}, description = "Token metadata store to read (default: the configured store, ~/.eth-monitor/token-metadata.jsonl unless -Dethmonitor.tokens.metadataStore is set)")
+    private Path store;
+
+    @Option(names = {"-o", "--output"}, description = "Registry file to write (default: ${DEFAULT-VALUE}); copy it to "
+            + "src/main/resources/tokens/token-registry.csv to bundle it",
+            defaultValue = "${sys:user.home}/.eth-monitor/token-registry.csv")
+    private Path output;
+
+    @Option(names = {"--registry-version"}, description = "Version of the written registry (default: bundled version + 1)")
+    private Integer version;
+
+    @Option(names = {"--no-merge"}, description = "Leave out the entries of the bundled registry")
+    private boolean noMerge;
+
+    /**
+     * Reads the metadata store and writes the registry file.
+     *
+     * @return the exit code, 1 if the store does not exist
+     * @throws Exception if the registry cannot be written
+     */
+    @Override
+    public Integer call() throws Exception {
+        Path source = store != null ? store : CacheLayerFactory.getInstance().getMetadataStorePath();
+        if (source == null || !Files.exists(source)) {
+            System.err.println("❌ Token metadata store not found: " + source);
+            return 1;
+        }
+
+        TokenRegistry bundled = TokenRegistry.getInstance();
+        Map<String, TokenRegistry.Token> tokens = new LinkedHashMap<>();
+        if (!noMerge) {
+            bundled.tokens().forEach(token -> tokens.put(token.address(), token));
+        }
+
+        int added = 0;
+        Map<String, TokenMetadataResponse> metadata = new AppendOnlyFileCacheLayer<>(source, TokenMetadataResponse.class).snapshot();
+        for (Map.Entry<String, TokenMetadataResponse> entry : metadata.entrySet()) {
+            TokenRegistry.Token token = toToken(entry.getKey(), entry.getValue());
+            if (token != null && tokens.put(token.address(), token) == null) {
+                added++;
+            }
+        }
+
+        int registryVersion = version != null ? version : bundled.getVersion() + 1;
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            TokenRegistry.write(out, registryVersion, tokens.values());
+        }
+
+        System.out.println("📚 Wrote token registry v" + registryVersion + " with " + tokens.size() + " tokens ("
+                + added + " new from " + metadata.size() + " stored) to " + output);
+        System.out.println("   Copy it to src/main/resources/tokens/token-registry.csv to bundle it, or run with -D"
+                + TokenRegistry.REGISTRY_PROPERTY + "=" + output.toAbsolutePath() + " to use it as is");
+        return 0;
+    }
+
+    /**
+     * Converts a stored metadata entry into a registry token.
+     *
+     * @param address the contract address
+     * @param metadata the stored metadata
+     * @return the token, or {@code null} if the entry has no usable decimals or symbol
+     */
+    private static TokenRegistry.Token toToken(String address, TokenMetadataResponse metadata) {
+        if (!AddressUtils.isValidAddress(address) || metadata == null || !metadata.hasMetadata()) {
+            return null;
+        }
+        Integer decimals = metadata.getResult().getDecimals();
+        String symbol = metadata.getResult().getSymbol();
+        // The registry is a comma-separated, line-based file
+        if (!TokenRegistry.isStorable(decimals) || symbol == null || !symbol.matches("[^,\\s\\p{Cntrl}]{1,32}")) {
+            return null;
+        }
+        return new TokenRegistry.Token(address.toLowerCase(Locale.ROOT), decimals, symbol);
+    }
+
+    /**
+     * Entry point of the registry command.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new TokenRegistryCommand()).execute(args));
+    }
+}
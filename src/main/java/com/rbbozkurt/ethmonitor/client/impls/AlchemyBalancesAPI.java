@@ -7,6 +7,8 @@ import com.rbbozkurt.ethmonitor.dto.BalanceResponse;
 import com.rbbozkurt.ethmonitor.dto.EthBalanceResponse;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Implementation of the {@link BalancesAPI} that interacts with the Alchemy API
@@ -26,7 +28,7 @@ public class AlchemyBalancesAPI implements BalancesAPI {
             String apiKey,
             HttpClientFactory factory
     ) {
-        this.httpClient = factory.getClient("https://eth-mainnet.g.alchemy.com/v2/" + apiKey);
+        this.httpClient = factory.getJsonRpcClient(AlchemyEndpoints.nodeUrl(apiKey));
     }
 
     /**
@@ -38,14 +40,7 @@ public class AlchemyBalancesAPI implements BalancesAPI {
      */
     @Override
     public BalanceResponse getTokenBalances(String walletAddress) throws IOException {
-            String requestBody = """
-                {
-                  "jsonrpc": "2.0",
-                  "id": 1,
-                  "method": "alchemy_getTokenBalances",
-                  "params": ["%s"]
-                }
-                """.formatted(walletAddress);
+            String requestBody = buildTokenBalancesRequest(walletAddress);
             try {
                 return httpClient.post(requestBody, BalanceResponse.class);
             } catch (IOException e) {
@@ -63,7 +58,67 @@ public class AlchemyBalancesAPI implements BalancesAPI {
      */
     @Override
     public EthBalanceResponse getEthBalance(String walletAddress) throws IOException {
-            String requestBody = """
+            String requestBody = buildEthBalanceRequest(walletAddress);
+            try {
+                return httpClient.post(requestBody, EthBalanceResponse.class);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to fetch ETH balance", e);
+            }
+    }
+
+    /**
+     * Asynchronously retrieves the token balances for the given wallet address using the Alchemy API.
+     *
+     * @param walletAddress the wallet address to query
+     * @return a future completing with the token balances for the wallet
+     */
+    @Override
+    public CompletableFuture<BalanceResponse> getTokenBalancesAsync(String walletAddress) {
+        return httpClient.postAsync(buildTokenBalancesRequest(walletAddress), BalanceResponse.class)
+                .exceptionally(e -> {
+                    throw new CompletionException("Failed to fetch token balances", e);
+                });
+    }
+
+    /**
+     * Asynchronously retrieves the ETH balance for the given wallet address using the Alchemy API.
+     *
+     * @param walletAddress the wallet address to query
+     * @return a future completing with the ETH balance for the wallet
+     */
+    @Override
+    public CompletableFuture<EthBalanceResponse> getEthBalanceAsync(String walletAddress) {
+        return httpClient.postAsync(buildEthBalanceRequest(walletAddress), EthBalanceResponse.class)
+                .exceptionally(e -> {
+                    throw new CompletionException("Failed to fetch ETH balance", e);
+                });
+    }
+
+    /**
+     * Builds the JSON-RPC request body for {@code alchemy_getTokenBalances}.
+     *
+     * @param walletAddress the wallet address to query
+     * @return the JSON request body as a string
+     */
+    private String buildTokenBalancesRequest(String walletAddress) {
+        return """
+                {
+                  "jsonrpc": "2.0",
+                  "id": 1,
+                  "method": "alchemy_getTokenBalances",
+                  "params": ["%s"]
+                }
+                """.formatted(walletAddress);
+    }
+
+    /**
+     * Builds the JSON-RPC request body for {@code eth_getBalance} at the latest block.
+     *
+     * @param walletAddress the wallet address to query
+     * @return the JSON request body as a string
+     */
+    private String buildEthBalanceRequest(String walletAddress) {
+        return """
                 {
                   "jsonrpc": "2.0",
                   "id": 1,
@@ -71,10 +126,5 @@ public class AlchemyBalancesAPI implements BalancesAPI {
                   "params": ["%s", "latest"]
                 }
                 """.formatted(walletAddress);
-            try {
-                return httpClient.post(requestBody, EthBalanceResponse.class);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to fetch ETH balance", e);
-            }
     }
 }
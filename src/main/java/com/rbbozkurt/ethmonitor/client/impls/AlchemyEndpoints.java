@@ -0,0 +1,38 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+/**
+ * Resolves the base URLs of the Alchemy endpoints. They default to the public Ethereum mainnet
+ * endpoints and can be pointed elsewhere, e.g. at a local stub server, through the
+ * {@value #NODE_URL_PROPERTY} and {@value #PRICES_URL_PROPERTY} system properties.
+ * The URLs are read whenever an API client is created.
+ */
+public final class AlchemyEndpoints {
+
+    public static final String NODE_URL_PROPERTY = "ethmonitor.alchemy.nodeUrl";  // Overrides the node endpoint
+    public static final String PRICES_URL_PROPERTY = "ethmonitor.alchemy.pricesUrl";  // Overrides the prices endpoint
+
+    private static final String DEFAULT_NODE_URL = "https://eth-mainnet.g.alchemy.com/v2";
+    private static final String DEFAULT_PRICES_URL = "https://api.g.alchemy.com/prices/v1";
+
+    private AlchemyEndpoints() {}
+
+    /**
+     * Returns the JSON-RPC node URL for the given API key.
+     *
+     * @param apiKey the Alchemy API key
+     * @return the node URL including the API key
+     */
+    public static String nodeUrl(String apiKey) {
+        return System.getProperty(NODE_URL_PROPERTY, DEFAULT_NODE_URL) + "/" + apiKey;
+    }
+
+    /**
+     * Returns the Prices API URL for the given API key.
+     *
+     * @param apiKey the Alchemy API key
+     * @return the prices URL including the API key
+     */
+    public static String pricesUrl(String apiKey) {
+        return System.getProperty(PRICES_URL_PROPERTY, DEFAULT_PRICES_URL) + "/" + apiKey;
+    }
+}
@@ -4,28 +4,58 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
 import okhttp3.*;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
  * An implementation of {@link HttpClient} using OkHttp to perform HTTP requests
- * against the Alchemy API. This class supports both GET and POST requests.
+ * against the Alchemy API. This class supports both GET and POST requests, either
+ * blocking or asynchronously through OkHttp's dispatcher. Responses are decoded straight
+ * from the body's byte stream and rejected once they exceed a configurable size.
  */
 public class AlchemyHttpClient implements HttpClient {
 
     private static final Logger logger = Logger.getLogger(AlchemyHttpClient.class.getName());
     private static final MediaType JSON = MediaType.get("application/json");
-    private final OkHttpClient client = new OkHttpClient();
+
+    public static final long DEFAULT_MAX_RESPONSE_BYTES = 32L * 1024 * 1024;  // Default response size limit (32 MiB)
+
+    private final OkHttpClient client;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final String baseUrl;
+    private final long maxResponseBytes;
 
     /**
-     * Constructs a new {@code AlchemyHttpClient} with the specified base URL.
+     * Constructs a new {@code AlchemyHttpClient} with the specified base URL, its own
+     * OkHttp client and the default response size limit.
      *
      * @param baseUrl the base URL to use for requests
      */
     public AlchemyHttpClient(String baseUrl) {
+        this(new OkHttpClient(), baseUrl, DEFAULT_MAX_RESPONSE_BYTES);
+    }
+
+    /**
+     * Constructs a new {@code AlchemyHttpClient} on top of an existing OkHttp client, typically
+     * one owned by a {@link SharedHttpTransport} so its connection pool and dispatcher are shared.
+     *
+     * @param client the OkHttp client used to execute requests
+     * @param baseUrl the base URL to use for requests
+     * @param maxResponseBytes the maximum number of response body bytes to accept
+     */
+    public AlchemyHttpClient(OkHttpClient client, String baseUrl, long maxResponseBytes) {
+        this.client = client;
         this.baseUrl = baseUrl;
+        this.maxResponseBytes = maxResponseBytes;
     }
 
     /**
@@ -39,26 +69,8 @@ public class AlchemyHttpClient implements HttpClient {
      */
     @Override
     public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
-        Request request = new Request.Builder()
-                .url(baseUrl)
-                .post(RequestBody.create(jsonBody, JSON))
-                .addHeader("accept", "application/json")
-                .addHeader("content-type", "application/json")
-                .build();
-
-        try (Response response = client.newCall(request).execute()) {
-
-            if (response.body() != null) {
-                String responseBody = response.body().string();
-
-                if (!response.isSuccessful()) {
-                    throw new IOException("HTTP POST request failed: " + response.code());
-                }
-
-                return objectMapper.readValue(responseBody, responseType);
-            } else {
-                throw new IOException("HTTP POST response body is null");
-            }
+        try (Response response = client.newCall(buildPostRequest(jsonBody)).execute()) {
+            return readResponse(response, responseType, "POST");
         }
     }
 
@@ -73,24 +85,205 @@ public class AlchemyHttpClient implements HttpClient {
      */
     @Override
     public <T> T get(String url, Class<T> responseType) throws IOException {
-        Request request = new Request.Builder()
+        try (Response response = client.newCall(buildGetRequest(url)).execute()) {
+            return readResponse(response, responseType, "GET");
+        }
+    }
+
+    /**
+     * Enqueues an HTTP POST request with a JSON body on OkHttp's dispatcher.
+     * No thread is held while the request is in flight.
+     *
+     * @param jsonBody the request body as a JSON string
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the deserialized response
+     */
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        return enqueue(buildPostRequest(jsonBody), responseType, "POST");
+    }
+
+    /**
+     * Enqueues an HTTP GET request on OkHttp's dispatcher.
+     * No thread is held while the request is in flight.
+     *
+     * @param url the full URL to send the GET request to
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the deserialized response
+     */
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return enqueue(buildGetRequest(url), responseType, "GET");
+    }
+
+    /**
+     * Builds a JSON POST request against the base URL.
+     *
+     * @param jsonBody the request body as a JSON string
+     * @return the request
+     */
+    private Request buildPostRequest(String jsonBody) {
+        return new Request.Builder()
+                .url(baseUrl)
+                .post(RequestBody.create(jsonBody, JSON))
+                .addHeader("accept", "application/json")
+                .addHeader("content-type", "application/json")
+                .build();
+    }
+
+    /**
+     * Builds a GET request against the given URL.
+     *
+     * @param url the full URL to send the GET request to
+     * @return the request
+     */
+    private Request buildGetRequest(String url) {
+        return new Request.Builder()
                 .url(url)
                 .get()
                 .addHeader("accept", "application/json")
                 .build();
+    }
 
-        try (Response response = client.newCall(request).execute()) {
+    /**
+     * Enqueues the request and bridges OkHttp's callback to a {@link CompletableFuture}.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param request the request to enqueue
+     * @param responseType the class to deserialize the response into
+     * @param method the HTTP method name, used in error messages
+     * @param <T> the type of the response object
+     * @return a future completing with the deserialized response
+     */
+    private <T> CompletableFuture<T> enqueue(Request request, Class<T> responseType, String method) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = client.newCall(request);
 
-            if (response.body() != null) {
-                String responseBody = response.body().string();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
 
-                if (!response.isSuccessful()) {
-                    throw new IOException("HTTP GET request failed: " + response.code());
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(readResponse(response, responseType, method));
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
                 }
+            }
+        });
+
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Validates the response status and size, then deserializes the body directly from its
+     * byte stream without first materializing it as a {@code String}. A {@code String} response
+     * type receives the raw body instead, e.g. for recording it verbatim.
+     *
+     * @param response the HTTP response
+     * @param responseType the class to deserialize the response into
+     * @param method the HTTP method name, used in error messages
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     * @throws IOException if the request failed, the response is too large or cannot be parsed
+     */
+    private <T> T readResponse(Response response, Class<T> responseType, String method) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            throw new IOException("HTTP " + method + " response body is null");
+        }
+
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException("HTTP " + method + " request failed: " + response.code(),
+                    response.code(), parseRetryAfter(response.header("Retry-After")));
+        }
+
+        // Fail fast when the server announces a body larger than we are willing to read
+        long contentLength = body.contentLength();
+        if (contentLength > maxResponseBytes) {
+            throw new IOException("HTTP " + method + " response of " + contentLength
+                    + " bytes exceeds limit of " + maxResponseBytes + " bytes");
+        }
+
+        try (InputStream in = new LimitedInputStream(body.byteStream(), maxResponseBytes, method)) {
+            if (responseType == String.class) {
+                return responseType.cast(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return objectMapper.readValue(in, responseType);
+        }
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given either as delay seconds or as an HTTP date.
+     *
+     * @param value the header value, may be {@code null}
+     * @return the requested delay, or {@code null} if the header is absent or malformed
+     */
+    private static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Instant retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration delay = Duration.between(Instant.now(), retryAt);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * An input stream that fails once more than a fixed number of bytes has been read,
+     * covering chunked responses that do not announce their length up front.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private final String method;
+        private long bytesRead;
+
+        LimitedInputStream(InputStream in, long limit, String method) {
+            super(in);
+            this.limit = limit;
+            this.method = method;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
 
-                return objectMapper.readValue(responseBody, responseType);
-            } else {
-                throw new IOException("HTTP GET response body is null");
+        private void count(int n) throws IOException {
+            bytesRead += n;
+            if (bytesRead > limit) {
+                throw new IOException("HTTP " + method + " response exceeds limit of " + limit + " bytes");
             }
         }
     }
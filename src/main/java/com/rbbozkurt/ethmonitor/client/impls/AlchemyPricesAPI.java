@@ -4,26 +4,39 @@ import com.rbbozkurt.ethmonitor.cache.CacheLayer;
 import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
 import com.rbbozkurt.ethmonitor.factory.HttpClientFactory;
 import com.rbbozkurt.ethmonitor.client.interfaces.PricesAPI;
+import com.rbbozkurt.ethmonitor.dto.HistoricalPriceResponse;
 import com.rbbozkurt.ethmonitor.dto.TokenPriceResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Implementation of the {@link PricesAPI} using the Alchemy Prices API to fetch USD prices
- * for tokens by address or symbol, with support for response caching.
+ * for tokens by address or symbol, current or historical, with support for response caching.
  */
 public class AlchemyPricesAPI implements PricesAPI {
 
     private static final Logger logger = Logger.getLogger(AlchemyPricesAPI.class.getName());
 
-    private static final String POST_BASE_URL = "https://api.g.alchemy.com/prices/v1";
-    private static final String GET_BASE_URL = "https://api.g.alchemy.com/prices/v1";
+    public static final int MAX_ADDRESSES_PER_REQUEST = 25;  // Most addresses the by-address endpoint accepts per request
+    public static final String HISTORICAL_INTERVAL = "1h";  // Interval of historical price points
+    public static final Duration MAX_HISTORICAL_RANGE = Duration.ofDays(30);  // Longest range the historical endpoint accepts at hourly interval
 
-    private final String apiKey;
+    private final String baseUrl;
     private final HttpClient postClient;
     private final HttpClient getClient;
+    private final HttpClient historicalClient;
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
@@ -37,10 +50,10 @@ public class AlchemyPricesAPI implements PricesAPI {
             String apiKey,
             HttpClientFactory factory
     ) {
-        this.apiKey = apiKey;
-        String postUrl = POST_BASE_URL + "/" + apiKey + "/tokens/by-address";
-        this.postClient = factory.getClient(postUrl);
-        this.getClient = factory.getClient(GET_BASE_URL);
+        this.baseUrl = AlchemyEndpoints.pricesUrl(apiKey);
+        this.postClient = factory.getClient(baseUrl + "/tokens/by-address");
+        this.getClient = factory.getClient(baseUrl);
+        this.historicalClient = factory.getClient(baseUrl + "/tokens/historical");
     }
 
     /**
@@ -52,10 +65,7 @@ public class AlchemyPricesAPI implements PricesAPI {
      */
     @Override
     public TokenPriceResponse getUsdPrice(String tokenAddress) throws Exception {
-            String requestBody = String.format(
-                    "{\"addresses\":[{\"network\":\"eth-mainnet\",\"address\":\"%s\"}]}",
-                    tokenAddress
-            );
+            String requestBody = buildByAddressRequest(tokenAddress);
             try {
                 TokenPriceResponse response = postClient.post(requestBody, TokenPriceResponse.class);
                 logger.fine("✅ Price response received for address " + tokenAddress + ": " +
@@ -67,6 +77,41 @@ public class AlchemyPricesAPI implements PricesAPI {
             }
     }
 
+    /**
+     * Gets the USD prices for several tokens by their Ethereum addresses using the Alchemy Prices API,
+     * sending at most {@value #MAX_ADDRESSES_PER_REQUEST} addresses per request. A chunk whose request
+     * fails only leaves its own tokens out of the response.
+     *
+     * @param tokenAddresses Ethereum addresses of the tokens
+     * @return {@link TokenPriceResponse} containing the price info of every token whose chunk was answered
+     * @throws Exception if every API request fails
+     */
+    @Override
+    public TokenPriceResponse getUsdPrices(Collection<String> tokenAddresses) throws Exception {
+        List<List<String>> chunks = chunk(tokenAddresses);
+        List<TokenPriceResponse.TokenPriceEntry> entries = new ArrayList<>();
+        Exception failure = null;
+        int failedChunks = 0;
+        for (List<String> chunk : chunks) {
+            try {
+                TokenPriceResponse response = postClient.post(buildByAddressRequest(chunk), TokenPriceResponse.class);
+                if (response.getData() != null) {
+                    entries.addAll(response.getData());
+                }
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "❌ Failed to fetch prices for " + chunk.size() + " addresses | Error: " + e.getMessage(), e);
+                failure = e;
+                failedChunks++;
+            }
+        }
+        if (failure != null && failedChunks == chunks.size()) {
+            throw new RuntimeException("Failed to fetch prices by address", failure);
+        }
+        logPartialPrices(failedChunks, chunks.size());
+        logger.fine(() -> "✅ Price responses received for " + tokenAddresses.size() + " addresses");
+        return merged(entries);
+    }
+
     /**
      * Gets the USD price for a token by its symbol using the Alchemy Prices API.
      *
@@ -76,7 +121,7 @@ public class AlchemyPricesAPI implements PricesAPI {
      */
     @Override
     public TokenPriceResponse getUsdPriceBySymbol(String symbol) throws Exception {
-            String fullUrl = String.format("%s/%s/tokens/by-symbol?symbols=%s", GET_BASE_URL, apiKey, symbol);
+            String fullUrl = buildBySymbolUrl(symbol);
             try {
                 TokenPriceResponse response = getClient.get(fullUrl, TokenPriceResponse.class);
                 logger.fine("✅ Price response received for symbol " + symbol + ": " +
@@ -87,4 +132,283 @@ public class AlchemyPricesAPI implements PricesAPI {
                 throw new RuntimeException("Failed to fetch price by symbol", e);
             }
     }
+
+    /**
+     * Gets the hourly USD prices of a token over a time range using the Alchemy Prices API, requesting at
+     * most {@link #MAX_HISTORICAL_RANGE} per request.
+     *
+     * @param token Ethereum address of the token, or its symbol for native assets (e.g. ETH)
+     * @param startTime start of the range, inclusive
+     * @param endTime end of the range, exclusive
+     * @return {@link HistoricalPriceResponse} containing the prices of the whole range
+     * @throws Exception if an API request or parsing fails
+     */
+    @Override
+    public HistoricalPriceResponse getHistoricalUsdPrices(String token, Instant startTime, Instant endTime) throws Exception {
+        List<HistoricalPriceResponse> responses = new ArrayList<>();
+        for (Instant[] window : windows(startTime, endTime)) {
+            try {
+                responses.add(historicalClient.post(buildHistoricalRequest(token, window[0], window[1]), HistoricalPriceResponse.class));
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "❌ Failed to fetch historical prices of " + token + " | Error: " + e.getMessage(), e);
+                throw new RuntimeException("Failed to fetch historical prices", e);
+            }
+        }
+        logger.fine(() -> "✅ Historical prices received for " + token + " from " + startTime + " to " + endTime);
+        return mergedSeries(responses);
+    }
+
+    /**
+     * Asynchronously gets the USD price for a token by its Ethereum address using the Alchemy Prices API.
+     *
+     * @param tokenAddress Ethereum address of the token
+     * @return a future completing with the {@link TokenPriceResponse} containing the price info
+     */
+    @Override
+    public CompletableFuture<TokenPriceResponse> getUsdPriceAsync(String tokenAddress) {
+        return postClient.postAsync(buildByAddressRequest(tokenAddress), TokenPriceResponse.class)
+                .handle((response, e) -> {
+                    if (e != null) {
+                        logger.log(Level.SEVERE, "❌ Failed to fetch price by address: " + tokenAddress + " | Error: " + e.getMessage(), e);
+                        throw new CompletionException("Failed to fetch price by address", e);
+                    }
+                    logger.fine(() -> "✅ Price response received for address " + tokenAddress);
+                    return response;
+                });
+    }
+
+    /**
+     * Asynchronously gets the USD prices for several tokens by their Ethereum addresses using the
+     * Alchemy Prices API. The chunks of {@value #MAX_ADDRESSES_PER_REQUEST} addresses are requested concurrently
+     * and complete independently: a chunk whose request fails only leaves its own tokens out of the response.
+     *
+     * @param tokenAddresses Ethereum addresses of the tokens
+     * @return a future completing with the {@link TokenPriceResponse} containing the price info of every token
+     *         whose chunk was answered, or exceptionally if every request fails
+     */
+    @Override
+    public CompletableFuture<TokenPriceResponse> getUsdPricesAsync(Collection<String> tokenAddresses) {
+        List<CompletableFuture<PricesChunk>> requests = chunk(tokenAddresses).stream()
+                .map(chunk -> postClient.postAsync(buildByAddressRequest(chunk), TokenPriceResponse.class)
+                        .handle((response, e) -> {
+                            if (e != null) {
+                                logger.log(Level.SEVERE, "❌ Failed to fetch prices for " + chunk.size() + " addresses | Error: " + e.getMessage(), e);
+                            }
+                            return new PricesChunk(response, e);
+                        }))
+                .toList();
+
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<TokenPriceResponse.TokenPriceEntry> entries = new ArrayList<>();
+                    Throwable failure = null;
+                    int failedChunks = 0;
+                    for (CompletableFuture<PricesChunk> request : requests) {
+                        PricesChunk chunk = request.join();
+                        if (chunk.failure() != null) {
+                            failure = chunk.failure();
+                            failedChunks++;
+                        } else if (chunk.response().getData() != null) {
+                            entries.addAll(chunk.response().getData());
+                        }
+                    }
+                    if (failure != null && failedChunks == requests.size()) {
+                        throw new CompletionException("Failed to fetch prices by address", failure);
+                    }
+                    logPartialPrices(failedChunks, requests.size());
+                    logger.fine(() -> "✅ Price responses received for " + tokenAddresses.size() + " addresses");
+                    return merged(entries);
+                });
+    }
+
+    /**
+     * Asynchronously gets the USD price for a token by its symbol using the Alchemy Prices API.
+     *
+     * @param symbol token symbol (e.g. ETH, USDC)
+     * @return a future completing with the {@link TokenPriceResponse} containing the price info
+     */
+    @Override
+    public CompletableFuture<TokenPriceResponse> getUsdPriceBySymbolAsync(String symbol) {
+        return getClient.getAsync(buildBySymbolUrl(symbol), TokenPriceResponse.class)
+                .handle((response, e) -> {
+                    if (e != null) {
+                        logger.log(Level.SEVERE, "❌ Failed to fetch price by symbol: " + symbol + " | Error: " + e.getMessage(), e);
+                        throw new CompletionException("Failed to fetch price by symbol", e);
+                    }
+                    logger.fine(() -> "✅ Price response received for symbol " + symbol);
+                    return response;
+                });
+    }
+
+    /**
+     * Asynchronously gets the hourly USD prices of a token over a time range using the Alchemy Prices API.
+     * The windows of at most {@link #MAX_HISTORICAL_RANGE} are requested concurrently.
+     *
+     * @param token Ethereum address of the token, or its symbol for native assets (e.g. ETH)
+     * @param startTime start of the range, inclusive
+     * @param endTime end of the range, exclusive
+     * @return a future completing with the {@link HistoricalPriceResponse} containing the prices of the whole range
+     */
+    @Override
+    public CompletableFuture<HistoricalPriceResponse> getHistoricalUsdPricesAsync(String token, Instant startTime, Instant endTime) {
+        List<CompletableFuture<HistoricalPriceResponse>> requests = windows(startTime, endTime).stream()
+                .map(window -> historicalClient.postAsync(buildHistoricalRequest(token, window[0], window[1]), HistoricalPriceResponse.class))
+                .toList();
+
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .handle((ignored, e) -> {
+                    if (e != null) {
+                        logger.log(Level.SEVERE, "❌ Failed to fetch historical prices of " + token + " | Error: " + e.getMessage(), e);
+                        throw new CompletionException("Failed to fetch historical prices", e);
+                    }
+                    logger.fine(() -> "✅ Historical prices received for " + token + " from " + startTime + " to " + endTime);
+                    return mergedSeries(requests.stream().map(CompletableFuture::join).toList());
+                });
+    }
+
+    /**
+     * The outcome of one chunk of a batched price lookup.
+     *
+     * @param response the response, or {@code null} if the request failed
+     * @param failure why the request failed, or {@code null} if it succeeded
+     */
+    private record PricesChunk(TokenPriceResponse response, Throwable failure) {}
+
+    /**
+     * Warns that the tokens of some chunks of a batched price lookup are left unpriced.
+     *
+     * @param failedChunks the number of chunks whose request failed
+     * @param chunks the number of chunks
+     */
+    private static void logPartialPrices(int failedChunks, int chunks) {
+        if (failedChunks > 0) {
+            logger.warning("⚠️ " + failedChunks + " of " + chunks + " price requests failed; their tokens are left unpriced");
+        }
+    }
+
+    /**
+     * Builds the request body for the by-address price endpoint.
+     *
+     * @param tokenAddress Ethereum address of the token
+     * @return the JSON request body as a string
+     */
+    private String buildByAddressRequest(String tokenAddress) {
+        return buildByAddressRequest(List.of(tokenAddress));
+    }
+
+    /**
+     * Builds the request body for the by-address price endpoint covering several tokens.
+     *
+     * @param tokenAddresses Ethereum addresses of the tokens
+     * @return the JSON request body as a string
+     */
+    private String buildByAddressRequest(List<String> tokenAddresses) {
+        ObjectNode body = mapper.createObjectNode();
+        ArrayNode addresses = body.putArray("addresses");
+        for (String tokenAddress : tokenAddresses) {
+            addresses.addObject()
+                    .put("network", "eth-mainnet")
+                    .put("address", tokenAddress);
+        }
+        return body.toString();
+    }
+
+    /**
+     * Splits token addresses, without duplicates, into chunks the by-address endpoint accepts in one request.
+     *
+     * @param tokenAddresses Ethereum addresses of the tokens
+     * @return the chunks of at most {@value #MAX_ADDRESSES_PER_REQUEST} addresses
+     */
+    private static List<List<String>> chunk(Collection<String> tokenAddresses) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(tokenAddresses));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_ADDRESSES_PER_REQUEST) {
+            chunks.add(distinct.subList(from, Math.min(distinct.size(), from + MAX_ADDRESSES_PER_REQUEST)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Builds the request body for the historical price endpoint. Addresses are sent with their network,
+     * anything else as a symbol.
+     *
+     * @param token Ethereum address or symbol of the token
+     * @param startTime start of the range
+     * @param endTime end of the range
+     * @return the JSON request body as a string
+     */
+    private String buildHistoricalRequest(String token, Instant startTime, Instant endTime) {
+        ObjectNode body = mapper.createObjectNode();
+        if (token.startsWith("0x")) {
+            body.put("network", "eth-mainnet").put("address", token);
+        } else {
+            body.put("symbol", token);
+        }
+        body.put("startTime", startTime.toString())
+                .put("endTime", endTime.toString())
+                .put("interval", HISTORICAL_INTERVAL);
+        return body.toString();
+    }
+
+    /**
+     * Splits a time range into consecutive windows the historical endpoint accepts in one request.
+     *
+     * @param startTime start of the range, inclusive
+     * @param endTime end of the range, exclusive
+     * @return the windows as {start, end} pairs, or none if the range is empty
+     */
+    private static List<Instant[]> windows(Instant startTime, Instant endTime) {
+        List<Instant[]> windows = new ArrayList<>();
+        for (Instant from = startTime; from.isBefore(endTime); from = from.plus(MAX_HISTORICAL_RANGE)) {
+            Instant to = from.plus(MAX_HISTORICAL_RANGE);
+            windows.add(new Instant[]{from, to.isBefore(endTime) ? to : endTime});
+        }
+        return windows;
+    }
+
+    /**
+     * Concatenates the price series of consecutive windows into one response.
+     *
+     * @param responses the responses of the windows, in time order
+     * @return the merged {@link HistoricalPriceResponse}
+     */
+    private static HistoricalPriceResponse mergedSeries(List<HistoricalPriceResponse> responses) {
+        HistoricalPriceResponse merged = new HistoricalPriceResponse();
+        List<HistoricalPriceResponse.PricePoint> points = new ArrayList<>();
+        for (HistoricalPriceResponse response : responses) {
+            if (merged.getCurrency() == null) {
+                merged.setSymbol(response.getSymbol());
+                merged.setNetwork(response.getNetwork());
+                merged.setAddress(response.getAddress());
+                merged.setCurrency(response.getCurrency());
+            }
+            if (response.getData() != null) {
+                points.addAll(response.getData());
+            }
+        }
+        merged.setData(points);
+        return merged;
+    }
+
+    /**
+     * Wraps the price entries of several responses into one response.
+     *
+     * @param entries the price entries
+     * @return the merged {@link TokenPriceResponse}
+     */
+    private static TokenPriceResponse merged(List<TokenPriceResponse.TokenPriceEntry> entries) {
+        TokenPriceResponse response = new TokenPriceResponse();
+        response.setData(entries);
+        return response;
+    }
+
+    /**
+     * Builds the full URL for the by-symbol price endpoint.
+     *
+     * @param symbol token symbol (e.g. ETH, USDC)
+     * @return the request URL
+     */
+    private String buildBySymbolUrl(String symbol) {
+        return String.format("%s/tokens/by-symbol?symbols=%s", baseUrl, symbol);
+    }
 }
@@ -7,6 +7,8 @@ import com.rbbozkurt.ethmonitor.client.interfaces.TokenAPI;
 import com.rbbozkurt.ethmonitor.dto.TokenMetadataResponse;
 import com.rbbozkurt.ethmonitor.cache.CacheLayer;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,7 +29,7 @@ public class AlchemyTokenAPI implements TokenAPI {
      * @param factory the factory for creating an {@link HttpClient}
      */
     public AlchemyTokenAPI(String apiKey, HttpClientFactory factory) {
-        this.httpClient = factory.getClient("https://eth-mainnet.g.alchemy.com/v2/" + apiKey);
+        this.httpClient = factory.getJsonRpcClient(AlchemyEndpoints.nodeUrl(apiKey));
     }
 
     /**
@@ -40,14 +42,7 @@ public class AlchemyTokenAPI implements TokenAPI {
      */
     @Override
     public TokenMetadataResponse getTokenMetadata(String tokenAddress) throws Exception {
-            String requestJson = """
-            {
-              "jsonrpc": "2.0",
-              "id": 1,
-              "method": "alchemy_getTokenMetadata",
-              "params": ["%s"]
-            }
-            """.formatted(tokenAddress);
+            String requestJson = buildMetadataRequest(tokenAddress);
             try {
                 TokenMetadataResponse response = httpClient.post(requestJson, TokenMetadataResponse.class);
                 logger.fine("✅ Token metadata response received for address " + tokenAddress + ": " +
@@ -59,4 +54,40 @@ public class AlchemyTokenAPI implements TokenAPI {
             }
 
     }
+
+    /**
+     * Asynchronously retrieves the metadata for a token given its Ethereum address.
+     *
+     * @param tokenAddress the Ethereum address of the token
+     * @return a future completing with the token metadata
+     */
+    @Override
+    public CompletableFuture<TokenMetadataResponse> getTokenMetadataAsync(String tokenAddress) {
+        return httpClient.postAsync(buildMetadataRequest(tokenAddress), TokenMetadataResponse.class)
+                .handle((response, e) -> {
+                    if (e != null) {
+                        logger.log(Level.SEVERE, "❌ Failed to fetch token metadata for address: " + tokenAddress + " | Error: " + e.getMessage(), e);
+                        throw new CompletionException("Failed to fetch token metadata", e);
+                    }
+                    logger.fine(() -> "✅ Token metadata response received for address " + tokenAddress);
+                    return response;
+                });
+    }
+
+    /**
+     * Builds the JSON-RPC request body for {@code alchemy_getTokenMetadata}.
+     *
+     * @param tokenAddress the Ethereum address of the token
+     * @return the JSON request body as a string
+     */
+    private String buildMetadataRequest(String tokenAddress) {
+        return """
+            {
+              "jsonrpc": "2.0",
+              "id": 1,
+              "method": "alchemy_getTokenMetadata",
+              "params": ["%s"]
+            }
+            """.formatted(tokenAddress);
+    }
 }
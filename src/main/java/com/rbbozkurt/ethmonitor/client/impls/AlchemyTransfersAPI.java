@@ -3,17 +3,28 @@ package com.rbbozkurt.ethmonitor.client.impls;
 import com.rbbozkurt.ethmonitor.factory.HttpClientFactory;
 import com.rbbozkurt.ethmonitor.client.interfaces.TransfersAPI;
 import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.dto.BlockNumberResponse;
 import com.rbbozkurt.ethmonitor.dto.TransferResponse;
 import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the {@link TransfersAPI} interface that interacts with the Alchemy API
- * to retrieve Ethereum asset transfers for a given address, with caching for improved performance.
+ * to retrieve Ethereum asset transfers sent or received by a given address, with caching for improved performance.
  */
 
 public class AlchemyTransfersAPI implements TransfersAPI {
@@ -21,54 +32,341 @@ public class AlchemyTransfersAPI implements TransfersAPI {
     private static final Logger logger = Logger.getLogger(AlchemyTokenAPI.class.getName());
 
     private static final int PAGE_SIZE = 100;
+    private static final String FROM_ADDRESS = "fromAddress";  // Filter matching transfers sent by the address
+    private static final String TO_ADDRESS = "toAddress";  // Filter matching transfers received by the address
+    private static final int PREFETCH_PAGES = 2;  // Pages per direction fetched ahead of a streaming consumer
+    private static final int PARTITION_THRESHOLD = 10 * PAGE_SIZE;  // Smallest maxCount fetched as block ranges
+    private static final int DEFAULT_RANGE_PARALLELISM = 4;
+
+    // Category groups queried independently when sharding; the NFT categories are rare enough to share a cursor
+    private static final List<Set<TransferCategory>> CATEGORY_SHARDS = List.of(
+            EnumSet.of(TransferCategory.EXTERNAL),
+            EnumSet.of(TransferCategory.ERC20),
+            EnumSet.of(TransferCategory.INTERNAL),
+            EnumSet.of(TransferCategory.ERC721, TransferCategory.ERC1155, TransferCategory.SPECIALNFT));
+
+    public static final String RANGE_PARALLELISM_PROPERTY = "ethmonitor.transfers.rangeParallelism";  // Block ranges paged at once, 1 to page sequentially
+    public static final String SHARD_BY_CATEGORY_PROPERTY = "ethmonitor.transfers.shardByCategory";  // Whether category groups are paged as separate queries, off by default
+
+    // Drains partitioned streams for callers of the list-based methods; the threads mostly wait on responses
+    private static final ExecutorService DRAIN_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     private final HttpClient httpClient;
+    private final int rangeParallelism;  // Maximum number of block ranges paged at once per direction
+    private final boolean shardByCategory;  // Whether each category group is paged as its own query
 
     /**
-     * Constructs a new {@code AlchemyTransfersAPI} with the specified API key, HTTP client factory,
-     * and cache layer for storing transfer responses.
+     * Constructs a new {@code AlchemyTransfersAPI} with the specified API key and HTTP client factory. The
+     * number of block ranges paged at once is read from {@value #RANGE_PARALLELISM_PROPERTY}, 4 by default,
+     * and whether category groups are paged separately from {@value #SHARD_BY_CATEGORY_PROPERTY}, false by default:
+     * each shard costs its own first page per direction, so sharding only pays off for wallets with a deep history.
      *
      * @param apiKey the Alchemy API key
      * @param factory the factory for creating an {@link HttpClient}
      */
     public AlchemyTransfersAPI(String apiKey, HttpClientFactory factory) {
-        this.httpClient = factory.getClient("https://eth-mainnet.g.alchemy.com/v2/" + apiKey);
+        this(apiKey, factory, Integer.getInteger(RANGE_PARALLELISM_PROPERTY, DEFAULT_RANGE_PARALLELISM),
+                Boolean.parseBoolean(System.getProperty(SHARD_BY_CATEGORY_PROPERTY, "false")));
+    }
+
+    /**
+     * Constructs a new {@code AlchemyTransfersAPI} with the specified API key, HTTP client factory, range
+     * parallelism and category sharding.
+     *
+     * @param apiKey the Alchemy API key
+     * @param factory the factory for creating an {@link HttpClient}
+     * @param rangeParallelism the maximum number of block ranges paged at once per direction, 1 to page sequentially
+     * @param shardByCategory whether each category group is paged as its own query
+     */
+    public AlchemyTransfersAPI(String apiKey, HttpClientFactory factory, int rangeParallelism, boolean shardByCategory) {
+        this.httpClient = factory.getJsonRpcClient(AlchemyEndpoints.nodeUrl(apiKey));
+        this.rangeParallelism = Math.max(1, rangeParallelism);
+        this.shardByCategory = shardByCategory;
     }
 
     /**
      * Retrieves the transfer response for the specified address, with a limit on the number of transfers to fetch.
+     * Incoming and outgoing transfers are fetched concurrently and merged, see {@link #getTransferResponseAsync}.
      *
      * @param address the Ethereum address to query for transfers
+     * @param fromBlock the first block to include
      * @param maxCount the maximum number of transfers to fetch
+     * @param categories the categories of transfers to fetch
      * @return the transfer response containing a list of transfers
      * @throws IOException if the API request fails or the response cannot be parsed
      */
     @Override
-    public TransferResponse getTransferResponse(String address, int maxCount) throws IOException {
-        List<Transfer> allTransfers = new ArrayList<>();
-        String pageKey = null;
-        int remaining = maxCount;
-
-        do {
-            String requestBody = buildRequestBody(address, remaining, pageKey);
-
-            TransferResponse response;
-                try {
-                    response =  httpClient.post(requestBody, TransferResponse.class);
-                } catch (IOException e) {
-                    throw new RuntimeException("Failed to fetch transfer response", e);
+    public TransferResponse getTransferResponse(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) throws IOException {
+        try {
+            return getTransferResponseAsync(address, fromBlock, maxCount, categories).join();
+        } catch (CompletionException e) {
+            Throwable cause = e;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new RuntimeException("Failed to fetch transfer response", cause);
+        }
+    }
+
+    /**
+     * Asynchronously retrieves the transfer response for the specified address. The transfers sent from and
+     * received by the address are two independent streams, each paginated on its own and both in flight at
+     * once, so fetching both costs about as much wall time as fetching one. Within a stream each page is
+     * requested once the previous one has completed, so pagination never blocks a thread.
+     * <p>
+     * The streams are merged in block order and deduplicated by {@code uniqueId}, since a transfer from the
+     * address to itself appears in both. At most {@code maxCount} transfers are returned in total.
+     * <p>
+     * Deep queries of more than {@value #PARTITION_THRESHOLD} transfers, and queries spanning several category
+     * groups, are drained from {@link #streamTransfers} instead.
+     *
+     * @param address the Ethereum address to query for transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to fetch
+     * @param categories the categories of transfers to fetch
+     * @return a future completing with the transfer response containing a list of transfers
+     */
+    @Override
+    public CompletableFuture<TransferResponse> getTransferResponseAsync(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) {
+        if (isPartitioned(maxCount) || shards(categories).size() > 1) {
+            return CompletableFuture.supplyAsync(() -> {
+                List<Transfer> transfers = new ArrayList<>();
+                try (TransferStream stream = streamTransfers(address, fromBlock, maxCount, categories)) {
+                    stream.forEachRemaining(transfers::add);
+                }
+                return toTransferResponse(transfers);
+            }, DRAIN_EXECUTOR);
+        }
+        if (categories.isEmpty()) {
+            return CompletableFuture.completedFuture(toTransferResponse(new ArrayList<>()));
+        }
+        String wallet = address.toLowerCase(Locale.ROOT);  // Lower-cased once for every page of both directions
+        CompletableFuture<List<Transfer>> outgoing = fetchPagesAsync(wallet, FROM_ADDRESS, categories, fromBlock, maxCount, null, new ArrayList<>());
+        CompletableFuture<List<Transfer>> incoming = fetchPagesAsync(wallet, TO_ADDRESS, categories, fromBlock, maxCount, null, new ArrayList<>());
+        return outgoing.thenCombine(incoming, (sent, received) -> merge(sent, received, maxCount))
+                .thenApply(this::toTransferResponse);
+    }
+
+    /**
+     * Streams the transfers sent or received by the specified address, in ascending block order. Both directions
+     * are paged concurrently and up to {@value #PREFETCH_PAGES} pages of each are fetched ahead of the consumer,
+     * so the caller can process one page while the next is on the wire. Memory held by the stream depends on
+     * the page size, not on {@code maxCount}.
+     * <p>
+     * A deep query of more than {@value #PARTITION_THRESHOLD} transfers instead probes each direction with its
+     * first page and the latest block number, splits the remaining blocks into ranges and pages up to
+     * {@code rangeParallelism} of them at once, see {@link PartitionedTransferStream}. For a wallet with a long
+     * history this cuts the wall time of a backfill by about the parallelism, at the cost of buffering whole
+     * ranges ahead of the consumer.
+     * <p>
+     * If sharding is enabled, each requested group of categories (external, erc20, internal and the NFT
+     * categories together) is paged as its own query, so a busy category does not hold the others behind one
+     * serial cursor. This multiplies the first-page requests, and with them the compute units spent on a small
+     * wallet, by the number of groups, so it is off by default. All the streams are merged lazily in block
+     * order; a shard that is far ahead of the merge only buffers its prefetched pages.
+     *
+     * @param address the Ethereum address to query for transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to stream
+     * @param categories the categories of transfers to stream
+     * @return the stream of transfers, to be closed by the caller
+     */
+    @Override
+    public TransferStream streamTransfers(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) {
+        String wallet = address.toLowerCase(Locale.ROOT);  // Lower-cased once for every page of every stream
+        List<TransferStream> streams = new ArrayList<>();
+        for (Set<TransferCategory> shard : shards(categories)) {
+            streams.add(directionStream(wallet, FROM_ADDRESS, shard, fromBlock, maxCount));
+            streams.add(directionStream(wallet, TO_ADDRESS, shard, fromBlock, maxCount));
+        }
+        return new MergedTransferStream(streams, maxCount);
+    }
+
+    /**
+     * Streams the transfers of one direction and category shard, as block ranges for deep queries and page by
+     * page otherwise.
+     *
+     * @param address the lower-case Ethereum address to query
+     * @param direction the filter the address is matched on, {@value #FROM_ADDRESS} or {@value #TO_ADDRESS}
+     * @param categories the categories of the shard
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to stream
+     * @return the stream of transfers of the direction and shard
+     */
+    private TransferStream directionStream(String address, String direction, Set<TransferCategory> categories, long fromBlock, int maxCount) {
+        if (isPartitioned(maxCount)) {
+            return new PartitionedTransferStream(
+                    (rangeFrom, rangeTo, count, pageKey) -> fetchPageAsync(address, direction, categories, rangeFrom, rangeTo, count, pageKey),
+                    this::latestBlockAsync, fromBlock, maxCount, rangeParallelism);
+        }
+        return new PrefetchingTransferPages(
+                (pageKey, count) -> fetchPageAsync(address, direction, categories, fromBlock, -1, count, pageKey), maxCount, PREFETCH_PAGES);
+    }
+
+    /**
+     * Splits the requested categories into the shards queried independently.
+     *
+     * @param categories the requested categories
+     * @return the non-empty shards, a single one holding all categories if sharding is disabled, none if no category is requested
+     */
+    private List<Set<TransferCategory>> shards(Set<TransferCategory> categories) {
+        if (categories.isEmpty()) {
+            return List.of();
+        }
+        if (!shardByCategory) {
+            return List.of(categories);
+        }
+        List<Set<TransferCategory>> shards = new ArrayList<>(CATEGORY_SHARDS.size());
+        for (Set<TransferCategory> group : CATEGORY_SHARDS) {
+            Set<TransferCategory> shard = EnumSet.noneOf(TransferCategory.class);
+            for (TransferCategory category : group) {
+                if (categories.contains(category)) {
+                    shard.add(category);
                 }
+            }
+            if (!shard.isEmpty()) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
 
+    /**
+     * Returns whether a query is deep enough to be fetched as block ranges.
+     *
+     * @param maxCount the maximum number of transfers to fetch
+     * @return {@code true} if the query is fetched as block ranges
+     */
+    private boolean isPartitioned(int maxCount) {
+        return rangeParallelism > 1 && maxCount > PARTITION_THRESHOLD;
+    }
 
-            if (response.getResult() != null && response.getResult().getTransfers() != null) {
-                allTransfers.addAll(response.getResult().getTransfers());
-                pageKey = response.getResult().getPageKey();
-                remaining = maxCount - allTransfers.size();
-            } else {
-                break;
+    /**
+     * Fetches the number of the latest block.
+     *
+     * @return a future completing with the latest block number, or exceptionally with an {@link IOException} if
+     *         the node answered with an error or without a block number
+     */
+    private CompletableFuture<Long> latestBlockAsync() {
+        String requestBody = """
+    {
+      "jsonrpc": "2.0",
+      "id": 1,
+      "method": "eth_blockNumber",
+      "params": []
+    }
+    """;
+        return httpClient.postAsync(requestBody, BlockNumberResponse.class).thenCompose(response -> {
+            try {
+                return CompletableFuture.completedFuture(parseBlockNumber(response));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
             }
+        });
+    }
+
+    /**
+     * Reads the block number of an {@code eth_blockNumber} response.
+     *
+     * @param response the response
+     * @return the block number
+     * @throws IOException if the response carries an error or no well-formed block number
+     */
+    static long parseBlockNumber(BlockNumberResponse response) throws IOException {
+        if (response == null) {
+            throw new IOException("eth_blockNumber returned no response");
+        }
+        if (response.getError() != null) {
+            throw new IOException("eth_blockNumber failed: " + response.getError().getCode() + " "
+                    + response.getError().getMessage());
+        }
+        String result = response.getResult();
+        if (result == null || !result.startsWith("0x") || result.length() == 2) {
+            throw new IOException("eth_blockNumber returned no block number: " + result);
+        }
+        try {
+            return Long.parseLong(result, 2, result.length(), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("eth_blockNumber returned a malformed block number: " + result, e);
+        }
+    }
+
+    /**
+     * Fetches a single page of transfers.
+     *
+     * @param address the lower-case Ethereum address to query
+     * @param direction the filter the address is matched on, {@value #FROM_ADDRESS} or {@value #TO_ADDRESS}
+     * @param categories the categories of transfers to fetch
+     * @param fromBlock the first block to include
+     * @param toBlock the last block to include, or -1 for the latest block
+     * @param count the number of transfers still wanted
+     * @param pageKey the pagination key for the page to fetch (null for the first page)
+     * @return a future completing with the page
+     */
+    private CompletableFuture<TransferResponse> fetchPageAsync(String address, String direction, Set<TransferCategory> categories,
+                                                               long fromBlock, long toBlock, int count, String pageKey) {
+        return httpClient.postAsync(buildRequestBody(address, direction, categories, fromBlock, toBlock, count, pageKey), TransferResponse.class)
+                .exceptionally(e -> {
+                    throw new CompletionException("Failed to fetch transfer response", e);
+                });
+    }
+
+    /**
+     * Fetches the page identified by {@code pageKey} and chains the next page request onto its completion
+     * until either no page key is returned or {@code maxCount} transfers have been collected.
+     *
+     * @param address the lower-case Ethereum address to query
+     * @param direction the filter the address is matched on, {@value #FROM_ADDRESS} or {@value #TO_ADDRESS}
+     * @param categories the categories of transfers to fetch
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to fetch in total
+     * @param pageKey the pagination key for the page to fetch (null for the first page)
+     * @param allTransfers the transfers collected so far
+     * @return a future completing with all collected transfers
+     */
+    private CompletableFuture<List<Transfer>> fetchPagesAsync(String address, String direction, Set<TransferCategory> categories,
+                                                              long fromBlock, int maxCount, String pageKey, List<Transfer> allTransfers) {
+        return fetchPageAsync(address, direction, categories, fromBlock, -1, maxCount - allTransfers.size(), pageKey)
+                .thenCompose(response -> {
+                    if (response.getResult() == null || response.getResult().getTransfers() == null) {
+                        return CompletableFuture.completedFuture(allTransfers);
+                    }
 
-        } while (pageKey != null && remaining > 0);
+                    allTransfers.addAll(response.getResult().getTransfers());
+                    String nextPageKey = response.getResult().getPageKey();
 
+                    if (nextPageKey != null && maxCount - allTransfers.size() > 0) {
+                        return fetchPagesAsync(address, direction, categories, fromBlock, maxCount, nextPageKey, allTransfers);
+                    }
+                    return CompletableFuture.completedFuture(allTransfers);
+                });
+    }
+
+    /**
+     * Merges two lists of transfers, each in ascending block order, into one in ascending block order.
+     * Transfers whose {@code uniqueId} has already been taken are dropped.
+     *
+     * @param first the first list
+     * @param second the second list
+     * @param maxCount the maximum number of transfers to keep
+     * @return the merged transfers
+     */
+    private static List<Transfer> merge(List<Transfer> first, List<Transfer> second, int maxCount) {
+        List<Transfer> merged = new ArrayList<>(Math.min(maxCount, first.size() + second.size()));
+        new MergedTransferStream(List.of(TransferStream.of(first), TransferStream.of(second)), maxCount).forEachRemaining(merged::add);
+        return merged;
+    }
+
+    /**
+     * Wraps the collected transfers into a single {@link TransferResponse}.
+     *
+     * @param allTransfers the transfers collected across all pages
+     * @return the aggregated transfer response
+     */
+    private TransferResponse toTransferResponse(List<Transfer> allTransfers) {
         TransferResponse finalResponse = new TransferResponse();
         TransferResponse.Result result = new TransferResponse.Result();
         result.setTransfers(allTransfers);
@@ -81,22 +379,27 @@ public class AlchemyTransfersAPI implements TransfersAPI {
     /**
      * Builds the request body for the Alchemy API request to fetch asset transfers.
      *
-     * @param address the Ethereum address to query
+     * @param address the lower-case Ethereum address to query
+     * @param direction the filter the address is matched on, {@value #FROM_ADDRESS} or {@value #TO_ADDRESS}
+     * @param categories the categories of transfers to request
+     * @param fromBlock the first block to include
+     * @param toBlock the last block to include, or -1 for the latest block
      * @param count the number of transfers to request
      * @param pageKey the pagination key for subsequent pages (null if not used)
      * @return the JSON request body as a string
      */
-    private String buildRequestBody(String address, int count, String pageKey) {
+    private String buildRequestBody(String address, String direction, Set<TransferCategory> categories,
+                                    long fromBlock, long toBlock, int count, String pageKey) {
         String base = """
     {
       "jsonrpc": "2.0",
       "id": 1,
       "method": "alchemy_getAssetTransfers",
       "params": [{
-        "fromBlock": "0x0",
-        "toBlock": "latest",
-        "toAddress": "%s",
-        "category": ["external", "erc20", "internal", "erc721", "erc1155", "specialnft"],
+        "fromBlock": "0x%s",
+        "toBlock": "%s",
+        "%s": "%s",
+        "category": [%s],
         "withMetadata": true,
         "excludeZeroValue": true,
         "maxCount": "0x%s"%s
@@ -105,7 +408,9 @@ public class AlchemyTransfersAPI implements TransfersAPI {
     """;
 
         String pageKeyJson = pageKey != null ? ",\n        \"pageKey\": \"" + pageKey + "\"" : "";
-        return base.formatted(address.toLowerCase(), Integer.toHexString(Math.min(PAGE_SIZE, count)), pageKeyJson);
+        String categoryJson = categories.stream().map(c -> "\"" + c.apiName() + "\"").collect(Collectors.joining(", "));
+        return base.formatted(Long.toHexString(fromBlock), toBlock < 0 ? "latest" : "0x" + Long.toHexString(toBlock), direction,
+                address, categoryJson, Integer.toHexString(Math.min(PAGE_SIZE, count)), pageKeyJson);
     }
 
 }
@@ -0,0 +1,304 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * A decorating {@link HttpClient} that coalesces concurrent JSON-RPC POST requests into
+ * JSON-RPC batch envelopes. Each call is given a distinct id, calls arriving within a short
+ * window (or until the batch is full) are sent as one array in a single POST, and the
+ * responses are demultiplexed back to their callers by id. A batch that ends up holding a single call is
+ * sent as a plain call and its response decoded straight into the caller's type.
+ * <p>
+ * GET requests, POST bodies that are not single JSON-RPC calls and calls to methods with large responses,
+ * such as {@code alchemy_getAssetTransfers} pages of up to a thousand transfers, are passed through unchanged,
+ * so their responses are decoded from the response stream rather than merged into a batch array.
+ */
+public class BatchingJsonRpcHttpClient implements HttpClient {
+
+    private static final Logger logger = Logger.getLogger(BatchingJsonRpcHttpClient.class.getName());
+
+    // Methods whose responses are too large to gain from sharing a request with other calls
+    private static final Set<String> UNBATCHED_METHODS = Set.of("alchemy_getAssetTransfers");
+
+    private final HttpClient delegate;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final ScheduledExecutorService scheduler;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    private final Object lock = new Object();
+    private List<PendingCall<?>> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Constructs a new {@code BatchingJsonRpcHttpClient}.
+     *
+     * @param delegate the client used to send the batched requests
+     * @param maxBatchSize the maximum number of calls per batch; a full batch is sent immediately
+     * @param window how long the first call of a batch waits for others to join it
+     * @param scheduler the scheduler used to flush a batch once its window closes
+     */
+    public BatchingJsonRpcHttpClient(
+            HttpClient delegate,
+            int maxBatchSize,
+            Duration window,
+            ScheduledExecutorService scheduler
+    ) {
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues the JSON-RPC call for the next batch and blocks until its own response arrives.
+     *
+     * @param jsonBody the JSON-RPC request body
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     * @throws IOException if the request fails or the response cannot be parsed
+     */
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        try {
+            return postAsync(jsonBody, responseType).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Passes the GET request through to the delegate.
+     *
+     * @param url the full URL to send the GET request to
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     * @throws IOException if the request fails or the response cannot be parsed
+     */
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        return delegate.get(url, responseType);
+    }
+
+    /**
+     * Queues the JSON-RPC call for the next batch. The returned future completes with the
+     * response whose id matches the id assigned to this call.
+     *
+     * @param jsonBody the JSON-RPC request body
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the response deserialized to the specified type
+     */
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        ObjectNode request;
+        try {
+            JsonNode node = objectMapper.readTree(jsonBody);
+            if (!(node instanceof ObjectNode objectNode) || !objectNode.has("method")
+                    || UNBATCHED_METHODS.contains(objectNode.get("method").asText())) {
+                return delegate.postAsync(jsonBody, responseType);
+            }
+            request = objectNode;
+        } catch (JsonProcessingException e) {
+            return delegate.postAsync(jsonBody, responseType);
+        }
+
+        int id = nextId.getAndIncrement() & Integer.MAX_VALUE;
+        request.put("id", id);
+        PendingCall<T> call = new PendingCall<>(id, request, responseType, new CompletableFuture<>());
+
+        List<PendingCall<?>> batch = null;
+        synchronized (lock) {
+            pending.add(call);
+            if (pending.size() >= maxBatchSize) {
+                batch = drainPending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flushPending, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (batch != null) {
+            send(batch);
+        }
+        return call.future();
+    }
+
+    /**
+     * Passes the GET request through to the delegate.
+     *
+     * @param url the full URL to send the GET request to
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the response deserialized to the specified type
+     */
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return delegate.getAsync(url, responseType);
+    }
+
+    /**
+     * Sends whatever calls are pending once the batch window closes.
+     */
+    private void flushPending() {
+        List<PendingCall<?>> batch;
+        synchronized (lock) {
+            batch = drainPending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Takes all pending calls and cancels the scheduled flush. Must be called while holding {@code lock}.
+     *
+     * @return the calls that make up the next batch
+     */
+    private List<PendingCall<?>> drainPending() {
+        List<PendingCall<?>> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Sends the batch in a single POST and completes each call from its matching response.
+     * A batch of one is sent as a plain JSON-RPC call rather than a one-element array.
+     *
+     * @param batch the calls to send
+     */
+    private void send(List<PendingCall<?>> batch) {
+        if (batch.size() == 1) {
+            sendSingle(batch.get(0));
+            return;
+        }
+
+        ArrayNode body = objectMapper.createArrayNode();
+        batch.forEach(call -> body.add(call.request()));
+        logger.fine(() -> "📦 Sending JSON-RPC batch of " + batch.size() + " calls");
+
+        delegate.postAsync(body.toString(), JsonNode.class)
+                .whenComplete((node, e) -> {
+                    if (e != null) {
+                        Throwable cause = unwrap(e);
+                        batch.forEach(call -> call.future().completeExceptionally(cause));
+                    } else {
+                        demultiplex(batch, node);
+                    }
+                });
+    }
+
+    /**
+     * Sends a call on its own, decoding its response directly into the caller's response type.
+     *
+     * @param call the call to send
+     * @param <T> the type of the response object
+     */
+    private <T> void sendSingle(PendingCall<T> call) {
+        delegate.postAsync(call.request().toString(), call.responseType())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        call.future().completeExceptionally(unwrap(e));
+                    } else {
+                        call.future().complete(response);
+                    }
+                });
+    }
+
+    /**
+     * Routes each element of a batch response to the call with the matching id.
+     *
+     * @param batch the calls that were sent
+     * @param response the batch response
+     */
+    private void demultiplex(List<PendingCall<?>> batch, JsonNode response) {
+        if (response == null || !response.isArray()) {
+            IOException error = new IOException("JSON-RPC batch response is not an array: " + response);
+            batch.forEach(call -> call.future().completeExceptionally(error));
+            return;
+        }
+
+        Map<Integer, JsonNode> responsesById = new HashMap<>(response.size() * 2);
+        for (JsonNode element : response) {
+            responsesById.put(element.path("id").asInt(-1), element);
+        }
+
+        for (PendingCall<?> call : batch) {
+            JsonNode element = responsesById.get(call.id());
+            if (element == null) {
+                call.future().completeExceptionally(new IOException("Missing JSON-RPC response for id " + call.id()));
+            } else {
+                complete(call, element);
+            }
+        }
+    }
+
+    /**
+     * Converts a single JSON-RPC response into the caller's response type and completes its future.
+     * A {@code String} response type receives the response's JSON text.
+     *
+     * @param call the call to complete
+     * @param node the JSON-RPC response for the call
+     * @param <T> the type of the response object
+     */
+    private <T> void complete(PendingCall<T> call, JsonNode node) {
+        try {
+            call.future().complete(call.responseType() == String.class
+                    ? call.responseType().cast(node.toString())
+                    : objectMapper.treeToValue(node, call.responseType()));
+        } catch (JsonProcessingException e) {
+            call.future().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by future composition.
+     *
+     * @param e the failure
+     * @return the underlying cause
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * A JSON-RPC call waiting for its batch to be sent.
+     *
+     * @param id the id assigned to the call
+     * @param request the JSON-RPC request with its id set
+     * @param responseType the class to deserialize the response into
+     * @param future the future to complete with the response
+     * @param <T> the type of the response object
+     */
+    private record PendingCall<T>(int id, ObjectNode request, Class<T> responseType, CompletableFuture<T> future) {
+    }
+}
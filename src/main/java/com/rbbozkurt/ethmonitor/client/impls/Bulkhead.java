@@ -0,0 +1,129 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The permits capping the calls in flight to one endpoint. A call that finds every permit taken waits its
+ * turn, in arrival order and without blocking a thread, for at most the configured maximum wait; only a call
+ * still waiting after that is rejected with a {@link CallNotPermittedException}. Short bursts above the cap,
+ * such as the fan-out of one wallet analysis, are thereby smoothed out instead of failing, while a host that
+ * stays saturated still fails fast enough not to tie up its callers.
+ */
+public class Bulkhead {
+
+    private final String endpoint;  // Endpoint name used in error messages
+    private final Duration maxWait;  // Longest a call waits for a permit
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();  // Calls waiting, oldest first
+    private int available;  // Permits not handed out
+
+    /**
+     * Constructs a bulkhead.
+     *
+     * @param endpoint the endpoint name used in error messages
+     * @param maxConcurrentCalls the number of calls that may be in flight at once
+     * @param maxWait the longest a call waits for a permit, zero to reject at once when every permit is taken
+     */
+    public Bulkhead(String endpoint, int maxConcurrentCalls, Duration maxWait) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Bulkhead size must be positive");
+        }
+        this.endpoint = endpoint;
+        this.maxWait = maxWait;
+        this.available = maxConcurrentCalls;
+    }
+
+    /**
+     * Takes a permit, waiting for one if every permit is taken.
+     *
+     * @return a future completing once the permit is held, or exceptionally with a
+     *         {@link CallNotPermittedException} if none was freed within the maximum wait
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (available > 0 && waiters.isEmpty()) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (maxWait.isZero() || maxWait.isNegative()) {
+                return CompletableFuture.failedFuture(rejection());
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        CompletableFuture.delayedExecutor(maxWait.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            boolean timedOut;
+            synchronized (this) {
+                timedOut = waiters.remove(waiter);
+            }
+            if (timedOut) {
+                waiter.completeExceptionally(rejection());
+            }
+        });
+        return waiter;
+    }
+
+    /**
+     * Takes a permit, blocking while waiting for one if every permit is taken.
+     *
+     * @throws CallNotPermittedException if no permit was freed within the maximum wait
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    public void acquire() throws CallNotPermittedException, InterruptedIOException {
+        CompletableFuture<Void> permit = acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            // Give the permit back should it have been granted meanwhile
+            permit.thenRun(this::release);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a permit to " + endpoint);
+        } catch (ExecutionException e) {
+            throw (CallNotPermittedException) e.getCause();
+        }
+    }
+
+    /**
+     * Returns a permit, handing it to the longest waiting call if there is one.
+     */
+    public void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null) {
+                available++;
+                return;
+            }
+        }
+        // Completed outside the lock, as the waiter's call is sent from here
+        next.complete(null);
+    }
+
+    /**
+     * Returns the number of calls that may currently be started without waiting.
+     *
+     * @return the available permits
+     */
+    public synchronized int getAvailablePermits() {
+        return waiters.isEmpty() ? available : 0;
+    }
+
+    /**
+     * Returns the number of calls waiting for a permit.
+     *
+     * @return the waiting calls
+     */
+    public synchronized int getWaitingCalls() {
+        return waiters.size();
+    }
+
+    private CallNotPermittedException rejection() {
+        return new CallNotPermittedException("Too many concurrent calls to " + endpoint
+                + " (no permit within " + maxWait.toMillis() + " ms)", false);
+    }
+}
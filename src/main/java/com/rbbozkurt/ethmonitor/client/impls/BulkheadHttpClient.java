@@ -0,0 +1,93 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A decorating {@link HttpClient} that caps the number of requests in flight to one endpoint.
+ * A request that finds every permit of the {@link Bulkhead} taken waits for one, for a bounded time,
+ * and only then fails with a {@link CallNotPermittedException} rather than tying up its caller on an
+ * endpoint that stays saturated or slow. Asynchronous requests wait without blocking a thread; one
+ * cancelled while waiting hands its permit straight back once it is granted.
+ * <p>
+ * The bulkhead is usually shared by all clients talking to the same host, so that a degraded
+ * prices endpoint cannot starve the node endpoint of connections, or the other way around.
+ */
+public class BulkheadHttpClient implements HttpClient {
+
+    private final HttpClient delegate;
+    private final Bulkhead bulkhead;
+
+    /**
+     * Constructs a new {@code BulkheadHttpClient}.
+     *
+     * @param delegate the client used to send admitted requests
+     * @param bulkhead the permits capping concurrent requests to the endpoint
+     */
+    public BulkheadHttpClient(HttpClient delegate, Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        bulkhead.acquire();
+        try {
+            return delegate.post(jsonBody, responseType);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        bulkhead.acquire();
+        try {
+            return delegate.get(url, responseType);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        return CancellableFutures.sendWhenReady(bulkhead.acquireAsync(),
+                () -> releaseOnCompletion(() -> delegate.postAsync(jsonBody, responseType)), bulkhead::release);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return CancellableFutures.sendWhenReady(bulkhead.acquireAsync(),
+                () -> releaseOnCompletion(() -> delegate.getAsync(url, responseType)), bulkhead::release);
+    }
+
+    /**
+     * Returns the number of requests that may currently be started without waiting.
+     *
+     * @return the available permits
+     */
+    public int getAvailablePermits() {
+        return bulkhead.getAvailablePermits();
+    }
+
+    /**
+     * Sends the request and returns the permit once it completes, successfully or not.
+     *
+     * @param request sends the request
+     * @param <T> the type of the response object
+     * @return the request's future
+     */
+    private <T> CompletableFuture<T> releaseOnCompletion(Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return CancellableFutures.whenComplete(future, (value, error) -> bulkhead.release());
+    }
+}
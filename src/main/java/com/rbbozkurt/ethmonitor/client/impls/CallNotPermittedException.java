@@ -0,0 +1,35 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.io.IOException;
+
+/**
+ * Signals that a request was rejected before it was sent, either because the circuit for its
+ * endpoint method is open or because the endpoint's bulkhead freed no permit within its maximum
+ * wait. The caller has already waited as long as it should, so such failures are not retried.
+ */
+public class CallNotPermittedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean circuitOpen;
+
+    /**
+     * Constructs a new {@code CallNotPermittedException}.
+     *
+     * @param message the detail message
+     * @param circuitOpen {@code true} if an open circuit rejected the call, {@code false} for a full bulkhead
+     */
+    public CallNotPermittedException(String message, boolean circuitOpen) {
+        super(message);
+        this.circuitOpen = circuitOpen;
+    }
+
+    /**
+     * Returns whether the call was rejected by an open circuit rather than a full bulkhead.
+     *
+     * @return {@code true} if an open circuit rejected the call
+     */
+    public boolean isCircuitOpen() {
+        return circuitOpen;
+    }
+}
@@ -0,0 +1,101 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Future helpers for the decorating clients, so that cancelling the future a decorator returns reaches the
+ * request underneath and, at the bottom of the chain, cancels the HTTP call. Futures derived with
+ * {@code whenComplete} or {@code thenCompose} do not pass a cancellation on by themselves, and a
+ * {@code whenComplete} action is skipped altogether once its own future has been cancelled.
+ */
+final class CancellableFutures {
+
+    private CancellableFutures() {
+    }
+
+    /**
+     * Runs the action once the request completes, like {@code request.whenComplete(action)}, except that
+     * cancelling the returned future cancels the request, and the action still runs, seeing the
+     * {@link java.util.concurrent.CancellationException}.
+     *
+     * @param request the request's future
+     * @param action receives the response or the failure, e.g. to release a permit
+     * @param <T> the type of the response object
+     * @return a future completing as the request does, once the action has run
+     */
+    static <T> CompletableFuture<T> whenComplete(CompletableFuture<T> request, BiConsumer<? super T, ? super Throwable> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        request.whenComplete((value, error) -> {
+            try {
+                action.accept(value, error);
+            } finally {
+                complete(result, value, error);
+            }
+        });
+        return propagateCancel(result, request);
+    }
+
+    /**
+     * Sends the request once {@code ready} has completed, like {@code ready.thenCompose(...)}, except that
+     * cancelling the returned future cancels the request once it has been sent, and skips sending it if it
+     * has not. The {@code ready} future itself is never cancelled, so a permit it grants is not lost.
+     *
+     * @param ready completes once the request may be sent, or fails the request
+     * @param request sends the request
+     * @param onSkipped runs when {@code ready} completes after the returned future was cancelled
+     * @param <T> the type of the response object
+     * @return a future completing with the response
+     */
+    static <T> CompletableFuture<T> sendWhenReady(CompletableFuture<?> ready, Supplier<CompletableFuture<T>> request,
+                                                  Runnable onSkipped) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ready.whenComplete((ignored, readyError) -> {
+            if (readyError != null) {
+                result.completeExceptionally(readyError);
+                return;
+            }
+            if (result.isDone()) {
+                onSkipped.run();
+                return;
+            }
+
+            CompletableFuture<T> sent;
+            try {
+                sent = request.get();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            sent.whenComplete((value, error) -> complete(result, value, error));
+            propagateCancel(result, sent);
+        });
+        return result;
+    }
+
+    /**
+     * Makes a cancellation of the future handed to the caller cancel the future it completes from.
+     *
+     * @param result the future handed to the caller
+     * @param source the future the result completes from
+     * @param <T> the type of the response object
+     * @return the result future
+     */
+    private static <T> CompletableFuture<T> propagateCancel(CompletableFuture<T> result, CompletableFuture<?> source) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                source.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, T value, Throwable error) {
+        if (error == null) {
+            result.complete(value);
+        } else {
+            result.completeExceptionally(error);
+        }
+    }
+}
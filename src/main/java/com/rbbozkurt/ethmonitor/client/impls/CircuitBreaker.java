@@ -0,0 +1,213 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.util.logging.Logger;
+
+/**
+ * A count-based circuit breaker guarding one endpoint method. It records the outcome of the most
+ * recent calls in a ring buffer and opens once the failure rate over that window reaches the
+ * threshold. While open, calls are rejected immediately; after the open duration a few probe calls
+ * are let through (half-open) and the circuit closes again only if all of them succeed.
+ * <p>
+ * Every state change starts a new generation, and a permission is a token naming the generation that
+ * granted it. Outcomes are only recorded for the current generation, so a slow call admitted while
+ * closed cannot close or reopen a half-open circuit it was never a probe of.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+    public static final long NOT_PERMITTED = -1;  // Token returned when a call must fail fast
+
+    /**
+     * The states of a {@link CircuitBreaker}.
+     */
+    public enum State {
+        CLOSED,  // Calls flow normally and outcomes are recorded
+        OPEN,  // Calls are rejected until the open duration has elapsed
+        HALF_OPEN  // A limited number of probe calls decide whether to close or reopen
+    }
+
+    private final String name;  // Endpoint and method this breaker guards, used in log messages
+    private final double failureRateThreshold;  // Failure rate (0..1) at which the circuit opens
+    private final int minimumCalls;  // Calls required in the window before the failure rate is evaluated
+    private final long openDurationNanos;  // How long the circuit stays open before probing
+    private final int halfOpenProbes;  // Number of probe calls allowed while half-open
+
+    private final boolean[] outcomes;  // Ring buffer of recent outcomes, true meaning failure
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long generation;  // Incremented on every state change
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    /**
+     * Constructs a new closed {@code CircuitBreaker}. Use {@link CircuitBreakerBuilder} to create instances.
+     *
+     * @param name the endpoint and method this breaker guards
+     * @param failureRateThreshold the failure rate, between 0 and 1, at which the circuit opens
+     * @param slidingWindowSize the number of recent calls the failure rate is computed over
+     * @param minimumCalls the number of calls required before the failure rate is evaluated
+     * @param openDurationNanos how long the circuit stays open before probe calls are allowed
+     * @param halfOpenProbes the number of probe calls allowed while half-open
+     */
+    CircuitBreaker(
+            String name,
+            double failureRateThreshold,
+            int slidingWindowSize,
+            int minimumCalls,
+            long openDurationNanos,
+            int halfOpenProbes
+    ) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.outcomes = new boolean[slidingWindowSize];
+        this.minimumCalls = minimumCalls;
+        this.openDurationNanos = openDurationNanos;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Asks for permission to send a call. An open circuit whose open duration has elapsed turns
+     * half-open and admits up to the configured number of probe calls.
+     *
+     * @return the permission token to report the call's outcome with, or {@link #NOT_PERMITTED} if the call
+     *         must fail fast
+     */
+    public synchronized long tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                return NOT_PERMITTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return NOT_PERMITTED;
+            }
+            probesStarted++;
+        }
+        return generation;
+    }
+
+    /**
+     * Returns a permission that was granted but not used because the call was never sent, so that a
+     * half-open circuit can hand the probe to another call.
+     *
+     * @param permit the token returned by {@link #tryAcquirePermission()}
+     */
+    public synchronized void releasePermission(long permit) {
+        if (permit == generation && state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * Records a successful call. Calls admitted before the last state change are ignored.
+     *
+     * @param permit the token returned by {@link #tryAcquirePermission()}
+     */
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * Records a failed call, opening the circuit if the failure rate reaches the threshold or a
+     * half-open probe fails. Calls admitted before the last state change are ignored.
+     *
+     * @param permit the token returned by {@link #tryAcquirePermission()}
+     */
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return the current {@link State}
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the failure rate over the recorded calls of the sliding window.
+     *
+     * @return the failure rate between 0 and 1, or 0 if no calls have been recorded
+     */
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    /**
+     * Returns the endpoint and method this breaker guards.
+     *
+     * @return the breaker name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds an outcome to the sliding window, evicting the oldest one once the window is full.
+     *
+     * @param failure whether the call failed
+     */
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    /**
+     * Moves the circuit to the given state and resets the bookkeeping of the state left behind.
+     *
+     * @param newState the state to enter
+     */
+    private void transitionTo(State newState) {
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+            logger.warning("🔌 Circuit for " + name + " opened (failure rate " + Math.round(getFailureRate() * 100) + "%)");
+        } else if (newState == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+            logger.info("✅ Circuit for " + name + " closed");
+        }
+        probesStarted = 0;
+        probesSucceeded = 0;
+        generation++;
+        state = newState;
+    }
+}
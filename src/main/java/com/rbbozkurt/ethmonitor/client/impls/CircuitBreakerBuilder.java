@@ -0,0 +1,89 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.time.Duration;
+
+/**
+ * A builder class for constructing {@link CircuitBreaker} instances. By default a circuit opens
+ * when at least half of the last 20 calls failed (after a minimum of 10 calls), stays open for
+ * 30 seconds, and then lets 3 probe calls decide whether it closes again.
+ * <p>
+ * The builder is used as a template: every call to {@link #build(String)} creates a fresh breaker
+ * with the same settings, one per guarded endpoint method.
+ */
+public class CircuitBreakerBuilder {
+
+    private double failureRateThreshold = 0.5;
+    private int slidingWindowSize = 20;
+    private int minimumCalls = 10;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenProbes = 3;
+
+    /**
+     * Sets the failure rate at which the circuit opens.
+     *
+     * @param failureRateThreshold the failure rate, between 0 and 1
+     * @return the current builder instance
+     */
+    public CircuitBreakerBuilder withFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the number of recent calls the failure rate is computed over.
+     *
+     * @param slidingWindowSize the sliding window size
+     * @return the current builder instance
+     */
+    public CircuitBreakerBuilder withSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of calls required before the failure rate is evaluated.
+     *
+     * @param minimumCalls the minimum number of calls
+     * @return the current builder instance
+     */
+    public CircuitBreakerBuilder withMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    /**
+     * Sets how long an open circuit rejects calls before probing the endpoint again.
+     *
+     * @param openDuration the open duration
+     * @return the current builder instance
+     */
+    public CircuitBreakerBuilder withOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    /**
+     * Sets the number of probe calls allowed while the circuit is half-open.
+     *
+     * @param halfOpenProbes the number of probe calls
+     * @return the current builder instance
+     */
+    public CircuitBreakerBuilder withHalfOpenProbes(int halfOpenProbes) {
+        this.halfOpenProbes = halfOpenProbes;
+        return this;
+    }
+
+    /**
+     * Builds and returns a new closed {@link CircuitBreaker} with the configured settings.
+     *
+     * @param name the endpoint and method the breaker guards
+     * @return the configured {@link CircuitBreaker} instance
+     */
+    public CircuitBreaker build(String name) {
+        if (slidingWindowSize < 1 || minimumCalls < 1 || halfOpenProbes < 1) {
+            throw new IllegalStateException("Window size, minimum calls and half-open probes must be at least 1");
+        }
+        return new CircuitBreaker(name, failureRateThreshold, slidingWindowSize,
+                Math.min(minimumCalls, slidingWindowSize), openDuration.toNanos(), halfOpenProbes);
+    }
+}
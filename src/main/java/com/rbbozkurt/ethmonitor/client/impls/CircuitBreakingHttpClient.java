@@ -0,0 +1,248 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A decorating {@link HttpClient} that protects one base URL with a {@link CircuitBreaker} per method.
+ * Calls whose circuit is open fail immediately with a {@link CallNotPermittedException} instead of
+ * queueing for a degraded endpoint.
+ * <p>
+ * JSON-RPC calls are keyed by their method (a batch needs every method's circuit to admit it); other
+ * requests, such as Prices API lookups, are keyed by their HTTP verb. Server errors, 429 responses and
+ * transport failures count as failures; other client errors and unparseable responses do not, and
+ * bulkhead rejections and cancelled calls are not recorded at all.
+ */
+public class CircuitBreakingHttpClient implements HttpClient {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient delegate;
+    private final String baseUrl;
+    private final CircuitBreakerBuilder circuitBreakerBuilder;
+
+    // Circuit breakers of this endpoint, one per JSON-RPC method or HTTP verb
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * A circuit breaker that admitted a request, with the permission it granted.
+     *
+     * @param breaker the circuit breaker
+     * @param permit the permission token the request's outcome is reported with
+     */
+    private record Guard(CircuitBreaker breaker, long permit) {}
+
+    /**
+     * Constructs a new {@code CircuitBreakingHttpClient}.
+     *
+     * @param delegate the client used to send admitted requests
+     * @param baseUrl the base URL of the endpoint, used to name the circuit breakers
+     * @param circuitBreakerBuilder the template used to create a breaker for each method
+     */
+    public CircuitBreakingHttpClient(HttpClient delegate, String baseUrl, CircuitBreakerBuilder circuitBreakerBuilder) {
+        this.delegate = delegate;
+        this.baseUrl = baseUrl;
+        this.circuitBreakerBuilder = circuitBreakerBuilder;
+    }
+
+    /**
+     * Returns the state of every circuit of this endpoint, keyed by method.
+     *
+     * @return the circuit states
+     */
+    public Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new ConcurrentHashMap<>();
+        breakers.forEach((method, breaker) -> states.put(method, breaker.getState()));
+        return states;
+    }
+
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        List<Guard> guards = admit(methodsOf(jsonBody));
+        try {
+            T response = delegate.post(jsonBody, responseType);
+            onSuccess(guards);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            onFailure(guards, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        List<Guard> guards = admit(Set.of("GET"));
+        try {
+            T response = delegate.get(url, responseType);
+            onSuccess(guards);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            onFailure(guards, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        List<Guard> guards;
+        try {
+            guards = admit(methodsOf(jsonBody));
+        } catch (CallNotPermittedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return track(guards, () -> delegate.postAsync(jsonBody, responseType));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        List<Guard> guards;
+        try {
+            guards = admit(Set.of("GET"));
+        } catch (CallNotPermittedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return track(guards, () -> delegate.getAsync(url, responseType));
+    }
+
+    /**
+     * Sends an admitted asynchronous request and records its outcome once it completes.
+     *
+     * @param guards the circuit breakers that admitted the request
+     * @param request sends the request
+     * @param <T> the type of the response object
+     * @return the request's future
+     */
+    private <T> CompletableFuture<T> track(List<Guard> guards, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return CancellableFutures.whenComplete(future, (value, error) -> {
+            if (error == null) {
+                onSuccess(guards);
+            } else {
+                onFailure(guards, error);
+            }
+        });
+    }
+
+    /**
+     * Checks every circuit involved in the request.
+     *
+     * @param methods the methods the request invokes
+     * @return the circuit breakers that admitted the request, with their permissions
+     * @throws CallNotPermittedException if a circuit is open
+     */
+    private List<Guard> admit(Set<String> methods) throws CallNotPermittedException {
+        List<Guard> guards = new ArrayList<>(methods.size());
+        for (String method : methods) {
+            CircuitBreaker breaker = breakers.computeIfAbsent(method,
+                    m -> circuitBreakerBuilder.build(baseUrlWithoutKey() + " " + m));
+            long permit = breaker.tryAcquirePermission();
+            if (permit == CircuitBreaker.NOT_PERMITTED) {
+                guards.forEach(guard -> guard.breaker().releasePermission(guard.permit()));
+                throw new CallNotPermittedException("Circuit open for " + breaker.getName(), true);
+            }
+            guards.add(new Guard(breaker, permit));
+        }
+        return guards;
+    }
+
+    /**
+     * Records a successful call on every involved circuit.
+     *
+     * @param guards the circuit breakers that admitted the request
+     */
+    private static void onSuccess(List<Guard> guards) {
+        guards.forEach(guard -> guard.breaker().onSuccess(guard.permit()));
+    }
+
+    /**
+     * Records the outcome of a failed call on every involved circuit. Failures that say nothing about
+     * the endpoint's health, such as client errors or unparseable responses, count as successes; calls
+     * that a bulkhead rejected before sending, and calls cancelled by the caller, are not recorded.
+     *
+     * @param guards the circuit breakers that admitted the request
+     * @param error the failure
+     */
+    private static void onFailure(List<Guard> guards, Throwable error) {
+        if (unwrap(error) instanceof CallNotPermittedException || unwrap(error) instanceof CancellationException) {
+            guards.forEach(guard -> guard.breaker().releasePermission(guard.permit()));
+        } else if (isEndpointFailure(error)) {
+            guards.forEach(guard -> guard.breaker().onFailure(guard.permit()));
+        } else {
+            onSuccess(guards);
+        }
+    }
+
+    /**
+     * Decides whether a failure indicates that the endpoint is unhealthy.
+     *
+     * @param error the failure
+     * @return {@code true} for server errors, 429 responses and transport failures
+     */
+    private static boolean isEndpointFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof HttpStatusException statusException) {
+            return statusException.getStatusCode() >= 500 || statusException.getStatusCode() == 429;
+        }
+        return cause instanceof IOException && !(cause instanceof JsonProcessingException);
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by future composition.
+     *
+     * @param e the failure
+     * @return the underlying cause
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * Extracts the JSON-RPC methods of a call or batch; bodies that are not JSON-RPC are keyed as {@code POST}.
+     *
+     * @param jsonBody the request body
+     * @return the methods the request invokes
+     */
+    private static Set<String> methodsOf(String jsonBody) {
+        try {
+            JsonNode node = objectMapper.readTree(jsonBody);
+            Set<String> methods = new LinkedHashSet<>();
+            if (node.isArray()) {
+                node.forEach(call -> methods.add(call.path("method").asText("POST")));
+            } else {
+                methods.add(node.path("method").asText("POST"));
+            }
+            return methods;
+        } catch (JsonProcessingException e) {
+            return Set.of("POST");
+        }
+    }
+
+    /**
+     * Returns the base URL with its trailing API key segment removed, so keys do not end up in logs.
+     *
+     * @return the base URL without the API key
+     */
+    private String baseUrlWithoutKey() {
+        int lastSlash = baseUrl.lastIndexOf('/');
+        return lastSlash > "https://".length() ? baseUrl.substring(0, lastSlash) : baseUrl;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+
+/**
+ * Compute-unit (CU) costs of the Alchemy methods used by this application, as published in
+ * Alchemy's compute unit table. Used to weight requests in a {@link ComputeUnitRateLimiter}.
+ */
+public final class ComputeUnitCosts {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static final int DEFAULT_COST = 26;  // Cost assumed for JSON-RPC methods not listed below
+    public static final int PRICES_COST = 40;  // Cost of a Prices API request
+
+    private static final Map<String, Integer> METHOD_COSTS = Map.of(
+            "eth_blockNumber", 10,
+            "eth_getBalance", 19,
+            "alchemy_getTokenMetadata", 10,
+            "alchemy_getTokenBalances", 26,
+            "alchemy_getAssetTransfers", 150
+    );
+
+    private ComputeUnitCosts() {
+    }
+
+    /**
+     * Returns the compute-unit cost of a single JSON-RPC method.
+     *
+     * @param method the JSON-RPC method name
+     * @return the method's CU cost, or {@link #DEFAULT_COST} if it is not listed
+     */
+    public static int ofMethod(String method) {
+        return METHOD_COSTS.getOrDefault(method, DEFAULT_COST);
+    }
+
+    /**
+     * Returns the compute-unit cost of a POST body. JSON-RPC calls are costed by method, batches
+     * by the sum of their calls, and any other body (e.g. a Prices API request) by the fallback cost.
+     *
+     * @param jsonBody the request body
+     * @param fallbackCost the cost of a body that is not a JSON-RPC call
+     * @return the CU cost of the request
+     */
+    public static int ofRequestBody(String jsonBody, int fallbackCost) {
+        try {
+            JsonNode node = objectMapper.readTree(jsonBody);
+            if (node.isArray()) {
+                int total = 0;
+                for (JsonNode call : node) {
+                    total += ofMethod(call.path("method").asText());
+                }
+                return total;
+            }
+            if (node.has("method")) {
+                return ofMethod(node.get("method").asText());
+            }
+        } catch (JsonProcessingException e) {
+            // Not JSON, cost it like any other non JSON-RPC request
+        }
+        return fallbackCost;
+    }
+}
@@ -0,0 +1,140 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token-bucket rate limiter measured in Alchemy compute units (CU). The bucket refills at a
+ * fixed number of units per second up to a burst capacity, and each request reserves units
+ * according to its cost.
+ * <p>
+ * Reservations are granted strictly in arrival order: a request that cannot be paid from the
+ * current balance borrows against future refills and is told how long to wait, and every later
+ * request queues behind that debt. Callers therefore wait their turn instead of failing, and the
+ * key never exceeds its configured throughput.
+ */
+public class ComputeUnitRateLimiter {
+
+    private final double unitsPerSecond;
+    private final double capacity;
+
+    private double availableUnits;
+    private long lastRefillNanos;
+    private long consumedUnits;
+
+    /**
+     * Constructs a new {@code ComputeUnitRateLimiter} that starts with a full bucket.
+     *
+     * @param unitsPerSecond the sustained compute-unit budget per second
+     * @param capacity the maximum number of units that can accumulate for a burst
+     */
+    public ComputeUnitRateLimiter(double unitsPerSecond, double capacity) {
+        if (unitsPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Compute unit rate and capacity must be positive");
+        }
+        this.unitsPerSecond = unitsPerSecond;
+        this.capacity = capacity;
+        this.availableUnits = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Reserves the given number of compute units and returns how long the caller must wait
+     * before sending its request.
+     *
+     * @param units the compute-unit cost of the request
+     * @return the wait time in nanoseconds, {@code 0} if the request may proceed immediately
+     */
+    public synchronized long reserve(int units) {
+        refill(System.nanoTime());
+        availableUnits -= units;
+        consumedUnits += units;
+
+        if (availableUnits >= 0) {
+            return 0L;
+        }
+        return (long) Math.ceil(-availableUnits / unitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Reserves the given number of compute units and blocks until the request may proceed.
+     *
+     * @param units the compute-unit cost of the request
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire(int units) throws InterruptedException {
+        long waitNanos = reserve(units);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Returns whether requests are currently queued behind the budget, i.e. a request arriving now would wait.
+     *
+     * @return {@code true} if the budget is in debt
+     */
+    public synchronized boolean isQueueing() {
+        refill(System.nanoTime());
+        return availableUnits < 0;
+    }
+
+    /**
+     * Returns a snapshot of the current budget usage.
+     *
+     * @return the current {@link BudgetUsage}
+     */
+    public synchronized BudgetUsage getUsage() {
+        refill(System.nanoTime());
+
+        BudgetUsage usage = new BudgetUsage();
+        usage.setUnitsPerSecond(unitsPerSecond);
+        usage.setCapacity(capacity);
+        usage.setAvailableUnits(availableUnits);
+        usage.setConsumedUnits(consumedUnits);
+        return usage;
+    }
+
+    /**
+     * Adds the units accrued since the last refill, never exceeding the burst capacity.
+     *
+     * @param now the current {@link System#nanoTime()} value
+     */
+    private void refill(long now) {
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        availableUnits = Math.min(capacity, availableUnits + elapsedSeconds * unitsPerSecond);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * Snapshot of a key's compute-unit budget.
+     */
+    @Data
+    public static class BudgetUsage {
+
+        private double unitsPerSecond;  // Sustained compute-unit budget per second
+        private double capacity;  // Maximum units that can accumulate for a burst
+        private double availableUnits;  // Units available right now; negative while callers are queued
+        private long consumedUnits;  // Total units reserved since the limiter was created
+
+        /**
+         * Returns the share of the burst capacity currently reserved.
+         * Values above {@code 1.0} mean requests are queued waiting for refills.
+         *
+         * @return reserved units divided by capacity
+         */
+        public double getUtilization() {
+            return (capacity - availableUnits) / capacity;
+        }
+
+        /**
+         * Returns how long a request arriving now would have to wait for its turn.
+         *
+         * @return the current queueing delay in milliseconds
+         */
+        public long getQueueDelayMillis() {
+            return availableUnits >= 0 ? 0L : (long) Math.ceil(-availableUnits / unitsPerSecond * 1000);
+        }
+    }
+}
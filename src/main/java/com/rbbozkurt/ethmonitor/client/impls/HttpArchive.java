@@ -0,0 +1,293 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * An on-disk archive of HTTP request/response pairs used by {@link RecordingHttpClient} and
+ * {@link ReplayingHttpClient} to run the application offline against realistic payloads.
+ * <p>
+ * The archive is a gzip-compressed JSON-lines file; each line holds a request key, the observed
+ * latency and the response body. Request keys are normalized so that replays match independently
+ * of the API key, the JSON-RPC id and the order of object fields: a JSON-RPC call is keyed by its
+ * endpoint, method and params, any other POST by its endpoint and body, and a GET by its URL.
+ * Each recording session appends a new gzip member, so existing recordings are kept; when a key
+ * was recorded more than once, the latest response wins. A session that was not closed leaves an
+ * unfinished member behind, after which nothing appended could be read back; the next recording
+ * session therefore first rewrites the entries that could be read into a fresh file.
+ */
+public class HttpArchive implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(HttpArchive.class.getName());
+
+    // Writes object fields in sorted order so equal requests produce equal keys
+    private static final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    // Keeps decimals as written so recorded responses replay with their full precision
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+            .configure(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES, false);
+
+    // Matches the API key segment of node ("/v2/<key>") and prices ("/prices/v1/<key>") URLs
+    private static final Pattern API_KEY_SEGMENT = Pattern.compile("/(v2|prices/v1)/[^/?#]+");
+
+    /**
+     * How an archive is used.
+     */
+    public enum Mode {
+        RECORD,  // Requests go to the network and their responses are appended to the archive
+        REPLAY  // Requests are answered from the archive without touching the network
+    }
+
+    /**
+     * A recorded response.
+     *
+     * @param responseJson the response body as JSON
+     * @param latencyMicros the latency observed when the response was recorded, in microseconds
+     */
+    public record Entry(String responseJson, long latencyMicros) {}
+
+    private final Path path;  // Location of the archive file
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();  // Recorded responses by request key
+    private Writer writer;  // Open only while recording
+
+    /**
+     * Constructs an archive backed by the given file, loading any responses already recorded in it.
+     *
+     * @param path the archive file
+     * @param mode whether the archive is recorded to or replayed from
+     * @throws IOException if the archive cannot be read or opened for appending
+     */
+    public HttpArchive(Path path, Mode mode) throws IOException {
+        this.path = path;
+        boolean truncated = false;
+        if (Files.exists(path)) {
+            truncated = load();
+        } else if (mode == Mode.REPLAY) {
+            throw new IOException("HTTP archive not found: " + path);
+        }
+        if (mode == Mode.RECORD) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (truncated) {
+                rewrite();
+            }
+            // syncFlush lets every appended entry reach the file without closing the gzip member
+            this.writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                    Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), true),
+                    StandardCharsets.UTF_8));
+        }
+        logger.info("📼 Opened HTTP archive " + path + " in " + mode + " mode with " + entries.size() + " entries");
+    }
+
+    /**
+     * Looks up the recorded response for a request key.
+     *
+     * @param key the normalized request key
+     * @return the recorded entry, or {@code null} if the request was never recorded
+     */
+    public Entry lookup(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Records a response and appends it to the archive file.
+     *
+     * @param key the normalized request key
+     * @param responseJson the response body as JSON
+     * @param latencyMicros the observed latency in microseconds
+     * @throws IOException if the entry cannot be written
+     */
+    public void record(String key, String responseJson, long latencyMicros) throws IOException {
+        Entry entry = new Entry(responseJson, latencyMicros);
+        entries.put(key, entry);
+
+        String serialized = line(key, entry);
+
+        synchronized (this) {
+            if (writer == null) {
+                throw new IOException("HTTP archive " + path + " is not open for recording");
+            }
+            writer.write(serialized);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /**
+     * Returns the number of distinct requests in the archive.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Finishes the current gzip member and closes the archive file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Builds the key of a POST request.
+     *
+     * @param baseUrl the URL the request is posted to
+     * @param jsonBody the request body
+     * @return the normalized request key
+     */
+    public static String postKey(String baseUrl, String jsonBody) {
+        String endpoint = redactApiKey(baseUrl);
+        try {
+            JsonNode body = objectMapper.readTree(jsonBody);
+            if (body.isObject() && body.has("method")) {
+                return "POST " + endpoint + " " + body.get("method").asText() + " " + canonical(body.path("params"));
+            }
+            return "POST " + endpoint + " " + canonical(body);
+        } catch (JsonProcessingException e) {
+            return "POST " + endpoint + " " + jsonBody;
+        }
+    }
+
+    /**
+     * Builds the key of a GET request.
+     *
+     * @param url the full request URL
+     * @return the normalized request key
+     */
+    public static String getKey(String url) {
+        return "GET " + redactApiKey(url);
+    }
+
+    /**
+     * Removes the API key from an Alchemy URL so recordings replay under any key.
+     *
+     * @param url the URL
+     * @return the URL without its API key segment
+     */
+    public static String redactApiKey(String url) {
+        return API_KEY_SEGMENT.matcher(url).replaceFirst("/$1");
+    }
+
+    /**
+     * Serializes a JSON tree with object fields in sorted order.
+     *
+     * @param node the JSON tree
+     * @return the canonical JSON text
+     * @throws JsonProcessingException if the tree cannot be serialized
+     */
+    private static String canonical(JsonNode node) throws JsonProcessingException {
+        return canonicalMapper.writeValueAsString(canonicalMapper.treeToValue(node, Object.class));
+    }
+
+    /**
+     * Serializes an entry as one archive line.
+     *
+     * @param key the normalized request key
+     * @param entry the recorded response
+     * @return the JSON line, without its line break
+     * @throws IOException if the response is not valid JSON
+     */
+    private static String line(String key, Entry entry) throws IOException {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("key", key);
+        line.put("latencyMicros", entry.latencyMicros());
+        line.set("response", objectMapper.readTree(entry.responseJson()));
+        return objectMapper.writeValueAsString(line);
+    }
+
+    /**
+     * Reads every entry of the archive file. A truncated member, left behind by a recording that was
+     * not closed, is tolerated: the entries flushed before it are kept, while anything appended after
+     * it cannot be inflated any more and is lost.
+     *
+     * @return {@code true} if the file ends in a truncated or corrupt member
+     * @throws IOException if the file cannot be read
+     */
+    private boolean load() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        boolean truncated = false;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            in.transferTo(content);
+        } catch (EOFException | ZipException e) {
+            // Everything inflated before the missing trailer or the next member's header is already in the buffer
+            truncated = true;
+        }
+
+        String text = content.toString(StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        // Only complete lines are parsed; a line cut off by an unfinished recording is skipped
+        while ((end = text.indexOf('\n', start)) >= 0) {
+            String line = text.substring(start, end);
+            start = end + 1;
+            if (line.isBlank()) continue;
+            JsonNode node = objectMapper.readTree(line);
+            entries.put(node.get("key").asText(), new Entry(
+                    objectMapper.writeValueAsString(node.get("response")),
+                    node.path("latencyMicros").asLong()));
+        }
+        if (truncated) {
+            logger.warning("⚠️ HTTP archive " + path + " ends with an unfinished recording; loaded " + entries.size() + " entries");
+        }
+        return truncated;
+    }
+
+    /**
+     * Replaces the archive file with a single, complete gzip member holding the loaded entries, so that
+     * the members appended next are not written behind an unfinished one.
+     *
+     * @throws IOException if the file cannot be rewritten
+     */
+    private void rewrite() throws IOException {
+        Path fresh = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(fresh)), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.write(line(entry.getKey(), entry.getValue()));
+                out.write('\n');
+            }
+        }
+        try {
+            Files.move(fresh, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(fresh, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("📼 Rewrote HTTP archive " + path + " with " + entries.size() + " entries");
+    }
+}
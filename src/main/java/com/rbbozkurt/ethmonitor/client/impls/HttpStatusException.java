@@ -0,0 +1,48 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Signals that an HTTP request completed with a non-successful status code. Carries the
+ * status code and the server's {@code Retry-After} hint, if any, so callers can decide
+ * whether and when to retry.
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new {@code HttpStatusException}.
+     *
+     * @param message the detail message
+     * @param statusCode the HTTP status code of the response
+     * @param retryAfter the delay requested by the server's {@code Retry-After} header, or {@code null}
+     */
+    public HttpStatusException(String message, int statusCode, Duration retryAfter) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns the HTTP status code of the failed response.
+     *
+     * @return the HTTP status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the delay requested by the server's {@code Retry-After} header.
+     *
+     * @return the requested delay, or {@code null} if the response carried no usable header
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
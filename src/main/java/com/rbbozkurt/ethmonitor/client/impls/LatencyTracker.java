@@ -0,0 +1,61 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent request latencies in a ring buffer and answers percentile queries.
+ * The percentile is recomputed every few samples rather than on every request.
+ */
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private int count;
+    private int next;
+    private double cachedPercentile = -1;
+    private long cachedValue = -1;
+    private int samplesSinceRecompute;
+
+    /**
+     * Constructs a tracker keeping the given number of recent samples.
+     *
+     * @param size the number of samples kept
+     */
+    public LatencyTracker(int size) {
+        this.samples = new long[size];
+    }
+
+    /**
+     * Records the latency of a request.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        samplesSinceRecompute++;
+    }
+
+    /**
+     * Returns the given latency percentile of the recent samples.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @param minSamples the number of samples required for an answer
+     * @return the latency in nanoseconds, or -1 while fewer than {@code minSamples} have been recorded
+     */
+    public synchronized long percentile(double percentile, int minSamples) {
+        if (count < minSamples) {
+            return -1;
+        }
+        if (percentile != cachedPercentile || samplesSinceRecompute >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedValue = sorted[Math.max(0, Math.min(count - 1, (int) Math.ceil(percentile * count) - 1))];
+            cachedPercentile = percentile;
+            samplesSinceRecompute = 0;
+        }
+        return cachedValue;
+    }
+}
@@ -0,0 +1,62 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A decorating {@link HttpClient} that records the latency of every successful request in a
+ * {@link LatencyTracker}. Placed directly on the transport, below the rate limiter and the bulkhead,
+ * it measures time on the wire only, not time spent queueing for compute units or permits.
+ */
+public class LatencyTrackingHttpClient implements HttpClient {
+
+    private final HttpClient delegate;
+    private final LatencyTracker latencies;
+
+    /**
+     * Constructs a new {@code LatencyTrackingHttpClient}.
+     *
+     * @param delegate the client used to send requests
+     * @param latencies the tracker receiving the latency of each successful request
+     */
+    public LatencyTrackingHttpClient(HttpClient delegate, LatencyTracker latencies) {
+        this.delegate = delegate;
+        this.latencies = latencies;
+    }
+
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        long start = System.nanoTime();
+        T response = delegate.post(jsonBody, responseType);
+        latencies.record(System.nanoTime() - start);
+        return response;
+    }
+
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        long start = System.nanoTime();
+        T response = delegate.get(url, responseType);
+        latencies.record(System.nanoTime() - start);
+        return response;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        return tracked(System.nanoTime(), delegate.postAsync(jsonBody, responseType));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return tracked(System.nanoTime(), delegate.getAsync(url, responseType));
+    }
+
+    private <T> CompletableFuture<T> tracked(long start, CompletableFuture<T> response) {
+        return CancellableFutures.whenComplete(response, (value, error) -> {
+            if (error == null) {
+                latencies.record(System.nanoTime() - start);
+            }
+        });
+    }
+}
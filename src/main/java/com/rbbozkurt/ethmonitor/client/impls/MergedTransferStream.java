@@ -0,0 +1,130 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A {@link TransferStream} merging several streams, each in ascending block order, into one in ascending block
+ * order. The next transfer of each stream is kept in a heap keyed by block, so each emitted transfer costs
+ * {@code O(log k)} for {@code k} streams; transfers of the same block are emitted in stream order. A transfer
+ * whose {@code uniqueId} was already emitted is dropped; since all copies of a transfer are in the same block,
+ * only the ids of the current block are remembered. That relies on every stream being in ascending block order,
+ * so a stream going back to an earlier block fails the merge rather than letting a copy through. At most
+ * {@code maxCount} transfers are emitted.
+ */
+class MergedTransferStream implements TransferStream {
+
+    /**
+     * The next transfer of one of the merged streams.
+     *
+     * @param transfer the transfer
+     * @param source the index of the stream it was taken from
+     */
+    private record Head(Transfer transfer, int source) {}
+
+    private static final Comparator<Head> ORDER = Comparator
+            .comparingLong((Head head) -> head.transfer().blockNumber())
+            .thenComparingInt(Head::source);
+
+    private final List<TransferStream> streams;
+    private final int maxCount;  // Maximum number of transfers to emit
+    private final long[] lastBlocks;  // Block of the last transfer taken from each stream, -1 if none
+
+    private final PriorityQueue<Head> heads = new PriorityQueue<>(ORDER);  // Next transfer of each stream not exhausted
+    private boolean started;  // Whether the first transfer of each stream has been taken
+    private int drained = -1;  // Stream whose head was last taken from the heap and must be advanced, -1 if none
+    private Transfer next;  // Next transfer to emit, null if not determined yet
+    private final Set<String> blockIds = new HashSet<>();  // Ids emitted in the current block
+    private long block = -1;  // Block of the last emitted transfer
+    private int emitted;
+
+    /**
+     * Constructs a merged stream.
+     *
+     * @param streams the streams, each in ascending block order
+     * @param maxCount the maximum number of transfers to emit
+     */
+    MergedTransferStream(List<TransferStream> streams, int maxCount) {
+        this.streams = List.copyOf(streams);
+        this.maxCount = maxCount;
+        this.lastBlocks = new long[this.streams.size()];
+        Arrays.fill(lastBlocks, -1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            for (int i = 0; i < streams.size(); i++) {
+                advance(i);
+            }
+        }
+        while (next == null && emitted < maxCount) {
+            // Advanced only now, so a transfer is not held back while its stream waits for the next page
+            if (drained >= 0) {
+                advance(drained);
+                drained = -1;
+            }
+            Head head = heads.poll();
+            if (head == null) {
+                return false;
+            }
+            drained = head.source();
+
+            Transfer candidate = head.transfer();
+            if (candidate.blockNumber() != block) {
+                block = candidate.blockNumber();
+                blockIds.clear();
+            }
+            if (candidate.getUniqueId() == null || blockIds.add(candidate.getUniqueId())) {
+                next = candidate;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Transfer next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Transfer transfer = next;
+        next = null;
+        emitted++;
+        return transfer;
+    }
+
+    @Override
+    public void close() {
+        for (TransferStream stream : streams) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Takes the next transfer of a stream into the heap, unless the stream is exhausted.
+     *
+     * @param source the index of the stream
+     * @throws IllegalStateException if the stream went back to an earlier block
+     */
+    private void advance(int source) {
+        TransferStream stream = streams.get(source);
+        if (stream.hasNext()) {
+            Transfer transfer = stream.next();
+            if (transfer.blockNumber() < lastBlocks[source]) {
+                throw new IllegalStateException("Transfer stream " + source + " went back from block "
+                        + lastBlocks[source] + " to block " + transfer.blockNumber());
+            }
+            lastBlocks[source] = transfer.blockNumber();
+            heads.add(new Head(transfer, source));
+        }
+    }
+}
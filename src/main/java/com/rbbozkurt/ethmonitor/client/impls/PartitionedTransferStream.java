@@ -0,0 +1,274 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A {@link TransferStream} over one transfer query of a deep wallet, fetched as block ranges paged concurrently
+ * instead of one page after another.
+ * <p>
+ * The first page and the latest block number are fetched together as a probe. If the first page already holds
+ * the whole history, nothing else is fetched. Otherwise the transfer density of the first page is extrapolated
+ * to the remaining blocks up to the latest, and that span is split into ranges of roughly
+ * {@value #TRANSFERS_PER_RANGE} expected transfers each, at least two per worker so that uneven ranges even out.
+ * Up to {@code parallelism} ranges are paged at once, each to its end, and the ranges are emitted in block order.
+ * <p>
+ * Ranges are started in block order and at most {@code 2 * parallelism} completed ranges are kept ahead of the
+ * consumer. Once the ranges emitted or completed in order hold {@code maxCount} transfers, later ranges are no
+ * longer started.
+ */
+class PartitionedTransferStream implements TransferStream {
+
+    private static final Logger logger = Logger.getLogger(PartitionedTransferStream.class.getName());
+
+    private static final int TRANSFERS_PER_RANGE = 500;  // Expected transfers per range, five pages of 100
+    private static final int MAX_RANGES_PER_WORKER = 8;  // Upper bound of ranges per unit of parallelism
+
+    /**
+     * Fetches one page of the transfers in a block range.
+     */
+    @FunctionalInterface
+    interface RangePageFetcher {
+
+        /**
+         * Fetches a page of transfers.
+         *
+         * @param fromBlock the first block of the range
+         * @param toBlock the last block of the range, or -1 for the latest block
+         * @param count the number of transfers still wanted
+         * @param pageKey the pagination key for the page to fetch (null for the first page)
+         * @return a future completing with the page
+         */
+        CompletableFuture<TransferResponse> fetch(long fromBlock, long toBlock, int count, String pageKey);
+    }
+
+    /**
+     * A block range and its transfers, once fetched.
+     *
+     * @param fromBlock the first block of the range
+     * @param toBlock the last block of the range
+     * @param transfers a future completing with the transfers of the range, in ascending block order
+     */
+    private record Range(long fromBlock, long toBlock, CompletableFuture<List<Transfer>> transfers) {}
+
+    /**
+     * The outcome of the probe.
+     *
+     * @param head the transfers of the probe page emitted before the ranges
+     * @param ranges the ranges covering the blocks after the probe page, empty if it holds the whole history
+     */
+    private record Plan(List<Transfer> head, List<Range> ranges) {}
+
+    private final RangePageFetcher fetcher;
+    private final int maxCount;  // Maximum number of transfers to emit
+    private final int parallelism;  // Maximum number of ranges paged at once
+    private final CompletableFuture<Plan> plan;  // The ranges, once the probe has completed
+
+    // Scheduling state, guarded by this
+    private int started;
+    private int running;
+    private int consumed;
+    private int countInOrder;  // Transfers of the leading ranges that have completed in order
+    private int completeInOrder;  // Number of leading ranges that have completed
+    private boolean closed;
+
+    // Consumer state, only touched by the consuming thread
+    private Iterator<Transfer> current = Collections.emptyIterator();
+    private int nextRange = -1;  // Index of the next range to emit, -1 while the head is pending
+    private int emitted;
+
+    /**
+     * Constructs the stream and starts the probe.
+     *
+     * @param fetcher fetches pages of block ranges
+     * @param latestBlock fetches the number of the latest block
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to emit
+     * @param parallelism the maximum number of ranges paged at once
+     */
+    PartitionedTransferStream(RangePageFetcher fetcher, Supplier<CompletableFuture<Long>> latestBlock,
+                              long fromBlock, int maxCount, int parallelism) {
+        this.fetcher = fetcher;
+        this.maxCount = maxCount;
+        this.parallelism = Math.max(1, parallelism);
+
+        CompletableFuture<TransferResponse> firstPage = fetcher.fetch(fromBlock, -1, maxCount, null);
+        CompletableFuture<Long> latest = latestBlock.get();
+        this.plan = firstPage.thenCombine(latest, (page, latestNumber) -> plan(fromBlock, page, latestNumber));
+        plan.thenRun(this::schedule);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (emitted >= maxCount) {
+                return false;
+            }
+            Plan planned = plan.join();
+            if (nextRange < 0) {
+                current = planned.head().iterator();
+                nextRange = 0;
+                continue;
+            }
+            if (nextRange >= planned.ranges().size()) {
+                return false;
+            }
+            List<Transfer> transfers = planned.ranges().get(nextRange++).transfers().join();
+            synchronized (this) {
+                consumed = nextRange;
+            }
+            schedule();
+            current = transfers.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Transfer next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        emitted++;
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        current = Collections.emptyIterator();
+        emitted = maxCount;
+    }
+
+    /**
+     * Splits the blocks after the probe page into ranges.
+     *
+     * @param fromBlock the first block to include
+     * @param page the probe page
+     * @param latest the number of the latest block
+     * @return the plan
+     */
+    private Plan plan(long fromBlock, TransferResponse page, long latest) {
+        List<Transfer> transfers = page.getResult() != null && page.getResult().getTransfers() != null
+                ? page.getResult().getTransfers() : List.of();
+        if (page.getResult() == null || page.getResult().getPageKey() == null || transfers.isEmpty() || transfers.size() >= maxCount) {
+            return new Plan(transfers, List.of());
+        }
+
+        // The page may end in the middle of a block, so that block is fetched again as part of the ranges
+        long lastBlock = transfers.get(transfers.size() - 1).blockNumber();
+        List<Transfer> kept = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            if (transfer.blockNumber() < lastBlock) {
+                kept.add(transfer);
+            }
+        }
+
+        long start = Math.max(fromBlock, lastBlock);
+        long end = Math.max(start, latest);
+        long sampledBlocks = Math.max(1, lastBlock - Math.max(fromBlock, transfers.get(0).blockNumber()) + 1);
+        double density = (double) transfers.size() / sampledBlocks;
+        double expected = Math.min(maxCount - kept.size(), density * (end - start + 1));
+        int count = (int) Math.max(2L * parallelism,
+                Math.min((long) MAX_RANGES_PER_WORKER * parallelism, (long) Math.ceil(expected / TRANSFERS_PER_RANGE)));
+        count = (int) Math.min(count, end - start + 1);
+
+        List<Range> planned = new ArrayList<>(count);
+        long span = end - start + 1;
+        for (int i = 0; i < count; i++) {
+            long rangeFrom = start + span * i / count;
+            long rangeTo = i == count - 1 ? end : start + span * (i + 1) / count - 1;
+            planned.add(new Range(rangeFrom, rangeTo, new CompletableFuture<>()));
+        }
+        logger.fine(() -> "🧩 Split blocks " + start + ".." + end + " into " + planned.size() + " ranges, ~"
+                + Math.round(expected) + " transfers expected");
+        return new Plan(kept, planned);
+    }
+
+    /**
+     * Starts as many ranges as the parallelism, the window ahead of the consumer and {@code maxCount} allow.
+     */
+    private void schedule() {
+        List<Range> toStart = new ArrayList<>();
+        Plan planned = plan.getNow(null);
+        if (planned == null) {
+            return;
+        }
+        List<Range> ranges = planned.ranges();
+        int needed = maxCount - planned.head().size();
+        synchronized (this) {
+            while (!closed && started < ranges.size() && running < parallelism
+                    && started < consumed + 2 * parallelism && countInOrder < needed) {
+                toStart.add(ranges.get(started++));
+                running++;
+            }
+        }
+        for (Range range : toStart) {
+            fetchRange(range, null, new ArrayList<>())
+                    .whenComplete((transfers, failure) -> onRangeDone(range, transfers, failure));
+        }
+    }
+
+    /**
+     * Pages through a range to its end, or until {@code maxCount} transfers are collected.
+     *
+     * @param range the range
+     * @param pageKey the pagination key for the page to fetch (null for the first page)
+     * @param collected the transfers collected so far
+     * @return a future completing with the transfers of the range
+     */
+    private CompletableFuture<List<Transfer>> fetchRange(Range range, String pageKey, List<Transfer> collected) {
+        return fetcher.fetch(range.fromBlock(), range.toBlock(), maxCount - collected.size(), pageKey).thenCompose(page -> {
+            if (page.getResult() == null || page.getResult().getTransfers() == null) {
+                return CompletableFuture.completedFuture(collected);
+            }
+            collected.addAll(page.getResult().getTransfers());
+            String nextPageKey = page.getResult().getPageKey();
+            boolean stop;
+            synchronized (this) {
+                stop = closed;
+            }
+            if (nextPageKey != null && collected.size() < maxCount && !stop) {
+                return fetchRange(range, nextPageKey, collected);
+            }
+            return CompletableFuture.completedFuture(collected);
+        });
+    }
+
+    /**
+     * Records a completed range and starts the next ones.
+     *
+     * @param range the range
+     * @param transfers the transfers of the range, or {@code null} on failure
+     * @param failure the failure, or {@code null} on success
+     */
+    private void onRangeDone(Range range, List<Transfer> transfers, Throwable failure) {
+        if (failure != null) {
+            range.transfers().completeExceptionally(failure);
+        } else {
+            range.transfers().complete(transfers);
+        }
+        List<Range> ranges = plan.join().ranges();
+        synchronized (this) {
+            running--;
+            while (completeInOrder < ranges.size() && ranges.get(completeInOrder).transfers().isDone()) {
+                CompletableFuture<List<Transfer>> done = ranges.get(completeInOrder++).transfers();
+                if (!done.isCompletedExceptionally()) {
+                    countInOrder += done.join().size();
+                }
+            }
+        }
+        schedule();
+    }
+}
@@ -0,0 +1,180 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link TransferStream} over one paginated transfer query, fetching pages ahead of the consumer. At most
+ * {@code prefetch} pages are buffered: once the buffer is full, the next page is only requested after the
+ * consumer has taken one, so a slow consumer holds back the fetch instead of piling up pages. Pages are
+ * requested one after another, as each needs the page key of the one before.
+ */
+class PrefetchingTransferPages implements TransferStream {
+
+    private static final Object END = new Object();  // Queued after the last page
+
+    private final BiFunction<String, Integer, CompletableFuture<TransferResponse>> pageFetcher;  // Fetches a page by key and remaining count
+    private final int maxCount;  // Maximum number of transfers to fetch in total
+    private final int prefetch;  // Maximum number of pages buffered ahead of the consumer
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();  // Pages, a failure, or END
+
+    // Fetch state, guarded by this
+    private String nextPageKey;
+    private int fetched;
+    private int buffered;
+    private boolean inFlight;
+    private boolean exhausted;
+    private boolean closed;
+
+    // Consumer state, only touched by the consuming thread
+    private Iterator<Transfer> page = Collections.emptyIterator();
+    private int delivered;
+    private boolean finished;
+
+    /**
+     * Constructs the stream and requests the first page.
+     *
+     * @param pageFetcher fetches the page with the given key ({@code null} for the first) of at most the given count
+     * @param maxCount the maximum number of transfers to fetch in total
+     * @param prefetch the maximum number of pages buffered ahead of the consumer
+     */
+    PrefetchingTransferPages(BiFunction<String, Integer, CompletableFuture<TransferResponse>> pageFetcher, int maxCount, int prefetch) {
+        this.pageFetcher = pageFetcher;
+        this.maxCount = maxCount;
+        this.prefetch = Math.max(1, prefetch);
+        if (maxCount > 0) {
+            fetchNext();
+        } else {
+            exhausted = true;
+            queue.add(END);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (finished || delivered >= maxCount) {
+                return false;
+            }
+            Object next = take();
+            if (next == END) {
+                finished = true;
+                return false;
+            }
+            if (next instanceof Throwable failure) {
+                finished = true;
+                throw failure instanceof CompletionException completion ? completion : new CompletionException(failure);
+            }
+            @SuppressWarnings("unchecked")
+            List<Transfer> transfers = (List<Transfer>) next;
+            page = transfers.iterator();
+            synchronized (this) {
+                buffered--;
+            }
+            fetchNext();
+        }
+        return true;
+    }
+
+    @Override
+    public Transfer next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        delivered++;
+        return page.next();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        finished = true;
+        page = Collections.emptyIterator();
+        queue.clear();
+    }
+
+    /**
+     * Requests the next page, unless one is already in flight, the buffer is full or the query is exhausted.
+     */
+    private void fetchNext() {
+        String pageKey;
+        int remaining;
+        synchronized (this) {
+            if (inFlight || exhausted || closed || buffered >= prefetch) {
+                return;
+            }
+            inFlight = true;
+            pageKey = nextPageKey;
+            remaining = maxCount - fetched;
+        }
+        CompletableFuture<TransferResponse> request;
+        try {
+            request = pageFetcher.apply(pageKey, remaining);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete(this::onPage);
+    }
+
+    /**
+     * Buffers a fetched page, or the failure, and requests the next page if there is room.
+     *
+     * @param response the fetched page, or {@code null} on failure
+     * @param failure the failure, or {@code null} on success
+     */
+    private void onPage(TransferResponse response, Throwable failure) {
+        synchronized (this) {
+            inFlight = false;
+            if (closed) {
+                return;
+            }
+            if (failure != null) {
+                exhausted = true;
+                queue.add(failure);
+                return;
+            }
+            List<Transfer> transfers = response.getResult() != null ? response.getResult().getTransfers() : null;
+            if (transfers == null) {
+                exhausted = true;
+                queue.add(END);
+                return;
+            }
+            fetched += transfers.size();
+            nextPageKey = response.getResult().getPageKey();
+            buffered++;
+            queue.add(transfers);
+            if (nextPageKey == null || fetched >= maxCount) {
+                exhausted = true;
+                queue.add(END);
+            }
+        }
+        fetchNext();
+    }
+
+    /**
+     * Takes the next page, failure or end marker, waiting for it to arrive.
+     *
+     * @return the next queued element
+     */
+    private Object take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Interrupted while waiting for transfers", e);
+        }
+    }
+}
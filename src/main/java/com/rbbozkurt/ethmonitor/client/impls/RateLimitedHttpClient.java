@@ -0,0 +1,123 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A decorating {@link HttpClient} that paces requests through a {@link ComputeUnitRateLimiter}.
+ * Every request reserves its compute-unit cost before it is sent, so requests queue fairly
+ * behind the key's budget instead of tripping HTTP 429 responses. A request cancelled while it waits is
+ * not sent, though the compute units it reserved stay spent.
+ */
+public class RateLimitedHttpClient implements HttpClient {
+
+    private final HttpClient delegate;
+    private final ComputeUnitRateLimiter rateLimiter;
+    private final int nonJsonRpcCost;
+
+    /**
+     * Constructs a new {@code RateLimitedHttpClient}.
+     *
+     * @param delegate the client used to send requests once they are admitted
+     * @param rateLimiter the limiter holding the API key's compute-unit budget
+     * @param nonJsonRpcCost the cost of a GET request or a POST body that is not a JSON-RPC call
+     */
+    public RateLimitedHttpClient(HttpClient delegate, ComputeUnitRateLimiter rateLimiter, int nonJsonRpcCost) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.nonJsonRpcCost = nonJsonRpcCost;
+    }
+
+    /**
+     * Waits for the request's compute units, then sends the POST request.
+     *
+     * @param jsonBody the request body in JSON format
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     * @throws IOException if the request fails, the response cannot be parsed or the wait is interrupted
+     */
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        acquire(ComputeUnitCosts.ofRequestBody(jsonBody, nonJsonRpcCost));
+        return delegate.post(jsonBody, responseType);
+    }
+
+    /**
+     * Waits for the request's compute units, then sends the GET request.
+     *
+     * @param url the full URL to send the GET request to
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     * @throws IOException if the request fails, the response cannot be parsed or the wait is interrupted
+     */
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        acquire(nonJsonRpcCost);
+        return delegate.get(url, responseType);
+    }
+
+    /**
+     * Reserves the request's compute units and sends the POST request once they are available,
+     * without blocking the calling thread.
+     *
+     * @param jsonBody the request body in JSON format
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the response deserialized to the specified type
+     */
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        long waitNanos = rateLimiter.reserve(ComputeUnitCosts.ofRequestBody(jsonBody, nonJsonRpcCost));
+        return CancellableFutures.sendWhenReady(afterDelay(waitNanos), () -> delegate.postAsync(jsonBody, responseType), () -> { });
+    }
+
+    /**
+     * Reserves the request's compute units and sends the GET request once they are available,
+     * without blocking the calling thread.
+     *
+     * @param url the full URL to send the GET request to
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the response deserialized to the specified type
+     */
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        long waitNanos = rateLimiter.reserve(nonJsonRpcCost);
+        return CancellableFutures.sendWhenReady(afterDelay(waitNanos), () -> delegate.getAsync(url, responseType), () -> { });
+    }
+
+    /**
+     * Blocks until the given number of compute units has been granted.
+     *
+     * @param units the compute-unit cost of the request
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    private void acquire(int units) throws InterruptedIOException {
+        try {
+            rateLimiter.acquire(units);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compute units");
+        }
+    }
+
+    /**
+     * Returns a future that completes once the given delay has elapsed.
+     *
+     * @param waitNanos the delay in nanoseconds
+     * @return a future completing after the delay
+     */
+    private static CompletableFuture<Void> afterDelay(long waitNanos) {
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,123 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A decorating {@link HttpClient} that sends every request to its delegate and records the
+ * successful responses, together with their latency, in an {@link HttpArchive}. The archive can
+ * later be served back by a {@link ReplayingHttpClient}. Responses are requested from the delegate
+ * as raw JSON and recorded verbatim, fields the response types do not map included, before they are
+ * decoded for the caller. Failures are not recorded, and a failure to write the archive never fails
+ * the request.
+ */
+public class RecordingHttpClient implements HttpClient {
+
+    private static final Logger logger = Logger.getLogger(RecordingHttpClient.class.getName());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient delegate;
+    private final HttpArchive archive;
+    private final String baseUrl;
+
+    /**
+     * Constructs a new {@code RecordingHttpClient}.
+     *
+     * @param delegate the client used to send requests; it must answer a {@code String} response type with
+     *                 the raw response body
+     * @param archive the archive the responses are recorded to
+     * @param baseUrl the base URL POST requests are sent to, part of the request key
+     */
+    public RecordingHttpClient(HttpClient delegate, HttpArchive archive, String baseUrl) {
+        this.delegate = delegate;
+        this.archive = archive;
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        long start = System.nanoTime();
+        String raw = delegate.post(jsonBody, String.class);
+        return record(HttpArchive.postKey(baseUrl, jsonBody), raw, start, responseType);
+    }
+
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        long start = System.nanoTime();
+        String raw = delegate.get(url, String.class);
+        return record(HttpArchive.getKey(url), raw, start, responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        long start = System.nanoTime();
+        return delegate.postAsync(jsonBody, String.class)
+                .thenApply(raw -> decode(record(HttpArchive.postKey(baseUrl, jsonBody), raw, start), responseType));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        long start = System.nanoTime();
+        return delegate.getAsync(url, String.class)
+                .thenApply(raw -> decode(record(HttpArchive.getKey(url), raw, start), responseType));
+    }
+
+    /**
+     * Appends the raw response to the archive and decodes it for the caller.
+     *
+     * @param key the normalized request key
+     * @param raw the raw response body
+     * @param startNanos when the request was started
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     * @throws IOException if the response cannot be parsed
+     */
+    private <T> T record(String key, String raw, long startNanos, Class<T> responseType) throws IOException {
+        return read(record(key, raw, startNanos), responseType);
+    }
+
+    /**
+     * Appends the raw response to the archive, logging instead of failing if it cannot be written.
+     *
+     * @param key the normalized request key
+     * @param raw the raw response body
+     * @param startNanos when the request was started
+     * @return the same raw response
+     */
+    private String record(String key, String raw, long startNanos) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        try {
+            archive.record(key, raw, latencyMicros);
+        } catch (IOException e) {
+            logger.warning("⚠️ Failed to record response for " + key + ": " + e.getMessage());
+        }
+        return raw;
+    }
+
+    /**
+     * Decodes a raw response inside a future chain, wrapping a parse failure for the future.
+     *
+     * @param raw the raw response body
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the response deserialized to the specified type
+     */
+    private static <T> T decode(String raw, Class<T> responseType) {
+        try {
+            return read(raw, responseType);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static <T> T read(String raw, Class<T> responseType) throws IOException {
+        return responseType == String.class ? responseType.cast(raw) : objectMapper.readValue(raw, responseType);
+    }
+}
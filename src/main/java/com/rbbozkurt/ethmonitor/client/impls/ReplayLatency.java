@@ -0,0 +1,10 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+/**
+ * How a {@link ReplayingHttpClient} delays the responses it serves.
+ */
+public enum ReplayLatency {
+    NONE,  // Responses are served immediately
+    RECORDED,  // Each response is delayed by the latency observed when it was recorded
+    SYNTHETIC  // Each response is delayed by a configured mean latency with random jitter
+}
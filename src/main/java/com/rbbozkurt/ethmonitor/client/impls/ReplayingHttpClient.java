@@ -0,0 +1,170 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link HttpClient} that answers requests from an {@link HttpArchive} without touching the
+ * network, so services and benchmarks run offline and deterministically against recorded payloads.
+ * A request that was never recorded fails with an {@link IOException}. Responses can be delayed by
+ * their recorded latency or by a synthetic one, see {@link ReplayLatency}.
+ */
+public class ReplayingHttpClient implements HttpClient {
+
+    // Tolerates read-only properties that the recorded DTOs serialized but cannot set
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final HttpArchive archive;
+    private final String baseUrl;
+    private final ReplayLatency latency;
+    private final Duration syntheticLatency;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a new {@code ReplayingHttpClient}.
+     *
+     * @param archive the archive to serve responses from
+     * @param baseUrl the base URL POST requests would be sent to, part of the request key
+     * @param latency how responses are delayed
+     * @param syntheticLatency the mean delay used with {@link ReplayLatency#SYNTHETIC}
+     */
+    public ReplayingHttpClient(HttpArchive archive, String baseUrl, ReplayLatency latency, Duration syntheticLatency) {
+        this.archive = archive;
+        this.baseUrl = baseUrl;
+        this.latency = latency;
+        this.syntheticLatency = syntheticLatency;
+    }
+
+    /**
+     * Returns the number of requests answered from the archive.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that were not found in the archive.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        return replay(HttpArchive.postKey(baseUrl, jsonBody), responseType);
+    }
+
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        return replay(HttpArchive.getKey(url), responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        return replayAsync(HttpArchive.postKey(baseUrl, jsonBody), responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return replayAsync(HttpArchive.getKey(url), responseType);
+    }
+
+    /**
+     * Serves the recorded response, blocking for the replay latency.
+     *
+     * @param key the normalized request key
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return the recorded response
+     * @throws IOException if the request was never recorded or the wait is interrupted
+     */
+    private <T> T replay(String key, Class<T> responseType) throws IOException {
+        HttpArchive.Entry entry = lookup(key);
+        try {
+            TimeUnit.NANOSECONDS.sleep(delayNanos(entry));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while replaying " + key);
+        }
+        return objectMapper.readValue(entry.responseJson(), responseType);
+    }
+
+    /**
+     * Serves the recorded response once the replay latency has elapsed, without blocking.
+     *
+     * @param key the normalized request key
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the recorded response
+     */
+    private <T> CompletableFuture<T> replayAsync(String key, Class<T> responseType) {
+        HttpArchive.Entry entry;
+        try {
+            entry = lookup(key);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long delayNanos = delayNanos(entry);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable complete = () -> {
+            try {
+                result.complete(objectMapper.readValue(entry.responseJson(), responseType));
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        if (delayNanos > 0) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(complete);
+        } else {
+            complete.run();
+        }
+        return result;
+    }
+
+    /**
+     * Finds the recorded response for a key.
+     *
+     * @param key the normalized request key
+     * @return the recorded entry
+     * @throws IOException if the request was never recorded
+     */
+    private HttpArchive.Entry lookup(String key) throws IOException {
+        HttpArchive.Entry entry = archive.lookup(key);
+        if (entry == null) {
+            misses.increment();
+            throw new IOException("No recorded response for " + key);
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Computes how long to delay a replayed response.
+     *
+     * @param entry the recorded entry
+     * @return the delay in nanoseconds
+     */
+    private long delayNanos(HttpArchive.Entry entry) {
+        return switch (latency) {
+            case NONE -> 0L;
+            case RECORDED -> TimeUnit.MICROSECONDS.toNanos(entry.latencyMicros());
+            // Uniformly distributed between half and one and a half times the mean
+            case SYNTHETIC -> (long) (syntheticLatency.toNanos() * (0.5 + ThreadLocalRandom.current().nextDouble()));
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Describes how a {@link RetryingHttpClient} retries and hedges requests: how many attempts are
+ * made, how the exponential backoff with jitter grows, which failures are worth retrying, how long
+ * a server's {@code Retry-After} hint may delay a retry, and when a hedged request is fired.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final Duration maxRetryAfter;
+    private final Set<Integer> retryableStatusCodes;
+    private final double hedgePercentile;
+    private final int hedgeMinSamples;
+
+    /**
+     * Constructs a new {@code RetryPolicy}. Use {@link RetryPolicyBuilder} to create instances.
+     *
+     * @param maxAttempts the total number of attempts, including the first one
+     * @param initialBackoff the delay before the first retry
+     * @param maxBackoff the upper bound of the computed backoff delay
+     * @param backoffMultiplier the factor the backoff grows by with each attempt
+     * @param jitter the fraction of each backoff delay that is randomized, between 0 and 1
+     * @param maxRetryAfter the longest {@code Retry-After} delay that is honored
+     * @param retryableStatusCodes the HTTP status codes that are retried
+     * @param hedgePercentile the latency percentile after which a hedged request is fired, or 0 to disable hedging
+     * @param hedgeMinSamples the number of latency samples required before hedging starts
+     */
+    RetryPolicy(
+            int maxAttempts,
+            Duration initialBackoff,
+            Duration maxBackoff,
+            double backoffMultiplier,
+            double jitter,
+            Duration maxRetryAfter,
+            Set<Integer> retryableStatusCodes,
+            double hedgePercentile,
+            int hedgeMinSamples
+    ) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.backoffMultiplier = backoffMultiplier;
+        this.jitter = jitter;
+        this.maxRetryAfter = maxRetryAfter;
+        this.retryableStatusCodes = Set.copyOf(retryableStatusCodes);
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinSamples = hedgeMinSamples;
+    }
+
+    /**
+     * Returns the total number of attempts, including the first one.
+     *
+     * @return the maximum number of attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns whether hedged requests are enabled.
+     *
+     * @return {@code true} if a hedge percentile is configured
+     */
+    public boolean isHedgingEnabled() {
+        return hedgePercentile > 0;
+    }
+
+    /**
+     * Returns the latency percentile after which a hedged request is fired.
+     *
+     * @return the hedge percentile, between 0 and 1
+     */
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * Returns the number of latency samples required before hedging starts.
+     *
+     * @return the minimum number of samples
+     */
+    public int getHedgeMinSamples() {
+        return hedgeMinSamples;
+    }
+
+    /**
+     * Decides whether a failure is transient and worth retrying. Socket errors and timeouts are
+     * retried, as are the configured HTTP status codes; responses that could not be parsed and calls
+     * rejected by an open circuit or by a bulkhead that stayed full for its whole maximum wait are not.
+     *
+     * @param failure the failure of the previous attempt
+     * @return {@code true} if the request should be retried
+     */
+    public boolean isRetryable(Throwable failure) {
+        if (failure instanceof CallNotPermittedException) {
+            return false;
+        }
+        if (failure instanceof HttpStatusException statusException) {
+            return retryableStatusCodes.contains(statusException.getStatusCode());
+        }
+        return failure instanceof IOException && !(failure instanceof JsonProcessingException);
+    }
+
+    /**
+     * Computes how long to wait before the given retry. A {@code Retry-After} hint from the server
+     * takes precedence (capped at the configured maximum); otherwise the delay grows exponentially
+     * with a randomized jitter so that concurrent callers do not retry in lockstep.
+     *
+     * @param retry the number of the retry, starting at 1
+     * @param failure the failure of the previous attempt
+     * @return the delay before the retry
+     */
+    public Duration backoff(int retry, Throwable failure) {
+        if (failure instanceof HttpStatusException statusException && statusException.getRetryAfter() != null) {
+            Duration retryAfter = statusException.getRetryAfter();
+            return retryAfter.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : retryAfter;
+        }
+
+        double exponential = initialBackoff.toMillis() * Math.pow(backoffMultiplier, retry - 1);
+        double capped = Math.min(exponential, maxBackoff.toMillis());
+        double randomized = capped * (1 - jitter * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis((long) randomized);
+    }
+}
@@ -0,0 +1,135 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * A builder class for constructing {@link RetryPolicy} instances. By default a request is tried
+ * up to four times with exponential backoff from 200 ms to 5 s and 50% jitter, retrying socket
+ * errors and HTTP 429, 500, 502, 503 and 504; hedging is disabled.
+ */
+public class RetryPolicyBuilder {
+
+    private int maxAttempts = 4;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(5);
+    private double backoffMultiplier = 2.0;
+    private double jitter = 0.5;
+    private Duration maxRetryAfter = Duration.ofSeconds(30);
+    private Set<Integer> retryableStatusCodes = Set.of(429, 500, 502, 503, 504);
+    private double hedgePercentile = 0;
+    private int hedgeMinSamples = 50;
+
+    /**
+     * Sets the total number of attempts, including the first one. A value of 1 disables retries.
+     *
+     * @param maxAttempts the maximum number of attempts
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the delay before the first retry.
+     *
+     * @param initialBackoff the initial backoff delay
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the computed backoff delay.
+     *
+     * @param maxBackoff the maximum backoff delay
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * Sets the factor the backoff delay grows by with each attempt.
+     *
+     * @param backoffMultiplier the backoff multiplier
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of each backoff delay that is randomized.
+     *
+     * @param jitter the jitter fraction, between 0 (none) and 1 (full jitter)
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withJitter(double jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Sets the longest server-requested {@code Retry-After} delay that is honored.
+     *
+     * @param maxRetryAfter the maximum honored {@code Retry-After} delay
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withMaxRetryAfter(Duration maxRetryAfter) {
+        this.maxRetryAfter = maxRetryAfter;
+        return this;
+    }
+
+    /**
+     * Sets the HTTP status codes that are retried.
+     *
+     * @param retryableStatusCodes the retryable status codes
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withRetryableStatusCodes(Set<Integer> retryableStatusCodes) {
+        this.retryableStatusCodes = retryableStatusCodes;
+        return this;
+    }
+
+    /**
+     * Enables hedged requests: if an attempt is still running after the given latency percentile
+     * of recent requests, a second identical request is fired and the first response wins.
+     *
+     * @param hedgePercentile the latency percentile, e.g. 0.95; 0 disables hedging
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+        return this;
+    }
+
+    /**
+     * Sets how many latency samples must be recorded before hedging starts.
+     *
+     * @param hedgeMinSamples the minimum number of samples
+     * @return the current builder instance
+     */
+    public RetryPolicyBuilder withHedgeMinSamples(int hedgeMinSamples) {
+        this.hedgeMinSamples = hedgeMinSamples;
+        return this;
+    }
+
+    /**
+     * Builds and returns a configured {@link RetryPolicy}.
+     *
+     * @return the configured {@link RetryPolicy} instance
+     */
+    public RetryPolicy build() {
+        if (maxAttempts < 1) {
+            throw new IllegalStateException("maxAttempts must be at least 1");
+        }
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, backoffMultiplier, jitter,
+                maxRetryAfter, retryableStatusCodes, hedgePercentile, hedgeMinSamples);
+    }
+}
@@ -0,0 +1,324 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A decorating {@link HttpClient} that retries transient failures according to a {@link RetryPolicy}:
+ * exponential backoff with jitter, honoring the server's {@code Retry-After} hint on 429/503.
+ * Only idempotent requests are retried: GET requests, non JSON-RPC POST bodies (the Prices API)
+ * and JSON-RPC calls whose every method is a read.
+ * <p>
+ * When hedging is enabled, an idempotent attempt that is still running after the configured latency
+ * percentile of recent requests gets a second, identical request; whichever succeeds first wins, and the
+ * other is cancelled so it stops spending compute units.
+ * Latencies are best measured on the wire by a {@link LatencyTrackingHttpClient} below the rate limiter,
+ * so time spent queueing for compute units does not raise the hedge delay, and no hedge is fired while
+ * the key's budget is queueing requests, when a second request would only add to the queue.
+ */
+public class RetryingHttpClient implements HttpClient {
+
+    private static final Logger logger = Logger.getLogger(RetryingHttpClient.class.getName());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // JSON-RPC methods that only read chain state and are therefore safe to send twice
+    private static final Set<String> READ_METHODS = Set.of("eth_blockNumber", "eth_call", "eth_chainId");
+    private static final String[] READ_METHOD_PREFIXES = {"eth_get", "alchemy_get"};
+
+    private final HttpClient delegate;
+    private final RetryPolicy policy;
+    private final LatencyTracker latencies;  // Latencies the hedge delay is taken from
+    private final boolean recordsLatencies;  // Whether this client records latencies itself, not one on the wire
+    private final ComputeUnitRateLimiter rateLimiter;  // Budget whose queue suppresses hedges, or null
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * Constructs a new {@code RetryingHttpClient} that measures the latency of its own attempts.
+     *
+     * @param delegate the client used to send each attempt
+     * @param policy the retry and hedging policy
+     */
+    public RetryingHttpClient(HttpClient delegate, RetryPolicy policy) {
+        this(delegate, policy, new LatencyTracker(256), true, null);
+    }
+
+    /**
+     * Constructs a new {@code RetryingHttpClient} taking the hedge delay from latencies measured further
+     * down the chain.
+     *
+     * @param delegate the client used to send each attempt
+     * @param policy the retry and hedging policy
+     * @param wireLatencies the latencies recorded on the wire, e.g. by a {@link LatencyTrackingHttpClient}
+     * @param rateLimiter the budget the attempts are paced by; no hedge is fired while it queues requests
+     */
+    public RetryingHttpClient(HttpClient delegate, RetryPolicy policy, LatencyTracker wireLatencies, ComputeUnitRateLimiter rateLimiter) {
+        this(delegate, policy, wireLatencies, false, rateLimiter);
+    }
+
+    private RetryingHttpClient(HttpClient delegate, RetryPolicy policy, LatencyTracker latencies,
+                               boolean recordsLatencies, ComputeUnitRateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.latencies = latencies;
+        this.recordsLatencies = recordsLatencies;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Returns the number of retries performed since this client was created.
+     *
+     * @return the retry count
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Returns the number of hedged requests fired since this client was created.
+     *
+     * @return the hedge count
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    @Override
+    public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+        return join(postAsync(jsonBody, responseType));
+    }
+
+    @Override
+    public <T> T get(String url, Class<T> responseType) throws IOException {
+        return join(getAsync(url, responseType));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+        return withRetries(() -> delegate.postAsync(jsonBody, responseType), isIdempotent(jsonBody));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return withRetries(() -> delegate.getAsync(url, responseType), true);
+    }
+
+    /**
+     * Runs the request, retrying transient failures of idempotent requests.
+     *
+     * @param request sends one attempt of the request
+     * @param idempotent whether the request may be sent more than once
+     * @param <T> the type of the response object
+     * @return a future completing with the first successful response or the final failure
+     */
+    private <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> request, boolean idempotent) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(request, idempotent, 1, result);
+        return result;
+    }
+
+    /**
+     * Sends a single attempt and schedules the next one if it fails with a retryable error.
+     *
+     * @param request sends one attempt of the request
+     * @param idempotent whether the request may be sent more than once
+     * @param attempt the number of this attempt, starting at 1
+     * @param result the future to complete once the request has succeeded or given up
+     * @param <T> the type of the response object
+     */
+    private <T> void attempt(Supplier<CompletableFuture<T>> request, boolean idempotent, int attempt, CompletableFuture<T> result) {
+        hedged(request, idempotent && policy.isHedgingEnabled()).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = unwrap(error);
+            if (!idempotent || attempt >= policy.getMaxAttempts() || !policy.isRetryable(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            Duration delay = policy.backoff(attempt, cause);
+            retries.increment();
+            logger.warning("⚠️ Attempt " + attempt + " failed (" + cause.getMessage() + "), retrying in " + delay.toMillis() + " ms");
+            CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> attempt(request, idempotent, attempt + 1, result));
+        });
+    }
+
+    /**
+     * Sends the request and, if hedging applies, fires a second identical request once the first has
+     * been running longer than the hedge percentile of recent latencies, unless the rate limiter is queueing
+     * requests at that moment. The first success wins and cancels the request still running; the attempt only
+     * fails once every request that was sent has failed.
+     *
+     * @param request sends one request
+     * @param hedge whether a hedged request may be fired
+     * @param <T> the type of the response object
+     * @return a future completing with the first successful response
+     */
+    private <T> CompletableFuture<T> hedged(Supplier<CompletableFuture<T>> request, boolean hedge) {
+        long start = System.nanoTime();
+        CompletableFuture<T> primary = send(request);
+        long hedgeDelayNanos = hedge
+                ? latencies.percentile(policy.getHedgePercentile(), policy.getHedgeMinSamples())
+                : -1;
+
+        CompletableFuture<T> winner;
+        if (hedgeDelayNanos < 0) {
+            winner = primary;
+        } else {
+            CompletableFuture<T> first = new CompletableFuture<>();
+            AtomicBoolean hedgeFired = new AtomicBoolean();
+            AtomicInteger failures = new AtomicInteger();
+            AtomicReference<CompletableFuture<T>> hedgeRequest = new AtomicReference<>();
+
+            BiConsumer<T, Throwable> settle = (value, error) -> {
+                if (error == null) {
+                    first.complete(value);
+                } else if (failures.incrementAndGet() >= (hedgeFired.get() ? 2 : 1)) {
+                    first.completeExceptionally(error);
+                }
+            };
+
+            primary.whenComplete(settle);
+            // The loser is cancelled, which cancels its HTTP call; cancelling a finished future does nothing
+            first.whenComplete((value, error) -> {
+                primary.cancel(false);
+                CompletableFuture<T> hedgeFuture = hedgeRequest.get();
+                if (hedgeFuture != null) {
+                    hedgeFuture.cancel(false);
+                }
+            });
+            CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (first.isDone() || rateLimiter != null && rateLimiter.isQueueing()) {
+                    return;
+                }
+                hedgeFired.set(true);
+                if (!first.isDone()) {
+                    hedges.increment();
+                    CompletableFuture<T> hedgeFuture = send(request);
+                    hedgeRequest.set(hedgeFuture);
+                    hedgeFuture.whenComplete(settle);
+                    if (first.isDone()) {
+                        // The primary won while the hedge was being sent
+                        hedgeFuture.cancel(false);
+                    }
+                }
+            });
+            winner = first;
+        }
+
+        if (!recordsLatencies) {
+            return winner;
+        }
+        return winner.whenComplete((value, error) -> {
+            if (error == null) {
+                latencies.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Invokes the request supplier, turning a synchronous exception into a failed future.
+     *
+     * @param request sends one request
+     * @param <T> the type of the response object
+     * @return the request's future
+     */
+    private static <T> CompletableFuture<T> send(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Decides whether a POST body is safe to send more than once. JSON-RPC calls (and batches of them)
+     * qualify only when every method is a read; other bodies are Prices API lookups, which are reads.
+     *
+     * @param jsonBody the request body
+     * @return {@code true} if the request may be retried or hedged
+     */
+    private static boolean isIdempotent(String jsonBody) {
+        try {
+            JsonNode node = objectMapper.readTree(jsonBody);
+            if (node.isArray()) {
+                for (JsonNode call : node) {
+                    if (!isReadMethod(call.path("method").asText())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return !node.has("method") || isReadMethod(node.get("method").asText());
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the JSON-RPC method only reads chain state.
+     *
+     * @param method the JSON-RPC method name
+     * @return {@code true} for read-only methods
+     */
+    private static boolean isReadMethod(String method) {
+        if (READ_METHODS.contains(method)) {
+            return true;
+        }
+        for (String prefix : READ_METHOD_PREFIXES) {
+            if (method.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits for the future, rethrowing an {@link IOException} cause as-is.
+     *
+     * @param future the future to wait for
+     * @param <T> the type of the response object
+     * @return the response
+     * @throws IOException if the request ultimately failed with an I/O error
+     */
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by future composition.
+     *
+     * @param e the failure
+     * @return the underlying cause
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
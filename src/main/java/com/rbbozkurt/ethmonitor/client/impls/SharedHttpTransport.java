@@ -0,0 +1,80 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import lombok.Data;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * A single OkHttp transport shared by all {@link AlchemyHttpClient} instances. It owns the
+ * connection pool and dispatcher, so clients for different API keys and endpoints reuse the
+ * same sockets and TLS sessions instead of each opening their own.
+ */
+public class SharedHttpTransport {
+
+    private final OkHttpClient client;
+    private final long maxResponseBytes;
+
+    /**
+     * Constructs a new {@code SharedHttpTransport} around a configured OkHttp client.
+     *
+     * @param client the configured OkHttp client holding the shared pool and dispatcher
+     * @param maxResponseBytes the maximum number of response body bytes a client may accept
+     */
+    public SharedHttpTransport(OkHttpClient client, long maxResponseBytes) {
+        this.client = client;
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    /**
+     * Creates an {@link AlchemyHttpClient} for the given base URL on top of this transport.
+     *
+     * @param baseUrl the base URL to use for requests
+     * @return a new {@link AlchemyHttpClient} sharing this transport's pool and dispatcher
+     */
+    public AlchemyHttpClient newClient(String baseUrl) {
+        return new AlchemyHttpClient(client, baseUrl, maxResponseBytes);
+    }
+
+    /**
+     * Returns a snapshot of the connection pool and dispatcher utilization.
+     *
+     * @return the current {@link TransportStats}
+     */
+    public TransportStats getStats() {
+        ConnectionPool pool = client.connectionPool();
+        Dispatcher dispatcher = client.dispatcher();
+
+        TransportStats stats = new TransportStats();
+        stats.setConnectionCount(pool.connectionCount());
+        stats.setIdleConnectionCount(pool.idleConnectionCount());
+        stats.setRunningCalls(dispatcher.runningCallsCount());
+        stats.setQueuedCalls(dispatcher.queuedCallsCount());
+        stats.setMaxRequests(dispatcher.getMaxRequests());
+        stats.setMaxRequestsPerHost(dispatcher.getMaxRequestsPerHost());
+        return stats;
+    }
+
+    /**
+     * Snapshot of the shared transport's connection pool and dispatcher utilization.
+     */
+    @Data
+    public static class TransportStats {
+
+        private int connectionCount;  // Open connections in the pool, active or idle
+        private int idleConnectionCount;  // Pooled connections not currently carrying a call
+        private int runningCalls;  // Asynchronous calls currently executing
+        private int queuedCalls;  // Asynchronous calls waiting for a dispatcher slot
+        private int maxRequests;  // Dispatcher limit on concurrently executing calls
+        private int maxRequestsPerHost;  // Dispatcher limit on concurrently executing calls per host
+
+        /**
+         * Returns the share of the dispatcher's concurrency limit currently in use.
+         *
+         * @return running calls divided by the maximum number of concurrent requests
+         */
+        public double getDispatcherUtilization() {
+            return maxRequests == 0 ? 0.0 : (double) runningCalls / maxRequests;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A builder class for constructing a {@link SharedHttpTransport} with explicit connection pool,
+ * dispatcher and timeout settings instead of OkHttp's defaults.
+ */
+public class SharedHttpTransportBuilder {
+
+    private int maxIdleConnections = 32;
+    private Duration keepAlive = Duration.ofMinutes(5);
+    private int maxRequests = 256;
+    private int maxRequestsPerHost = 64;
+    private boolean preferHttp2 = true;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    private Duration callTimeout = Duration.ofSeconds(60);
+    private long maxResponseBytes = AlchemyHttpClient.DEFAULT_MAX_RESPONSE_BYTES;
+
+    /**
+     * Sets the maximum number of idle connections kept in the shared pool.
+     *
+     * @param maxIdleConnections the maximum number of idle connections
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+        return this;
+    }
+
+    /**
+     * Sets how long an idle connection is kept in the pool before it is evicted.
+     *
+     * @param keepAlive the idle keep-alive duration
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous requests executing concurrently across all hosts.
+     *
+     * @param maxRequests the maximum number of concurrent requests
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous requests executing concurrently per host.
+     *
+     * @param maxRequestsPerHost the maximum number of concurrent requests per host
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+
+    /**
+     * Sets whether HTTP/2 is preferred, letting many requests share a single connection per host.
+     *
+     * @param preferHttp2 {@code true} to negotiate HTTP/2 first, {@code false} for HTTP/1.1 only
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withPreferHttp2(boolean preferHttp2) {
+        this.preferHttp2 = preferHttp2;
+        return this;
+    }
+
+    /**
+     * Sets the timeout for establishing a new connection.
+     *
+     * @param connectTimeout the connect timeout
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time to wait for data between reads on an open connection.
+     *
+     * @param readTimeout the read timeout
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the overall timeout for a complete call, from connecting to reading the response body.
+     *
+     * @param callTimeout the call timeout
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withCallTimeout(Duration callTimeout) {
+        this.callTimeout = callTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of response body bytes a client accepts before failing.
+     *
+     * @param maxResponseBytes the response size limit in bytes
+     * @return the current builder instance
+     */
+    public SharedHttpTransportBuilder withMaxResponseBytes(long maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+        return this;
+    }
+
+    /**
+     * Builds and returns a {@link SharedHttpTransport} backed by a configured OkHttp client.
+     *
+     * @return the configured {@link SharedHttpTransport} instance
+     */
+    public SharedHttpTransport build() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        List<Protocol> protocols = preferHttp2
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1);
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(protocols)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .callTimeout(callTimeout)
+                .build();
+
+        return new SharedHttpTransport(client, maxResponseBytes);
+    }
+}
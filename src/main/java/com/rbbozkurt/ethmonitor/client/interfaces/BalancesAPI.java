@@ -4,6 +4,7 @@ import com.rbbozkurt.ethmonitor.dto.BalanceResponse;
 import com.rbbozkurt.ethmonitor.dto.EthBalanceResponse;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for interacting with the Balances API, which provides methods for retrieving
@@ -28,4 +29,20 @@ public interface BalancesAPI {
      * @throws IOException if the request fails or the response cannot be parsed
      */
     EthBalanceResponse getEthBalance(String walletAddress) throws IOException;
+
+    /**
+     * Asynchronously retrieves the token balances for a given wallet address.
+     *
+     * @param walletAddress the Ethereum wallet address to query for token balances
+     * @return a future completing with the {@link BalanceResponse} for the specified address
+     */
+    CompletableFuture<BalanceResponse> getTokenBalancesAsync(String walletAddress);
+
+    /**
+     * Asynchronously retrieves the ETH balance for a given wallet address.
+     *
+     * @param walletAddress the Ethereum wallet address to query for ETH balance
+     * @return a future completing with the {@link EthBalanceResponse} for the specified address
+     */
+    CompletableFuture<EthBalanceResponse> getEthBalanceAsync(String walletAddress);
 }
@@ -1,6 +1,7 @@
 package com.rbbozkurt.ethmonitor.client.interfaces;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for an HTTP client that supports making HTTP POST and GET requests.
@@ -32,4 +33,28 @@ public interface HttpClient {
      * @throws IOException if the request fails or the response cannot be parsed
      */
     <T> T get(String url, Class<T> responseType) throws IOException;
+
+    /**
+     * Sends an HTTP POST request with a JSON body without blocking the calling thread.
+     * The returned future completes with the deserialized response, or exceptionally
+     * with an {@link IOException} if the request fails or the response cannot be parsed.
+     *
+     * @param jsonBody the request body in JSON format
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the response deserialized to the specified type
+     */
+    <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType);
+
+    /**
+     * Sends an HTTP GET request to the specified URL without blocking the calling thread.
+     * The returned future completes with the deserialized response, or exceptionally
+     * with an {@link IOException} if the request fails or the response cannot be parsed.
+     *
+     * @param url the full URL to send the GET request to
+     * @param responseType the class to deserialize the response into
+     * @param <T> the type of the response object
+     * @return a future completing with the response deserialized to the specified type
+     */
+    <T> CompletableFuture<T> getAsync(String url, Class<T> responseType);
 }
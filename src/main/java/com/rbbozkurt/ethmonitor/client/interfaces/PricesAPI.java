@@ -1,10 +1,15 @@
 package com.rbbozkurt.ethmonitor.client.interfaces;
 
+import com.rbbozkurt.ethmonitor.dto.HistoricalPriceResponse;
 import com.rbbozkurt.ethmonitor.dto.TokenPriceResponse;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for interacting with the Prices API, which provides methods to fetch the USD price
- * of a token either by its Ethereum address or by its symbol.
+ * of a token either by its Ethereum address or by its symbol, now or over a past time range.
  */
 public interface PricesAPI {
 
@@ -17,6 +22,17 @@ public interface PricesAPI {
      */
     TokenPriceResponse getUsdPrice(String tokenAddress) throws Exception;
 
+    /**
+     * Retrieves the USD prices of several tokens using their Ethereum addresses. The addresses are
+     * sent in as few requests as the endpoint's batch limit allows; a failed request only leaves its
+     * own tokens out of the response.
+     *
+     * @param tokenAddresses the Ethereum addresses of the tokens
+     * @return a {@link TokenPriceResponse} with one entry per token the endpoint answered for
+     * @throws Exception if every request fails
+     */
+    TokenPriceResponse getUsdPrices(Collection<String> tokenAddresses) throws Exception;
+
     /**
      * Retrieves the USD price of a token using its symbol.
      *
@@ -25,4 +41,50 @@ public interface PricesAPI {
      * @throws Exception if the request fails or the response cannot be parsed
      */
     TokenPriceResponse getUsdPriceBySymbol(String symbol) throws Exception;
+
+    /**
+     * Retrieves the hourly USD prices of a token over a time range. Ranges longer than the endpoint
+     * accepts in one request are split into several requests.
+     *
+     * @param token the Ethereum address of the token, or its symbol (e.g. "ETH") for native assets
+     * @param startTime the start of the range, inclusive
+     * @param endTime the end of the range, exclusive
+     * @return a {@link HistoricalPriceResponse} with the prices of the range in ascending time order
+     * @throws Exception if a request fails or a response cannot be parsed
+     */
+    HistoricalPriceResponse getHistoricalUsdPrices(String token, Instant startTime, Instant endTime) throws Exception;
+
+    /**
+     * Asynchronously retrieves the USD price of a token using its Ethereum address.
+     *
+     * @param tokenAddress the Ethereum address of the token
+     * @return a future completing with the {@link TokenPriceResponse} for the token
+     */
+    CompletableFuture<TokenPriceResponse> getUsdPriceAsync(String tokenAddress);
+
+    /**
+     * Asynchronously retrieves the USD prices of several tokens using their Ethereum addresses.
+     *
+     * @param tokenAddresses the Ethereum addresses of the tokens
+     * @return a future completing with a {@link TokenPriceResponse} with one entry per token the endpoint answered for
+     */
+    CompletableFuture<TokenPriceResponse> getUsdPricesAsync(Collection<String> tokenAddresses);
+
+    /**
+     * Asynchronously retrieves the USD price of a token using its symbol.
+     *
+     * @param symbol the symbol of the token (e.g., "ETH", "USDC")
+     * @return a future completing with the {@link TokenPriceResponse} for the token
+     */
+    CompletableFuture<TokenPriceResponse> getUsdPriceBySymbolAsync(String symbol);
+
+    /**
+     * Asynchronously retrieves the hourly USD prices of a token over a time range.
+     *
+     * @param token the Ethereum address of the token, or its symbol (e.g. "ETH") for native assets
+     * @param startTime the start of the range, inclusive
+     * @param endTime the end of the range, exclusive
+     * @return a future completing with a {@link HistoricalPriceResponse} with the prices of the range in ascending time order
+     */
+    CompletableFuture<HistoricalPriceResponse> getHistoricalUsdPricesAsync(String token, Instant startTime, Instant endTime);
 }
@@ -2,6 +2,8 @@ package com.rbbozkurt.ethmonitor.client.interfaces;
 
 import com.rbbozkurt.ethmonitor.dto.TokenMetadataResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for interacting with the Token API, which provides a method to fetch metadata
  * for a token using its Ethereum address.
@@ -16,4 +18,12 @@ public interface TokenAPI {
      * @throws Exception if the request fails or the response cannot be parsed
      */
     TokenMetadataResponse getTokenMetadata(String tokenAddress) throws Exception;
+
+    /**
+     * Asynchronously retrieves the metadata for a token using its Ethereum address.
+     *
+     * @param tokenAddress the Ethereum address of the token
+     * @return a future completing with the {@link TokenMetadataResponse} for the token
+     */
+    CompletableFuture<TokenMetadataResponse> getTokenMetadataAsync(String tokenAddress);
 }
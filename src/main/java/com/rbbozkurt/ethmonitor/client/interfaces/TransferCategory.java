@@ -0,0 +1,50 @@
+package com.rbbozkurt.ethmonitor.client.interfaces;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The categories of asset transfers that can be queried from the Transfers API.
+ */
+public enum TransferCategory {
+    EXTERNAL("external"),  // Top-level ETH transfers
+    ERC20("erc20"),  // Fungible token transfers
+    INTERNAL("internal"),  // ETH transfers made by contract calls
+    ERC721("erc721"),  // NFT transfers
+    ERC1155("erc1155"),  // Multi-token transfers
+    SPECIALNFT("specialnft");  // Transfers of pre-standard NFTs such as CryptoPunks
+
+    /** Every category, the default of a transfer query. */
+    public static final Set<TransferCategory> ALL = Collections.unmodifiableSet(EnumSet.allOf(TransferCategory.class));
+
+    /** The categories carrying a value that volume and swap analysis look at. */
+    public static final Set<TransferCategory> VALUE_TRANSFERS = Collections.unmodifiableSet(EnumSet.of(EXTERNAL, ERC20));
+
+    private final String apiName;
+
+    TransferCategory(String apiName) {
+        this.apiName = apiName;
+    }
+
+    /**
+     * Returns the name of the category in API requests and responses.
+     *
+     * @return the API name, e.g. {@code "erc20"}
+     */
+    public String apiName() {
+        return apiName;
+    }
+
+    /**
+     * Returns a stable textual key of a set of categories, in declaration order, for cache keys.
+     *
+     * @param categories the categories
+     * @return the API names joined by commas, e.g. {@code "external,erc20"}
+     */
+    public static String key(Set<TransferCategory> categories) {
+        return Arrays.stream(values()).filter(categories::contains).map(TransferCategory::apiName).collect(Collectors.joining(","));
+    }
+}
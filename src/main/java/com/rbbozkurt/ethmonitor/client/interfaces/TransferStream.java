@@ -0,0 +1,45 @@
+package com.rbbozkurt.ethmonitor.client.interfaces;
+
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A stream of asset transfers that are fetched page by page while the caller consumes them. {@link #hasNext()}
+ * blocks until the next transfer has arrived, and fetch failures surface from it as unchecked exceptions.
+ * Closing the stream stops fetching further pages.
+ */
+public interface TransferStream extends Iterator<Transfer>, AutoCloseable {
+
+    /**
+     * Stops fetching further pages and releases the buffered ones.
+     */
+    @Override
+    void close();
+
+    /**
+     * Returns a stream over transfers already in memory.
+     *
+     * @param transfers the transfers
+     * @return the stream
+     */
+    static TransferStream of(List<Transfer> transfers) {
+        Iterator<Transfer> iterator = transfers.iterator();
+        return new TransferStream() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Transfer next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
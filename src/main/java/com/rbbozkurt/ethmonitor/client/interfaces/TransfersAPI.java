@@ -3,6 +3,8 @@ package com.rbbozkurt.ethmonitor.client.interfaces;
 import com.rbbozkurt.ethmonitor.dto.TransferResponse;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for interacting with the Transfers API, which provides a method to fetch Ethereum asset transfers
@@ -18,5 +20,94 @@ public interface TransfersAPI {
      * @return a {@link TransferResponse} containing the list of transfers
      * @throws IOException if the request fails or the response cannot be parsed
      */
-    TransferResponse getTransferResponse(String address, int maxCount) throws IOException;
+    default TransferResponse getTransferResponse(String address, int maxCount) throws IOException {
+        return getTransferResponse(address, 0, maxCount);
+    }
+
+    /**
+     * Retrieves the transfers of a given Ethereum address from a block onwards, with a limit on the number of
+     * transfers to fetch.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to retrieve
+     * @return a {@link TransferResponse} containing the list of transfers, in ascending block order
+     * @throws IOException if the request fails or the response cannot be parsed
+     */
+    default TransferResponse getTransferResponse(String address, long fromBlock, int maxCount) throws IOException {
+        return getTransferResponse(address, fromBlock, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Retrieves the transfers of the given categories of a given Ethereum address from a block onwards, with a
+     * limit on the number of transfers to fetch.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param categories the categories of transfers to retrieve
+     * @return a {@link TransferResponse} containing the list of transfers, in ascending block order
+     * @throws IOException if the request fails or the response cannot be parsed
+     */
+    TransferResponse getTransferResponse(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) throws IOException;
+
+    /**
+     * Asynchronously retrieves the transfer response for a given Ethereum address. Pages are
+     * requested one after another as each previous page completes, without holding a thread.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param maxCount the maximum number of transfers to retrieve
+     * @return a future completing with the {@link TransferResponse} containing the list of transfers
+     */
+    default CompletableFuture<TransferResponse> getTransferResponseAsync(String address, int maxCount) {
+        return getTransferResponseAsync(address, 0, maxCount);
+    }
+
+    /**
+     * Asynchronously retrieves the transfers of a given Ethereum address from a block onwards.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to retrieve
+     * @return a future completing with the {@link TransferResponse} containing the list of transfers, in ascending block order
+     */
+    default CompletableFuture<TransferResponse> getTransferResponseAsync(String address, long fromBlock, int maxCount) {
+        return getTransferResponseAsync(address, fromBlock, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Asynchronously retrieves the transfers of the given categories of a given Ethereum address from a block onwards.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param categories the categories of transfers to retrieve
+     * @return a future completing with the {@link TransferResponse} containing the list of transfers, in ascending block order
+     */
+    CompletableFuture<TransferResponse> getTransferResponseAsync(String address, long fromBlock, int maxCount, Set<TransferCategory> categories);
+
+    /**
+     * Streams the transfers of a given Ethereum address from a block onwards, fetching further pages while the
+     * caller consumes the ones already received.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to stream
+     * @return a {@link TransferStream} of the transfers, in ascending block order, to be closed by the caller
+     */
+    default TransferStream streamTransfers(String address, long fromBlock, int maxCount) {
+        return streamTransfers(address, fromBlock, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Streams the transfers of the given categories of a given Ethereum address from a block onwards, fetching
+     * further pages while the caller consumes the ones already received.
+     *
+     * @param address the Ethereum address to query for asset transfers
+     * @param fromBlock the first block to include
+     * @param maxCount the maximum number of transfers to stream
+     * @param categories the categories of transfers to stream
+     * @return a {@link TransferStream} of the transfers, in ascending block order, to be closed by the caller
+     */
+    TransferStream streamTransfers(String address, long fromBlock, int maxCount, Set<TransferCategory> categories);
 }
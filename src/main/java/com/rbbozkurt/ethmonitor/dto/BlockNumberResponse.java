@@ -0,0 +1,18 @@
+package com.rbbozkurt.ethmonitor.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Response object for retrieving the number of the most recent block with {@code eth_blockNumber}.
+ * The block number is returned as a hexadecimal string.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BlockNumberResponse {
+
+    private String jsonrpc;  // JSON-RPC version
+    private int id;  // ID of the request
+    private String result;  // Block number in hexadecimal format (e.g., "0x112a880")
+    private TokenMetadataResponse.RpcError error;  // JSON-RPC error, null if the request succeeded
+}
@@ -0,0 +1,46 @@
+package com.rbbozkurt.ethmonitor.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Response object for retrieving historical token prices from the Alchemy Prices API.
+ * This class represents the price series of one token over a time range at a fixed interval.
+ * Example response:
+ * <pre>
+ * {
+ *   "network": "eth-mainnet",
+ *   "address": "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48",
+ *   "currency": "usd",
+ *   "data": [
+ *     {
+ *       "value": "0.999870823142",
+ *       "timestamp": "2024-01-01T00:00:00Z"
+ *     }
+ *   ]
+ * }
+ * </pre>
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HistoricalPriceResponse {
+
+    private String symbol;  // Symbol of the token, if requested by symbol
+    private String network;  // Network of the token, if requested by address
+    private String address;  // Ethereum address of the token, if requested by address
+    private String currency;  // Currency of the prices (e.g., "usd")
+    private List<PricePoint> data;  // Prices in ascending time order
+
+    /**
+     * Inner class representing the price of a token at one point in time.
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PricePoint {
+
+        private String value;  // The value of the token in the response currency
+        private String timestamp;  // Start of the interval the price belongs to
+    }
+}
@@ -1,5 +1,6 @@
 package com.rbbozkurt.ethmonitor.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 
 /**
@@ -19,22 +20,45 @@ import lombok.Data;
  *   }
  * }
  * </pre>
+ * Contracts that are not ERC-20 tokens yield a JSON-RPC {@code error} or a result whose fields are all {@code null}.
  */
 @Data
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class TokenMetadataResponse {
 
     private String jsonrpc;  // JSON-RPC version
     private int id;  // ID of the request
     private Result result;  // Result containing the token metadata
+    private RpcError error;  // JSON-RPC error, null if the request succeeded
+
+    /**
+     * Returns whether the response carries usable metadata, i.e. no error and known decimals.
+     *
+     * @return {@code true} if the token's balance can be scaled with this metadata
+     */
+    public boolean hasMetadata() {
+        return error == null && result != null && result.getDecimals() != null;
+    }
 
     /**
      * Inner class that holds the metadata details of the token.
      */
     @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Result {
-        private int decimals;  // Number of decimal places for the token
+        private Integer decimals;  // Number of decimal places for the token, null if the contract does not report them
         private String logo;  // URL to the token logo image
         private String name;  // Name of the token (e.g., "USD Coin")
         private String symbol;  // Symbol of the token (e.g., "USDC")
     }
+
+    /**
+     * Inner class representing a JSON-RPC error.
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class RpcError {
+        private int code;  // JSON-RPC error code
+        private String message;  // Error message
+    }
 }
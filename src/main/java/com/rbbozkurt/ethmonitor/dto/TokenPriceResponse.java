@@ -44,6 +44,16 @@ public class TokenPriceResponse {
         private String address;  // Ethereum address of the token
         private List<TokenPrice> prices;  // List of token prices in different currencies
         private TokenError error;  // Error object if an error occurred during the price retrieval
+
+        /**
+         * Returns whether the entry carries a USD price.
+         *
+         * @return {@code true} if there is no error and a price in USD is present
+         */
+        public boolean hasUsdPrice() {
+            return error == null && prices != null
+                    && prices.stream().anyMatch(p -> "usd".equalsIgnoreCase(p.getCurrency()) && p.getValue() != null);
+        }
     }
 
     /**
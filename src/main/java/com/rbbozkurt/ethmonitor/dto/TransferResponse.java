@@ -48,6 +48,22 @@ public class TransferResponse {
         private String tokenId;  // Token ID (for token-based transfers like ERC721)
         private RawContract rawContract;  // Raw contract details, if available
         private Metadata metadata;  // Additional metadata associated with the transfer
+
+        /**
+         * Returns the block number of the transfer, parsed from its hex {@code blockNum}.
+         *
+         * @return the block number, or 0 if it is missing or malformed
+         */
+        public long blockNumber() {
+            if (blockNum == null || !blockNum.startsWith("0x")) {
+                return 0;
+            }
+            try {
+                return Long.parseLong(blockNum, 2, blockNum.length(), 16);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
     }
 
     /**
@@ -25,11 +25,21 @@ public class AlchemyAPIFactory implements APIFactory {
     private final ConcurrentHashMap<String, BalancesAPI> balancesApiCache = new ConcurrentHashMap<>();
 
     /**
-     * Private constructor for initializing the factory.
-     * Initializes the {@link HttpClientFactory} instance used to create HTTP clients.
+     * Private constructor for initializing the singleton factory.
+     * Uses the shared {@link AlchemyHttpClientFactory} instance to create HTTP clients.
      */
     private AlchemyAPIFactory() {
-        this.httpClientFactory = AlchemyHttpClientFactory.getInstance();
+        this(AlchemyHttpClientFactory.getInstance());
+    }
+
+    /**
+     * Constructs a factory whose API clients use the given {@link HttpClientFactory}, e.g. one tuned
+     * for a load test or configured to replay recorded responses.
+     *
+     * @param httpClientFactory the factory used to create HTTP clients
+     */
+    public AlchemyAPIFactory(HttpClientFactory httpClientFactory) {
+        this.httpClientFactory = httpClientFactory;
     }
 
     /**
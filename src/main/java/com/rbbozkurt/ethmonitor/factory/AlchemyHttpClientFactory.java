@@ -1,17 +1,56 @@
 package com.rbbozkurt.ethmonitor.factory;
 
 import com.rbbozkurt.ethmonitor.client.impls.AlchemyHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.BatchingJsonRpcHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.Bulkhead;
+import com.rbbozkurt.ethmonitor.client.impls.BulkheadHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.CircuitBreakerBuilder;
+import com.rbbozkurt.ethmonitor.client.impls.CircuitBreakingHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.ComputeUnitCosts;
+import com.rbbozkurt.ethmonitor.client.impls.ComputeUnitRateLimiter;
+import com.rbbozkurt.ethmonitor.client.impls.HttpArchive;
+import com.rbbozkurt.ethmonitor.client.impls.LatencyTracker;
+import com.rbbozkurt.ethmonitor.client.impls.LatencyTrackingHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.RateLimitedHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.RecordingHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.ReplayLatency;
+import com.rbbozkurt.ethmonitor.client.impls.ReplayingHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.RetryPolicy;
+import com.rbbozkurt.ethmonitor.client.impls.RetryingHttpClient;
+import com.rbbozkurt.ethmonitor.client.impls.SharedHttpTransport;
 import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A factory class for creating and caching instances of {@link HttpClient}.
- * This class ensures that only one instance of {@link AlchemyHttpClient} is created for each unique base URL.
+ * This class ensures that only one instance of {@link AlchemyHttpClient} is created for each unique base URL,
+ * and that all of them run on one {@link SharedHttpTransport}, sharing its connection pool and dispatcher.
+ * Requests are paced per Alchemy API key by a compute-unit aware {@link ComputeUnitRateLimiter},
+ * and transient failures of idempotent requests are retried according to a {@link RetryPolicy}.
+ * Each endpoint method is guarded by its own circuit breaker, and each host by a bulkhead capping
+ * its concurrent calls; calls above the cap wait a bounded time for a permit, so a degraded endpoint
+ * fails fast instead of tying up callers.
+ * <p>
+ * When configured with an {@link HttpArchive}, the clients handed out either record every response
+ * to it or replay responses from it without touching the network. Record/replay sits above JSON-RPC
+ * batching, so archives hold individual calls and replay independently of how calls were batched.
  */
 public class AlchemyHttpClientFactory implements HttpClientFactory {
 
-    private static final AlchemyHttpClientFactory INSTANCE = new AlchemyHttpClientFactory();
+    // Extracts the API key from node ("/v2/<key>") and prices ("/prices/v1/<key>/...") URLs
+    private static final Pattern API_KEY_PATTERN = Pattern.compile("/(?:v2|prices/v1)/([^/?#]+)");
+
+    private static final AlchemyHttpClientFactory INSTANCE = new AlchemyHttpClientFactoryBuilder()
+            .withSystemProperties()
+            .build();
 
     /**
      * Returns the singleton instance of the {@link AlchemyHttpClientFactory}.
@@ -25,22 +64,221 @@ public class AlchemyHttpClientFactory implements HttpClientFactory {
     // Cache to store and reuse HttpClient instances based on their base URL
     private final ConcurrentHashMap<String, HttpClient> cache = new ConcurrentHashMap<>();
 
+    // Cache to store and reuse the network client chains based on their base URL
+    private final ConcurrentHashMap<String, HttpClient> transportChains = new ConcurrentHashMap<>();
+
+    // Cache to store and reuse batching JSON-RPC clients based on their base URL
+    private final ConcurrentHashMap<String, HttpClient> jsonRpcCache = new ConcurrentHashMap<>();
+
+    // Compute-unit budgets, one per Alchemy API key
+    private final ConcurrentHashMap<String, ComputeUnitRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    // Bulkhead permits, one pool per endpoint host
+    private final ConcurrentHashMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    // Flushes batches whose window has closed; shared by all batching clients
+    private final ScheduledExecutorService batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jsonrpc-batch-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SharedHttpTransport transport;  // Transport shared by every client created by this factory
+    private final int maxBatchSize;  // Maximum number of JSON-RPC calls per batch request
+    private final Duration batchWindow;  // How long a batch waits for more calls
+    private final double computeUnitsPerSecond;  // Sustained compute-unit budget per API key
+    private final double computeUnitBurst;  // Compute units an idle API key may spend at once
+    private final RetryPolicy retryPolicy;  // Retry, backoff and hedging settings for every client
+    private final CircuitBreakerBuilder circuitBreakerBuilder;  // Template for the per-method circuit breakers
+    private final int maxConcurrentCallsPerEndpoint;  // Bulkhead size of each endpoint host
+    private final Duration maxBulkheadWait;  // Longest a call waits for a bulkhead permit
+    private final HttpArchive archive;  // Archive to record to or replay from, or null to always use the network
+    private final HttpArchive.Mode archiveMode;  // Whether the archive is recorded to or replayed from
+    private final ReplayLatency replayLatency;  // How replayed responses are delayed
+    private final Duration syntheticLatency;  // Mean delay of replayed responses with synthetic latency
+
+    /**
+     * Constructs a factory with the given settings. Use {@link AlchemyHttpClientFactoryBuilder}
+     * to create tuned instances, or {@link #getInstance()} for the default one.
+     *
+     * @param transport the shared transport to build clients on
+     * @param maxBatchSize the maximum number of JSON-RPC calls per batch request
+     * @param batchWindow how long a batch waits for more calls
+     * @param computeUnitsPerSecond the sustained compute-unit budget per API key
+     * @param computeUnitBurst the compute units an idle API key may spend at once
+     * @param retryPolicy the retry, backoff and hedging settings for every client
+     * @param circuitBreakerBuilder the template for the per-method circuit breakers
+     * @param maxConcurrentCallsPerEndpoint the bulkhead size of each endpoint host
+     * @param maxBulkheadWait the longest a call waits for a bulkhead permit
+     * @param archive the archive to record to or replay from, or {@code null} to always use the network
+     * @param archiveMode whether the archive is recorded to or replayed from
+     * @param replayLatency how replayed responses are delayed
+     * @param syntheticLatency the mean delay of replayed responses with synthetic latency
+     */
+    AlchemyHttpClientFactory(
+            SharedHttpTransport transport,
+            int maxBatchSize,
+            Duration batchWindow,
+            double computeUnitsPerSecond,
+            double computeUnitBurst,
+            RetryPolicy retryPolicy,
+            CircuitBreakerBuilder circuitBreakerBuilder,
+            int maxConcurrentCallsPerEndpoint,
+            Duration maxBulkheadWait,
+            HttpArchive archive,
+            HttpArchive.Mode archiveMode,
+            ReplayLatency replayLatency,
+            Duration syntheticLatency
+    ) {
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindow = batchWindow;
+        this.computeUnitsPerSecond = computeUnitsPerSecond;
+        this.computeUnitBurst = computeUnitBurst;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreakerBuilder = circuitBreakerBuilder;
+        this.maxConcurrentCallsPerEndpoint = maxConcurrentCallsPerEndpoint;
+        this.maxBulkheadWait = maxBulkheadWait;
+        this.archive = archive;
+        this.archiveMode = archiveMode;
+        this.replayLatency = replayLatency;
+        this.syntheticLatency = syntheticLatency;
+    }
+
+    /**
+     * Returns the transport shared by all clients of this factory, e.g. to report pool utilization.
+     *
+     * @return the shared {@link SharedHttpTransport}
+     */
+    public SharedHttpTransport getTransport() {
+        return transport;
+    }
+
     /**
-     * Private constructor to prevent direct instantiation.
+     * Returns the compute-unit rate limiter for the given API key, e.g. to query its budget usage.
+     *
+     * @param apiKey the Alchemy API key
+     * @return the {@link ComputeUnitRateLimiter} for the key
      */
-    private AlchemyHttpClientFactory() {
+    public ComputeUnitRateLimiter getRateLimiter(String apiKey) {
+        return rateLimiters.computeIfAbsent(apiKey,
+                key -> new ComputeUnitRateLimiter(computeUnitsPerSecond, computeUnitBurst));
     }
 
     /**
      * Retrieves an {@link HttpClient} for the specified base URL.
      * If a client for the given URL already exists in the cache, it will be returned.
-     * Otherwise, a new {@link AlchemyHttpClient} will be created and added to the cache.
+     * Otherwise, a new client is created on the network chain of the URL, wrapped for recording or
+     * replay if an archive is configured, and added to the cache.
      *
      * @param baseUrl the base URL for the {@link HttpClient}
      * @return an {@link HttpClient} instance
      */
     @Override
     public HttpClient getClient(String baseUrl) {
-        return cache.computeIfAbsent(baseUrl, AlchemyHttpClient::new);
+        return cache.computeIfAbsent(baseUrl, url -> archived(url, () -> getTransportChain(url)));
+    }
+
+    /**
+     * Retrieves a batching {@link HttpClient} for the JSON-RPC endpoint at the specified base URL.
+     * Concurrent calls made through the returned client are coalesced into JSON-RPC batch requests.
+     *
+     * @param baseUrl the base URL of the JSON-RPC endpoint
+     * @return an {@link HttpClient} instance
+     */
+    @Override
+    public HttpClient getJsonRpcClient(String baseUrl) {
+        return jsonRpcCache.computeIfAbsent(baseUrl, url -> archived(url, () ->
+                new BatchingJsonRpcHttpClient(getTransportChain(url), maxBatchSize, batchWindow, batchScheduler)));
+    }
+
+    /**
+     * Returns the archive the clients record to or replay from.
+     *
+     * @return the {@link HttpArchive}, or {@code null} if the clients always use the network
+     */
+    public HttpArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Wraps a client for recording, or replaces it with a replaying client, according to the
+     * configured archive. The network client is not created at all when replaying.
+     *
+     * @param baseUrl the base URL of the client
+     * @param networkClient creates the client that talks to the network
+     * @return the client to hand out
+     */
+    private HttpClient archived(String baseUrl, Supplier<HttpClient> networkClient) {
+        if (archive == null) {
+            return networkClient.get();
+        }
+        if (archiveMode == HttpArchive.Mode.REPLAY) {
+            return new ReplayingHttpClient(archive, baseUrl, replayLatency, syntheticLatency);
+        }
+        return new RecordingHttpClient(networkClient.get(), archive, baseUrl);
+    }
+
+    /**
+     * Returns the network client chain for the specified base URL: a new {@link AlchemyHttpClient}
+     * on the shared transport behind the bulkhead of its host, rate limited by the budget of the API
+     * key contained in the URL, guarded by per-method circuit breakers and wrapped with retries. Every
+     * retry attempt draws on the key's budget again, and calls rejected by an open circuit are not retried.
+     * The latencies hedging is based on are measured on the transport, below the bulkhead and the limiter.
+     *
+     * @param baseUrl the base URL for the client
+     * @return the network client chain
+     */
+    private HttpClient getTransportChain(String baseUrl) {
+        return transportChains.computeIfAbsent(baseUrl, url -> {
+            String host = hostOf(url);
+            LatencyTracker wireLatencies = new LatencyTracker(256);
+            ComputeUnitRateLimiter rateLimiter = getRateLimiter(apiKeyOf(url));
+            HttpClient tracked = new LatencyTrackingHttpClient(transport.newClient(url), wireLatencies);
+            HttpClient bulkhead = new BulkheadHttpClient(tracked, getBulkhead(host));
+            HttpClient rateLimited = new RateLimitedHttpClient(
+                    bulkhead,
+                    rateLimiter,
+                    ComputeUnitCosts.PRICES_COST
+            );
+            HttpClient circuitBreaking = new CircuitBreakingHttpClient(rateLimited, url, circuitBreakerBuilder);
+            return new RetryingHttpClient(circuitBreaking, retryPolicy, wireLatencies, rateLimiter);
+        });
+    }
+
+    /**
+     * Returns the bulkhead permits shared by all clients of the given host.
+     *
+     * @param host the endpoint host
+     * @return the host's bulkhead permits
+     */
+    private Bulkhead getBulkhead(String host) {
+        return bulkheads.computeIfAbsent(host, h -> new Bulkhead(h, maxConcurrentCallsPerEndpoint, maxBulkheadWait));
+    }
+
+    /**
+     * Extracts the host of a URL, which identifies the endpoint for bulkhead purposes.
+     *
+     * @param url the request URL
+     * @return the host, or the URL itself if it cannot be parsed
+     */
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Extracts the Alchemy API key from a node or prices URL.
+     *
+     * @param url the request URL
+     * @return the API key, or the URL itself if it does not contain one
+     */
+    private static String apiKeyOf(String url) {
+        Matcher matcher = API_KEY_PATTERN.matcher(url);
+        return matcher.find() ? matcher.group(1) : url;
     }
 }
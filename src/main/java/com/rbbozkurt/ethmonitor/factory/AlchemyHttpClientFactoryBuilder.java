@@ -0,0 +1,233 @@
+package com.rbbozkurt.ethmonitor.factory;
+
+import com.rbbozkurt.ethmonitor.client.impls.CircuitBreakerBuilder;
+import com.rbbozkurt.ethmonitor.client.impls.HttpArchive;
+import com.rbbozkurt.ethmonitor.client.impls.ReplayLatency;
+import com.rbbozkurt.ethmonitor.client.impls.RetryPolicy;
+import com.rbbozkurt.ethmonitor.client.impls.RetryPolicyBuilder;
+import com.rbbozkurt.ethmonitor.client.impls.SharedHttpTransport;
+import com.rbbozkurt.ethmonitor.client.impls.SharedHttpTransportBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * A builder class for constructing {@link AlchemyHttpClientFactory} instances with a tuned
+ * transport, JSON-RPC batching window, per-key compute-unit budget, retry policy, circuit breakers
+ * and per-endpoint bulkheads, optionally recording to or replaying from an {@link HttpArchive}.
+ */
+public class AlchemyHttpClientFactoryBuilder {
+
+    private SharedHttpTransport transport;
+    private int maxBatchSize = 50;
+    private Duration batchWindow = Duration.ofMillis(5);
+    private double computeUnitsPerSecond = 330;
+    private double computeUnitBurst = 330;
+    private RetryPolicy retryPolicy;
+    private CircuitBreakerBuilder circuitBreakerBuilder;
+    private int maxConcurrentCallsPerEndpoint = 64;
+    private Duration maxBulkheadWait = Duration.ofSeconds(30);
+    private Path archivePath;
+    private HttpArchive.Mode archiveMode;
+    private ReplayLatency replayLatency = ReplayLatency.NONE;
+    private Duration syntheticLatency = Duration.ofMillis(50);
+
+    /**
+     * Sets the shared transport all clients are built on.
+     *
+     * @param transport the shared transport
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withTransport(SharedHttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of JSON-RPC calls sent in one batch request.
+     *
+     * @param maxBatchSize the maximum batch size
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets how long the first call of a batch waits for other calls to join it.
+     *
+     * @param batchWindow the batching window
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withBatchWindow(Duration batchWindow) {
+        this.batchWindow = batchWindow;
+        return this;
+    }
+
+    /**
+     * Sets the sustained compute-unit budget per API key.
+     *
+     * @param computeUnitsPerSecond the compute units per second each key may spend
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withComputeUnitsPerSecond(double computeUnitsPerSecond) {
+        this.computeUnitsPerSecond = computeUnitsPerSecond;
+        return this;
+    }
+
+    /**
+     * Sets how many compute units an idle API key may spend at once.
+     *
+     * @param computeUnitBurst the burst capacity in compute units
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withComputeUnitBurst(double computeUnitBurst) {
+        this.computeUnitBurst = computeUnitBurst;
+        return this;
+    }
+
+    /**
+     * Sets the retry, backoff and hedging policy applied to every client.
+     *
+     * @param retryPolicy the retry policy
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the template for the circuit breakers guarding each endpoint method.
+     *
+     * @param circuitBreakerBuilder the circuit breaker settings
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withCircuitBreaker(CircuitBreakerBuilder circuitBreakerBuilder) {
+        this.circuitBreakerBuilder = circuitBreakerBuilder;
+        return this;
+    }
+
+    /**
+     * Sets the bulkhead size, i.e. how many calls may be in flight to one endpoint host at once.
+     *
+     * @param maxConcurrentCallsPerEndpoint the maximum number of concurrent calls per host
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withMaxConcurrentCallsPerEndpoint(int maxConcurrentCallsPerEndpoint) {
+        this.maxConcurrentCallsPerEndpoint = maxConcurrentCallsPerEndpoint;
+        return this;
+    }
+
+    /**
+     * Sets how long a call waits for a bulkhead permit when the endpoint host is at its cap before it is
+     * rejected. Zero rejects such calls at once.
+     *
+     * @param maxBulkheadWait the longest wait for a permit
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withMaxBulkheadWait(Duration maxBulkheadWait) {
+        this.maxBulkheadWait = maxBulkheadWait;
+        return this;
+    }
+
+    /**
+     * Records every response to, or replays every response from, the given archive file.
+     *
+     * @param archivePath the archive file
+     * @param archiveMode whether to record or replay
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withArchive(Path archivePath, HttpArchive.Mode archiveMode) {
+        this.archivePath = archivePath;
+        this.archiveMode = archiveMode;
+        return this;
+    }
+
+    /**
+     * Sets how replayed responses are delayed.
+     *
+     * @param replayLatency the replay latency mode
+     * @param syntheticLatency the mean delay used with {@link ReplayLatency#SYNTHETIC}
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withReplayLatency(ReplayLatency replayLatency, Duration syntheticLatency) {
+        this.replayLatency = replayLatency;
+        this.syntheticLatency = syntheticLatency;
+        return this;
+    }
+
+    /**
+     * Applies record/replay settings from system properties, so any entry point can run offline:
+     * {@code ethmonitor.http.archive} (archive file), {@code ethmonitor.http.mode} ({@code record} or
+     * {@code replay}), {@code ethmonitor.http.replayLatency} ({@code none}, {@code recorded} or
+     * {@code synthetic}) and {@code ethmonitor.http.syntheticLatencyMillis}.
+     *
+     * @return the current builder instance
+     */
+    public AlchemyHttpClientFactoryBuilder withSystemProperties() {
+        String archive = System.getProperty("ethmonitor.http.archive");
+        if (archive != null && !archive.isBlank()) {
+            String mode = System.getProperty("ethmonitor.http.mode", "replay");
+            withArchive(Path.of(archive), HttpArchive.Mode.valueOf(mode.toUpperCase(Locale.ROOT)));
+        }
+        String latency = System.getProperty("ethmonitor.http.replayLatency");
+        if (latency != null && !latency.isBlank()) {
+            long millis = Long.getLong("ethmonitor.http.syntheticLatencyMillis", syntheticLatency.toMillis());
+            withReplayLatency(ReplayLatency.valueOf(latency.toUpperCase(Locale.ROOT)), Duration.ofMillis(millis));
+        }
+        return this;
+    }
+
+    /**
+     * Builds and returns a configured {@link AlchemyHttpClientFactory}.
+     *
+     * @return the configured {@link AlchemyHttpClientFactory} instance
+     */
+    public AlchemyHttpClientFactory build() {
+        if (transport == null) {
+            transport = new SharedHttpTransportBuilder().build();
+        }
+        if (retryPolicy == null) {
+            retryPolicy = new RetryPolicyBuilder().build();
+        }
+        if (circuitBreakerBuilder == null) {
+            circuitBreakerBuilder = new CircuitBreakerBuilder();
+        }
+        return new AlchemyHttpClientFactory(transport, maxBatchSize, batchWindow, computeUnitsPerSecond,
+                computeUnitBurst, retryPolicy, circuitBreakerBuilder, maxConcurrentCallsPerEndpoint, maxBulkheadWait,
+                openArchive(), archiveMode, replayLatency, syntheticLatency);
+    }
+
+    /**
+     * Opens the configured archive. A recording archive is closed on JVM shutdown so its last
+     * gzip member is finished properly.
+     *
+     * @return the opened archive, or {@code null} if none is configured
+     * @throws UncheckedIOException if the archive cannot be opened
+     */
+    private HttpArchive openArchive() {
+        if (archivePath == null) {
+            return null;
+        }
+        try {
+            HttpArchive archive = new HttpArchive(archivePath, archiveMode);
+            if (archiveMode == HttpArchive.Mode.RECORD) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        archive.close();
+                    } catch (IOException ignored) {
+                        // Entries are flushed as they are recorded; only the gzip trailer is lost
+                    }
+                }, "http-archive-closer"));
+            }
+            return archive;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open HTTP archive " + archivePath, e);
+        }
+    }
+}
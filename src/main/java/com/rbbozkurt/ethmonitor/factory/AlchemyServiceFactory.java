@@ -9,10 +9,13 @@ import com.rbbozkurt.ethmonitor.client.interfaces.TransfersAPI;
 import com.rbbozkurt.ethmonitor.dto.*;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.TokenBalance;
+import com.rbbozkurt.ethmonitor.registry.TokenFactsIndex;
+import com.rbbozkurt.ethmonitor.registry.TokenRegistry;
 import com.rbbozkurt.ethmonitor.factory.ServiceFactory;
 import com.rbbozkurt.ethmonitor.service.impls.*;
 import com.rbbozkurt.ethmonitor.service.interfaces.ApiService;
 import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.service.interfaces.HistoricalPriceService;
 import com.rbbozkurt.ethmonitor.service.interfaces.SwapDetectorService;
 import com.rbbozkurt.ethmonitor.service.interfaces.TransferService;
 
@@ -23,7 +26,7 @@ import java.util.concurrent.Executors;
 
 /**
  * A factory class for creating instances of services such as {@link TransferService}, {@link BalanceService},
- * {@link ApiService}, and {@link SwapDetectorService}. It uses caching to optimize the creation of services
+ * {@link ApiService}, {@link HistoricalPriceService}, and {@link SwapDetectorService}. It uses caching to optimize the creation of services
  * with the same API keys, and ensures the reuse of previously created service instances.
  */
 public class AlchemyServiceFactory implements ServiceFactory {
@@ -39,20 +42,34 @@ public class AlchemyServiceFactory implements ServiceFactory {
         return INSTANCE;
     }
 
-    private final AlchemyAPIFactory apiFactory = AlchemyAPIFactory.getInstance();
+    private final APIFactory apiFactory;
     private final CacheLayerFactory cacheLayerFactory = CacheLayerFactory.getInstance();
+    private final TokenFactsIndex tokenFacts = new TokenFactsIndex();  // Filled by transfer services, read by balance services
 
     // Caches for different service types, ensuring reusability for the same keys
     private final ConcurrentHashMap<String, TransferService> transferCache = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, BalanceService> balanceCache = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, ApiService> apiServiceCache = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, SwapDetectorService> swapDetectorCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, HistoricalPriceService> historicalPriceCache = new ConcurrentHashMap<>();
 
     /**
-     * Private constructor to prevent direct instantiation. This ensures that only the singleton instance
-     * of {@link AlchemyServiceFactory} is used throughout the application.
+     * Private constructor for the singleton instance, which creates its APIs through the shared
+     * {@link AlchemyAPIFactory}.
      */
-    private AlchemyServiceFactory() {}
+    private AlchemyServiceFactory() {
+        this(AlchemyAPIFactory.getInstance());
+    }
+
+    /**
+     * Constructs a factory whose services use APIs from the given {@link APIFactory}, e.g. one wired to
+     * a stub server for load testing. Applications should use {@link #getInstance()}.
+     *
+     * @param apiFactory the factory used to create the API clients
+     */
+    public AlchemyServiceFactory(APIFactory apiFactory) {
+        this.apiFactory = apiFactory;
+    }
 
     /**
      * Creates or retrieves a cached instance of the {@link TransferService} for the given API keys.
@@ -66,10 +83,9 @@ public class AlchemyServiceFactory implements ServiceFactory {
     @Override
     public TransferService getTransferService(String balancesApiKey, String pricesApiKey, String tokensApiKey, String transfersApiKey) {
         String key = generateCompositeKey(balancesApiKey, pricesApiKey, tokensApiKey, transfersApiKey);
-        return transferCache.computeIfAbsent(key, k -> {
-            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-            return new AlchemyTransferService(getApiService(balancesApiKey, pricesApiKey, tokensApiKey, transfersApiKey), executor);
-        });
+        return transferCache.computeIfAbsent(key, k ->
+                new AlchemyTransferService(getApiService(balancesApiKey, pricesApiKey, tokensApiKey, transfersApiKey), tokenFacts,
+                        new HistoricalTransferConverter(), cacheLayerFactory.createTransferTableCache()));
     }
 
     /**
@@ -117,11 +133,29 @@ public class AlchemyServiceFactory implements ServiceFactory {
             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
             return new AlchemyBalanceService(
                     getApiService(balancesApiKey, pricesApiKey, tokensApiKey, transfersApiKey),
-                    executor
+                    executor,
+                    new TokenFilterStageBuilder().withSystemProperties().build(),
+                    TokenRegistry.getInstance(),
+                    tokenFacts
             );
         });
     }
 
+    /**
+     * Creates or retrieves a cached instance of the {@link HistoricalPriceService} for the given API key.
+     * Every analysis using the same key shares its cache of hourly prices.
+     *
+     * @param pricesApiKey the API key for prices
+     * @return a {@link HistoricalPriceService} instance
+     */
+    @Override
+    public HistoricalPriceService getHistoricalPriceService(String pricesApiKey) {
+        return historicalPriceCache.computeIfAbsent(pricesApiKey, key -> new AlchemyHistoricalPriceService(
+                apiFactory.createPricesAPI(pricesApiKey),
+                cacheLayerFactory.createHistoricalPricesCache()
+        ));
+    }
+
     /**
      * Creates or retrieves a cached instance of the {@link SwapDetectorService}.
      *
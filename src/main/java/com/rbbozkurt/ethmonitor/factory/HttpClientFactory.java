@@ -15,4 +15,13 @@ public interface HttpClientFactory {
      * @return an instance of {@link HttpClient}
      */
     HttpClient getClient(String baseUrl);
+
+    /**
+     * Creates an instance of {@link HttpClient} for a JSON-RPC endpoint at the specified base URL.
+     * The returned client may coalesce concurrent calls into JSON-RPC batch requests.
+     *
+     * @param baseUrl the base URL of the JSON-RPC endpoint
+     * @return an instance of {@link HttpClient}
+     */
+    HttpClient getJsonRpcClient(String baseUrl);
 }
@@ -2,6 +2,7 @@ package com.rbbozkurt.ethmonitor.factory;
 
 import com.rbbozkurt.ethmonitor.service.interfaces.ApiService;
 import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.service.interfaces.HistoricalPriceService;
 import com.rbbozkurt.ethmonitor.service.interfaces.SwapDetectorService;
 import com.rbbozkurt.ethmonitor.service.interfaces.TransferService;
 
@@ -33,6 +34,14 @@ public interface ServiceFactory {
      */
     BalanceService getBalanceService(String balancesApiKey, String pricesApiKey, String tokensApiKey, String transfersApiKey);
 
+    /**
+     * Creates or retrieves a cached instance of the {@link HistoricalPriceService} for the given API key.
+     *
+     * @param pricesApiKey the API key for prices
+     * @return an instance of {@link HistoricalPriceService}
+     */
+    HistoricalPriceService getHistoricalPriceService(String pricesApiKey);
+
     /**
      * Creates or retrieves a cached instance of the {@link SwapDetectorService}.
      *
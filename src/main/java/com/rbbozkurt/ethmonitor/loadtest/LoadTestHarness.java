@@ -0,0 +1,242 @@
+package com.rbbozkurt.ethmonitor.loadtest;
+
+import com.rbbozkurt.ethmonitor.cache.CacheLayerFactory;
+import com.rbbozkurt.ethmonitor.client.impls.AlchemyEndpoints;
+import com.rbbozkurt.ethmonitor.factory.AlchemyAPIFactory;
+import com.rbbozkurt.ethmonitor.factory.AlchemyHttpClientFactoryBuilder;
+import com.rbbozkurt.ethmonitor.factory.AlchemyServiceFactory;
+import com.rbbozkurt.ethmonitor.service.impls.AlchemyBalanceService;
+import com.rbbozkurt.ethmonitor.service.impls.AlchemyWalletAnalyzerBuilder;
+import com.rbbozkurt.ethmonitor.service.impls.TokenFilterStage;
+import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.service.interfaces.WalletAnalyzer;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test: starts a {@link StubAlchemyServer}, points the full client stack at it and
+ * runs {@link WalletAnalyzer#analyze(String, int)} over many synthetic wallets concurrently. It
+ * reports throughput, per-wallet latency percentiles and the outbound calls the stub received, so
+ * the effect of batching, caching and resilience changes can be measured without an API key.
+ * <p>
+ * Run with {@code mvn exec:java -Dexec.mainClass=com.rbbozkurt.ethmonitor.loadtest.LoadTestHarness -Dexec.args="--wallets 2000"}.
+ */
+@Command(
+        name = "eth-monitor-loadtest",
+        mixinStandardHelpOptions = true,
+        description = "Runs the wallet analyzer against a local stub Alchemy server and reports throughput and call counts."
+)
+public class LoadTestHarness implements Callable<Integer> {
+
+    private static final String API_KEY = "loadtest";  // Any key works against the stub
+
+    @Option(names = {"-w", "--wallets"}, description = "Number of synthetic wallets to analyze (default: 2000)", defaultValue = "2000")
+    private int wallets;
+
+    @Option(names = {"-c", "--concurrency"}, description = "Number of wallets analyzed at once (default: 64)", defaultValue = "64")
+    private int concurrency;
+
+    @Option(names = {"-t", "--transfers"}, description = "Maximum transfers fetched per wallet (default: 1000)", defaultValue = "1000")
+    private int transferCount;
+
+    @Option(names = {"--warmup"}, description = "Wallets analyzed before measuring (default: 100)", defaultValue = "100")
+    private int warmupWallets;
+
+    @Option(names = {"--latency-ms"}, description = "Mean stub latency per request in ms (default: 20)", defaultValue = "20")
+    private long latencyMillis;
+
+    @Option(names = {"--jitter"}, description = "Fraction of the stub latency that is randomized (default: 0.5)", defaultValue = "0.5")
+    private double latencyJitter;
+
+    @Option(names = {"--rate-limit-rate"}, description = "Probability of a stub HTTP 429 (default: 0)", defaultValue = "0")
+    private double rateLimitRate;
+
+    @Option(names = {"--error-rate"}, description = "Probability of a stub HTTP 500 (default: 0)", defaultValue = "0")
+    private double errorRate;
+
+    @Option(names = {"--seed"}, description = "Seed of the synthetic chain data (default: 42)", defaultValue = "42")
+    private long seed;
+
+    @Option(names = {"--token-universe"}, description = "Number of distinct synthetic tokens (default: 500)", defaultValue = "500")
+    private int tokenUniverse;
+
+    @Option(names = {"--max-tokens"}, description = "Maximum token balances per wallet (default: 20)", defaultValue = "20")
+    private int maxTokensPerWallet;
+
+    @Option(names = {"--max-wallet-transfers"}, description = "Maximum transfer history per wallet (default: 300)", defaultValue = "300")
+    private int maxTransfersPerWallet;
+
+    @Option(names = {"--metadata-store"}, description = "Token metadata file, kept across runs, or none (default: none)", defaultValue = "none")
+    private String metadataStore;
+
+    @Option(names = {"--sync-store"}, description = "Transfer sync file, kept across runs, or none (default: none)", defaultValue = "none")
+    private String syncStore;
+
+    @Option(names = {"--cu-per-second"}, description = "Client compute-unit budget per API key (default: 1000000)", defaultValue = "1000000")
+    private double computeUnitsPerSecond;
+
+    /**
+     * Runs the load test and prints the report.
+     *
+     * @return the exit code, 1 if any wallet analysis failed
+     * @throws Exception if the stub server cannot be started
+     */
+    @Override
+    public Integer call() throws Exception {
+        try (StubAlchemyServer server = new StubAlchemyServerBuilder()
+                .withLatency(Duration.ofMillis(latencyMillis))
+                .withLatencyJitter(latencyJitter)
+                .withRateLimitRate(rateLimitRate)
+                .withErrorRate(errorRate)
+                .withSeed(seed)
+                .withTokenUniverse(tokenUniverse)
+                .withMaxTokensPerWallet(maxTokensPerWallet)
+                .withMaxTransfersPerWallet(maxTransfersPerWallet)
+                .build()) {
+
+            System.setProperty(AlchemyEndpoints.NODE_URL_PROPERTY, server.getNodeUrl());
+            System.setProperty(AlchemyEndpoints.PRICES_URL_PROPERTY, server.getPricesUrl());
+            // Synthetic tokens must not end up in the real metadata store
+            System.setProperty(CacheLayerFactory.METADATA_STORE_PROPERTY, metadataStore);
+            System.setProperty(CacheLayerFactory.SYNC_STORE_PROPERTY, syncStore);
+
+            AlchemyServiceFactory serviceFactory = new AlchemyServiceFactory(new AlchemyAPIFactory(
+                    new AlchemyHttpClientFactoryBuilder()
+                            .withComputeUnitsPerSecond(computeUnitsPerSecond)
+                            .withComputeUnitBurst(computeUnitsPerSecond)
+                            .build()));
+            BalanceService balanceService = serviceFactory.getBalanceService(API_KEY, API_KEY, API_KEY, API_KEY);
+            WalletAnalyzer analyzer = new AlchemyWalletAnalyzerBuilder()
+                    .withTransferService(serviceFactory.getTransferService(API_KEY, API_KEY, API_KEY, API_KEY))
+                    .withBalanceService(balanceService)
+                    .withSwapDetectorService(serviceFactory.getSwapDetectorService())
+                    .withHistoricalPriceService(serviceFactory.getHistoricalPriceService(API_KEY))
+                    .build();
+
+            if (warmupWallets > 0) {
+                System.out.println("🔥 Warming up with " + warmupWallets + " wallets...");
+                // Warm-up wallets come after the measured range, so the caches stay cold for the measured run
+                run(analyzer, wallets, warmupWallets);
+                server.resetCounters();
+            }
+
+            System.out.println("🚀 Analyzing " + wallets + " wallets with concurrency " + concurrency + "...");
+            long started = System.nanoTime();
+            Result result = run(analyzer, 0, wallets);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            printReport(result, seconds, server);
+            if (balanceService instanceof AlchemyBalanceService alchemyBalanceService) {
+                // Includes the warm-up, as the filter stage is not reset with the stub counters
+                TokenFilterStage.FilterStats stats = alchemyBalanceService.getFilterStats();
+                System.out.printf("%n🧹 Token filter: %d of %d tokens skipped, %d lookups saved%n",
+                        stats.getTokensFiltered() + stats.getTokensUnpriced(), stats.getTokensSeen(), stats.getLookupsSaved());
+            }
+            return result.failures() > 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * The outcome of a load-test run.
+     *
+     * @param latenciesNanos the analysis latency of every successful wallet, sorted
+     * @param failures the number of wallets whose analysis failed
+     */
+    private record Result(long[] latenciesNanos, int failures) {}
+
+    /**
+     * Analyzes a range of synthetic wallets on a pool of {@link #concurrency} threads, like that many
+     * concurrent users of the CLI.
+     *
+     * @param analyzer the analyzer under test
+     * @param firstWallet the index of the first wallet
+     * @param count the number of wallets
+     * @return the measured latencies and failures
+     */
+    private Result run(WalletAnalyzer analyzer, int firstWallet, int count) {
+        long[] latencies = new long[count];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int i = 0; i < count; i++) {
+                String wallet = SyntheticChain.walletAddress(firstWallet + i);
+                executor.submit(() -> {
+                    long started = System.nanoTime();
+                    try {
+                        analyzer.analyze(wallet, transferCount);
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - started;
+                    } catch (Exception e) {
+                        if (failures.incrementAndGet() <= 5) {
+                            System.err.println("❌ Analysis of " + wallet + " failed: " + e.getMessage());
+                        }
+                    }
+                });
+            }
+        }
+
+        long[] measured = Arrays.copyOf(latencies, completed.get());
+        Arrays.sort(measured);
+        return new Result(measured, failures.get());
+    }
+
+    /**
+     * Prints throughput, latency percentiles and the calls received by the stub.
+     *
+     * @param result the measured run
+     * @param seconds the wall-clock duration of the run
+     * @param server the stub server
+     */
+    private void printReport(Result result, double seconds, StubAlchemyServer server) {
+        long[] latencies = result.latenciesNanos();
+        long httpRequests = server.getHttpRequestCount();
+
+        System.out.println("\n📊 Load test results");
+        System.out.println("────────────────────────────────────");
+        System.out.printf("👛 Wallets: %d analyzed, %d failed in %.2f s%n", latencies.length, result.failures(), seconds);
+        System.out.printf("⚡ Throughput: %.1f wallets/s%n", wallets / seconds);
+        System.out.printf("⏱️  Latency: p50 %.1f ms | p90 %.1f ms | p99 %.1f ms | max %.1f ms%n",
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.90),
+                percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0));
+        System.out.printf("🌐 HTTP requests: %d (%.2f per wallet), %d answered 429, %d answered 500%n",
+                httpRequests, (double) httpRequests / wallets, server.getRateLimitedCount(), server.getErrorCount());
+
+        System.out.println("\n📞 Calls by method:");
+        for (Map.Entry<String, Long> entry : server.getCallCounts().entrySet()) {
+            System.out.printf("%-28s %8d (%.2f per wallet)%n",
+                    entry.getKey(), entry.getValue(), (double) entry.getValue() / wallets);
+        }
+    }
+
+    /**
+     * Returns a percentile of sorted latencies in milliseconds.
+     *
+     * @param sortedNanos the sorted latencies in nanoseconds
+     * @param percentile the percentile, between 0 and 1
+     * @return the latency in milliseconds, or 0 if there are no latencies
+     */
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = Math.max(0, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1e6;
+    }
+
+    /**
+     * Entry point of the load test.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new LoadTestHarness()).execute(args));
+    }
+}
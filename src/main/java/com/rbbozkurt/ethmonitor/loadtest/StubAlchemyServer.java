@@ -0,0 +1,364 @@
+package com.rbbozkurt.ethmonitor.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * A local HTTP server speaking the subset of the Alchemy API this application uses, backed by
+ * {@link SyntheticChain} data:
+ * <ul>
+ *     <li>{@code POST /v2/<key>}: JSON-RPC calls and batches of {@code alchemy_getAssetTransfers}
+ *     (with {@code pageKey}), {@code alchemy_getTokenBalances}, {@code alchemy_getTokenMetadata}
+ *     and {@code eth_getBalance}</li>
+ *     <li>{@code POST /prices/v1/<key>/tokens/by-address}, {@code POST /prices/v1/<key>/tokens/historical}
+ *     and {@code GET /prices/v1/<key>/tokens/by-symbol?symbols=...}</li>
+ * </ul>
+ * Every HTTP request can be delayed by a configurable latency and fail with a configurable
+ * probability of HTTP 429 (with {@code Retry-After}) or HTTP 500. The server counts the requests
+ * it receives, so load tests can report how many outbound calls the application made.
+ */
+public class StubAlchemyServer implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(StubAlchemyServer.class.getName());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpServer server;
+    // Platform threads: the analyzer may pin every carrier thread while it waits for responses
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final SyntheticChain chain;  // Data served for every wallet and token
+    private final Duration latency;  // Mean delay added to every request
+    private final double latencyJitter;  // Fraction of the latency that is randomized
+    private final double rateLimitRate;  // Probability of answering with HTTP 429
+    private final double errorRate;  // Probability of answering with HTTP 500
+
+    private final LongAdder httpRequests = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> callsByMethod = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs and starts a new {@code StubAlchemyServer}. Use {@link StubAlchemyServerBuilder} to create instances.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param chain the synthetic data to serve
+     * @param latency the mean delay added to every request
+     * @param latencyJitter the fraction of the latency that is randomized, between 0 and 1
+     * @param rateLimitRate the probability of answering with HTTP 429
+     * @param errorRate the probability of answering with HTTP 500
+     * @throws IOException if the server cannot be bound
+     */
+    StubAlchemyServer(
+            int port,
+            SyntheticChain chain,
+            Duration latency,
+            double latencyJitter,
+            double rateLimitRate,
+            double errorRate
+    ) throws IOException {
+        this.chain = chain;
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.rateLimitRate = rateLimitRate;
+        this.errorRate = errorRate;
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/v2/", exchange -> handle(exchange, this::handleJsonRpc));
+        server.createContext("/prices/v1/", exchange -> handle(exchange, this::handlePrices));
+        server.setExecutor(executor);
+        server.start();
+        logger.info("🧪 Stub Alchemy server listening on " + getNodeUrl());
+    }
+
+    /**
+     * Returns the base URL of the JSON-RPC node endpoint, without API key.
+     *
+     * @return the node base URL
+     */
+    public String getNodeUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v2";
+    }
+
+    /**
+     * Returns the base URL of the Prices API endpoint, without API key.
+     *
+     * @return the prices base URL
+     */
+    public String getPricesUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/prices/v1";
+    }
+
+    /**
+     * Returns the number of HTTP requests received.
+     *
+     * @return the HTTP request count
+     */
+    public long getHttpRequestCount() {
+        return httpRequests.sum();
+    }
+
+    /**
+     * Returns the number of requests answered with HTTP 429.
+     *
+     * @return the rate-limited request count
+     */
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    /**
+     * Returns the number of requests answered with HTTP 500.
+     *
+     * @return the failed request count
+     */
+    public long getErrorCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of calls served per JSON-RPC method or prices route; a batch request
+     * counts once for each call it contains.
+     *
+     * @return the call counts, sorted by method
+     */
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        callsByMethod.forEach((method, count) -> counts.put(method, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Resets all counters, e.g. after a warm-up phase.
+     */
+    public void resetCounters() {
+        httpRequests.reset();
+        rateLimited.reset();
+        failed.reset();
+        callsByMethod.clear();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handles a request body and returns the JSON response to send.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        JsonNode handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Applies latency and fault injection, then answers the request with the handler's response.
+     *
+     * @param exchange the HTTP exchange
+     * @param handler produces the response body
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        httpRequests.increment();
+        try (exchange) {
+            sleep(latency);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < rateLimitRate) {
+                rateLimited.increment();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                send(exchange, 429, "{\"error\":{\"code\":429,\"message\":\"Your app has exceeded its compute units per second capacity\"}}");
+                return;
+            }
+            if (random.nextDouble() < errorRate) {
+                failed.increment();
+                send(exchange, 500, "{\"error\":{\"code\":500,\"message\":\"Internal server error\"}}");
+                return;
+            }
+            send(exchange, 200, objectMapper.writeValueAsString(handler.handle(exchange)));
+        } catch (RuntimeException e) {
+            logger.warning("⚠️ Stub failed to handle " + exchange.getRequestURI() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a JSON-RPC call or batch.
+     *
+     * @param exchange the HTTP exchange
+     * @return the JSON-RPC response or array of responses
+     * @throws IOException if the request body cannot be read
+     */
+    private JsonNode handleJsonRpc(HttpExchange exchange) throws IOException {
+        JsonNode request = readBody(exchange);
+        if (request.isArray()) {
+            ArrayNode responses = objectMapper.createArrayNode();
+            request.forEach(call -> responses.add(answer(call)));
+            return responses;
+        }
+        return answer(request);
+    }
+
+    /**
+     * Answers a single JSON-RPC call.
+     *
+     * @param call the JSON-RPC call
+     * @return the JSON-RPC response
+     */
+    private ObjectNode answer(JsonNode call) {
+        String method = call.path("method").asText();
+        JsonNode params = call.path("params");
+        count(method);
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", call.path("id"));
+        switch (method) {
+            case "alchemy_getTokenBalances" -> response.set("result", chain.tokenBalances(params.path(0).asText()));
+            case "eth_getBalance" -> response.put("result", chain.ethBalance(params.path(0).asText()));
+            case "alchemy_getTokenMetadata" -> {
+                ObjectNode metadata = chain.tokenMetadata(params.path(0).asText());
+                if (metadata != null) {
+                    response.set("result", metadata);
+                } else {
+                    response.putObject("error").put("code", -32602).put("message", "Contract is not an ERC-20 token");
+                }
+            }
+            case "alchemy_getAssetTransfers" -> {
+                JsonNode filter = params.path(0);
+                boolean outgoing = !filter.hasNonNull("toAddress");
+                String address = outgoing ? filter.path("fromAddress").asText() : filter.get("toAddress").asText();
+                int maxCount = Integer.parseInt(filter.path("maxCount").asText("0x3e8").substring(2), 16);
+                String pageKey = filter.hasNonNull("pageKey") ? filter.get("pageKey").asText() : null;
+                long fromBlock = Long.parseLong(filter.path("fromBlock").asText("0x0").substring(2), 16);
+                String toBlockTag = filter.path("toBlock").asText("latest");
+                long toBlock = toBlockTag.startsWith("0x") ? Long.parseLong(toBlockTag.substring(2), 16) : -1;
+                Set<String> categories = new HashSet<>();
+                filter.path("category").forEach(category -> categories.add(category.asText()));
+                response.set("result", chain.transfers(address, outgoing, fromBlock, toBlock, categories, maxCount, pageKey));
+            }
+            case "eth_blockNumber" -> response.put("result", chain.latestBlock());
+            default -> response.putObject("error").put("code", -32601).put("message", "Method not found: " + method);
+        }
+        return response;
+    }
+
+    /**
+     * Answers a Prices API request by address or historical range (POST), or by symbol (GET).
+     *
+     * @param exchange the HTTP exchange
+     * @return the Prices API response
+     * @throws IOException if the request body cannot be read
+     */
+    private JsonNode handlePrices(HttpExchange exchange) throws IOException {
+        ArrayNode data = objectMapper.createArrayNode();
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/tokens/historical")) {
+            count("prices/historical");
+            JsonNode request = readBody(exchange);
+            String token = request.hasNonNull("address") ? request.get("address").asText() : request.path("symbol").asText();
+            return chain.historicalPrices(token,
+                    Instant.parse(request.path("startTime").asText()), Instant.parse(request.path("endTime").asText()));
+        }
+        if (path.endsWith("/tokens/by-address")) {
+            count("prices/by-address");
+            readBody(exchange).path("addresses").forEach(a -> data.add(chain.priceByAddress(a.path("address").asText())));
+        } else if (path.endsWith("/tokens/by-symbol")) {
+            count("prices/by-symbol");
+            String query = exchange.getRequestURI().getRawQuery();
+            for (String parameter : query != null ? query.split("&") : new String[0]) {
+                if (parameter.startsWith("symbols=")) {
+                    String symbols = URLDecoder.decode(parameter.substring("symbols=".length()), StandardCharsets.UTF_8);
+                    for (String symbol : symbols.split(",")) {
+                        data.add(chain.priceBySymbol(symbol));
+                    }
+                }
+            }
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("data", data);
+        return response;
+    }
+
+    /**
+     * Increments the call counter of a method or route.
+     *
+     * @param method the JSON-RPC method or prices route
+     */
+    private void count(String method) {
+        callsByMethod.computeIfAbsent(method, m -> new LongAdder()).increment();
+    }
+
+    /**
+     * Parses the request body as JSON.
+     *
+     * @param exchange the HTTP exchange
+     * @return the parsed body
+     * @throws IOException if the body cannot be read or parsed
+     */
+    private static JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return objectMapper.readTree(body);
+        }
+    }
+
+    /**
+     * Writes a JSON response.
+     *
+     * @param exchange the HTTP exchange
+     * @param status the HTTP status code
+     * @param json the response body
+     * @throws IOException if the response cannot be written
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Sleeps for the mean latency with the configured jitter.
+     *
+     * @param mean the mean latency
+     */
+    private void sleep(Duration mean) {
+        long nanos = mean.toNanos();
+        if (nanos <= 0) {
+            return;
+        }
+        double factor = 1 - latencyJitter + 2 * latencyJitter * ThreadLocalRandom.current().nextDouble();
+        try {
+            TimeUnit.NANOSECONDS.sleep((long) (nanos * factor));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.rbbozkurt.ethmonitor.loadtest;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * A builder class for constructing and starting {@link StubAlchemyServer} instances. By default the
+ * server listens on a free port, answers after 20 ms ± 50% without injected faults, and serves
+ * wallets holding up to 20 of 500 synthetic tokens and up to 300 transfers.
+ */
+public class StubAlchemyServerBuilder {
+
+    private int port = 0;
+    private Duration latency = Duration.ofMillis(20);
+    private double latencyJitter = 0.5;
+    private double rateLimitRate = 0;
+    private double errorRate = 0;
+    private long seed = 42;
+    private int tokenUniverse = 500;
+    private int maxTokensPerWallet = 20;
+    private int maxTransfersPerWallet = 300;
+
+    /**
+     * Sets the port to listen on.
+     *
+     * @param port the port, or 0 for any free port
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Sets the mean delay added to every request.
+     *
+     * @param latency the mean latency
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withLatency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of the latency that is randomized; 0.5 spreads delays between 50% and 150% of the mean.
+     *
+     * @param latencyJitter the jitter, between 0 and 1
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withLatencyJitter(double latencyJitter) {
+        this.latencyJitter = latencyJitter;
+        return this;
+    }
+
+    /**
+     * Sets the probability of answering a request with HTTP 429.
+     *
+     * @param rateLimitRate the probability, between 0 and 1
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withRateLimitRate(double rateLimitRate) {
+        this.rateLimitRate = rateLimitRate;
+        return this;
+    }
+
+    /**
+     * Sets the probability of answering a request with HTTP 500.
+     *
+     * @param errorRate the probability, between 0 and 1
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Sets the seed all synthetic data is derived from.
+     *
+     * @param seed the seed
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the number of distinct synthetic tokens.
+     *
+     * @param tokenUniverse the number of tokens
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withTokenUniverse(int tokenUniverse) {
+        this.tokenUniverse = tokenUniverse;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the token balances of a wallet.
+     *
+     * @param maxTokensPerWallet the maximum number of tokens per wallet
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withMaxTokensPerWallet(int maxTokensPerWallet) {
+        this.maxTokensPerWallet = maxTokensPerWallet;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the transfer history of a wallet.
+     *
+     * @param maxTransfersPerWallet the maximum number of transfers per wallet
+     * @return the current builder instance
+     */
+    public StubAlchemyServerBuilder withMaxTransfersPerWallet(int maxTransfersPerWallet) {
+        this.maxTransfersPerWallet = maxTransfersPerWallet;
+        return this;
+    }
+
+    /**
+     * Builds and starts a {@link StubAlchemyServer} with the configured settings.
+     *
+     * @return the running {@link StubAlchemyServer}
+     * @throws IOException if the server cannot be bound
+     */
+    public StubAlchemyServer build() throws IOException {
+        if (tokenUniverse < 1) {
+            throw new IllegalStateException("Token universe must contain at least one token");
+        }
+        SyntheticChain chain = new SyntheticChain(seed, tokenUniverse, maxTokensPerWallet, maxTransfersPerWallet);
+        return new StubAlchemyServer(port, chain, latency, latencyJitter, rateLimitRate, errorRate);
+    }
+}
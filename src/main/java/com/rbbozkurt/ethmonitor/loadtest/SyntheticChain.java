@@ -0,0 +1,370 @@
+package com.rbbozkurt.ethmonitor.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic chain data served by the {@link StubAlchemyServer}. Every wallet, token and
+ * transfer is derived from a seed and the requested address, so the same wallet always has the same
+ * balances and history and repeated load-test runs are comparable.
+ * <p>
+ * Tokens are drawn from a fixed universe; every seventh token has no USD price and every eleventh
+ * has no metadata, mirroring the long tail of spam tokens the APIs know nothing about. Some transfers involve a known DEX router so that
+ * swap detection has work to do.
+ */
+public class SyntheticChain {
+
+    private static final JsonNodeFactory json = new ObjectMapper().getNodeFactory();
+
+    private static final String DEX_ROUTER = "0x7a250d5630b4cf539739df2c5dacabf31d1c8ed8";  // Uniswap V2 Router
+    private static final long GENESIS_SECONDS = 1_438_269_973L;  // Timestamp of the first Ethereum block
+    private static final int SECONDS_PER_BLOCK = 12;
+    private static final long LATEST_BLOCK = 18_000_000L;  // Newest block of the chain, transfers lie before it
+
+    private final long seed;  // Base seed all synthetic data is derived from
+    private final int tokenUniverse;  // Number of distinct synthetic tokens
+    private final int maxTokensPerWallet;  // Upper bound of the token balances of a wallet
+    private final int maxTransfersPerWallet;  // Upper bound of the transfer history of a wallet
+
+    /**
+     * Constructs a new {@code SyntheticChain}.
+     *
+     * @param seed the base seed all synthetic data is derived from
+     * @param tokenUniverse the number of distinct synthetic tokens
+     * @param maxTokensPerWallet the upper bound of the token balances of a wallet
+     * @param maxTransfersPerWallet the upper bound of the transfer history of a wallet
+     */
+    public SyntheticChain(long seed, int tokenUniverse, int maxTokensPerWallet, int maxTransfersPerWallet) {
+        this.seed = seed;
+        this.tokenUniverse = tokenUniverse;
+        this.maxTokensPerWallet = maxTokensPerWallet;
+        this.maxTransfersPerWallet = maxTransfersPerWallet;
+    }
+
+    /**
+     * Returns the address of the synthetic wallet with the given index, for load generators.
+     *
+     * @param index the wallet index
+     * @return a valid Ethereum address
+     */
+    public static String walletAddress(long index) {
+        return "0x" + String.format("%040x", BigInteger.valueOf(index).add(BigInteger.ONE.shiftLeft(156)));
+    }
+
+    /**
+     * Builds the result of {@code alchemy_getTokenBalances} for a wallet.
+     *
+     * @param wallet the wallet address
+     * @return the JSON-RPC result object
+     */
+    public ObjectNode tokenBalances(String wallet) {
+        SplittableRandom random = randomFor("balances", wallet);
+        ArrayNode balances = json.arrayNode();
+        int count = random.nextInt(maxTokensPerWallet + 1);
+        for (int i = 0; i < count; i++) {
+            ObjectNode balance = balances.addObject();
+            balance.put("contractAddress", tokenAddress(random.nextInt(tokenUniverse)));
+            // A few zero balances, as Alchemy reports tokens that were emptied
+            long raw = random.nextInt(10) == 0 ? 0 : random.nextLong(1, Long.MAX_VALUE);
+            balance.put("tokenBalance", "0x" + Long.toHexString(raw));
+            balance.putNull("error");
+        }
+        ObjectNode result = json.objectNode();
+        result.put("address", wallet);
+        result.set("tokenBalances", balances);
+        return result;
+    }
+
+    /**
+     * Builds the result of {@code eth_getBalance} for a wallet.
+     *
+     * @param wallet the wallet address
+     * @return the balance in wei as a hex string
+     */
+    public String ethBalance(String wallet) {
+        // Up to 9 ETH, which keeps the wei amount within a long
+        return "0x" + Long.toHexString(randomFor("eth", wallet).nextLong(0, 9_000_000_000_000_000_000L));
+    }
+
+    /**
+     * Builds the result of {@code alchemy_getTokenMetadata} for a token. Every eleventh token is a contract
+     * that reports no ERC-20 metadata, as spam tokens often do.
+     *
+     * @param token the token address
+     * @return the JSON-RPC result object, or {@code null} if the address is not a synthetic token
+     */
+    public ObjectNode tokenMetadata(String token) {
+        int index = tokenIndex(token);
+        if (index < 0) {
+            return null;
+        }
+        ObjectNode result = json.objectNode();
+        result.putNull("logo");
+        if (index % 11 == 0) {
+            result.putNull("decimals");
+            result.putNull("name");
+            result.putNull("symbol");
+            return result;
+        }
+        result.put("decimals", index % 3 == 0 ? 6 : 18);
+        result.put("name", "Synthetic Token " + index);
+        result.put("symbol", "SYN" + index);
+        return result;
+    }
+
+    /**
+     * Builds one price entry of the Prices API for a token address.
+     *
+     * @param token the token address
+     * @return the price entry, carrying an error for tokens without a price
+     */
+    public ObjectNode priceByAddress(String token) {
+        ObjectNode entry = json.objectNode();
+        entry.put("network", "eth-mainnet");
+        entry.put("address", token);
+        int index = tokenIndex(token);
+        if (index < 0 || index % 7 == 0) {
+            entry.set("prices", json.arrayNode());
+            entry.putObject("error").put("message", "Token not found");
+        } else {
+            entry.set("prices", json.arrayNode().add(usdPrice(randomFor("price", token).nextDouble(0.0001, 5000))));
+            entry.putNull("error");
+        }
+        return entry;
+    }
+
+    /**
+     * Builds one price entry of the Prices API for a token symbol.
+     *
+     * @param symbol the token symbol
+     * @return the price entry
+     */
+    public ObjectNode priceBySymbol(String symbol) {
+        ObjectNode entry = json.objectNode();
+        entry.put("symbol", symbol);
+        double value = "ETH".equalsIgnoreCase(symbol) ? 3000 : randomFor("symbol", symbol).nextDouble(0.01, 100);
+        entry.set("prices", json.arrayNode().add(usdPrice(value)));
+        entry.putNull("error");
+        return entry;
+    }
+
+    /**
+     * Builds the historical price series of a token by address or symbol: one hourly price per hour of
+     * the range, drifting around the token's current price. Tokens without a price have an empty series.
+     *
+     * @param token the token address, or its symbol
+     * @param startTime the start of the range, inclusive
+     * @param endTime the end of the range, exclusive
+     * @return the historical prices response
+     */
+    public ObjectNode historicalPrices(String token, Instant startTime, Instant endTime) {
+        ObjectNode response = json.objectNode();
+        response.put("currency", "usd");
+        ArrayNode data = response.putArray("data");
+        double base;
+        if (token.startsWith("0x")) {
+            response.put("network", "eth-mainnet");
+            response.put("address", token);
+            int index = tokenIndex(token);
+            if (index < 0 || index % 7 == 0) {
+                return response;
+            }
+            base = randomFor("price", token).nextDouble(0.0001, 5000);
+        } else {
+            response.put("symbol", token);
+            base = "ETH".equalsIgnoreCase(token) ? 3000 : randomFor("symbol", token).nextDouble(0.01, 100);
+        }
+        long firstHour = Math.floorDiv(startTime.getEpochSecond() + 3_599, 3_600);
+        for (long hour = firstHour; hour * 3_600 < endTime.getEpochSecond(); hour++) {
+            ObjectNode point = data.addObject();
+            point.put("value", String.format(Locale.ROOT, "%.12f", base * (1 + 0.2 * Math.sin(hour / 24.0))));
+            point.put("timestamp", Instant.ofEpochSecond(hour * 3_600).toString());
+        }
+        return response;
+    }
+
+    /**
+     * Builds one page of the result of {@code alchemy_getAssetTransfers}.
+     *
+     * @param address the queried address
+     * @param outgoing whether the transfers sent by the address are queried, rather than those received by it
+     * @param fromBlock the first block to include
+     * @param toBlock the last block to include, or -1 for the latest block
+     * @param categories the requested categories, e.g. {@code "erc20"}
+     * @param maxCount the maximum number of transfers in the page
+     * @param pageKey the key of the page, or {@code null} for the first page
+     * @return the JSON-RPC result object, with a page key if more transfers follow
+     */
+    public ObjectNode transfers(String address, boolean outgoing, long fromBlock, long toBlock, Set<String> categories,
+                                int maxCount, String pageKey) {
+        String direction = outgoing ? "out" : "in";
+        int total = randomFor("transfers:" + direction, address).nextInt(maxTransfersPerWallet / 2 + 1);
+        int last = toBlock < 0 ? total : firstIndexFrom(address, outgoing, total, toBlock + 1);
+        int offset = pageKey != null ? Integer.parseInt(pageKey) : firstIndexFrom(address, outgoing, total, fromBlock);
+
+        // Transfers of other categories are skipped, so a page key is the position to resume scanning at
+        ArrayNode transfers = json.arrayNode();
+        int end = offset;
+        while (end < last && transfers.size() < maxCount) {
+            ObjectNode transfer = transfer(address, outgoing, total, end++);
+            if (categories.contains(transfer.get("category").asText())) {
+                transfers.add(transfer);
+            }
+        }
+        ObjectNode result = json.objectNode();
+        result.set("transfers", transfers);
+        if (end < last) {
+            result.put("pageKey", Integer.toString(end));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of the latest block, after the newest synthetic transfer.
+     *
+     * @return the block number as a hex quantity
+     */
+    public String latestBlock() {
+        return "0x" + Long.toHexString(LATEST_BLOCK);
+    }
+
+    /**
+     * Returns the position of the first transfer in one direction of a wallet's history at or after a block.
+     * Consecutive transfers are 1 to 99 blocks apart, so the position is found from the block alone.
+     *
+     * @param address the wallet address
+     * @param outgoing whether the transfers sent by the wallet are meant, rather than those received by it
+     * @param total the number of transfers of the wallet in that direction
+     * @param fromBlock the first block to include
+     * @return the position, {@code total} if no transfer is that recent
+     */
+    private int firstIndexFrom(String address, boolean outgoing, int total, long fromBlock) {
+        long behind = Math.floorDiv(LATEST_BLOCK - fromBlock, 50);
+        int index = (int) Math.max(0, Math.min(total, total - behind - 1));
+        while (index < total && blockAt(address, outgoing, total, index) < fromBlock) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the block of the transfer with the given position in one direction of a wallet's history.
+     *
+     * @param address the wallet address
+     * @param outgoing whether the transfer is sent by the wallet, rather than received by it
+     * @param total the number of transfers of the wallet in that direction
+     * @param index the position of the transfer
+     * @return the block number
+     */
+    private long blockAt(String address, boolean outgoing, int total, int index) {
+        SplittableRandom random = randomFor("transfer:" + (outgoing ? "out:" : "in:") + index, address);
+        random.nextBoolean();
+        return LATEST_BLOCK - (long) (total - index) * 50 + random.nextInt(50);
+    }
+
+    /**
+     * Builds the transfer with the given position in one direction of a wallet's history, newest blocks last.
+     *
+     * @param address the wallet address
+     * @param outgoing whether the transfer is sent by the wallet, rather than received by it
+     * @param total the number of transfers of the wallet in that direction
+     * @param index the position of the transfer
+     * @return the transfer object
+     */
+    private ObjectNode transfer(String address, boolean outgoing, int total, int index) {
+        SplittableRandom random = randomFor("transfer:" + (outgoing ? "out:" : "in:") + index, address);
+        boolean erc20 = random.nextBoolean();
+        long block = LATEST_BLOCK - (long) (total - index) * 50 + random.nextInt(50);
+        String hash = "0x" + String.format("%016x%016x%016x%016x",
+                random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong());
+        String counterparty = random.nextInt(5) == 0 ? DEX_ROUTER : walletAddress(random.nextLong(1L << 40));
+        String wallet = address.toLowerCase(Locale.ROOT);
+
+        ObjectNode transfer = json.objectNode();
+        transfer.put("blockNum", "0x" + Long.toHexString(block));
+        transfer.put("hash", hash);
+        transfer.put("uniqueId", hash + ":" + (erc20 ? "log:" + random.nextInt(300) : "external"));
+        transfer.put("from", outgoing ? wallet : counterparty);
+        transfer.put("to", outgoing ? counterparty : wallet);
+        transfer.put("category", erc20 ? "erc20" : "external");
+        transfer.putNull("tokenId");
+
+        ObjectNode rawContract = transfer.putObject("rawContract");
+        double value = random.nextDouble(0.001, 10_000);
+        if (erc20) {
+            int token = random.nextInt(tokenUniverse);
+            int decimals = token % 3 == 0 ? 6 : 18;
+            transfer.put("asset", "SYN" + token);
+            rawContract.put("address", tokenAddress(token));
+            rawContract.put("decimal", "0x" + Integer.toHexString(decimals));
+        } else {
+            transfer.put("asset", "ETH");
+            rawContract.putNull("address");
+            rawContract.put("decimal", "0x12");
+        }
+        transfer.put("value", value);
+        rawContract.put("value", "0x" + Long.toHexString((long) (value * 1_000_000)));
+
+        transfer.putObject("metadata").put("blockTimestamp",
+                Instant.ofEpochSecond(GENESIS_SECONDS + block * SECONDS_PER_BLOCK).toString());
+        return transfer;
+    }
+
+    /**
+     * Builds a USD price object.
+     *
+     * @param value the price in USD
+     * @return the price object
+     */
+    private static ObjectNode usdPrice(double value) {
+        ObjectNode price = json.objectNode();
+        price.put("currency", "usd");
+        price.put("value", String.format(Locale.ROOT, "%.12f", value));
+        price.put("lastUpdatedAt", "2025-01-01T00:00:00Z");
+        return price;
+    }
+
+    /**
+     * Returns the address of the synthetic token with the given index.
+     *
+     * @param index the token index
+     * @return the token address
+     */
+    static String tokenAddress(int index) {
+        return "0x" + String.format("%040x", 0xC0FFEE000000L + index);
+    }
+
+    /**
+     * Returns the index of a synthetic token address.
+     *
+     * @param token the token address
+     * @return the token index, or -1 if the address is not a synthetic token
+     */
+    private int tokenIndex(String token) {
+        try {
+            long index = Long.parseLong(token.substring(2), 16) - 0xC0FFEE000000L;
+            return index >= 0 && index < tokenUniverse ? (int) index : -1;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns a random generator whose sequence depends only on the seed, the purpose and the key.
+     *
+     * @param purpose what the numbers are used for, so different data of one address are independent
+     * @param key the address or symbol the data belongs to
+     * @return a deterministic random generator
+     */
+    private SplittableRandom randomFor(String purpose, String key) {
+        return new SplittableRandom(seed ^ ((long) purpose.hashCode() << 32) ^ key.toLowerCase(Locale.ROOT).hashCode());
+    }
+}
@@ -0,0 +1,575 @@
+package com.rbbozkurt.ethmonitor.model;
+
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+import com.rbbozkurt.ethmonitor.util.Address;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * A compact, read-only table of historical transfers, stored column by column instead of as one object per
+ * transfer. Addresses are interned into one dictionary and assets and categories into another, so a row refers
+ * to them by {@code int} id; a wallet's own address, repeated in every row, is stored once. Each spelling of an
+ * address is interned as it is, and parsed once into an {@link Address} shared by all spellings of the same
+ * address, so rows are matched against addresses without touching strings. Transaction hashes are packed into
+ * four {@code long}s, timestamps are epoch seconds, and values are fixed-point, an unscaled {@code long} with a
+ * {@code byte} scale. A row takes about 75 bytes against about 550 for a {@link HistoricalTransfer} with its
+ * strings, {@link BigDecimal} and {@link Instant}.
+ * <p>
+ * Values that do not fit the fixed-point columns and hashes not in the usual 32-byte lower-case hex form are
+ * kept as they are in small side maps, so every transfer reads back exactly as it was added. Timestamps are
+ * kept to the second, the resolution of block timestamps.
+ * <p>
+ * Rows are read through a {@link View}, which reads the columns in place; {@link #forEach} moves a single view
+ * over all rows, so iterating allocates nothing. {@link #asHistoricalTransfers()} materializes rows one by one
+ * for callers that need objects.
+ */
+public final class TransferTable {
+
+    private static final int HASH_WORDS = 4;  // Longs per packed 32-byte hash
+    private static final int NONE = -1;  // Dictionary id of a missing string
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * Identifies the transfer table of a wallet in a cache.
+     *
+     * @param wallet the wallet address
+     * @param maxCount the maximum number of transfers in the table
+     * @param categories the categories of the transfers, joined in declaration order
+     */
+    public record Key(Address wallet, int maxCount, String categories) {}
+
+    private final int size;
+    private final String[] addresses;  // Address dictionary
+    private final Address[] parsedAddresses;  // Address dictionary parsed, null where an entry is not an address
+    private final String[] symbols;  // Asset and category dictionary
+    private final long[] hashes;  // Packed transaction hashes, HASH_WORDS per row
+    private final BitSet irregularHashRows;  // Rows whose hash is in irregularHashes
+    private final Map<Integer, String> irregularHashes;  // Hashes that could not be packed, by row
+    private final int[] from;
+    private final int[] to;
+    private final int[] contract;
+    private final int[] asset;
+    private final int[] category;
+    private final long[] timestamps;  // Epoch seconds, NO_TIMESTAMP if missing
+    private final long[] blocks;  // Block numbers, 0 if unknown
+    private final long[] unscaledValues;
+    private final byte[] valueScales;
+    private final BitSet irregularValueRows;  // Rows whose value is in irregularValues
+    private final Map<Integer, BigDecimal> irregularValues;  // Values that do not fit the fixed-point columns, by row
+
+    private TransferTable(Builder builder) {
+        this.size = builder.size;
+        this.addresses = builder.addresses.toArray(new String[0]);
+        this.parsedAddresses = builder.parsedAddresses.toArray(new Address[0]);
+        this.symbols = builder.symbols.toArray(new String[0]);
+        this.hashes = Arrays.copyOf(builder.hashes, size * HASH_WORDS);
+        this.irregularHashRows = (BitSet) builder.irregularHashRows.clone();
+        this.irregularHashes = new HashMap<>(builder.irregularHashes);
+        this.from = Arrays.copyOf(builder.from, size);
+        this.to = Arrays.copyOf(builder.to, size);
+        this.contract = Arrays.copyOf(builder.contract, size);
+        this.asset = Arrays.copyOf(builder.asset, size);
+        this.category = Arrays.copyOf(builder.category, size);
+        this.timestamps = Arrays.copyOf(builder.timestamps, size);
+        this.blocks = Arrays.copyOf(builder.blocks, size);
+        this.unscaledValues = Arrays.copyOf(builder.unscaledValues, size);
+        this.valueScales = Arrays.copyOf(builder.valueScales, size);
+        this.irregularValueRows = (BitSet) builder.irregularValueRows.clone();
+        this.irregularValues = new HashMap<>(builder.irregularValues);
+    }
+
+    /**
+     * Returns the number of transfers in the table.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a view of one row.
+     *
+     * @param index the row
+     * @return a view positioned on the row
+     * @throws IndexOutOfBoundsException if there is no such row
+     */
+    public View view(int index) {
+        View view = new View();
+        view.row = checkIndex(index);
+        return view;
+    }
+
+    /**
+     * Hands every row to {@code action} in order, through a single view moved from row to row. The view must
+     * not be kept beyond the call it is handed to.
+     *
+     * @param action the action performed for each row
+     */
+    public void forEach(Consumer<View> action) {
+        View view = new View();
+        for (int row = 0; row < size; row++) {
+            view.row = row;
+            action.accept(view);
+        }
+    }
+
+    /**
+     * Returns the rows as a list of {@link HistoricalTransfer}s, materializing a new object on each access.
+     *
+     * @return a read-only list backed by the table
+     */
+    public List<HistoricalTransfer> asHistoricalTransfers() {
+        return new HistoricalTransferList();
+    }
+
+    /**
+     * A read-only view of one row of the table.
+     */
+    public final class View {
+
+        private int row;
+
+        private View() {
+        }
+
+        /**
+         * Returns the row the view is positioned on.
+         *
+         * @return the row index
+         */
+        public int index() {
+            return row;
+        }
+
+        /**
+         * Returns the transaction hash, formatting it from its packed form.
+         *
+         * @return the transaction hash, or {@code null} if missing
+         */
+        public String txHash() {
+            if (irregularHashRows.get(row)) {
+                return irregularHashes.get(row);
+            }
+            return unpackHash(hashes, row * HASH_WORDS);
+        }
+
+        /**
+         * Returns the sender address.
+         *
+         * @return the interned sender address, or {@code null} if missing
+         */
+        public String from() {
+            return address(from[row]);
+        }
+
+        /**
+         * Returns the recipient address.
+         *
+         * @return the interned recipient address, or {@code null} if missing
+         */
+        public String to() {
+            return address(to[row]);
+        }
+
+        /**
+         * Returns the contract address of the transferred token.
+         *
+         * @return the interned contract address, or {@code null} for native transfers
+         */
+        public String rawContractAddress() {
+            return address(contract[row]);
+        }
+
+        /**
+         * Returns the sender address in parsed form.
+         *
+         * @return the sender address, or {@code null} if missing or not an address
+         */
+        public Address fromAddress() {
+            return parsedAddress(from[row]);
+        }
+
+        /**
+         * Returns the recipient address in parsed form.
+         *
+         * @return the recipient address, or {@code null} if missing or not an address
+         */
+        public Address toAddress() {
+            return parsedAddress(to[row]);
+        }
+
+        /**
+         * Returns the contract address of the transferred token in parsed form.
+         *
+         * @return the contract address, or {@code null} for native transfers or if it is not an address
+         */
+        public Address contractAddress() {
+            return parsedAddress(contract[row]);
+        }
+
+        /**
+         * Returns the transferred asset.
+         *
+         * @return the interned asset, e.g. "ETH", or {@code null} if missing
+         */
+        public String asset() {
+            return symbol(asset[row]);
+        }
+
+        /**
+         * Returns the category of the transfer.
+         *
+         * @return the interned category, e.g. "erc20", or {@code null} if missing
+         */
+        public String category() {
+            return symbol(category[row]);
+        }
+
+        /**
+         * Returns whether the transfer has a timestamp.
+         *
+         * @return {@code true} if {@link #epochSecond()} is meaningful
+         */
+        public boolean hasTimestamp() {
+            return timestamps[row] != NO_TIMESTAMP;
+        }
+
+        /**
+         * Returns the timestamp of the transfer in seconds since the epoch.
+         *
+         * @return the epoch second, {@link Long#MIN_VALUE} if the transfer has no timestamp
+         */
+        public long epochSecond() {
+            return timestamps[row];
+        }
+
+        /**
+         * Returns the timestamp of the transfer.
+         *
+         * @return the timestamp, or {@code null} if missing
+         */
+        public Instant timestamp() {
+            return hasTimestamp() ? Instant.ofEpochSecond(timestamps[row]) : null;
+        }
+
+        /**
+         * Returns the block the transfer was included in.
+         *
+         * @return the block number, 0 if unknown
+         */
+        public long blockNumber() {
+            return blocks[row];
+        }
+
+        /**
+         * Returns the sign of the value of the transfer without materializing it.
+         *
+         * @return -1, 0 or 1 as the value is negative, zero or missing, or positive
+         */
+        public int valueSignum() {
+            if (irregularValueRows.get(row)) {
+                BigDecimal value = irregularValues.get(row);
+                return value != null ? value.signum() : 0;
+            }
+            return Long.signum(unscaledValues[row]);
+        }
+
+        /**
+         * Returns the value of the transfer.
+         *
+         * @return the value, or {@code null} if missing
+         */
+        public BigDecimal value() {
+            if (irregularValueRows.get(row)) {
+                return irregularValues.get(row);
+            }
+            return BigDecimal.valueOf(unscaledValues[row], valueScales[row]);
+        }
+
+        /**
+         * Materializes the row as a {@link HistoricalTransfer}.
+         *
+         * @return a new historical transfer holding the row
+         */
+        public HistoricalTransfer toHistoricalTransfer() {
+            HistoricalTransfer hist = new HistoricalTransfer();
+            hist.setTxHash(txHash());
+            hist.setFrom(from());
+            hist.setTo(to());
+            hist.setAsset(asset());
+            hist.setCategory(category());
+            hist.setValue(value());
+            hist.setTimestamp(timestamp());
+            hist.setRawContractAddress(rawContractAddress());
+            return hist;
+        }
+    }
+
+    /**
+     * Collects transfers into a {@link TransferTable}, growing its columns as rows are added.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> addressIds = new HashMap<>();
+        private final List<String> addresses = new ArrayList<>();
+        private final Map<Address, Address> parsedAddressInstances = new HashMap<>();  // One instance per address
+        private final List<Address> parsedAddresses = new ArrayList<>();
+        private final Map<String, Integer> symbolIds = new HashMap<>();
+        private final List<String> symbols = new ArrayList<>();
+        private final BitSet irregularHashRows = new BitSet();
+        private final Map<Integer, String> irregularHashes = new HashMap<>();
+        private final BitSet irregularValueRows = new BitSet();
+        private final Map<Integer, BigDecimal> irregularValues = new HashMap<>();
+
+        private int size;
+        private long[] hashes;
+        private int[] from;
+        private int[] to;
+        private int[] contract;
+        private int[] asset;
+        private int[] category;
+        private long[] timestamps;
+        private long[] blocks;
+        private long[] unscaledValues;
+        private byte[] valueScales;
+
+        /**
+         * Constructs a builder for a table of unknown size.
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Constructs a builder with room for the expected number of rows.
+         *
+         * @param expectedSize the expected number of rows
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(1, expectedSize);
+            hashes = new long[capacity * HASH_WORDS];
+            from = new int[capacity];
+            to = new int[capacity];
+            contract = new int[capacity];
+            asset = new int[capacity];
+            category = new int[capacity];
+            timestamps = new long[capacity];
+            blocks = new long[capacity];
+            unscaledValues = new long[capacity];
+            valueScales = new byte[capacity];
+        }
+
+        /**
+         * Adds a historical transfer. Its block number is unknown and recorded as 0.
+         *
+         * @param transfer the transfer
+         * @return the builder instance for method chaining
+         */
+        public Builder add(HistoricalTransfer transfer) {
+            Instant timestamp = transfer.getTimestamp();
+            append(transfer.getTxHash(), transfer.getFrom(), transfer.getTo(), transfer.getRawContractAddress(),
+                    transfer.getAsset(), transfer.getCategory(),
+                    timestamp != null ? timestamp.getEpochSecond() : NO_TIMESTAMP, 0, transfer.getValue());
+            return this;
+        }
+
+        /**
+         * Adds a transfer downloaded from the API, read the way it is converted into a {@link HistoricalTransfer}.
+         * A transfer that cannot be read, e.g. one without a block timestamp, is rejected without adding a row.
+         *
+         * @param tx the transfer
+         * @return the builder instance for method chaining
+         * @throws RuntimeException if the transfer cannot be read
+         */
+        public Builder add(Transfer tx) {
+            long epochSecond = Instant.parse(tx.getMetadata().getBlockTimestamp()).getEpochSecond();
+            BigDecimal value = tx.getValue() != null ? new BigDecimal(tx.getValue()) : BigDecimal.ZERO;
+            String contractAddress = tx.getRawContract() != null ? tx.getRawContract().getAddress() : null;
+            append(tx.getHash(), tx.getFrom(), tx.getTo(), contractAddress, tx.getAsset(), tx.getCategory(),
+                    epochSecond, tx.blockNumber(), value);
+            return this;
+        }
+
+        /**
+         * Builds the table, trimming its columns to the rows added.
+         *
+         * @return the table
+         */
+        public TransferTable build() {
+            return new TransferTable(this);
+        }
+
+        private void append(String hash, String fromAddress, String toAddress, String contractAddress,
+                            String assetSymbol, String categoryName, long epochSecond, long block, BigDecimal value) {
+            if (size == from.length) {
+                grow();
+            }
+            int row = size++;
+            if (!packHash(hash, hashes, row * HASH_WORDS)) {
+                irregularHashRows.set(row);
+                irregularHashes.put(row, hash);
+            }
+            from[row] = internAddress(fromAddress);
+            to[row] = internAddress(toAddress);
+            contract[row] = internAddress(contractAddress);
+            asset[row] = intern(assetSymbol, symbolIds, symbols);
+            category[row] = intern(categoryName, symbolIds, symbols);
+            timestamps[row] = epochSecond;
+            blocks[row] = block;
+
+            BigInteger unscaled = value != null ? value.unscaledValue() : null;
+            if (unscaled != null && unscaled.bitLength() < Long.SIZE
+                    && value.scale() >= Byte.MIN_VALUE && value.scale() <= Byte.MAX_VALUE) {
+                unscaledValues[row] = unscaled.longValue();
+                valueScales[row] = (byte) value.scale();
+            } else {
+                irregularValueRows.set(row);
+                irregularValues.put(row, value);
+            }
+        }
+
+        private void grow() {
+            int capacity = from.length * 2;
+            hashes = Arrays.copyOf(hashes, capacity * HASH_WORDS);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            contract = Arrays.copyOf(contract, capacity);
+            asset = Arrays.copyOf(asset, capacity);
+            category = Arrays.copyOf(category, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            blocks = Arrays.copyOf(blocks, capacity);
+            unscaledValues = Arrays.copyOf(unscaledValues, capacity);
+            valueScales = Arrays.copyOf(valueScales, capacity);
+        }
+
+        /**
+         * Interns an address. Each spelling is looked up as it is, so a repeated address costs one string
+         * lookup; a new spelling is parsed once and shares the parsed address of the same address in another
+         * case, while keeping its own entry so that it reads back as added.
+         *
+         * @param address the address, or {@code null}
+         * @return the dictionary id, {@link #NONE} for {@code null}
+         */
+        private int internAddress(String address) {
+            if (address == null) {
+                return NONE;
+            }
+            Integer id = addressIds.get(address);
+            if (id != null) {
+                return id;
+            }
+            Address parsed = Address.tryParse(address);
+            id = addresses.size();
+            addresses.add(address);
+            parsedAddresses.add(parsed != null ? parsedAddressInstances.computeIfAbsent(parsed, p -> p) : null);
+            addressIds.put(address, id);
+            return id;
+        }
+
+        private static int intern(String value, Map<String, Integer> ids, List<String> dictionary) {
+            if (value == null) {
+                return NONE;
+            }
+            return ids.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * The rows materialized one by one as {@link HistoricalTransfer}s.
+     */
+    private final class HistoricalTransferList extends AbstractList<HistoricalTransfer> implements RandomAccess {
+
+        @Override
+        public HistoricalTransfer get(int index) {
+            return view(index).toHistoricalTransfer();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private String address(int id) {
+        return id == NONE ? null : addresses[id];
+    }
+
+    private Address parsedAddress(int id) {
+        return id == NONE ? null : parsedAddresses[id];
+    }
+
+    private String symbol(int id) {
+        return id == NONE ? null : symbols[id];
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Packs a hash of the form {@code 0x} followed by 64 lower-case hex digits into four longs.
+     *
+     * @param hash the hash
+     * @param words the array receiving the words
+     * @param offset the position of the first word
+     * @return {@code false} if the hash is not of that form and must be kept as it is
+     */
+    private static boolean packHash(String hash, long[] words, int offset) {
+        if (hash == null || hash.length() != 2 + HASH_WORDS * 16 || !hash.startsWith("0x")) {
+            return false;
+        }
+        for (int w = 0; w < HASH_WORDS; w++) {
+            long word = 0;
+            for (int i = 0; i < 16; i++) {
+                char c = hash.charAt(2 + w * 16 + i);
+                int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+                if (digit < 0) {
+                    return false;
+                }
+                word = word << 4 | digit;
+            }
+            words[offset + w] = word;
+        }
+        return true;
+    }
+
+    /**
+     * Formats a packed hash back into its {@code 0x}-prefixed hex form.
+     *
+     * @param words the packed hashes
+     * @param offset the position of the first word
+     * @return the hash
+     */
+    private static String unpackHash(long[] words, int offset) {
+        char[] chars = new char[2 + HASH_WORDS * 16];
+        chars[0] = '0';
+        chars[1] = 'x';
+        for (int w = 0; w < HASH_WORDS; w++) {
+            long word = words[offset + w];
+            for (int i = 15; i >= 0; i--) {
+                chars[2 + w * 16 + i] = Character.forDigit((int) (word & 0xf), 16);
+                word >>>= 4;
+            }
+        }
+        return new String(chars);
+    }
+}
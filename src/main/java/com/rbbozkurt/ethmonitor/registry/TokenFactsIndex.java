@@ -0,0 +1,120 @@
+package com.rbbozkurt.ethmonitor.registry;
+
+import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.util.Address;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A shared index of token facts learned from downloaded ERC-20 transfers, keyed by the parsed contract
+ * {@link Address}. Every transfer already carries the contract address and decimals of its token, and the transferred
+ * asset's symbol, so the balance pipeline can take them from here instead of asking the metadata API again.
+ * <p>
+ * The index only ever learns from data that was fetched anyway; it makes no calls of its own.
+ */
+public class TokenFactsIndex {
+
+    private static final String ERC20_CATEGORY = "erc20";
+    private static final int MAX_SIZE = 50_000;  // Upper bound on indexed contracts, new ones are ignored beyond it
+
+    /**
+     * Facts known about a token.
+     *
+     * @param decimals the number of decimals of the token
+     * @param symbol the symbol of the token, or {@code null} if the transfers did not name one
+     */
+    public record TokenFacts(int decimals, String symbol) {}
+
+    private final Map<Address, TokenFacts> facts = new ConcurrentHashMap<>();
+
+    /**
+     * Records the token facts carried by a page of transfers. Transfers that are not ERC-20, or whose raw
+     * contract has no address or decimals, are skipped.
+     *
+     * @param transfers the downloaded transfers
+     */
+    public void recordAll(List<TransferResponse.Transfer> transfers) {
+        if (transfers == null) return;
+        for (TransferResponse.Transfer transfer : transfers) {
+            record(transfer);
+        }
+    }
+
+    /**
+     * Records the token facts carried by a single transfer. A transfer whose contract address is not an
+     * address is skipped.
+     *
+     * @param transfer the downloaded transfer
+     */
+    public void record(TransferResponse.Transfer transfer) {
+        if (transfer == null || !ERC20_CATEGORY.equals(transfer.getCategory())) return;
+
+        TransferResponse.RawContract raw = transfer.getRawContract();
+        if (raw == null || raw.getAddress() == null || raw.getDecimal() == null) return;
+
+        Integer decimals = parseDecimals(raw.getDecimal());
+        if (decimals == null) return;
+
+        Address address = Address.tryParse(raw.getAddress());
+        if (address == null) return;
+
+        String symbol = transfer.getAsset() == null || transfer.getAsset().isBlank() ? null : transfer.getAsset();
+        TokenFacts known = facts.get(address);
+        if (known != null && known.decimals() == decimals && (symbol == null || symbol.equals(known.symbol()))) {
+            return;
+        }
+        if (known == null && facts.size() >= MAX_SIZE) return;
+
+        facts.merge(address, new TokenFacts(decimals, symbol),
+                (old, learned) -> learned.symbol() != null ? learned : new TokenFacts(learned.decimals(), old.symbol()));
+    }
+
+    /**
+     * Returns the facts known about a token.
+     *
+     * @param contractAddress the contract address, in any case
+     * @return the facts, or {@code null} if no transfer of the token has been seen
+     */
+    public TokenFacts get(String contractAddress) {
+        return get(Address.tryParse(contractAddress));
+    }
+
+    /**
+     * Returns the facts known about a token.
+     *
+     * @param contractAddress the contract address, or {@code null}
+     * @return the facts, or {@code null} if no transfer of the token has been seen
+     */
+    public TokenFacts get(Address contractAddress) {
+        return contractAddress == null ? null : facts.get(contractAddress);
+    }
+
+    /**
+     * Returns the number of indexed tokens.
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+        return facts.size();
+    }
+
+    /**
+     * Parses the decimals of a raw contract, which Alchemy reports as a hex quantity such as {@code "0x12"}.
+     *
+     * @param decimal the reported decimals
+     * @return the decimals, or {@code null} if they are malformed or do not fit the {@link TokenRegistry}
+     */
+    private static Integer parseDecimals(String decimal) {
+        try {
+            String trimmed = decimal.trim();
+            int decimals = trimmed.startsWith("0x") || trimmed.startsWith("0X")
+                    ? Integer.parseInt(trimmed.substring(2), 16)
+                    : Integer.parseInt(trimmed);
+            return TokenRegistry.isStorable(decimals) ? decimals : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
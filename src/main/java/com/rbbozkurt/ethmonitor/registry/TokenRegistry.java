@@ -0,0 +1,272 @@
+package com.rbbozkurt.ethmonitor.registry;
+
+import com.rbbozkurt.ethmonitor.util.Address;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A read-only registry of well-known ERC-20 tokens with their decimals and symbol, answering metadata
+ * lookups for common tokens without any API call.
+ * <p>
+ * The registry ships as the versioned resource {@value #RESOURCE}, with one {@code address,decimals,symbol}
+ * line per token and a {@code # version: N} header. It is regenerated from the local metadata store with
+ * {@link com.rbbozkurt.ethmonitor.cli.TokenRegistryCommand}, and a regenerated file can be used without a
+ * rebuild by pointing the {@value #REGISTRY_PROPERTY} system property at it.
+ * <p>
+ * Entries live in an open-addressing hash table with linear probing, kept at most half full, keyed by
+ * {@link Address}, so a lookup hashes and compares the packed address rather than its text.
+ */
+public final class TokenRegistry {
+
+    private static final Logger logger = Logger.getLogger(TokenRegistry.class.getName());
+
+    public static final String RESOURCE = "/tokens/token-registry.csv";  // Classpath location of the bundled registry
+    public static final String REGISTRY_PROPERTY = "ethmonitor.tokens.registry";  // Path of a registry file replacing the bundled one
+
+    private static final String VERSION_HEADER = "# version:";
+    private static final TokenRegistry EMPTY = new TokenRegistry(0, List.of());
+
+    /**
+     * A registered token.
+     *
+     * @param address the lower-case contract address
+     * @param decimals the number of decimals of the token
+     * @param symbol the symbol of the token
+     */
+    public record Token(String address, int decimals, String symbol) {}
+
+    private final int version;  // Version of the registry data
+    private final int size;  // Number of registered tokens
+    private final int mask;  // Table capacity minus one; the capacity is a power of two
+    private final Address[] keys;  // Address per slot
+    private final byte[] decimals;  // Decimals per slot, -1 for an empty slot
+    private final String[] symbols;  // Symbol per slot
+
+    /**
+     * Constructs a registry of the given tokens.
+     *
+     * @param version the version of the registry data
+     * @param tokens the tokens; later duplicates of an address replace earlier ones
+     */
+    private TokenRegistry(int version, Collection<Token> tokens) {
+        int capacity = Integer.highestOneBit(Math.max(1, tokens.size()) * 2 - 1) << 1;
+        this.version = version;
+        this.mask = capacity - 1;
+        this.keys = new Address[capacity];
+        this.decimals = new byte[capacity];
+        this.symbols = new String[capacity];
+        Arrays.fill(decimals, (byte) -1);
+
+        int count = 0;
+        for (Token token : tokens) {
+            Address address = Address.parse(token.address());
+            int slot = slotOf(address);
+            if (decimals[slot] < 0) {
+                keys[slot] = address;
+                count++;
+            }
+            decimals[slot] = (byte) token.decimals();
+            symbols[slot] = token.symbol();
+        }
+        this.size = count;
+    }
+
+    /**
+     * Returns the registry used by the application: the file named by {@value #REGISTRY_PROPERTY} if set,
+     * otherwise the bundled resource. It is loaded once, on first use; if it cannot be read the registry is
+     * empty and every lookup falls through to the metadata API.
+     *
+     * @return the shared registry
+     */
+    public static TokenRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns an empty registry, for callers that should always ask the metadata API.
+     *
+     * @return the empty registry
+     */
+    public static TokenRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Lazily loads the shared registry.
+     */
+    private static final class Holder {
+        private static final TokenRegistry INSTANCE = loadDefault();
+    }
+
+    /**
+     * Loads the registry file named by {@value #REGISTRY_PROPERTY}, or the bundled resource.
+     *
+     * @return the loaded registry, or an empty one if it cannot be read
+     */
+    private static TokenRegistry loadDefault() {
+        String file = System.getProperty(REGISTRY_PROPERTY);
+        try (InputStream in = file != null && !file.isBlank()
+                ? Files.newInputStream(Path.of(file.trim()))
+                : TokenRegistry.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                logger.warning("⚠️ Token registry resource " + RESOURCE + " not found, using an empty registry");
+                return EMPTY;
+            }
+            TokenRegistry registry = load(in);
+            logger.fine(() -> "📚 Loaded token registry v" + registry.getVersion() + " with " + registry.size() + " tokens");
+            return registry;
+        } catch (IOException | UncheckedIOException e) {
+            logger.warning("⚠️ Failed to load token registry, using an empty registry: " + e.getMessage());
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Parses a registry file. Blank lines, comments and malformed lines are skipped.
+     *
+     * @param in the registry contents
+     * @return the parsed registry
+     * @throws IOException if the contents cannot be read
+     */
+    public static TokenRegistry load(InputStream in) throws IOException {
+        int version = 0;
+        List<Token> tokens = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            line = line.trim();
+            if (line.startsWith(VERSION_HEADER)) {
+                version = Integer.parseInt(line.substring(VERSION_HEADER.length()).trim());
+                continue;
+            }
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] fields = line.split(",", 3);
+            if (fields.length < 3 || !Address.isValid(fields[0].trim())) {
+                logger.fine("Skipping malformed token registry line: " + line);
+                continue;
+            }
+            try {
+                int tokenDecimals = Integer.parseInt(fields[1].trim());
+                if (isStorable(tokenDecimals)) {
+                    tokens.add(new Token(Address.parse(fields[0].trim()).toString(), tokenDecimals, fields[2].trim()));
+                }
+            } catch (NumberFormatException e) {
+                logger.fine("Skipping malformed token registry line: " + line);
+            }
+        }
+        return new TokenRegistry(version, tokens);
+    }
+
+    /**
+     * Writes tokens in the registry file format, sorted by address.
+     *
+     * @param out the destination
+     * @param version the version of the registry data
+     * @param tokens the tokens to write
+     * @throws IOException if the registry cannot be written
+     */
+    public static void write(Writer out, int version, Collection<Token> tokens) throws IOException {
+        out.write("# eth-monitor token registry: address,decimals,symbol\n");
+        out.write(VERSION_HEADER + " " + version + "\n");
+        List<Token> sorted = new ArrayList<>(tokens);
+        sorted.sort(Comparator.comparing(Token::address));
+        for (Token token : sorted) {
+            out.write(token.address() + "," + token.decimals() + "," + token.symbol() + "\n");
+        }
+    }
+
+    /**
+     * Returns the registered token with the given contract address.
+     *
+     * @param address the contract address, in any case
+     * @return the token, or {@code null} if it is not registered
+     */
+    public Token get(String address) {
+        return size == 0 ? null : get(Address.tryParse(address));
+    }
+
+    /**
+     * Returns the registered token with the given contract address.
+     *
+     * @param address the contract address, or {@code null}
+     * @return the token, or {@code null} if it is not registered
+     */
+    public Token get(Address address) {
+        if (size == 0 || address == null) {
+            return null;
+        }
+        int slot = slotOf(address);
+        return decimals[slot] < 0 ? null : new Token(address.toString(), decimals[slot], symbols[slot]);
+    }
+
+    /**
+     * Returns all registered tokens, in no particular order.
+     *
+     * @return the registered tokens
+     */
+    public List<Token> tokens() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int slot = 0; slot <= mask; slot++) {
+            if (decimals[slot] >= 0) {
+                tokens.add(new Token(keys[slot].toString(), decimals[slot], symbols[slot]));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the version of the registry data.
+     *
+     * @return the version, 0 if the registry has none
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of registered tokens.
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot holding the address, or the empty slot where it would be inserted.
+     *
+     * @param address the address
+     * @return the slot index
+     */
+    private int slotOf(Address address) {
+        int slot = address.hashCode() & mask;
+        while (decimals[slot] >= 0 && !keys[slot].equals(address)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns whether a number of decimals fits the registry, which stores them in a byte.
+     *
+     * @param decimals the number of decimals
+     * @return {@code true} for 0 to 127 decimals
+     */
+    public static boolean isStorable(int decimals) {
+        return decimals >= 0 && decimals <= Byte.MAX_VALUE;
+    }
+}
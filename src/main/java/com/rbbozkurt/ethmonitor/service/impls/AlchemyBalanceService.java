@@ -5,21 +5,30 @@ import com.rbbozkurt.ethmonitor.dto.EthBalanceResponse;
 import com.rbbozkurt.ethmonitor.dto.TokenMetadataResponse;
 import com.rbbozkurt.ethmonitor.dto.TokenPriceResponse;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.TokenBalance;
+import com.rbbozkurt.ethmonitor.registry.TokenFactsIndex;
+import com.rbbozkurt.ethmonitor.registry.TokenRegistry;
 import com.rbbozkurt.ethmonitor.service.interfaces.ApiService;
 import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.util.Address;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.logging.Logger;
 
 /**
  * Service implementation for retrieving and processing token and ETH balances
  * for a given wallet address. The balances are fetched from the Alchemy API,
- * and the values are converted to USD using the current token price.
+ * and the values are converted to USD using the current token price. All held tokens are priced
+ * together in batched requests rather than one request per token. A {@link TokenFilterStage} drops dust
+ * and spam tokens before any metadata or price lookup is made for them, and tokens in the {@link TokenRegistry}
+ * take their decimals and symbol from it instead of the metadata API. Other tokens take them from the
+ * {@link TokenFactsIndex} fed by the transfer pipeline, and only unknown tokens are looked up.
  */
 public class AlchemyBalanceService implements BalanceService {
 
@@ -31,16 +40,69 @@ public class AlchemyBalanceService implements BalanceService {
 
     private final ApiService apiService;  // API service for interacting with external APIs
     private final ExecutorService executor;  // Executor for handling asynchronous tasks
+    private final TokenFilterStage filterStage;  // Decides which tokens are looked up at all
+    private final TokenRegistry tokenRegistry;  // Metadata of well-known tokens, consulted before the metadata API
+    private final TokenFactsIndex tokenFacts;  // Token facts learned from downloaded transfers
 
     /**
-     * Constructs an {@link AlchemyBalanceService} with the given API service and executor.
+     * Constructs an {@link AlchemyBalanceService} with the given API service and executor, looking up every held token.
      *
      * @param apiService the API service used to interact with the Alchemy API
      * @param executor   the executor for handling asynchronous tasks
      */
     public AlchemyBalanceService(ApiService apiService, ExecutorService executor) {
+        this(apiService, executor, new TokenFilterStageBuilder().build());
+    }
+
+    /**
+     * Constructs an {@link AlchemyBalanceService} with the given API service, executor and token filter stage.
+     *
+     * @param apiService  the API service used to interact with the Alchemy API
+     * @param executor    the executor for handling asynchronous tasks
+     * @param filterStage the stage deciding which tokens get a metadata and price lookup
+     */
+    public AlchemyBalanceService(ApiService apiService, ExecutorService executor, TokenFilterStage filterStage) {
+        this(apiService, executor, filterStage, TokenRegistry.getInstance());
+    }
+
+    /**
+     * Constructs an {@link AlchemyBalanceService} with the given API service, executor, token filter stage and token registry.
+     *
+     * @param apiService    the API service used to interact with the Alchemy API
+     * @param executor      the executor for handling asynchronous tasks
+     * @param filterStage   the stage deciding which tokens get a metadata and price lookup
+     * @param tokenRegistry the registry of well-known tokens, consulted before the metadata API
+     */
+    public AlchemyBalanceService(ApiService apiService, ExecutorService executor, TokenFilterStage filterStage, TokenRegistry tokenRegistry) {
+        this(apiService, executor, filterStage, tokenRegistry, new TokenFactsIndex());
+    }
+
+    /**
+     * Constructs an {@link AlchemyBalanceService} with the given API service, executor, token filter stage, token registry
+     * and token facts index.
+     *
+     * @param apiService    the API service used to interact with the Alchemy API
+     * @param executor      the executor for handling asynchronous tasks
+     * @param filterStage   the stage deciding which tokens get a metadata and price lookup
+     * @param tokenRegistry the registry of well-known tokens, consulted before the metadata API
+     * @param tokenFacts    the token facts learned from transfers, consulted after the registry
+     */
+    public AlchemyBalanceService(ApiService apiService, ExecutorService executor, TokenFilterStage filterStage,
+                                 TokenRegistry tokenRegistry, TokenFactsIndex tokenFacts) {
         this.apiService = apiService;
         this.executor = executor;
+        this.filterStage = filterStage;
+        this.tokenRegistry = tokenRegistry;
+        this.tokenFacts = tokenFacts;
+    }
+
+    /**
+     * Returns the counts of the tokens the filter stage skipped and the lookups it saved.
+     *
+     * @return the {@link TokenFilterStage.FilterStats} accumulated so far
+     */
+    public TokenFilterStage.FilterStats getFilterStats() {
+        return filterStage.getStats();
     }
 
     /**
@@ -60,33 +122,82 @@ public class AlchemyBalanceService implements BalanceService {
             BalanceResponse balanceResponse = apiService.getTokenBalances(walletAddress);
             List<BalanceResponse.TokenBalance> balances = balanceResponse.getResult().getTokenBalances();
 
-            List<Callable<TokenBalance>> tasks = new ArrayList<>();
-
-            // Process each token balance asynchronously
+            // Collect the non-zero token balances first, so all of them can be priced together
+            Map<String, BigInteger> rawBalances = new LinkedHashMap<>();
             for (BalanceResponse.TokenBalance balance : balances) {
                 if (balance.getError() != null || balance.getTokenBalance() == null) continue;
 
-                String tokenAddress = balance.getContractAddress();
                 String rawHex = balance.getTokenBalance();
                 if (!rawHex.startsWith("0x")) continue;
 
                 BigInteger rawInt = new BigInteger(rawHex.substring(2), 16);
                 if (rawInt.equals(BigInteger.ZERO)) continue;
 
+                rawBalances.put(balance.getContractAddress(), rawInt);
+            }
+
+            // Drop dust and spam tokens before any lookup is made for them
+            rawBalances = filterStage.apply(walletAddress, rawBalances);
+
+            // Price every token with a few batched requests, while the metadata is fetched below
+            CompletableFuture<Map<String, TokenPriceResponse>> prices = rawBalances.isEmpty()
+                    ? CompletableFuture.completedFuture(Map.of())
+                    : apiService.getUsdPricesAsync(rawBalances.keySet());
+
+            if (filterStage.isPricedOnly()) {
+                // Tokens without a price would be worth nothing, so skip their metadata lookups;
+                // a failed lookup leaves every token without a known price rather than failing the report
+                Map<String, TokenPriceResponse> known = knownPrices(prices);
+                if (known.isEmpty() && prices.isCompletedExceptionally()) {
+                    logger.warning("⚠️ Price lookup failed for " + walletAddress + "; no token has a known price");
+                }
+                Map<String, BigInteger> priced = new LinkedHashMap<>(rawBalances);
+                priced.keySet().retainAll(known.keySet());
+                filterStage.recordUnpriced(rawBalances.size() - priced.size());
+                rawBalances = priced;
+            }
+
+            List<Callable<TokenBalance>> tasks = new ArrayList<>();
+
+            // Process each token balance asynchronously
+            for (Map.Entry<String, BigInteger> rawBalance : rawBalances.entrySet()) {
+                String tokenAddress = rawBalance.getKey();
+                BigInteger rawInt = rawBalance.getValue();
+
                 // Task for processing each token
                 Callable<TokenBalance> task = () -> {
                     try {
 
-                        // Fetch token metadata
-                        TokenMetadataResponse meta = apiService.getTokenMetadata(tokenAddress);
+                        // Well-known tokens need no metadata lookup
+                        int decimals;
+                        String symbol;
+                        Address contract = Address.tryParse(tokenAddress);
+                        TokenRegistry.Token registered = tokenRegistry.get(contract);
+                        TokenFactsIndex.TokenFacts seen = registered == null ? tokenFacts.get(contract) : null;
+                        if (registered != null) {
+                            decimals = registered.decimals();
+                            symbol = registered.symbol();
+                        } else if (seen != null && seen.symbol() != null) {
+                            // Tokens the wallet has transferred carry their decimals and symbol in the transfers
+                            decimals = seen.decimals();
+                            symbol = seen.symbol();
+                        } else {
+                            TokenMetadataResponse meta = apiService.getTokenMetadata(tokenAddress);
+                            if (meta == null && seen == null) {
+                                // Not an ERC-20 token, or one that reports no decimals
+                                return null;
+                            }
+                            // Decimals seen in transfers are preferred, the lookup only has to name the token
+                            decimals = seen != null ? seen.decimals() : meta.getResult().getDecimals();
+                            symbol = meta != null ? meta.getResult().getSymbol() : null;
+                        }
 
-                        int decimals = meta.getResult().getDecimals();
                         BigDecimal actualBalance = new BigDecimal(rawInt).movePointLeft(decimals);
 
-                        // Fetch token price in USD
-                        TokenPriceResponse priceResponse = apiService.getUsdPrice(tokenAddress);
+                        // Look up the token price in USD from the batched lookup
+                        TokenPriceResponse priceResponse = knownPrices(prices).get(tokenAddress);
 
-                        BigDecimal priceUsd = priceResponse.getData().stream()
+                        BigDecimal priceUsd = priceResponse == null ? BigDecimal.ZERO : priceResponse.getData().stream()
                                 .flatMap(d -> d.getPrices().stream())
                                 .filter(p -> "usd".equalsIgnoreCase(p.getCurrency()))
                                 .map(p -> new BigDecimal(p.getValue()))
@@ -97,7 +208,7 @@ public class AlchemyBalanceService implements BalanceService {
 
                         // Create and return a TokenBalance object
                         TokenBalance tokenBalance = new TokenBalance();
-                        tokenBalance.setTokenSymbol(meta.getResult().getSymbol());
+                        tokenBalance.setTokenSymbol(symbol);
                         tokenBalance.setContractAddress(tokenAddress);
                         tokenBalance.setBalance(actualBalance);
                         tokenBalance.setUsdValue(usdValue);
@@ -136,6 +247,21 @@ public class AlchemyBalanceService implements BalanceService {
         }
     }
 
+    /**
+     * Returns the prices of a batched lookup, or none if the lookup failed, so that a failed lookup leaves
+     * tokens unpriced instead of failing the report. The failure is logged where the lookup is made.
+     *
+     * @param prices the batched price lookup
+     * @return the price of each token that has one, keyed by token address
+     */
+    private static Map<String, TokenPriceResponse> knownPrices(CompletableFuture<Map<String, TokenPriceResponse>> prices) {
+        try {
+            return prices.join();
+        } catch (CompletionException | CancellationException e) {
+            return Map.of();
+        }
+    }
+
     /**
      * Retrieves the Ethereum balance and its USD value for a given wallet address.
      * This method fetches the ETH balance, converts it into the appropriate format,
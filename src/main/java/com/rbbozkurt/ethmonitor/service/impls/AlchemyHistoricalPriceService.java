@@ -0,0 +1,413 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.cache.CacheLayer;
+import com.rbbozkurt.ethmonitor.client.impls.AlchemyPricesAPI;
+import com.rbbozkurt.ethmonitor.client.impls.HttpStatusException;
+import com.rbbozkurt.ethmonitor.client.interfaces.PricesAPI;
+import com.rbbozkurt.ethmonitor.dto.HistoricalPriceResponse;
+import com.rbbozkurt.ethmonitor.model.TransferTable;
+import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+import com.rbbozkurt.ethmonitor.service.interfaces.HistoricalPriceService;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Service implementation pricing tokens at past points in time with hourly prices from the Alchemy Prices API.
+ * <p>
+ * Prices are cached per token and hour bucket, so every wallet and analysis sharing the service reuses
+ * them. Buckets that are not cached yet are fetched per token as ranges of at most one request window:
+ * nearby missing hours are requested together, and a gap longer than {@value #MAX_GAP_HOURS} hours or the
+ * end of a window starts another range. Only the needed hours of a range are claimed and cached, so a
+ * sparse history spread over years neither floods the cache with hours no transfer happened in nor turns
+ * into more requests at once than {@value #MAX_CONCURRENT_FETCHES}. A wallet with thousands of transfers
+ * therefore costs a handful of requests per token, and a bucket another analysis is already fetching is
+ * awaited instead of requested again.
+ */
+public class AlchemyHistoricalPriceService implements HistoricalPriceService {
+
+    private static final Logger logger = Logger.getLogger(AlchemyHistoricalPriceService.class.getName());
+
+    private static final long BUCKET_SECONDS = 3_600;  // Width of a price bucket, matching the hourly price interval
+    private static final long MAX_GAP_HOURS = 7 * 24;  // Longest run of unneeded hours fetched to keep a range contiguous
+    private static final long WINDOW_HOURS = AlchemyPricesAPI.MAX_HISTORICAL_RANGE.toHours();  // Most hours one request covers
+    private static final int MAX_CONCURRENT_FETCHES = 4;  // Requests, one per range, sent at once by one lookup
+    private static final String ETH_SYMBOL = "ETH";  // Symbol the native asset is priced by
+
+    private final PricesAPI pricesAPI;  // API used to fetch price ranges
+    private final CacheLayer<String, BigDecimal> bucketCache;  // Price by "token@hour" key
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();  // Fetch by "token@hour" key
+
+    /**
+     * A range of hour buckets of one token, claimed for fetching with a single request.
+     *
+     * @param token the normalized token
+     * @param buckets the needed buckets of the range, sorted; the request spans the first to the last
+     * @param done completes once the prices of the range are cached
+     * @param claimed the keys of the buckets this range claimed in {@link #inFlight}
+     */
+    private record Range(String token, List<Long> buckets, CompletableFuture<Void> done, List<String> claimed) {}
+
+    /**
+     * Constructs an {@link AlchemyHistoricalPriceService} with the given API and bucket cache.
+     *
+     * @param pricesAPI the API used to fetch historical price ranges
+     * @param bucketCache the cache of prices by token and hour bucket
+     */
+    public AlchemyHistoricalPriceService(PricesAPI pricesAPI, CacheLayer<String, BigDecimal> bucketCache) {
+        this.pricesAPI = pricesAPI;
+        this.bucketCache = bucketCache;
+    }
+
+    /**
+     * Retrieves the USD price a token had in the hour of the given time.
+     *
+     * @param token the Ethereum contract address of the token, or its symbol (e.g. "ETH") for native assets
+     * @param timestamp the point in time
+     * @return the USD price, or zero if the token had no known price at that time
+     */
+    @Override
+    public BigDecimal getUsdPrice(String token, Instant timestamp) {
+        String normalized = normalize(token);
+        long bucket = bucketOf(timestamp);
+        return prices(Map.of(normalized, new TreeSet<>(List.of(bucket)))).get(normalized).getOrDefault(bucket, BigDecimal.ZERO);
+    }
+
+    /**
+     * Calculates the total USD value of transfers, pricing each transfer in the hour it happened.
+     * Transfers of NFTs, of unknown assets and without a value or timestamp count as zero.
+     *
+     * @param transfers the transfers to value
+     * @return the sum of the USD values of all transfers
+     */
+    @Override
+    public BigDecimal getUsdVolume(List<HistoricalTransfer> transfers) {
+        Map<String, NavigableSet<Long>> buckets = new HashMap<>();
+        for (HistoricalTransfer transfer : transfers) {
+            String token = tokenOf(transfer);
+            if (token != null) {
+                buckets.computeIfAbsent(token, t -> new TreeSet<>()).add(bucketOf(transfer.getTimestamp()));
+            }
+        }
+        if (buckets.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        Map<String, Map<Long, BigDecimal>> prices = prices(buckets);
+        BigDecimal volume = BigDecimal.ZERO;
+        int unpriced = 0;
+        for (HistoricalTransfer transfer : transfers) {
+            String token = tokenOf(transfer);
+            if (token != null) {
+                BigDecimal price = prices.get(token).get(bucketOf(transfer.getTimestamp()));
+                if (price == null) {
+                    unpriced++;
+                } else {
+                    volume = volume.add(price.multiply(transfer.getValue()));
+                }
+            }
+        }
+        warnIfUnpriced(unpriced);
+        return volume;
+    }
+
+    /**
+     * Calculates the total USD value of the transfers of a table like {@link #getUsdVolume(List)}, reading each
+     * row in place instead of materializing it.
+     *
+     * @param transfers the transfers to value
+     * @return the sum of the USD values of all transfers
+     */
+    @Override
+    public BigDecimal getUsdVolume(TransferTable transfers) {
+        Map<String, NavigableSet<Long>> buckets = new HashMap<>();
+        transfers.forEach(transfer -> {
+            String token = tokenOf(transfer);
+            if (token != null) {
+                buckets.computeIfAbsent(token, t -> new TreeSet<>()).add(Math.floorDiv(transfer.epochSecond(), BUCKET_SECONDS));
+            }
+        });
+        if (buckets.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        Map<String, Map<Long, BigDecimal>> prices = prices(buckets);
+        BigDecimal[] volume = {BigDecimal.ZERO};
+        int[] unpriced = {0};
+        transfers.forEach(transfer -> {
+            String token = tokenOf(transfer);
+            if (token != null) {
+                BigDecimal price = prices.get(token).get(Math.floorDiv(transfer.epochSecond(), BUCKET_SECONDS));
+                if (price == null) {
+                    unpriced[0]++;
+                } else {
+                    volume[0] = volume[0].add(price.multiply(transfer.value()));
+                }
+            }
+        });
+        warnIfUnpriced(unpriced[0]);
+        return volume[0];
+    }
+
+    /**
+     * Warns that a volume leaves out transfers whose prices could not be fetched, as opposed to tokens the
+     * endpoint has no price for, which are valued at zero.
+     *
+     * @param unpriced the number of transfers left out
+     */
+    private static void warnIfUnpriced(int unpriced) {
+        if (unpriced > 0) {
+            logger.warning("⚠️ Historical prices unavailable for " + unpriced + " transfers; the USD volume leaves them out");
+        }
+    }
+
+    /**
+     * Resolves the prices of the given buckets of several tokens, fetching the uncached ones of all tokens concurrently.
+     *
+     * @param buckets the needed hour buckets by normalized token
+     * @return the known prices by token and bucket; buckets without a known price are absent
+     */
+    private Map<String, Map<Long, BigDecimal>> prices(Map<String, NavigableSet<Long>> buckets) {
+        Map<String, Map<Long, BigDecimal>> fetched = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        List<Range> ranges = new ArrayList<>();
+        for (Map.Entry<String, NavigableSet<Long>> entry : buckets.entrySet()) {
+            String token = entry.getKey();
+            NavigableSet<Long> missing = new TreeSet<>();
+            for (long bucket : entry.getValue()) {
+                if (bucketCache.get(key(token, bucket)) != null) continue;
+
+                CompletableFuture<Void> fetch = inFlight.get(key(token, bucket));
+                if (fetch != null) {
+                    pending.add(fetch);
+                } else {
+                    missing.add(bucket);
+                }
+            }
+            ranges.addAll(claimRanges(token, missing));
+        }
+
+        // A few requests at a time, so a wallet holding many tokens cannot exhaust the endpoint's bulkhead
+        for (int from = 0; from < ranges.size(); from += MAX_CONCURRENT_FETCHES) {
+            List<CompletableFuture<Void>> batch = ranges.subList(from, Math.min(ranges.size(), from + MAX_CONCURRENT_FETCHES)).stream()
+                    .map(range -> fetch(range, fetched.computeIfAbsent(range.token(), t -> new ConcurrentHashMap<>())))
+                    .toList();
+            CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new)).join();
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+
+        Map<String, Map<Long, BigDecimal>> prices = new HashMap<>();
+        buckets.forEach((token, needed) -> {
+            Map<Long, BigDecimal> tokenPrices = new HashMap<>();
+            for (long bucket : needed) {
+                BigDecimal price = bucketCache.get(key(token, bucket));
+                if (price == null && fetched.containsKey(token)) {
+                    price = fetched.get(token).get(bucket);
+                }
+                if (price != null) {
+                    tokenPrices.put(bucket, price);
+                }
+            }
+            prices.put(token, tokenPrices);
+        });
+        return prices;
+    }
+
+    /**
+     * Groups the missing buckets of a token into ranges that each fit one request and claims the buckets of
+     * every range, so that concurrent lookups wait for its fetch instead of repeating it. A range ends at a
+     * gap longer than {@value #MAX_GAP_HOURS} hours or where it would outgrow one request window.
+     *
+     * @param token the normalized token
+     * @param missing the uncached buckets nobody is fetching yet, sorted
+     * @return the claimed ranges, each to be passed to {@link #fetch}
+     */
+    private List<Range> claimRanges(String token, NavigableSet<Long> missing) {
+        List<Range> ranges = new ArrayList<>();
+        Range range = null;
+        for (long bucket : missing) {
+            if (range == null || bucket - range.buckets().get(range.buckets().size() - 1) > MAX_GAP_HOURS
+                    || bucket - range.buckets().get(0) >= WINDOW_HOURS) {
+                range = new Range(token, new ArrayList<>(), new CompletableFuture<>(), new ArrayList<>());
+                ranges.add(range);
+            }
+            range.buckets().add(bucket);
+            if (inFlight.putIfAbsent(key(token, bucket), range.done()) == null) {
+                range.claimed().add(key(token, bucket));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Fetches a claimed range and releases its claims once its prices are cached.
+     *
+     * @param range the claimed range
+     * @param fetched receives the price of every needed bucket, including ones too recent to cache
+     * @return a future completing when the claims are released; it never completes exceptionally
+     */
+    private CompletableFuture<Void> fetch(Range range, Map<Long, BigDecimal> fetched) {
+        fetchRange(range.token(), range.buckets()).whenComplete((prices, e) -> {
+            if (prices != null) {
+                fetched.putAll(prices);
+            }
+            range.claimed().forEach(key -> inFlight.remove(key, range.done()));
+            range.done().complete(null);
+        });
+        return range.done();
+    }
+
+    /**
+     * Fetches the hourly prices of a token over a range with one request and caches the price of each needed
+     * bucket. Hours without a price point take the latest earlier price of the range, or zero if there is
+     * none. A token the endpoint rejects is cached as zero for the needed buckets, while other failures,
+     * such as a full bulkhead, are not cached.
+     *
+     * @param token the normalized token
+     * @param buckets the needed buckets, sorted and spanning at most one request window
+     * @return a future completing with the price of every needed bucket once they are cached, or with
+     * {@code null} if the prices are unavailable
+     */
+    private CompletableFuture<Map<Long, BigDecimal>> fetchRange(String token, List<Long> buckets) {
+        Instant start = Instant.ofEpochSecond(buckets.get(0) * BUCKET_SECONDS);
+        Instant end = Instant.ofEpochSecond((buckets.get(buckets.size() - 1) + 1) * BUCKET_SECONDS);
+        CompletableFuture<HistoricalPriceResponse> request;
+        try {
+            request = pricesAPI.getHistoricalUsdPricesAsync(token, start, end);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+
+        return request.handle((response, e) -> {
+            if (e != null && !isRejected(e)) {
+                logger.warning("⚠️ Historical prices of " + token + " from " + start + " to " + end + " unavailable: " + e.getMessage());
+                return null;
+            }
+
+            TreeMap<Long, BigDecimal> points = new TreeMap<>();
+            if (response != null && response.getData() != null) {
+                for (HistoricalPriceResponse.PricePoint point : response.getData()) {
+                    if (point.getValue() != null && point.getTimestamp() != null) {
+                        points.put(bucketOf(Instant.parse(point.getTimestamp())), new BigDecimal(point.getValue()));
+                    }
+                }
+            }
+
+            Map<Long, BigDecimal> prices = new HashMap<>();
+            long current = bucketOf(Instant.now());
+            for (long bucket : buckets) {
+                Map.Entry<Long, BigDecimal> point = points.floorEntry(bucket);
+                BigDecimal price = point != null ? point.getValue() : BigDecimal.ZERO;
+                prices.put(bucket, price);
+                // The current hour has no final price yet, so it is looked up again next time
+                if (bucket < current) {
+                    bucketCache.put(key(token, bucket), price);
+                }
+            }
+            logger.fine(() -> "📈 Fetched " + prices.size() + " hourly prices of " + token + " from " + points.size() + " price points");
+            return prices;
+        });
+    }
+
+    /**
+     * Returns the normalized token a transfer is priced by: its contract address, or the native asset symbol
+     * for ETH transfers.
+     *
+     * @param transfer the transfer
+     * @return the normalized token, or {@code null} if the transfer has no fungible value to price
+     */
+    private static String tokenOf(HistoricalTransfer transfer) {
+        if (transfer.getTimestamp() == null || transfer.getValue() == null || transfer.getValue().signum() == 0) {
+            return null;
+        }
+        return tokenOf(transfer.getCategory(), transfer.getRawContractAddress(), transfer.getAsset());
+    }
+
+    /**
+     * Returns the normalized token the transfer in a row of a transfer table is priced by.
+     *
+     * @param transfer the view of the transfer
+     * @return the normalized token, or {@code null} if the transfer has no fungible value to price
+     */
+    private static String tokenOf(TransferTable.View transfer) {
+        if (!transfer.hasTimestamp() || transfer.valueSignum() == 0) {
+            return null;
+        }
+        return tokenOf(transfer.category(), transfer.rawContractAddress(), transfer.asset());
+    }
+
+    /**
+     * Returns the normalized token a transfer with a non-zero value is priced by.
+     *
+     * @param category the category of the transfer
+     * @param rawContractAddress the contract address of the token, or {@code null} for native transfers
+     * @param asset the transferred asset
+     * @return the normalized token, or {@code null} for NFTs and unknown native assets
+     */
+    private static String tokenOf(String category, String rawContractAddress, String asset) {
+        if ("erc721".equalsIgnoreCase(category) || "erc1155".equalsIgnoreCase(category) || "specialnft".equalsIgnoreCase(category)) {
+            return null;
+        }
+        if (rawContractAddress != null) {
+            return normalize(rawContractAddress);
+        }
+        return ETH_SYMBOL.equalsIgnoreCase(asset) ? ETH_SYMBOL : null;
+    }
+
+    /**
+     * Normalizes a token to lower-case addresses and upper-case symbols, so equal tokens share cache entries.
+     *
+     * @param token the contract address or symbol
+     * @return the normalized token
+     */
+    private static String normalize(String token) {
+        return token.startsWith("0x") ? token.toLowerCase(Locale.ROOT) : token.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns whether a fetch failed because the endpoint rejected the token, e.g. one it has no prices for.
+     *
+     * @param failure the failure of the fetch
+     * @return {@code true} for a client error other than rate limiting
+     */
+    private static boolean isRejected(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusException status) {
+                return status.getStatusCode() >= 400 && status.getStatusCode() < 500 && status.getStatusCode() != 429;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the hour bucket a point in time falls into.
+     *
+     * @param timestamp the point in time
+     * @return the number of whole hours since the epoch
+     */
+    private static long bucketOf(Instant timestamp) {
+        return Math.floorDiv(timestamp.getEpochSecond(), BUCKET_SECONDS);
+    }
+
+    /**
+     * Builds the cache key of a token's price bucket.
+     *
+     * @param token the normalized token
+     * @param bucket the hour bucket
+     * @return the cache key
+     */
+    private static String key(String token, long bucket) {
+        return token + "@" + bucket;
+    }
+}
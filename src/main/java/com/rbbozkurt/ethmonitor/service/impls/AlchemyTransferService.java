@@ -1,46 +1,85 @@
 package com.rbbozkurt.ethmonitor.service.impls;
 
+import com.rbbozkurt.ethmonitor.cache.CacheLayer;
+import com.rbbozkurt.ethmonitor.cache.CacheLayerFactory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
 import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.model.TransferTable;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+import com.rbbozkurt.ethmonitor.registry.TokenFactsIndex;
 import com.rbbozkurt.ethmonitor.service.interfaces.ApiService;
 import com.rbbozkurt.ethmonitor.service.interfaces.TransferService;
+import com.rbbozkurt.ethmonitor.util.Address;
 
-import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Service implementation for retrieving and processing historical transfers for a given wallet address.
- * This service fetches the transfer data from the API, processes it asynchronously,
- * and converts the transfer data into {@link HistoricalTransfer} objects.
+ * This service fetches the transfer data from the API and converts it into {@link HistoricalTransfer} objects
+ * with a {@link HistoricalTransferConverter}. The token contracts and decimals carried by the downloaded
+ * transfers are fed into a {@link TokenFactsIndex} shared with the balance pipeline.
+ * <p>
+ * Transfer histories requested as a {@link TransferTable} are built straight from the downloaded transfers,
+ * without a {@link HistoricalTransfer} per transfer, and cached in that compact form only: the downloaded
+ * transfers are streamed through without being retained.
  */
 public class AlchemyTransferService implements TransferService {
 
     private static final Logger logger = Logger.getLogger(AlchemyTransferService.class.getName());
+    private static final int TABLE_INITIAL_ROWS = 4_096;  // Rows a table starts with, grown as transfers arrive
 
     private final ApiService apiService;
-    private final ExecutorService virtualThreadExecutor;
+    private final TokenFactsIndex tokenFacts;  // Receives the token facts of every downloaded transfer
+    private final HistoricalTransferConverter converter;  // Converts downloaded transfers in chunks
+    private final CacheLayer<TransferTable.Key, TransferTable> tableCache;  // Transfer tables by wallet, count and categories
 
     /**
-     * Constructs an {@link AlchemyTransferService} with the given API service and executor.
+     * Constructs an {@link AlchemyTransferService} with the given API service.
      *
      * @param apiService the API service used to interact with the Alchemy API
-     * @param virtualThreadExecutor the executor for handling asynchronous tasks
+     */
+    public AlchemyTransferService(ApiService apiService) {
+        this(apiService, new TokenFactsIndex());
+    }
+
+    /**
+     * Constructs an {@link AlchemyTransferService} with the given API service and token facts index.
+     *
+     * @param apiService the API service used to interact with the Alchemy API
+     * @param tokenFacts the index fed with the token facts of downloaded transfers
+     */
+    public AlchemyTransferService(ApiService apiService, TokenFactsIndex tokenFacts) {
+        this(apiService, tokenFacts, new HistoricalTransferConverter(), CacheLayerFactory.getInstance().createTransferTableCache());
+    }
+
+    /**
+     * Constructs an {@link AlchemyTransferService} with the given API service, token facts index, converter and
+     * transfer table cache.
+     *
+     * @param apiService the API service used to interact with the Alchemy API
+     * @param tokenFacts the index fed with the token facts of downloaded transfers
+     * @param converter the converter turning downloaded transfers into historical transfers
+     * @param tableCache the cache of transfer tables
      */
     public AlchemyTransferService(
             ApiService apiService,
-            ExecutorService virtualThreadExecutor
+            TokenFactsIndex tokenFacts,
+            HistoricalTransferConverter converter,
+            CacheLayer<TransferTable.Key, TransferTable> tableCache
     ) {
         this.apiService = apiService;
-        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.tokenFacts = tokenFacts;
+        this.converter = converter;
+        this.tableCache = tableCache;
     }
 
     /**
      * Retrieves historical transfer details for a given wallet address, including transaction data
-     * and associated metadata. The transfers are fetched from the Alchemy API and processed asynchronously.
+     * and associated metadata. The transfers are fetched from the Alchemy API and converted as one batch.
      *
      * @param walletAddress the Ethereum wallet address for which historical transfers are fetched
      * @param maxCount the maximum number of transfers to retrieve
@@ -53,40 +92,76 @@ public class AlchemyTransferService implements TransferService {
             TransferResponse response = apiService.getTransferResponse(walletAddress, maxCount);
             List<TransferResponse.Transfer> transfers = response.getResult().getTransfers();
 
-            // Convert each transfer into a HistoricalTransfer object asynchronously
-            List<Callable<HistoricalTransfer>> tasks = transfers.stream()
-                    .map(tx -> (Callable<HistoricalTransfer>) () -> {
-                        HistoricalTransfer hist = new HistoricalTransfer();
-                        hist.setTxHash(tx.getHash());
-                        hist.setFrom(tx.getFrom());
-                        hist.setTo(tx.getTo());
-                        hist.setAsset(tx.getAsset());
-                        hist.setCategory(tx.getCategory());
-                        hist.setValue(new BigDecimal(tx.getValue() != null ? tx.getValue() : "0"));
-                        hist.setTimestamp(Instant.parse(tx.getMetadata().getBlockTimestamp()));
-                        hist.setRawContractAddress(tx.getRawContract() != null ? tx.getRawContract().getAddress() : null);
-                        return hist;
-                    })
-                    .collect(Collectors.toList());
+            // Remember the decimals of every token seen, so balances need not look them up again
+            tokenFacts.recordAll(transfers);
 
-            // Execute the tasks and collect results
-            List<Future<HistoricalTransfer>> futures = virtualThreadExecutor.invokeAll(tasks);
-            List<HistoricalTransfer> result = new CopyOnWriteArrayList<>();
+            return converter.convertAll(transfers);
 
-            // Process results
-            for (Future<HistoricalTransfer> future : futures) {
+        } catch (Exception e) {
+             throw new RuntimeException("Failed to fetch or process transfers", e);
+        }
+    }
+
+    /**
+     * Streams the historical transfers for a given wallet address. Each transfer is converted and handed to
+     * {@code action} on the calling thread as soon as its page has arrived, while the next pages are fetched.
+     * A transfer that cannot be converted is logged and left out, as in {@link #getHistoricalTransfers}.
+     *
+     * @param walletAddress the Ethereum wallet address for which historical transfers are fetched
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param categories the categories of transfers to retrieve
+     * @param action the action performed for each transfer, oldest first
+     */
+    @Override
+    public void forEachHistoricalTransfer(String walletAddress, int maxCount, Set<TransferCategory> categories, Consumer<HistoricalTransfer> action) {
+        try (TransferStream transfers = apiService.streamTransfers(walletAddress, maxCount, categories)) {
+            while (transfers.hasNext()) {
+                TransferResponse.Transfer tx = transfers.next();
+                tokenFacts.record(tx);
+                HistoricalTransfer transfer;
                 try {
-                    HistoricalTransfer histTransfer = future.get();
-                    result.add(histTransfer);
-                } catch (InterruptedException | ExecutionException e) {
-                    logger.severe("❌ Error processing transfer: " + e.getMessage());
+                    transfer = HistoricalTransferConverter.convert(tx);
+                } catch (RuntimeException e) {
+                    logger.severe("❌ Error processing transfer " + tx.getUniqueId() + ": " + e.getMessage());
+                    continue;
                 }
+                action.accept(transfer);
             }
-
-            return result;
-
-        } catch (Exception e) {
-             throw new RuntimeException("Failed to fetch or process transfers", e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to fetch or process transfers", e);
         }
     }
+
+    /**
+     * Retrieves the historical transfers for a given wallet address as a {@link TransferTable}, streaming the
+     * downloaded transfers straight into its columns. A transfer that cannot be read is logged and left out.
+     * Tables are cached by the parsed wallet address, so the same wallet in another case shares its table.
+     *
+     * @param walletAddress the Ethereum wallet address for which historical transfers are fetched
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param categories the categories of transfers to retrieve
+     * @return the transfers, oldest first
+     * @throws IllegalArgumentException if the wallet address is not an address
+     */
+    @Override
+    public TransferTable getTransferTable(String walletAddress, int maxCount, Set<TransferCategory> categories) {
+        TransferTable.Key cacheKey = new TransferTable.Key(Address.parse(walletAddress), maxCount, TransferCategory.key(categories));
+        return tableCache.getOrCompute(cacheKey, key -> {
+            TransferTable.Builder table = new TransferTable.Builder(Math.min(maxCount, TABLE_INITIAL_ROWS));
+            try (TransferStream transfers = apiService.streamTransfers(walletAddress, maxCount, categories)) {
+                while (transfers.hasNext()) {
+                    TransferResponse.Transfer tx = transfers.next();
+                    tokenFacts.record(tx);
+                    try {
+                        table.add(tx);
+                    } catch (RuntimeException e) {
+                        logger.severe("❌ Error processing transfer " + tx.getUniqueId() + ": " + e.getMessage());
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to fetch or process transfers", e);
+            }
+            return table.build();
+        });
+    }
 }
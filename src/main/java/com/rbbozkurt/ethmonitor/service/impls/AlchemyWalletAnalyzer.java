@@ -1,10 +1,12 @@
 package com.rbbozkurt.ethmonitor.service.impls;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.model.TransferTable;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport;
-import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.TokenBalance;
 import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.service.interfaces.HistoricalPriceService;
 import com.rbbozkurt.ethmonitor.service.interfaces.SwapDetectorService;
 import com.rbbozkurt.ethmonitor.service.interfaces.TransferService;
 import com.rbbozkurt.ethmonitor.service.interfaces.WalletAnalyzer;
@@ -14,11 +16,17 @@ import java.math.RoundingMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
  * Service implementation for analyzing wallet data, including historical transfers, token balances, swap counts,
- * and transaction volumes. The results are returned as a detailed report.
+ * and transaction volumes. The results are returned as a detailed report. Transfers are collected into a
+ * compact {@link TransferTable}, and swap detection and pricing read its rows in place; the report's transfer
+ * list materializes them only when read.
+ * <p>
+ * Only the transfer categories that carry a value are fetched by default, external and erc20; NFT and internal
+ * transfers add nothing to the volume or the swap count but would be paged through as well.
  */
 public class AlchemyWalletAnalyzer implements WalletAnalyzer {
 
@@ -27,21 +35,45 @@ public class AlchemyWalletAnalyzer implements WalletAnalyzer {
     private final TransferService transferService;
     private final BalanceService balanceService;
     private final SwapDetectorService swapDetectorService;
+    private final HistoricalPriceService historicalPriceService;
+    private final Set<TransferCategory> categories;  // Categories of the transfers analyzed
 
     /**
-     * Constructs an {@link AlchemyWalletAnalyzer} with the given services.
+     * Constructs an {@link AlchemyWalletAnalyzer} with the given services, analyzing external and erc20 transfers.
      *
      * @param transferService the service used to fetch historical transfers
      * @param balanceService the service used to fetch token balances
      * @param swapDetectorService the service used to detect swaps
+     * @param historicalPriceService the service used to price transfers at their timestamps
      */
     public AlchemyWalletAnalyzer(
             TransferService transferService,
             BalanceService balanceService,
-            SwapDetectorService swapDetectorService) {
+            SwapDetectorService swapDetectorService,
+            HistoricalPriceService historicalPriceService) {
+        this(transferService, balanceService, swapDetectorService, historicalPriceService, TransferCategory.VALUE_TRANSFERS);
+    }
+
+    /**
+     * Constructs an {@link AlchemyWalletAnalyzer} with the given services, analyzing transfers of the given categories.
+     *
+     * @param transferService the service used to fetch historical transfers
+     * @param balanceService the service used to fetch token balances
+     * @param swapDetectorService the service used to detect swaps
+     * @param historicalPriceService the service used to price transfers at their timestamps
+     * @param categories the categories of the transfers analyzed
+     */
+    public AlchemyWalletAnalyzer(
+            TransferService transferService,
+            BalanceService balanceService,
+            SwapDetectorService swapDetectorService,
+            HistoricalPriceService historicalPriceService,
+            Set<TransferCategory> categories) {
         this.transferService = transferService;
         this.balanceService = balanceService;
         this.swapDetectorService = swapDetectorService;
+        this.historicalPriceService = historicalPriceService;
+        this.categories = categories;
     }
 
     /**
@@ -55,21 +87,20 @@ public class AlchemyWalletAnalyzer implements WalletAnalyzer {
      */
     @Override
     public WalletAnalysisReport analyze(String address, int maxCount) throws Exception {
-        List<HistoricalTransfer> transfers = transferService.getHistoricalTransfers(address, maxCount);
+        // Collect the transfers into a compact table and count the swaps among them, reading the rows in place
+        TransferTable transfers = transferService.getTransferTable(address, maxCount, categories);
+        int[] swapCount = {0};
+        transfers.forEach(transfer -> {
+            if (swapDetectorService.isSwap(transfer)) {
+                swapCount[0]++;
+            }
+        });
 
         // Fetch token balances with USD values
         List<TokenBalance> balances = balanceService.getTokenBalancesWithUsd(address);
 
-        // Count the number of swap transactions
-        int swapCount = (int) transfers.stream()
-                .filter(t -> swapDetectorService.isSwap(t))
-                .count();
-
-        // Calculate total volume in USD
-        BigDecimal totalVolUsd = transfers.stream()
-                .map(HistoricalTransfer::getValue)
-                .filter(v -> v != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate total volume in USD, pricing each transfer at the time it happened
+        BigDecimal totalVolUsd = historicalPriceService.getUsdVolume(transfers);
 
         // Calculate total balance in USD
         BigDecimal totalBalanceUsd = balances.stream()
@@ -81,9 +112,9 @@ public class AlchemyWalletAnalyzer implements WalletAnalyzer {
         // Prepare the report
         WalletAnalysisReport report = new WalletAnalysisReport();
         report.setWalletAddress(address);
-        report.setTransfers(transfers);
+        report.setTransfers(transfers.asHistoricalTransfers());
         report.setBalances(balances);
-        report.setEstimatedSwapCount(swapCount);
+        report.setEstimatedSwapCount(swapCount[0]);
         report.setTotalTransactionCount(transfers.size());
         report.setTotalVolumeUsd(totalVolUsd.setScale(6, RoundingMode.HALF_UP));
         report.setTotalBalanceUsd(totalBalanceUsd);
@@ -1,10 +1,13 @@
 package com.rbbozkurt.ethmonitor.service.impls;
 
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
 import com.rbbozkurt.ethmonitor.service.interfaces.BalanceService;
+import com.rbbozkurt.ethmonitor.service.interfaces.HistoricalPriceService;
 import com.rbbozkurt.ethmonitor.service.interfaces.SwapDetectorService;
 import com.rbbozkurt.ethmonitor.service.interfaces.TransferService;
 import com.rbbozkurt.ethmonitor.service.interfaces.WalletAnalyzer;
 
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -18,6 +21,8 @@ public class AlchemyWalletAnalyzerBuilder {
     private TransferService transferService;
     private BalanceService balanceService;
     private SwapDetectorService swapDetectorService;
+    private HistoricalPriceService historicalPriceService;
+    private Set<TransferCategory> transferCategories = TransferCategory.VALUE_TRANSFERS;
 
     /**
      * Sets the {@link TransferService} for the builder.
@@ -52,6 +57,28 @@ public class AlchemyWalletAnalyzerBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link HistoricalPriceService} for the builder.
+     *
+     * @param historicalPriceService the historical price service
+     * @return the builder instance for method chaining
+     */
+    public AlchemyWalletAnalyzerBuilder withHistoricalPriceService(HistoricalPriceService historicalPriceService) {
+        this.historicalPriceService = historicalPriceService;
+        return this;
+    }
+
+    /**
+     * Sets the categories of the transfers analyzed, external and erc20 by default.
+     *
+     * @param transferCategories the transfer categories
+     * @return the builder instance for method chaining
+     */
+    public AlchemyWalletAnalyzerBuilder withTransferCategories(Set<TransferCategory> transferCategories) {
+        this.transferCategories = transferCategories;
+        return this;
+    }
+
     /**
      * Builds and returns an instance of {@link WalletAnalyzer} using the provided services.
      * Throws an exception if any of the required services are missing.
@@ -61,11 +88,12 @@ public class AlchemyWalletAnalyzerBuilder {
      */
     public WalletAnalyzer build() {
         // Ensure all dependencies are provided
-        if (transferService == null || balanceService == null || swapDetectorService == null) {
+        if (transferService == null || balanceService == null || swapDetectorService == null || historicalPriceService == null
+                || transferCategories == null) {
             throw new IllegalStateException("All dependencies must be set");
         }
 
         // Return a new instance of AlchemyWalletAnalyzer
-        return new AlchemyWalletAnalyzer(transferService, balanceService, swapDetectorService);
+        return new AlchemyWalletAnalyzer(transferService, balanceService, swapDetectorService, historicalPriceService, transferCategories);
     }
 }
@@ -1,21 +1,26 @@
 package com.rbbozkurt.ethmonitor.service.impls;
 
+import com.rbbozkurt.ethmonitor.model.TransferTable;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
 import com.rbbozkurt.ethmonitor.service.interfaces.SwapDetectorService;
+import com.rbbozkurt.ethmonitor.util.Address;
 
 import java.util.Set;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Basic implementation of the {@link SwapDetectorService} that detects token swaps
- * based on known decentralized exchange (DEX) contract addresses.
+ * based on known decentralized exchange (DEX) contract addresses. The known contracts are held as parsed
+ * {@link Address}es, so checking a row of a transfer table compares its already parsed addresses directly.
  */
 public class BasicSwapDetectorService implements SwapDetectorService {
 
     private static final Logger logger = Logger.getLogger(BasicSwapDetectorService.class.getName());
 
     // Known DEX router or factory contracts
-    private static final Set<String> KNOWN_DEX_CONTRACTS = Set.of(
+    private static final Set<Address> KNOWN_DEX_CONTRACTS = Stream.of(
             "0x5c69bee701ef814a2b6a3edd4b1652cb9cc5aa6f", // UniswapV2Factory
             "0xd9e1ce17f2641f24ae83637ab66a2cca9c378b9f", // SushiSwap
             "0x1111111254eeb25477b68fb85ed929f73a960582", // 1inch
@@ -23,7 +28,7 @@ public class BasicSwapDetectorService implements SwapDetectorService {
             "0xdef1c0ded9bec7f1a1670819833240f027b25eff", // 0x Exchange Proxy
             "0x68b3465833fb72a70ecdf485e0e4c7bd8665fc45", // Uniswap V3 SwapRouter02
             "0x7a250d5630b4cf539739df2c5dacabf31d1c8ed8"  // Uniswap V2 Router
-    );
+    ).map(Address::parse).collect(Collectors.toUnmodifiableSet());
 
     /**
      * Checks if the given transfer is a token swap.
@@ -37,18 +42,38 @@ public class BasicSwapDetectorService implements SwapDetectorService {
             return false;
         }
 
-        String contractAddress = transfer.getRawContractAddress();
-        String fromAddress = transfer.getFrom();
-        String toAddress = transfer.getTo();
+        return isSwap(Address.tryParse(transfer.getRawContractAddress()),
+                Address.tryParse(transfer.getFrom()), Address.tryParse(transfer.getTo()));
+    }
+
+    /**
+     * Checks if the transfer in a row of a transfer table is a token swap, using the addresses the table parsed
+     * when it was built.
+     *
+     * @param transfer the view of the transfer to check
+     * @return true if the transfer is a token swap, false otherwise
+     */
+    @Override
+    public boolean isSwap(TransferTable.View transfer) {
+        return isSwap(transfer.contractAddress(), transfer.fromAddress(), transfer.toAddress());
+    }
 
+    /**
+     * Checks if a transfer involves a known DEX contract.
+     *
+     * @param contractAddress the contract address of the transferred token, or {@code null}
+     * @param fromAddress the sender address, or {@code null}
+     * @param toAddress the recipient address, or {@code null}
+     * @return true if any of the addresses is a known DEX contract
+     */
+    private static boolean isSwap(Address contractAddress, Address fromAddress, Address toAddress) {
         // Check if the contract address is a known DEX contract, return false if null
-        boolean isSwapByContract = contractAddress != null && KNOWN_DEX_CONTRACTS.contains(contractAddress.toLowerCase());
+        boolean isSwapByContract = contractAddress != null && KNOWN_DEX_CONTRACTS.contains(contractAddress);
 
         // Check if the 'from' or 'to' address matches any known DEX contract, return false if null
-        boolean isSwapByFromAddress = fromAddress != null && KNOWN_DEX_CONTRACTS.contains(fromAddress.toLowerCase());
-        boolean isSwapByToAddress = toAddress != null && KNOWN_DEX_CONTRACTS.contains(toAddress.toLowerCase());
+        boolean isSwapByFromAddress = fromAddress != null && KNOWN_DEX_CONTRACTS.contains(fromAddress);
+        boolean isSwapByToAddress = toAddress != null && KNOWN_DEX_CONTRACTS.contains(toAddress);
 
         return isSwapByContract || isSwapByFromAddress || isSwapByToAddress;
-
     }
 }
@@ -1,25 +1,63 @@
 package com.rbbozkurt.ethmonitor.service.impls;
 
 import com.rbbozkurt.ethmonitor.cache.CacheLayer;
+import com.rbbozkurt.ethmonitor.cache.TransferSyncStore;
+import com.rbbozkurt.ethmonitor.client.impls.CallNotPermittedException;
 import com.rbbozkurt.ethmonitor.client.interfaces.BalancesAPI;
 import com.rbbozkurt.ethmonitor.client.interfaces.PricesAPI;
 import com.rbbozkurt.ethmonitor.client.interfaces.TokenAPI;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
 import com.rbbozkurt.ethmonitor.client.interfaces.TransfersAPI;
 import com.rbbozkurt.ethmonitor.dto.*;
 import com.rbbozkurt.ethmonitor.service.interfaces.ApiService;
+import com.rbbozkurt.ethmonitor.util.Address;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
  * Cached implementation of the {@link ApiService} that interacts with external APIs for fetching token balances,
  * ETH balances, token metadata, price information, and transfer history. This implementation caches responses
  * to optimize performance and reduce redundant API calls.
+ * <p>
+ * Every price fetched is also kept in a longer-lived last-known price cache. When the prices endpoint
+ * rejects a call because its circuit is open or its bulkhead is full, the last known price is served
+ * instead of failing.
+ * <p>
+ * Prices of several tokens are fetched in batched requests; the batch response is split back into one
+ * {@code price:<address>} cache entry per token, so single and batched lookups share the same cache.
+ * Token addresses are keyed in their parsed {@link Address} form, so a checksummed and a lower-case spelling
+ * of the same token share their price, metadata and negative entries, including the on-disk metadata store.
+ * <p>
+ * Tokens the endpoints answered for without a usable result, typically spam contracts with no price or
+ * no ERC-20 metadata, are recorded in a negative-result cache. Repeat lookups of such tokens are answered
+ * from it without a request, until the entry expires. Failed requests are never recorded, so a transient
+ * outage does not mark tokens as dead.
+ * <p>
+ * Transfer history is synced incrementally through an {@link IncrementalTransferSync}: each wallet's ingested
+ * transfers are kept on disk with a block cursor, and only transfers after it are fetched. Transfer histories are
+ * not cached in memory here; callers that keep them, such as {@link AlchemyTransferService}, hold them in their
+ * compact {@link com.rbbozkurt.ethmonitor.model.TransferTable} form instead.
  */
 public class CachedAlchemyApiService implements ApiService {
 
     private static final Logger logger = Logger.getLogger(CachedAlchemyApiService.class.getName());
 
+    private static final String NO_PRICE = "noprice:";  // Negative-cache key prefix of tokens without a USD price
+    private static final String NO_METADATA = "nometadata:";  // Negative-cache key prefix of tokens without metadata
+
     private final BalancesAPI balancesAPI;
     private final PricesAPI pricesAPI;
     private final TokenAPI tokenAPI;
@@ -29,7 +67,12 @@ public class CachedAlchemyApiService implements ApiService {
     private final CacheLayer<String, EthBalanceResponse> ethBalanceCache;
     private final CacheLayer<String, TokenPriceResponse> priceCache;
     private final CacheLayer<String, TokenMetadataResponse> tokenCache;
-    private final CacheLayer<String, TransferResponse> transferCache;
+    private final CacheLayer<String, TokenPriceResponse> lastKnownPriceCache;
+    private final CacheLayer<String, String> negativeResultCache;  // Reason by "noprice:"/"nometadata:" token key
+    private final IncrementalTransferSync transferSync;  // Extends each wallet's ingested history from its cursor
+
+    // Loads currently in flight, keyed by cache name and key, so concurrent async callers share one request
+    private final ConcurrentHashMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
 
     /**
      * Constructs a {@link CachedAlchemyApiService} with the given APIs and cache layers.
@@ -42,7 +85,9 @@ public class CachedAlchemyApiService implements ApiService {
      * @param ethBalanceCache the cache for ETH balances
      * @param priceCache the cache for token prices
      * @param tokenCache the cache for token metadata
-     * @param transferCache the cache for transfer history
+     * @param lastKnownPriceCache the cache of last known prices, served while the prices endpoint rejects calls
+     * @param negativeResultCache the cache of tokens known to have no price or no metadata
+     * @param syncStore the store of each wallet's ingested transfers and block cursor, or {@code null} to keep none
      */
     public CachedAlchemyApiService(
             BalancesAPI balancesAPI,
@@ -53,7 +98,9 @@ public class CachedAlchemyApiService implements ApiService {
             CacheLayer<String, EthBalanceResponse> ethBalanceCache,
             CacheLayer<String, TokenPriceResponse> priceCache,
             CacheLayer<String, TokenMetadataResponse> tokenCache,
-            CacheLayer<String, TransferResponse> transferCache
+            CacheLayer<String, TokenPriceResponse> lastKnownPriceCache,
+            CacheLayer<String, String> negativeResultCache,
+            TransferSyncStore syncStore
     ) {
         this.balancesAPI = balancesAPI;
         this.pricesAPI = pricesAPI;
@@ -63,7 +110,9 @@ public class CachedAlchemyApiService implements ApiService {
         this.ethBalanceCache = ethBalanceCache;
         this.priceCache = priceCache;
         this.tokenCache = tokenCache;
-        this.transferCache = transferCache;
+        this.lastKnownPriceCache = lastKnownPriceCache;
+        this.negativeResultCache = negativeResultCache;
+        this.transferSync = new IncrementalTransferSync(transfersAPI, syncStore);
     }
 
     @Override
@@ -92,33 +141,65 @@ public class CachedAlchemyApiService implements ApiService {
 
     @Override
     public TokenPriceResponse getUsdPrice(String tokenAddress) throws Exception {
-        return priceCache.getOrCompute("price:" + tokenAddress, addr -> {
+        if (isKnownUnpriceable(tokenAddress)) {
+            return noPrice(tokenAddress);
+        }
+        String cacheKey = priceKey(tokenAddress);
+        try {
+            TokenPriceResponse price = priceCache.getOrCompute(cacheKey, key -> {
+                try {
+                    return pricedOrRecordNoPrice(tokenAddress, pricesAPI.getUsdPrice(tokenAddress));
+                } catch (Exception e) {
+                    logger.severe("❌ Error fetching USD price for " + tokenAddress + ": " + e.getMessage());
+                    throw new RuntimeException(e);
+                }
+            });
+            return price != null ? price : noPrice(tokenAddress);
+        } catch (RuntimeException e) {
+            return lastKnownPriceOrThrow(cacheKey, e);
+        }
+    }
+
+    @Override
+    public Map<String, TokenPriceResponse> getUsdPrices(Collection<String> tokenAddresses) throws Exception {
+        Map<String, TokenPriceResponse> prices = new LinkedHashMap<>();
+        List<String> missing = collectCachedPrices(tokenAddresses, prices);
+        if (!missing.isEmpty()) {
             try {
-                return pricesAPI.getUsdPrice(tokenAddress);
+                prices.putAll(splitAndCachePrices(missing, pricesAPI.getUsdPrices(missing)));
             } catch (Exception e) {
-                logger.severe("❌ Error fetching USD price for " + tokenAddress + ": " + e.getMessage());
-                throw new RuntimeException(e);
+                logger.severe("❌ Error fetching USD prices for " + missing.size() + " tokens: " + e.getMessage());
+                prices.putAll(lastKnownPricesOrThrow(missing, e));
             }
-        });
+        }
+        return prices;
     }
 
     @Override
     public TokenPriceResponse getUsdPriceBySymbol(String symbol) throws Exception {
-        return priceCache.getOrCompute("price:symbol:" + symbol, sym -> {
-            try {
-                return pricesAPI.getUsdPriceBySymbol(symbol);
-            } catch (Exception e) {
-                logger.severe("❌ Error fetching USD price by symbol for " + symbol + ": " + e.getMessage());
-                throw new RuntimeException(e);
-            }
-        });
+        String cacheKey = "price:symbol:" + symbol;
+        try {
+            return priceCache.getOrCompute(cacheKey, key -> {
+                try {
+                    return rememberPrice(key, pricesAPI.getUsdPriceBySymbol(symbol));
+                } catch (Exception e) {
+                    logger.severe("❌ Error fetching USD price by symbol for " + symbol + ": " + e.getMessage());
+                    throw new RuntimeException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            return lastKnownPriceOrThrow(cacheKey, e);
+        }
     }
 
     @Override
     public TokenMetadataResponse getTokenMetadata(String tokenAddress) throws Exception {
-        return tokenCache.getOrCompute(tokenAddress, addr -> {
+        if (negativeResultCache.get(NO_METADATA + addressKey(tokenAddress)) != null) {
+            return null;
+        }
+        return tokenCache.getOrCompute(addressKey(tokenAddress), addr -> {
             try {
-                return tokenAPI.getTokenMetadata(tokenAddress);
+                return withMetadataOrRecord(tokenAddress, tokenAPI.getTokenMetadata(tokenAddress));
             } catch (Exception e) {
                 logger.severe("❌ Error fetching token metadata for " + tokenAddress + ": " + e.getMessage());
                 throw new RuntimeException(e);
@@ -127,15 +208,432 @@ public class CachedAlchemyApiService implements ApiService {
     }
 
     @Override
-    public TransferResponse getTransferResponse(String address, int maxCount) throws IOException {
-        String cacheKey = address + "::" + maxCount;
-        return transferCache.getOrCompute(cacheKey, key -> {
-            try {
-                return transfersAPI.getTransferResponse(address, maxCount);
-            } catch (IOException e) {
-                logger.severe("❌ Error fetching transfer response for " + address + ": " + e.getMessage());
-                throw new RuntimeException(e);
+    public TransferResponse getTransferResponse(String address, int maxCount, Set<TransferCategory> categories) throws IOException {
+        try {
+            return transferSync.sync(address, maxCount, categories);
+        } catch (IOException e) {
+            logger.severe("❌ Error fetching transfer response for " + address + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public TransferStream streamTransfers(String address, int maxCount, Set<TransferCategory> categories) {
+        return transferSync.stream(address, maxCount, categories);
+    }
+
+    @Override
+    public CompletableFuture<BalanceResponse> getTokenBalancesAsync(String walletAddress) {
+        return getOrComputeAsync(balancesApiCache, "balances", walletAddress,
+                () -> balancesAPI.getTokenBalancesAsync(walletAddress));
+    }
+
+    @Override
+    public CompletableFuture<EthBalanceResponse> getEthBalanceAsync(String walletAddress) {
+        return getOrComputeAsync(ethBalanceCache, "ethBalance", walletAddress,
+                () -> balancesAPI.getEthBalanceAsync(walletAddress));
+    }
+
+    @Override
+    public CompletableFuture<TokenPriceResponse> getUsdPriceAsync(String tokenAddress) {
+        if (isKnownUnpriceable(tokenAddress)) {
+            return CompletableFuture.completedFuture(noPrice(tokenAddress));
+        }
+        String cacheKey = priceKey(tokenAddress);
+        return getOrComputeAsync(priceCache, "prices", cacheKey,
+                () -> pricesAPI.getUsdPriceAsync(tokenAddress).thenApply(price -> pricedOrRecordNoPrice(tokenAddress, price)))
+                .thenApply(price -> price != null ? price : noPrice(tokenAddress))
+                .exceptionally(e -> lastKnownPriceOrThrow(cacheKey, e));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, TokenPriceResponse>> getUsdPricesAsync(Collection<String> tokenAddresses) {
+        Map<String, TokenPriceResponse> prices = new LinkedHashMap<>();
+        List<String> missing = collectCachedPrices(tokenAddresses, prices);
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(prices);
+        }
+        return pricesAPI.getUsdPricesAsync(missing)
+                .thenApply(response -> splitAndCachePrices(missing, response))
+                .exceptionally(e -> {
+                    logger.severe("❌ Error fetching USD prices for " + missing.size() + " tokens: " + e.getMessage());
+                    return lastKnownPricesOrThrow(missing, e);
+                })
+                .thenApply(fetched -> {
+                    prices.putAll(fetched);
+                    return prices;
+                });
+    }
+
+    @Override
+    public CompletableFuture<TokenPriceResponse> getUsdPriceBySymbolAsync(String symbol) {
+        String cacheKey = "price:symbol:" + symbol;
+        return getOrComputeAsync(priceCache, "prices", cacheKey,
+                () -> pricesAPI.getUsdPriceBySymbolAsync(symbol).thenApply(price -> rememberPrice(cacheKey, price)))
+                .exceptionally(e -> lastKnownPriceOrThrow(cacheKey, e));
+    }
+
+    @Override
+    public CompletableFuture<TokenMetadataResponse> getTokenMetadataAsync(String tokenAddress) {
+        if (negativeResultCache.get(NO_METADATA + addressKey(tokenAddress)) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return getOrComputeAsync(tokenCache, "tokens", addressKey(tokenAddress),
+                () -> tokenAPI.getTokenMetadataAsync(tokenAddress).thenApply(meta -> withMetadataOrRecord(tokenAddress, meta)));
+    }
+
+    @Override
+    public CompletableFuture<TransferResponse> getTransferResponseAsync(String address, int maxCount, Set<TransferCategory> categories) {
+        return shareInFlight("transfers", transferKey(address, maxCount, categories),
+                () -> transferSync.syncAsync(address, maxCount, categories));
+    }
+
+    /**
+     * Returns the key under which concurrent syncs of a transfer history share one request. The wallet is keyed
+     * by its parsed {@link Address}, so the same wallet in another case shares the request, as it already shares
+     * its sync state.
+     *
+     * @param address the Ethereum wallet address, in any case
+     * @param maxCount the maximum number of transfers
+     * @param categories the categories of transfers
+     * @return the in-flight key
+     */
+    private static String transferKey(String address, int maxCount, Set<TransferCategory> categories) {
+        String key = addressKey(address) + "::" + maxCount;
+        return categories.containsAll(TransferCategory.ALL) ? key : key + "::" + TransferCategory.key(categories);
+    }
+
+    /**
+     * Returns the form of an address used in cache keys: the parsed {@link Address} in lower-case hex, so that
+     * every spelling of a token or wallet shares its entries, or the text as it is if it is not an address,
+     * such as a symbol.
+     *
+     * @param address the address, in any case
+     * @return the cache key form of the address
+     */
+    private static String addressKey(String address) {
+        Address parsed = Address.tryParse(address);
+        return parsed != null ? parsed.toString() : address;
+    }
+
+    /**
+     * Returns the price cache key of a token.
+     *
+     * @param tokenAddress the token address, in any case
+     * @return the price cache key
+     */
+    private static String priceKey(String tokenAddress) {
+        return "price:" + addressKey(tokenAddress);
+    }
+
+    /**
+     * Copies the cached prices of the given tokens into {@code prices} and returns the tokens that still need
+     * fetching. Cached prices due for a refresh are reloaded in the background with one batched request.
+     *
+     * @param tokenAddresses the token addresses to look up
+     * @param prices receives the cached prices, keyed by token address as requested
+     * @return the distinct tokens without a cached price, each in the spelling first requested, leaving out
+     *         tokens known to have none
+     */
+    private List<String> collectCachedPrices(Collection<String> tokenAddresses, Map<String, TokenPriceResponse> prices) {
+        Map<String, String> tokensByKey = new LinkedHashMap<>();
+        for (String tokenAddress : tokenAddresses) {
+            if (!isKnownUnpriceable(tokenAddress)) {
+                tokensByKey.putIfAbsent(priceKey(tokenAddress), tokenAddress);
+            }
+        }
+
+        Map<String, TokenPriceResponse> cached = priceCache.getAllAndRefresh(tokensByKey.keySet(), dueKeys -> {
+            List<String> due = dueKeys.stream().map(tokensByKey::get).toList();
+            return pricesAPI.getUsdPricesAsync(due).thenApply(response -> {
+                Map<String, TokenPriceResponse> fresh = new HashMap<>();
+                splitPrices(due, response).forEach((tokenAddress, price) -> fresh.put(priceKey(tokenAddress), price));
+                return fresh;
+            });
+        });
+
+        for (String tokenAddress : tokenAddresses) {
+            TokenPriceResponse price = cached.get(priceKey(tokenAddress));
+            if (price != null) {
+                prices.put(tokenAddress, price);
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        tokensByKey.forEach((cacheKey, tokenAddress) -> {
+            if (!cached.containsKey(cacheKey)) {
+                missing.add(tokenAddress);
+            }
+        });
+        return missing;
+    }
+
+    /**
+     * Splits a batched price response and caches each price under the same key a single-token lookup uses.
+     *
+     * @param tokenAddresses the requested token addresses
+     * @param response the batched price response
+     * @return the price of each token the response contains, keyed by the requested address
+     */
+    private Map<String, TokenPriceResponse> splitAndCachePrices(List<String> tokenAddresses, TokenPriceResponse response) {
+        Map<String, TokenPriceResponse> prices = splitPrices(tokenAddresses, response);
+        prices.forEach((tokenAddress, price) -> priceCache.put(priceKey(tokenAddress), price));
+        return prices;
+    }
+
+    /**
+     * Splits a batched price response into one single-entry response per requested token and records
+     * each of them as the token's last known price. Tokens the response answers without a USD price are
+     * recorded as unpriceable instead; tokens it leaves out, such as those of a request chunk that failed,
+     * are only left unpriced this time.
+     *
+     * @param tokenAddresses the requested token addresses
+     * @param response the batched price response
+     * @return the price of each token the response contains, keyed by the requested address
+     */
+    private Map<String, TokenPriceResponse> splitPrices(List<String> tokenAddresses, TokenPriceResponse response) {
+        Map<String, TokenPriceResponse.TokenPriceEntry> entriesByAddress = new HashMap<>();
+        if (response != null && response.getData() != null) {
+            for (TokenPriceResponse.TokenPriceEntry entry : response.getData()) {
+                if (entry.getAddress() != null) {
+                    entriesByAddress.put(addressKey(entry.getAddress()), entry);
+                }
+            }
+        }
+
+        Map<String, TokenPriceResponse> prices = new HashMap<>();
+        for (String tokenAddress : tokenAddresses) {
+            TokenPriceResponse.TokenPriceEntry entry = entriesByAddress.get(addressKey(tokenAddress));
+            if (entry == null) {
+                continue;
+            }
+            if (!entry.hasUsdPrice()) {
+                recordNegative(NO_PRICE, tokenAddress, entry.getError() != null
+                        ? entry.getError().getMessage() : "no USD price");
+                continue;
+            }
+
+            TokenPriceResponse price = new TokenPriceResponse();
+            price.setData(List.of(entry));
+            prices.put(tokenAddress, rememberPrice(priceKey(tokenAddress), price));
+        }
+        return prices;
+    }
+
+    /**
+     * Serves the last known prices of the given tokens when the prices endpoint rejected the batch without
+     * sending it. Tokens without a last known price are left out. Any other failure is rethrown.
+     *
+     * @param tokenAddresses the token addresses of the failed batch
+     * @param failure the failure of the batch
+     * @return the last known prices, keyed by token address
+     * @throws RuntimeException the original failure if it was not a rejection or no price is known
+     */
+    private Map<String, TokenPriceResponse> lastKnownPricesOrThrow(List<String> tokenAddresses, Throwable failure) {
+        if (isCallNotPermitted(failure)) {
+            Map<String, TokenPriceResponse> lastKnown = new HashMap<>();
+            for (String tokenAddress : tokenAddresses) {
+                TokenPriceResponse price = lastKnownPriceCache.get(priceKey(tokenAddress));
+                if (price != null) {
+                    lastKnown.put(tokenAddress, price);
+                }
+            }
+            if (!lastKnown.isEmpty()) {
+                logger.warning("⚠️ Prices endpoint unavailable, serving " + lastKnown.size() + " last known prices");
+                return lastKnown;
+            }
+        }
+        throw failure instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(failure);
+    }
+
+    /**
+     * Returns whether the token is known to have no USD price.
+     *
+     * @param tokenAddress the token address
+     * @return {@code true} if a recent lookup found no price for the token
+     */
+    private boolean isKnownUnpriceable(String tokenAddress) {
+        return negativeResultCache.get(NO_PRICE + addressKey(tokenAddress)) != null;
+    }
+
+    /**
+     * Builds the response returned for a token without a USD price: a single entry with no prices.
+     *
+     * @param tokenAddress the token address
+     * @return a price response that values the token at zero
+     */
+    private static TokenPriceResponse noPrice(String tokenAddress) {
+        TokenPriceResponse.TokenPriceEntry entry = new TokenPriceResponse.TokenPriceEntry();
+        entry.setAddress(tokenAddress);
+        entry.setPrices(List.of());
+        TokenPriceResponse response = new TokenPriceResponse();
+        response.setData(List.of(entry));
+        return response;
+    }
+
+    /**
+     * Returns a fetched single-token price if it carries a USD price, recording it as the last known price.
+     * Otherwise the token is recorded as unpriceable and {@code null} is returned, so the response is not cached.
+     *
+     * @param tokenAddress the token address
+     * @param price the fetched price response
+     * @return the price, or {@code null} if the token has no USD price
+     */
+    private TokenPriceResponse pricedOrRecordNoPrice(String tokenAddress, TokenPriceResponse price) {
+        TokenPriceResponse.TokenPriceEntry entry = price != null && price.getData() != null && !price.getData().isEmpty()
+                ? price.getData().get(0) : null;
+        if (entry == null || !entry.hasUsdPrice()) {
+            recordNegative(NO_PRICE, tokenAddress, entry != null && entry.getError() != null
+                    ? entry.getError().getMessage() : "no USD price");
+            return null;
+        }
+        return rememberPrice(priceKey(tokenAddress), price);
+    }
+
+    /**
+     * Returns fetched token metadata if it is usable. Otherwise the token is recorded as having no metadata
+     * and {@code null} is returned, so the response is not cached.
+     *
+     * @param tokenAddress the token address
+     * @param metadata the fetched metadata response
+     * @return the metadata, or {@code null} if the token has none
+     */
+    private TokenMetadataResponse withMetadataOrRecord(String tokenAddress, TokenMetadataResponse metadata) {
+        if (metadata == null || !metadata.hasMetadata()) {
+            recordNegative(NO_METADATA, tokenAddress, metadata != null && metadata.getError() != null
+                    ? metadata.getError().getMessage() : "no decimals");
+            return null;
+        }
+        return metadata;
+    }
+
+    /**
+     * Records that a token has no price or no metadata. The negative entry is consulted before the regular
+     * caches, so it also shadows a positive entry that a background refresh left behind.
+     *
+     * @param kind {@link #NO_PRICE} or {@link #NO_METADATA}
+     * @param tokenAddress the token address
+     * @param reason why the token was found to have no result
+     */
+    private void recordNegative(String kind, String tokenAddress, String reason) {
+        negativeResultCache.put(kind + addressKey(tokenAddress), reason != null ? reason : "unknown");
+        logger.fine(() -> "🚫 Recorded " + kind + tokenAddress + " (" + reason + ")");
+    }
+
+    /**
+     * Records a freshly fetched price as the last known price for its key.
+     *
+     * @param cacheKey the price cache key
+     * @param price the fetched price
+     * @return the same price
+     */
+    private TokenPriceResponse rememberPrice(String cacheKey, TokenPriceResponse price) {
+        if (price != null) {
+            lastKnownPriceCache.put(cacheKey, price);
+        }
+        return price;
+    }
+
+    /**
+     * Serves the last known price when the prices endpoint rejected the call without sending it,
+     * i.e. its circuit is open or its bulkhead is full. Any other failure is rethrown.
+     *
+     * @param cacheKey the price cache key
+     * @param failure the failure of the price lookup
+     * @return the last known price
+     * @throws RuntimeException the original failure if it was not a rejection or no price is known
+     */
+    private TokenPriceResponse lastKnownPriceOrThrow(String cacheKey, Throwable failure) {
+        if (isCallNotPermitted(failure)) {
+            TokenPriceResponse lastKnown = lastKnownPriceCache.get(cacheKey);
+            if (lastKnown != null) {
+                logger.warning("⚠️ Prices endpoint unavailable, serving last known " + cacheKey);
+                return lastKnown;
+            }
+        }
+        throw failure instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(failure);
+    }
+
+    /**
+     * Returns whether the failure, or one of its causes, is a call rejected by a circuit breaker or bulkhead.
+     *
+     * @param failure the failure to inspect
+     * @return {@code true} if the call was never sent
+     */
+    private static boolean isCallNotPermitted(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallNotPermittedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cached value as a completed future, or starts the asynchronous load and caches its result
+     * once it completes. Concurrent callers asking for the same key while a load is in flight share it.
+     * Caches with refresh-ahead reload a value due for a refresh with the same loader, off the request path.
+     *
+     * @param cache the cache layer holding the values
+     * @param cacheName the name of the cache, used to keep in-flight keys of different caches apart
+     * @param key the cache key
+     * @param loader supplies the asynchronous load on a cache miss
+     * @param <V> the type of the cached value
+     * @return a future completing with the cached or loaded value
+     */
+    private <V> CompletableFuture<V> getOrComputeAsync(
+            CacheLayer<String, V> cache,
+            String cacheName,
+            String key,
+            Supplier<CompletableFuture<V>> loader
+    ) {
+        // A cached value due for a refresh is still returned, while the loader reloads it in the background
+        V cached = cache.getAndRefresh(key, k -> loader.get());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return shareInFlight(cacheName, key, () -> loader.get().whenComplete((value, e) -> {
+            if (e == null && value != null) {
+                cache.put(key, value);
+            }
+        }));
+    }
+
+    /**
+     * Runs an asynchronous load, or joins the identical load already in flight, without keeping its result.
+     * A placeholder future is registered first and only the caller that registered it starts the load, outside
+     * any map operation, so a slow or synchronously failing loader never runs under the map's lock.
+     *
+     * @param cacheName the name of the loaded data, used to keep in-flight keys of different data apart
+     * @param key the key of the load
+     * @param loader supplies the asynchronous load if none is in flight
+     * @param <V> the type of the loaded value
+     * @return a future completing with the loaded value
+     */
+    @SuppressWarnings("unchecked")
+    private <V> CompletableFuture<V> shareInFlight(String cacheName, String key, Supplier<CompletableFuture<V>> loader) {
+        String inFlightKey = cacheName + "::" + key;
+        CompletableFuture<V> placeholder = new CompletableFuture<>();
+        CompletableFuture<V> running = (CompletableFuture<V>) inFlight.putIfAbsent(inFlightKey, placeholder);
+        if (running != null) {
+            return running;
+        }
+        placeholder.whenComplete((value, e) -> inFlight.remove(inFlightKey, placeholder));
+
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, e) -> {
+            if (e != null) {
+                logger.severe("❌ Error fetching " + cacheName + " for " + key + ": " + e.getMessage());
+                placeholder.completeExceptionally(e);
+            } else {
+                placeholder.complete(value);
             }
         });
+        return placeholder;
     }
 }
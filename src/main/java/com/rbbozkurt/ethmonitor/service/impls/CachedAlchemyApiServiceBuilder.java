@@ -2,6 +2,7 @@ package com.rbbozkurt.ethmonitor.service.impls;
 
 import com.rbbozkurt.ethmonitor.cache.CacheLayer;
 import com.rbbozkurt.ethmonitor.cache.CacheLayerFactory;
+import com.rbbozkurt.ethmonitor.cache.TransferSyncStore;
 import com.rbbozkurt.ethmonitor.client.interfaces.BalancesAPI;
 import com.rbbozkurt.ethmonitor.client.interfaces.PricesAPI;
 import com.rbbozkurt.ethmonitor.client.interfaces.TokenAPI;
@@ -28,7 +29,9 @@ public class CachedAlchemyApiServiceBuilder {
     private CacheLayer<String, EthBalanceResponse> ethBalanceCache;
     private CacheLayer<String, TokenPriceResponse> priceCache;
     private CacheLayer<String, TokenMetadataResponse> tokenCache;
-    private CacheLayer<String, TransferResponse> transferCache;
+    private CacheLayer<String, TokenPriceResponse> lastKnownPriceCache;
+    private CacheLayer<String, String> negativeResultCache;
+    private TransferSyncStore syncStore;
 
     private ExecutorService executor;
 
@@ -121,13 +124,35 @@ public class CachedAlchemyApiServiceBuilder {
     }
 
     /**
-     * Sets the cache layer for transfer responses.
+     * Sets the cache layer for last known prices, served while the prices endpoint rejects calls.
      *
-     * @param cache the cache layer for transfer responses
+     * @param cache the cache layer for last known prices
      * @return the builder instance for method chaining
      */
-    public CachedAlchemyApiServiceBuilder withTransferCache(CacheLayer<String, TransferResponse> cache) {
-        this.transferCache = cache;
+    public CachedAlchemyApiServiceBuilder withLastKnownPriceCache(CacheLayer<String, TokenPriceResponse> cache) {
+        this.lastKnownPriceCache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the cache layer for tokens known to have no price or no metadata.
+     *
+     * @param cache the cache layer for negative results
+     * @return the builder instance for method chaining
+     */
+    public CachedAlchemyApiServiceBuilder withNegativeResultCache(CacheLayer<String, String> cache) {
+        this.negativeResultCache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the store of each wallet's ingested transfers and block cursor.
+     *
+     * @param store the transfer sync store
+     * @return the builder instance for method chaining
+     */
+    public CachedAlchemyApiServiceBuilder withSyncStore(TransferSyncStore store) {
+        this.syncStore = store;
         return this;
     }
 
@@ -172,8 +197,14 @@ public class CachedAlchemyApiServiceBuilder {
         if (tokenCache == null) {
             tokenCache = factory.createTokenCache();
         }
-        if (transferCache == null) {
-            transferCache = factory.createTransferResponseCache();
+        if (lastKnownPriceCache == null) {
+            lastKnownPriceCache = factory.createLastKnownPricesCache();
+        }
+        if (negativeResultCache == null) {
+            negativeResultCache = factory.createNegativeResultsCache();
+        }
+        if (syncStore == null) {
+            syncStore = factory.createTransferSyncStore();
         }
         if (executor == null) {
             executor = Executors.newVirtualThreadPerTaskExecutor();
@@ -189,7 +220,9 @@ public class CachedAlchemyApiServiceBuilder {
                 ethBalanceCache,
                 priceCache,
                 tokenCache,
-                transferCache
+                lastKnownPriceCache,
+                negativeResultCache,
+                syncStore
         );
         return service;
     }
@@ -0,0 +1,100 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.service.interfaces.TokenFilter;
+import com.rbbozkurt.ethmonitor.util.Address;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * A {@link TokenFilter} backed by a list of contract addresses, used either as a denylist (listed
+ * contracts are skipped) or as an allowlist (only listed contracts are processed).
+ * <p>
+ * List files hold one address per line; blank lines and anything after a {@code #} are ignored.
+ */
+public class ContractListTokenFilter implements TokenFilter {
+
+    private static final Logger logger = Logger.getLogger(ContractListTokenFilter.class.getName());
+
+    private final Set<Address> contracts;  // Listed contract addresses
+    private final boolean allowlist;  // True to accept only listed contracts, false to reject them
+
+    /**
+     * Constructs a new {@code ContractListTokenFilter}.
+     *
+     * @param contracts the listed contract addresses, in any case
+     * @param allowlist true to accept only listed contracts, false to reject listed contracts
+     * @throws IllegalArgumentException if a listed contract is not an address
+     */
+    public ContractListTokenFilter(Set<String> contracts, boolean allowlist) {
+        this.contracts = new HashSet<>();
+        contracts.forEach(contract -> this.contracts.add(Address.parse(contract)));
+        this.allowlist = allowlist;
+    }
+
+    /**
+     * Creates a filter that skips the contracts listed in a file.
+     *
+     * @param file the list file
+     * @return the denylist filter
+     * @throws IOException if the file cannot be read
+     */
+    public static ContractListTokenFilter denylist(Path file) throws IOException {
+        return new ContractListTokenFilter(readContracts(file), false);
+    }
+
+    /**
+     * Creates a filter that processes only the contracts listed in a file.
+     *
+     * @param file the list file
+     * @return the allowlist filter
+     * @throws IOException if the file cannot be read
+     */
+    public static ContractListTokenFilter allowlist(Path file) throws IOException {
+        return new ContractListTokenFilter(readContracts(file), true);
+    }
+
+    /**
+     * Accepts a token if it is listed in an allowlist, or not listed in a denylist.
+     *
+     * @param contractAddress the token contract address
+     * @param rawBalance the raw token balance
+     * @return true if the token should be looked up
+     */
+    @Override
+    public boolean accept(String contractAddress, BigInteger rawBalance) {
+        if (contractAddress == null) {
+            return false;
+        }
+        Address contract = Address.tryParse(contractAddress);
+        return (contract != null && contracts.contains(contract)) == allowlist;
+    }
+
+    /**
+     * Reads the contract addresses of a list file, skipping comments and invalid lines.
+     *
+     * @param file the list file
+     * @return the listed contract addresses
+     * @throws IOException if the file cannot be read
+     */
+    private static Set<String> readContracts(Path file) throws IOException {
+        Set<String> contracts = new HashSet<>();
+        for (String line : Files.readAllLines(file)) {
+            int comment = line.indexOf('#');
+            String address = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (address.isEmpty()) continue;
+            if (Address.isValid(address)) {
+                contracts.add(address);
+            } else {
+                logger.warning("⚠️ Ignoring invalid contract address in " + file + ": " + address);
+            }
+        }
+        logger.info("📋 Loaded " + contracts.size() + " contracts from " + file);
+        return contracts;
+    }
+}
@@ -0,0 +1,149 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Converts downloaded transfers into {@link HistoricalTransfer}s in bulk. Converting one transfer is a few
+ * field copies and two parses, far cheaper than scheduling a task for it, so the transfers are converted in
+ * chunks of {@value #CHUNK_SIZE} into an output array allocated once. Batches of up to {@value #CHUNK_SIZE}
+ * are converted on the calling thread; larger ones are split into chunks converted on a fork-join pool, unless
+ * the converter was created without one.
+ * <p>
+ * A transfer that cannot be converted, e.g. one without a block timestamp, is logged and left out.
+ */
+public class HistoricalTransferConverter {
+
+    private static final Logger logger = Logger.getLogger(HistoricalTransferConverter.class.getName());
+
+    static final int CHUNK_SIZE = 1024;  // Transfers converted by one task, and the largest batch kept on the caller
+
+    private final ForkJoinPool pool;  // Pool the chunks of large batches run on, null to convert on the caller
+
+    /**
+     * Constructs a converter splitting large batches on the common fork-join pool.
+     */
+    public HistoricalTransferConverter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a converter splitting large batches on the given pool.
+     *
+     * @param pool the pool the chunks of large batches run on, or {@code null} to convert every batch on the caller
+     */
+    public HistoricalTransferConverter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Converts a batch of transfers, keeping their order.
+     *
+     * @param transfers the transfers
+     * @return the converted transfers, a fixed-size list backed by the output array
+     */
+    public List<HistoricalTransfer> convertAll(List<Transfer> transfers) {
+        int size = transfers.size();
+        HistoricalTransfer[] converted = new HistoricalTransfer[size];
+        AtomicInteger failures = new AtomicInteger();
+        if (pool == null || size <= CHUNK_SIZE) {
+            convertRange(transfers, converted, 0, size, failures);
+        } else {
+            pool.invoke(new ConversionTask(transfers, converted, 0, size, failures));
+        }
+
+        if (failures.get() == 0) {
+            return Arrays.asList(converted);
+        }
+        List<HistoricalTransfer> result = new ArrayList<>(size - failures.get());
+        for (HistoricalTransfer transfer : converted) {
+            if (transfer != null) {
+                result.add(transfer);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts a single transfer.
+     *
+     * @param tx the transfer
+     * @return the historical transfer
+     */
+    public static HistoricalTransfer convert(Transfer tx) {
+        HistoricalTransfer hist = new HistoricalTransfer();
+        hist.setTxHash(tx.getHash());
+        hist.setFrom(tx.getFrom());
+        hist.setTo(tx.getTo());
+        hist.setAsset(tx.getAsset());
+        hist.setCategory(tx.getCategory());
+        hist.setValue(tx.getValue() != null ? new BigDecimal(tx.getValue()) : BigDecimal.ZERO);
+        hist.setTimestamp(Instant.parse(tx.getMetadata().getBlockTimestamp()));
+        hist.setRawContractAddress(tx.getRawContract() != null ? tx.getRawContract().getAddress() : null);
+        return hist;
+    }
+
+    /**
+     * Converts the transfers of a range into the same positions of the output array.
+     *
+     * @param transfers the transfers
+     * @param converted the output array
+     * @param from the first position, inclusive
+     * @param to the last position, exclusive
+     * @param failures counts the transfers that could not be converted
+     */
+    private static void convertRange(List<Transfer> transfers, HistoricalTransfer[] converted, int from, int to, AtomicInteger failures) {
+        for (int i = from; i < to; i++) {
+            Transfer tx = transfers.get(i);
+            try {
+                converted[i] = convert(tx);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                logger.severe("❌ Error processing transfer " + tx.getUniqueId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Converts a range of transfers, splitting it in halves until a half fits in a chunk.
+     */
+    private static class ConversionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Transfer> transfers;  // Never serialized, the task only runs in-process
+        private final transient HistoricalTransfer[] converted;
+        private final int from;
+        private final int to;
+        private final AtomicInteger failures;
+
+        ConversionTask(List<Transfer> transfers, HistoricalTransfer[] converted, int from, int to, AtomicInteger failures) {
+            this.transfers = transfers;
+            this.converted = converted;
+            this.from = from;
+            this.to = to;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                convertRange(transfers, converted, from, to, failures);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ConversionTask(transfers, converted, from, middle, failures),
+                    new ConversionTask(transfers, converted, middle, to, failures));
+        }
+    }
+}
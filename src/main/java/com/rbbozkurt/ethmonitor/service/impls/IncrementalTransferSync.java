@@ -0,0 +1,411 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.cache.TransferSyncStore;
+import com.rbbozkurt.ethmonitor.cache.TransferSyncStore.Head;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransfersAPI;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the transfer history of every wallet it has seen in a {@link TransferSyncStore}, so a wallet's history is
+ * downloaded once and then only extended. Each sync fetches the transfers from the block after the wallet's
+ * cursor onwards, appends them to the wallet's segment and advances the cursor; a wallet polled all day costs one
+ * small delta query and one small write per poll instead of a full re-scan from block 0.
+ * <p>
+ * Transfers are returned oldest first, like a full query, so the first {@code maxCount} transfers of a wallet
+ * never change once ingested. A wallet with at least {@code maxCount} ingested transfers is answered without
+ * any call. When a query stops at {@code maxCount}, the last block may be only partly ingested, so the cursor
+ * stays before it and the next sync fetches that block again, dropping transfers already held by
+ * {@code uniqueId}.
+ * <p>
+ * A sync can also be {@link #stream streamed}, emitting transfers while the delta is still being fetched.
+ * <p>
+ * Asynchronous syncs read and write the store on a separate executor, never on the caller's thread or on the
+ * HTTP client's callback thread, so a large history on disk does not stall the transport.
+ * <p>
+ * A query for a subset of the transfer categories keeps its own state and cursor, since its history holds
+ * fewer transfers per block range than the full one. Without a store, no state is kept and every sync fetches
+ * the history from block 0.
+ */
+public class IncrementalTransferSync {
+
+    private static final Logger logger = Logger.getLogger(IncrementalTransferSync.class.getName());
+
+    // Reads and writes the sync store for asynchronous syncs; the threads mostly wait on the disk
+    private static final ExecutorService STORE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final TransfersAPI transfersAPI;
+    private final TransferSyncStore store;  // Sync state by lower-case wallet address and categories, null to keep none
+    private final Executor storeExecutor;  // Runs the store reads and writes of asynchronous syncs
+
+    /**
+     * Constructs a new {@code IncrementalTransferSync} accessing the store on a shared virtual-thread executor.
+     *
+     * @param transfersAPI the API the transfers are fetched from
+     * @param store the store of the sync state of each wallet, or {@code null} to keep no state
+     */
+    public IncrementalTransferSync(TransfersAPI transfersAPI, TransferSyncStore store) {
+        this(transfersAPI, store, STORE_EXECUTOR);
+    }
+
+    /**
+     * Constructs a new {@code IncrementalTransferSync}.
+     *
+     * @param transfersAPI the API the transfers are fetched from
+     * @param store the store of the sync state of each wallet, or {@code null} to keep no state
+     * @param storeExecutor the executor running the store reads and writes of asynchronous syncs
+     */
+    public IncrementalTransferSync(TransfersAPI transfersAPI, TransferSyncStore store, Executor storeExecutor) {
+        this.transfersAPI = transfersAPI;
+        this.store = store;
+        this.storeExecutor = storeExecutor;
+    }
+
+    /**
+     * Brings the history of a wallet up to date and returns its oldest transfers.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to return
+     * @return the transfer response with at most {@code maxCount} transfers, oldest first
+     * @throws IOException if the transfers cannot be fetched
+     */
+    public TransferResponse sync(String address, int maxCount) throws IOException {
+        return sync(address, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Brings the history of the given transfer categories of a wallet up to date and returns its oldest transfers.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to return
+     * @param categories the categories of transfers to sync
+     * @return the transfer response with at most {@code maxCount} transfers, oldest first
+     * @throws IOException if the transfers cannot be fetched
+     */
+    public TransferResponse sync(String address, int maxCount, Set<TransferCategory> categories) throws IOException {
+        try {
+            return syncAsync(address, maxCount, categories).join();
+        } catch (CompletionException e) {
+            Throwable cause = e;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new RuntimeException("Failed to sync transfers of " + address, cause);
+        }
+    }
+
+    /**
+     * Asynchronously brings the history of a wallet up to date and returns its oldest transfers.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to return
+     * @return a future completing with the transfer response with at most {@code maxCount} transfers, oldest first
+     */
+    public CompletableFuture<TransferResponse> syncAsync(String address, int maxCount) {
+        return syncAsync(address, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Asynchronously brings the history of the given transfer categories of a wallet up to date and returns its
+     * oldest transfers. The store is read and written on the store executor.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to return
+     * @param categories the categories of transfers to sync
+     * @return a future completing with the transfer response with at most {@code maxCount} transfers, oldest first
+     */
+    public CompletableFuture<TransferResponse> syncAsync(String address, int maxCount, Set<TransferCategory> categories) {
+        String key = stateKey(address, categories);
+        if (store == null) {
+            return fetchDelta(address, key, Head.EMPTY, maxCount, categories);
+        }
+        return CompletableFuture.supplyAsync(() -> head(key), storeExecutor).thenCompose(head -> head.count() >= maxCount
+                ? CompletableFuture.supplyAsync(() -> toTransferResponse(known(key, maxCount), List.of(), Set.of(), maxCount), storeExecutor)
+                : fetchDelta(address, key, head, maxCount, categories));
+    }
+
+    /**
+     * Fetches the transfers after a wallet's cursor and ingests them, reading and writing the store on the
+     * store executor.
+     *
+     * @param address the Ethereum wallet address
+     * @param key the key of the sync state
+     * @param head the sync state before the sync
+     * @param maxCount the maximum number of transfers to return
+     * @param categories the categories of transfers to sync
+     * @return a future completing with the transfer response with at most {@code maxCount} transfers, oldest first
+     */
+    private CompletableFuture<TransferResponse> fetchDelta(String address, String key, Head head, int maxCount,
+                                                           Set<TransferCategory> categories) {
+        long fromBlock = head.cursor() + 1;
+        // Transfers of a partly ingested block are fetched again, so ask for that many more
+        int requested = maxCount - head.count() + head.tailIds().size();
+
+        Function<TransferResponse, TransferResponse> ingest = delta -> {
+            List<Transfer> fetched = delta.getResult() != null && delta.getResult().getTransfers() != null
+                    ? delta.getResult().getTransfers() : List.of();
+            List<Transfer> known = known(key, head.count());
+            save(key, head, fetched, fetched.size() >= requested);
+            logger.fine(() -> "🔄 Synced " + key + " from block " + fromBlock + ": " + fetched.size() + " fetched, "
+                    + head.count() + " held before");
+            return toTransferResponse(known, fetched, head.tailIds(), maxCount);
+        };
+        CompletableFuture<TransferResponse> response = transfersAPI.getTransferResponseAsync(address, fromBlock, requested, categories);
+        return store != null ? response.thenApplyAsync(ingest, storeExecutor) : response.thenApply(ingest);
+    }
+
+    /**
+     * Streams the oldest transfers of a wallet, bringing its history up to date on the way. The ingested
+     * transfers are emitted first, then the ones after the cursor as their pages arrive. Each new transfer is
+     * written to the wallet's segment as it is emitted, so memory depends on the page size, not on
+     * {@code maxCount}; the sync is only committed once the stream has been consumed to its end.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to stream
+     * @return the stream of at most {@code maxCount} transfers, oldest first
+     */
+    public TransferStream stream(String address, int maxCount) {
+        return stream(address, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Streams the oldest transfers of the given categories of a wallet, bringing their history up to date on
+     * the way, see {@link #stream(String, int)}.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to stream
+     * @param categories the categories of transfers to stream
+     * @return the stream of at most {@code maxCount} transfers, oldest first
+     */
+    public TransferStream stream(String address, int maxCount, Set<TransferCategory> categories) {
+        String key = stateKey(address, categories);
+        Head head = head(key);
+        if (store != null && head.count() >= maxCount) {
+            return store.read(key, maxCount);
+        }
+
+        long fromBlock = head.cursor() + 1;
+        int requested = maxCount - head.count() + head.tailIds().size();
+        TransferStream known = store != null ? store.read(key, head.count()) : TransferStream.of(List.of());
+        return new SyncingStream(key, head, requested, known, transfersAPI.streamTransfers(address, fromBlock, requested, categories));
+    }
+
+    /**
+     * Returns the key of the sync state of a wallet and set of categories. The state of all categories is kept
+     * under the bare address.
+     *
+     * @param address the Ethereum wallet address
+     * @param categories the categories of transfers
+     * @return the lower-case address, followed by the categories unless all are synced
+     */
+    private static String stateKey(String address, Set<TransferCategory> categories) {
+        String key = address.toLowerCase(Locale.ROOT);
+        return categories.containsAll(TransferCategory.ALL) ? key : key + "::" + TransferCategory.key(categories);
+    }
+
+    /**
+     * A stream emitting the ingested transfers of a wallet, then the freshly fetched ones it does not hold yet,
+     * appending those to the sync state as they pass and committing it once the fetched ones are exhausted.
+     */
+    private class SyncingStream implements TransferStream {
+
+        private final String key;  // The key of the sync state
+        private final Head head;  // The sync state before the sync
+        private final int requested;  // Number of transfers requested from the delta
+        private final TransferStream known;  // Transfers ingested before the sync
+        private final TransferStream delta;  // Transfers after the cursor
+        private TransferSyncStore.Session session;  // Receives the new transfers, null until the first one or if not saved
+        private boolean begun;  // Whether a session was asked for
+        private int fetched;  // Transfers taken from the delta so far
+        private long lastBlock;  // Block of the last transfer taken from the delta
+        private Transfer next;
+        private boolean finished;
+
+        SyncingStream(String key, Head head, int requested, TransferStream known, TransferStream delta) {
+            this.key = key;
+            this.head = head;
+            this.requested = requested;
+            this.known = known;
+            this.delta = delta;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (known.hasNext()) {
+                next = known.next();
+                return true;
+            }
+            while (delta.hasNext()) {
+                Transfer transfer = delta.next();
+                fetched++;
+                lastBlock = transfer.blockNumber();
+                if (isNew(transfer, head.tailIds())) {
+                    if (!begun) {
+                        begun = true;
+                        session = store != null ? store.begin(key, head) : null;
+                    }
+                    if (session != null) {
+                        session.add(transfer);
+                    }
+                    next = transfer;
+                    return true;
+                }
+            }
+            if (!finished) {
+                finished = true;
+                if (!begun && fetched > 0 && store != null) {
+                    // Only transfers held already came back, which may still complete their block
+                    session = store.begin(key, head);
+                }
+                if (session != null) {
+                    session.commit(advance(head.cursor(), fetched > 0 ? lastBlock : head.cursor(), fetched >= requested));
+                    session = null;
+                }
+                logger.fine(() -> "🔄 Streamed sync of " + key + ": " + fetched + " fetched");
+            }
+            return false;
+        }
+
+        @Override
+        public Transfer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transfer transfer = next;
+            next = null;
+            return transfer;
+        }
+
+        @Override
+        public void close() {
+            if (session != null) {
+                // Consumed only in part, so the transfers written so far are left uncommitted
+                session.abort();
+                session = null;
+            }
+            known.close();
+            delta.close();
+        }
+    }
+
+    /**
+     * Returns the sync state of a wallet.
+     *
+     * @param key the key of the sync state
+     * @return the committed state, empty without a store
+     */
+    private Head head(String key) {
+        return store != null ? store.head(key) : Head.EMPTY;
+    }
+
+    /**
+     * Reads the oldest ingested transfers of a wallet.
+     *
+     * @param key the key of the sync state
+     * @param maxCount the maximum number of transfers to read
+     * @return the transfers, oldest first
+     */
+    private List<Transfer> known(String key, int maxCount) {
+        List<Transfer> transfers = new ArrayList<>();
+        if (store != null && maxCount > 0) {
+            try (TransferStream stream = store.read(key, maxCount)) {
+                stream.forEachRemaining(transfers::add);
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * Appends the freshly fetched transfers not held yet to the wallet's state and advances the cursor. Nothing
+     * is saved without a store, or if another sync of the wallet is being saved or has been saved meanwhile.
+     *
+     * @param key the key of the sync state
+     * @param head the sync state before the sync
+     * @param fetched the transfers fetched from the block after the cursor, oldest first
+     * @param truncated whether the fetch stopped at its limit, so its last block may be incomplete
+     */
+    private void save(String key, Head head, List<Transfer> fetched, boolean truncated) {
+        TransferSyncStore.Session session = store != null ? store.begin(key, head) : null;
+        if (session == null) {
+            return;
+        }
+        for (Transfer transfer : fetched) {
+            if (isNew(transfer, head.tailIds())) {
+                session.add(transfer);
+            }
+        }
+        long lastBlock = fetched.isEmpty() ? head.cursor() : fetched.get(fetched.size() - 1).blockNumber();
+        session.commit(advance(head.cursor(), lastBlock, truncated));
+    }
+
+    /**
+     * Returns whether a fetched transfer is not among the ingested ones fetched again.
+     *
+     * @param transfer the fetched transfer
+     * @param held the ids of the ingested transfers after the cursor
+     * @return {@code true} if the transfer is to be ingested
+     */
+    private static boolean isNew(Transfer transfer, Set<String> held) {
+        return transfer.getUniqueId() == null || !held.contains(transfer.getUniqueId());
+    }
+
+    /**
+     * Advances a cursor past the fetched blocks.
+     *
+     * @param cursor the cursor before the sync
+     * @param lastBlock the block of the last fetched transfer
+     * @param truncated whether the fetch stopped at its limit, so its last block may be incomplete
+     * @return the new cursor
+     */
+    private static long advance(long cursor, long lastBlock, boolean truncated) {
+        return Math.max(cursor, truncated ? lastBlock - 1 : lastBlock);
+    }
+
+    /**
+     * Wraps the oldest transfers into a {@link TransferResponse}.
+     *
+     * @param known the ingested transfers, oldest first
+     * @param fetched the freshly fetched transfers, oldest first
+     * @param held the ids of the ingested transfers fetched again
+     * @param maxCount the maximum number of transfers to include
+     * @return the transfer response
+     */
+    private TransferResponse toTransferResponse(List<Transfer> known, List<Transfer> fetched, Set<String> held, int maxCount) {
+        List<Transfer> transfers = new ArrayList<>(known.subList(0, Math.min(maxCount, known.size())));
+        for (Transfer transfer : fetched) {
+            if (transfers.size() >= maxCount) break;
+            if (isNew(transfer, held)) {
+                transfers.add(transfer);
+            }
+        }
+        TransferResponse.Result result = new TransferResponse.Result();
+        result.setTransfers(transfers);
+        TransferResponse response = new TransferResponse();
+        response.setJsonrpc("2.0");
+        response.setId(1);
+        response.setResult(result);
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.service.interfaces.TokenFilter;
+
+import java.math.BigInteger;
+
+/**
+ * A {@link TokenFilter} that skips dust: balances whose raw (undecimaled) amount is below a threshold.
+ * Without the token's decimals this is only a heuristic, but spam airdrops commonly send a handful of
+ * base units, which any sensible threshold rejects.
+ */
+public class MinimumBalanceTokenFilter implements TokenFilter {
+
+    private final BigInteger minimumRawBalance;  // Smallest raw balance that is processed
+
+    /**
+     * Constructs a new {@code MinimumBalanceTokenFilter}.
+     *
+     * @param minimumRawBalance the smallest raw balance that is processed
+     */
+    public MinimumBalanceTokenFilter(BigInteger minimumRawBalance) {
+        this.minimumRawBalance = minimumRawBalance;
+    }
+
+    /**
+     * Accepts a token if its raw balance reaches the minimum.
+     *
+     * @param contractAddress the token contract address
+     * @param rawBalance the raw token balance
+     * @return true if the balance is not dust
+     */
+    @Override
+    public boolean accept(String contractAddress, BigInteger rawBalance) {
+        return rawBalance != null && rawBalance.compareTo(minimumRawBalance) >= 0;
+    }
+}
@@ -0,0 +1,116 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.service.interfaces.TokenFilter;
+import lombok.Data;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The filter stage of {@link AlchemyBalanceService}: decides which token balances of a wallet get a
+ * metadata and price lookup. The configured {@link TokenFilter}s run before any network call; in
+ * priced-only mode, tokens the batched price lookup found no USD price for are additionally dropped
+ * before their metadata is fetched.
+ * <p>
+ * The stage counts the lookups it saved: a token rejected by a filter saves its metadata and its price
+ * lookup, a token dropped for lacking a price saves its metadata lookup.
+ */
+public class TokenFilterStage {
+
+    private static final Logger logger = Logger.getLogger(TokenFilterStage.class.getName());
+
+    private final List<TokenFilter> filters;  // Filters applied before any network call
+    private final boolean pricedOnly;  // Whether tokens without a USD price are dropped before the metadata lookup
+
+    private final LongAdder tokensSeen = new LongAdder();
+    private final LongAdder tokensFiltered = new LongAdder();
+    private final LongAdder tokensUnpriced = new LongAdder();
+
+    /**
+     * Constructs a new {@code TokenFilterStage}. Use {@link TokenFilterStageBuilder} to create instances.
+     *
+     * @param filters the filters applied before any network call
+     * @param pricedOnly whether tokens without a USD price are dropped before the metadata lookup
+     */
+    TokenFilterStage(List<TokenFilter> filters, boolean pricedOnly) {
+        this.filters = List.copyOf(filters);
+        this.pricedOnly = pricedOnly;
+    }
+
+    /**
+     * Applies the filters to the non-zero token balances of a wallet.
+     *
+     * @param walletAddress the wallet the balances belong to, used in log messages
+     * @param rawBalances the raw balances by contract address
+     * @return the balances that passed every filter, in their original order
+     */
+    public Map<String, BigInteger> apply(String walletAddress, Map<String, BigInteger> rawBalances) {
+        tokensSeen.add(rawBalances.size());
+        if (filters.isEmpty()) {
+            return rawBalances;
+        }
+
+        Map<String, BigInteger> accepted = new LinkedHashMap<>();
+        rawBalances.forEach((contract, rawBalance) -> {
+            if (filters.stream().allMatch(filter -> filter.accept(contract, rawBalance))) {
+                accepted.put(contract, rawBalance);
+            }
+        });
+
+        int filtered = rawBalances.size() - accepted.size();
+        if (filtered > 0) {
+            tokensFiltered.add(filtered);
+            logger.fine(() -> "🧹 Filtered " + filtered + " of " + rawBalances.size() + " tokens of " + walletAddress
+                    + ", saving " + 2 * filtered + " lookups");
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns whether tokens without a USD price are dropped before their metadata is fetched.
+     *
+     * @return true in priced-only mode
+     */
+    public boolean isPricedOnly() {
+        return pricedOnly;
+    }
+
+    /**
+     * Records tokens dropped in priced-only mode because they have no USD price.
+     *
+     * @param count the number of dropped tokens
+     */
+    public void recordUnpriced(int count) {
+        tokensUnpriced.add(count);
+    }
+
+    /**
+     * Returns the counts accumulated since the stage was created.
+     *
+     * @return a snapshot of the {@link FilterStats}
+     */
+    public FilterStats getStats() {
+        FilterStats stats = new FilterStats();
+        stats.setTokensSeen(tokensSeen.sum());
+        stats.setTokensFiltered(tokensFiltered.sum());
+        stats.setTokensUnpriced(tokensUnpriced.sum());
+        stats.setLookupsSaved(2 * stats.getTokensFiltered() + stats.getTokensUnpriced());
+        return stats;
+    }
+
+    /**
+     * Counts of the tokens a {@link TokenFilterStage} processed and the lookups it saved.
+     */
+    @Data
+    public static class FilterStats {
+
+        private long tokensSeen;  // Non-zero token balances that reached the stage
+        private long tokensFiltered;  // Tokens rejected by a filter before any network call
+        private long tokensUnpriced;  // Tokens dropped in priced-only mode for lacking a USD price
+        private long lookupsSaved;  // Metadata and price lookups that were not made
+    }
+}
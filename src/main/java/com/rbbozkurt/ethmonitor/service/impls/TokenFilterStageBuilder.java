@@ -0,0 +1,117 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.service.interfaces.TokenFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A builder class for constructing {@link TokenFilterStage} instances. By default no token is filtered,
+ * so every non-zero balance is looked up as before.
+ */
+public class TokenFilterStageBuilder {
+
+    private final List<TokenFilter> filters = new ArrayList<>();
+    private boolean pricedOnly = false;
+
+    /**
+     * Skips the contracts listed in a file.
+     *
+     * @param file the denylist file, one contract address per line
+     * @return the current builder instance
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public TokenFilterStageBuilder withDenylistFile(Path file) {
+        try {
+            return withFilter(ContractListTokenFilter.denylist(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read token denylist " + file, e);
+        }
+    }
+
+    /**
+     * Processes only the contracts listed in a file.
+     *
+     * @param file the allowlist file, one contract address per line
+     * @return the current builder instance
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public TokenFilterStageBuilder withAllowlistFile(Path file) {
+        try {
+            return withFilter(ContractListTokenFilter.allowlist(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read token allowlist " + file, e);
+        }
+    }
+
+    /**
+     * Skips balances whose raw amount is below the given minimum.
+     *
+     * @param minimumRawBalance the smallest raw balance that is processed
+     * @return the current builder instance
+     */
+    public TokenFilterStageBuilder withMinimumRawBalance(BigInteger minimumRawBalance) {
+        return withFilter(new MinimumBalanceTokenFilter(minimumRawBalance));
+    }
+
+    /**
+     * Sets whether tokens without a USD price are dropped before their metadata is fetched.
+     *
+     * @param pricedOnly true to process only tokens with a known price
+     * @return the current builder instance
+     */
+    public TokenFilterStageBuilder withPricedOnly(boolean pricedOnly) {
+        this.pricedOnly = pricedOnly;
+        return this;
+    }
+
+    /**
+     * Adds a custom filter, applied before any network call.
+     *
+     * @param filter the filter
+     * @return the current builder instance
+     */
+    public TokenFilterStageBuilder withFilter(TokenFilter filter) {
+        filters.add(filter);
+        return this;
+    }
+
+    /**
+     * Applies filter settings from system properties: {@code ethmonitor.tokens.denylist} and
+     * {@code ethmonitor.tokens.allowlist} (list files), {@code ethmonitor.tokens.minRawBalance}
+     * (decimal raw amount) and {@code ethmonitor.tokens.pricedOnly} ({@code true} or {@code false}).
+     *
+     * @return the current builder instance
+     */
+    public TokenFilterStageBuilder withSystemProperties() {
+        String denylist = System.getProperty("ethmonitor.tokens.denylist");
+        if (denylist != null && !denylist.isBlank()) {
+            withDenylistFile(Path.of(denylist));
+        }
+        String allowlist = System.getProperty("ethmonitor.tokens.allowlist");
+        if (allowlist != null && !allowlist.isBlank()) {
+            withAllowlistFile(Path.of(allowlist));
+        }
+        String minRawBalance = System.getProperty("ethmonitor.tokens.minRawBalance");
+        if (minRawBalance != null && !minRawBalance.isBlank()) {
+            withMinimumRawBalance(new BigInteger(minRawBalance.trim()));
+        }
+        if (Boolean.getBoolean("ethmonitor.tokens.pricedOnly")) {
+            withPricedOnly(true);
+        }
+        return this;
+    }
+
+    /**
+     * Builds and returns a configured {@link TokenFilterStage}.
+     *
+     * @return the configured {@link TokenFilterStage} instance
+     */
+    public TokenFilterStage build() {
+        return new TokenFilterStage(filters, pricedOnly);
+    }
+}
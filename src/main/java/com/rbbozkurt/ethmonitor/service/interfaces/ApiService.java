@@ -1,10 +1,16 @@
 package com.rbbozkurt.ethmonitor.service.interfaces;
 
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
 import com.rbbozkurt.ethmonitor.dto.*;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for interacting with various APIs to fetch wallet-related data,
@@ -35,11 +41,20 @@ public interface ApiService {
      * Retrieves the USD price for a specified token address.
      *
      * @param tokenAddress the Ethereum contract address of the token
-     * @return a {@link TokenPriceResponse} containing the USD price of the token
+     * @return a {@link TokenPriceResponse} containing the USD price of the token, without prices if the token has none
      * @throws Exception if there is an issue fetching the price data
      */
     TokenPriceResponse getUsdPrice(String tokenAddress) throws Exception;
 
+    /**
+     * Retrieves the USD prices for several token addresses, fetching the ones not cached yet in batches.
+     *
+     * @param tokenAddresses the Ethereum contract addresses of the tokens
+     * @return the price of each token that has one, keyed by the requested address
+     * @throws Exception if there is an issue fetching the price data
+     */
+    Map<String, TokenPriceResponse> getUsdPrices(Collection<String> tokenAddresses) throws Exception;
+
     /**
      * Retrieves the USD price for a token by its symbol (e.g., "ETH", "USDC").
      *
@@ -53,7 +68,7 @@ public interface ApiService {
      * Retrieves metadata for a specified token address, such as symbol, decimals, etc.
      *
      * @param tokenAddress the Ethereum contract address of the token
-     * @return a {@link TokenMetadataResponse} containing the token metadata
+     * @return a {@link TokenMetadataResponse} containing the token metadata, or {@code null} if the token has none
      * @throws Exception if there is an issue fetching the metadata
      */
     TokenMetadataResponse getTokenMetadata(String tokenAddress) throws Exception;
@@ -66,5 +81,111 @@ public interface ApiService {
      * @return a {@link TransferResponse} containing the transfer history for the wallet
      * @throws IOException if there is an issue fetching the transfer data from the API
      */
-    TransferResponse getTransferResponse(String address, int maxCount) throws IOException;
+    default TransferResponse getTransferResponse(String address, int maxCount) throws IOException {
+        return getTransferResponse(address, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Retrieves the transfer history of the given categories for a specified wallet address, up to a specified count.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to fetch
+     * @param categories the categories of transfers to fetch
+     * @return a {@link TransferResponse} containing the transfer history for the wallet
+     * @throws IOException if there is an issue fetching the transfer data from the API
+     */
+    TransferResponse getTransferResponse(String address, int maxCount, Set<TransferCategory> categories) throws IOException;
+
+    /**
+     * Streams the transfer history for a specified wallet address, up to a specified count. Transfers can be
+     * processed as soon as their page arrives, while later pages are still being fetched.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to stream
+     * @return a {@link TransferStream} of the transfer history, oldest first, to be closed by the caller
+     */
+    default TransferStream streamTransfers(String address, int maxCount) {
+        return streamTransfers(address, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Streams the transfer history of the given categories for a specified wallet address, up to a specified
+     * count. Asking only for the categories needed saves paging through the others.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to stream
+     * @param categories the categories of transfers to stream
+     * @return a {@link TransferStream} of the transfer history, oldest first, to be closed by the caller
+     */
+    TransferStream streamTransfers(String address, int maxCount, Set<TransferCategory> categories);
+
+    /**
+     * Asynchronously retrieves the token balances for a specified wallet address.
+     *
+     * @param walletAddress the Ethereum wallet address
+     * @return a future completing with the {@link BalanceResponse} containing the token balances
+     */
+    CompletableFuture<BalanceResponse> getTokenBalancesAsync(String walletAddress);
+
+    /**
+     * Asynchronously retrieves the ETH balance for a specified wallet address.
+     *
+     * @param walletAddress the Ethereum wallet address
+     * @return a future completing with the {@link EthBalanceResponse} containing the ETH balance
+     */
+    CompletableFuture<EthBalanceResponse> getEthBalanceAsync(String walletAddress);
+
+    /**
+     * Asynchronously retrieves the USD price for a specified token address.
+     *
+     * @param tokenAddress the Ethereum contract address of the token
+     * @return a future completing with the {@link TokenPriceResponse} containing the USD price of the token
+     */
+    CompletableFuture<TokenPriceResponse> getUsdPriceAsync(String tokenAddress);
+
+    /**
+     * Asynchronously retrieves the USD prices for several token addresses, fetching the ones not cached yet in batches.
+     *
+     * @param tokenAddresses the Ethereum contract addresses of the tokens
+     * @return a future completing with the price of each token that has one, keyed by the requested address
+     */
+    CompletableFuture<Map<String, TokenPriceResponse>> getUsdPricesAsync(Collection<String> tokenAddresses);
+
+    /**
+     * Asynchronously retrieves the USD price for a token by its symbol (e.g., "ETH", "USDC").
+     *
+     * @param symbol the symbol of the token
+     * @return a future completing with the {@link TokenPriceResponse} containing the USD price of the token
+     */
+    CompletableFuture<TokenPriceResponse> getUsdPriceBySymbolAsync(String symbol);
+
+    /**
+     * Asynchronously retrieves metadata for a specified token address, such as symbol, decimals, etc.
+     *
+     * @param tokenAddress the Ethereum contract address of the token
+     * @return a future completing with the {@link TokenMetadataResponse} containing the token metadata, or {@code null} if the token has none
+     */
+    CompletableFuture<TokenMetadataResponse> getTokenMetadataAsync(String tokenAddress);
+
+    /**
+     * Asynchronously retrieves the transfer history for a specified wallet address, up to a specified count.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to fetch
+     * @return a future completing with the {@link TransferResponse} containing the transfer history
+     */
+    default CompletableFuture<TransferResponse> getTransferResponseAsync(String address, int maxCount) {
+        return getTransferResponseAsync(address, maxCount, TransferCategory.ALL);
+    }
+
+    /**
+     * Asynchronously retrieves the transfer history of the given categories for a specified wallet address, up
+     * to a specified count.
+     *
+     * @param address the Ethereum wallet address
+     * @param maxCount the maximum number of transfers to fetch
+     * @param categories the categories of transfers to fetch
+     * @return a future completing with the {@link TransferResponse} containing the transfer history
+     */
+    CompletableFuture<TransferResponse> getTransferResponseAsync(String address, int maxCount, Set<TransferCategory> categories);
 }
@@ -0,0 +1,42 @@
+package com.rbbozkurt.ethmonitor.service.interfaces;
+
+import com.rbbozkurt.ethmonitor.model.TransferTable;
+import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service interface for pricing tokens at past points in time, such as the timestamps of historical transfers.
+ */
+public interface HistoricalPriceService {
+
+    /**
+     * Retrieves the USD price a token had at a given time.
+     *
+     * @param token the Ethereum contract address of the token, or its symbol (e.g. "ETH") for native assets
+     * @param timestamp the point in time
+     * @return the USD price, or zero if the token had no known price at that time
+     */
+    BigDecimal getUsdPrice(String token, Instant timestamp);
+
+    /**
+     * Calculates the total USD value of transfers, pricing each transfer at its own timestamp.
+     *
+     * @param transfers the transfers to value
+     * @return the sum of the USD values of all transfers; transfers without a known price count as zero
+     */
+    BigDecimal getUsdVolume(List<HistoricalTransfer> transfers);
+
+    /**
+     * Calculates the total USD value of the transfers of a {@link TransferTable}, pricing each transfer at its
+     * own timestamp. The default implementation materializes the rows; implementations should read them in place.
+     *
+     * @param transfers the transfers to value
+     * @return the sum of the USD values of all transfers; transfers without a known price count as zero
+     */
+    default BigDecimal getUsdVolume(TransferTable transfers) {
+        return getUsdVolume(transfers.asHistoricalTransfers());
+    }
+}
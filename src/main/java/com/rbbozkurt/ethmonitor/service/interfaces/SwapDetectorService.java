@@ -1,5 +1,6 @@
 package com.rbbozkurt.ethmonitor.service.interfaces;
 
+import com.rbbozkurt.ethmonitor.model.TransferTable;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
 
 /**
@@ -16,4 +17,15 @@ public interface SwapDetectorService {
      * @return true if the transfer is identified as a swap, false otherwise
      */
     boolean isSwap(HistoricalTransfer transfer);
+
+    /**
+     * Determines if the transfer in a row of a {@link TransferTable} is a token swap. The default implementation
+     * materializes the row; implementations should read the view directly.
+     *
+     * @param transfer the view of the transfer to check
+     * @return true if the transfer is identified as a swap, false otherwise
+     */
+    default boolean isSwap(TransferTable.View transfer) {
+        return isSwap(transfer.toHistoricalTransfer());
+    }
 }
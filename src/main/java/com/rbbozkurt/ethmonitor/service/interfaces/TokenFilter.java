@@ -0,0 +1,20 @@
+package com.rbbozkurt.ethmonitor.service.interfaces;
+
+import java.math.BigInteger;
+
+/**
+ * A filter deciding, before any network call is made, whether a token balance is worth looking up
+ * metadata and a price for. Filters are used to skip airdropped spam and dust.
+ */
+@FunctionalInterface
+public interface TokenFilter {
+
+    /**
+     * Determines whether a token balance should be processed.
+     *
+     * @param contractAddress the token contract address
+     * @param rawBalance the raw (undecimaled) token balance
+     * @return true if the token should be looked up, false to skip it
+     */
+    boolean accept(String contractAddress, BigInteger rawBalance);
+}
@@ -1,8 +1,12 @@
 package com.rbbozkurt.ethmonitor.service.interfaces;
 
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.model.TransferTable;
 import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service interface for retrieving historical transfer data for a given Ethereum wallet address.
@@ -21,4 +25,43 @@ public interface TransferService {
      * @return a list of {@link HistoricalTransfer} objects representing the wallet's transfer history
      */
     List<HistoricalTransfer> getHistoricalTransfers(String walletAddress, int maxCount);
+
+    /**
+     * Streams the historical transfers for a given wallet address, up to a specified maximum count, handing each
+     * one to {@code action} as soon as its page has arrived, while later pages are still being fetched.
+     *
+     * @param walletAddress the Ethereum wallet address to fetch historical transfers for
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param action the action performed for each transfer, oldest first
+     */
+    default void forEachHistoricalTransfer(String walletAddress, int maxCount, Consumer<HistoricalTransfer> action) {
+        forEachHistoricalTransfer(walletAddress, maxCount, TransferCategory.ALL, action);
+    }
+
+    /**
+     * Streams the historical transfers of the given categories for a given wallet address, up to a specified
+     * maximum count, handing each one to {@code action} as soon as its page has arrived.
+     *
+     * @param walletAddress the Ethereum wallet address to fetch historical transfers for
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param categories the categories of transfers to retrieve
+     * @param action the action performed for each transfer, oldest first
+     */
+    void forEachHistoricalTransfer(String walletAddress, int maxCount, Set<TransferCategory> categories, Consumer<HistoricalTransfer> action);
+
+    /**
+     * Retrieves the historical transfers of the given categories for a given wallet address as a compact
+     * {@link TransferTable}, which can be iterated without materializing a {@link HistoricalTransfer} per transfer.
+     * The default implementation collects {@link #forEachHistoricalTransfer}.
+     *
+     * @param walletAddress the Ethereum wallet address to fetch historical transfers for
+     * @param maxCount the maximum number of transfers to retrieve
+     * @param categories the categories of transfers to retrieve
+     * @return the transfers, oldest first
+     */
+    default TransferTable getTransferTable(String walletAddress, int maxCount, Set<TransferCategory> categories) {
+        TransferTable.Builder table = new TransferTable.Builder();
+        forEachHistoricalTransfer(walletAddress, maxCount, categories, table::add);
+        return table.build();
+    }
 }
@@ -0,0 +1,154 @@
+package com.rbbozkurt.ethmonitor.util;
+
+/**
+ * A 20-byte Ethereum address. The address is held as two longs and an int, parsed from its hex form in a
+ * single pass without intermediate strings, and hashes to a value mixed once at construction, so comparing
+ * and looking up addresses costs a few primitive comparisons whatever the case of the text they came from.
+ */
+public final class Address {
+
+    public static final int HEX_LENGTH = 42;  // Length of the 0x-prefixed hex form
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long high;  // First 8 address bytes
+    private final long middle;  // Next 8 address bytes
+    private final int low;  // Last 4 address bytes
+    private final int hash;  // Hash mixed from all three words
+
+    private Address(long high, long middle, int low) {
+        this.high = high;
+        this.middle = middle;
+        this.low = low;
+        this.hash = hash(high, middle, low);
+    }
+
+    /**
+     * Parses an address of the form {@code 0x} followed by 40 hex digits, in any case.
+     *
+     * @param text the address
+     * @return the address
+     * @throws IllegalArgumentException if the text is not an address
+     */
+    public static Address parse(CharSequence text) {
+        Address address = tryParse(text);
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid Ethereum address: " + text);
+        }
+        return address;
+    }
+
+    /**
+     * Parses an address of the form {@code 0x} followed by 40 hex digits, in any case.
+     *
+     * @param text the address, or {@code null}
+     * @return the address, or {@code null} if the text is not an address
+     */
+    public static Address tryParse(CharSequence text) {
+        if (!hasPrefix(text)) {
+            return null;
+        }
+        long high = 0;
+        long middle = 0;
+        long low = 0;
+        int invalid = 0;  // Negative once a character is not a hex digit
+        for (int i = 2; i < HEX_LENGTH; i++) {
+            int digit = digit(text.charAt(i));
+            invalid |= digit;
+            if (i < 18) {
+                high = high << 4 | (digit & 0xF);
+            } else if (i < 34) {
+                middle = middle << 4 | (digit & 0xF);
+            } else {
+                low = low << 4 | (digit & 0xF);
+            }
+        }
+        return invalid < 0 ? null : new Address(high, middle, (int) low);
+    }
+
+    /**
+     * Returns whether the text is an address of the form {@code 0x} followed by 40 hex digits, in any case.
+     *
+     * @param text the text, or {@code null}
+     * @return {@code true} if the text is an address
+     */
+    public static boolean isValid(CharSequence text) {
+        if (!hasPrefix(text)) {
+            return false;
+        }
+        for (int i = 2; i < HEX_LENGTH; i++) {
+            if (digit(text.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Address other
+                && hash == other.hash && high == other.high && middle == other.middle && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns the address in lower-case hex.
+     *
+     * @return {@code 0x} followed by 40 lower-case hex digits
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[HEX_LENGTH];
+        chars[0] = '0';
+        chars[1] = 'x';
+        writeHex(chars, 2, high, 16);
+        writeHex(chars, 18, middle, 16);
+        writeHex(chars, 34, low, 8);
+        return new String(chars);
+    }
+
+    private static boolean hasPrefix(CharSequence text) {
+        return text != null && text.length() == HEX_LENGTH && text.charAt(0) == '0' && text.charAt(1) == 'x';
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static void writeHex(char[] chars, int from, long bits, int digits) {
+        for (int i = from + digits - 1; i >= from; i--) {
+            chars[i] = HEX_DIGITS[(int) bits & 0xF];
+            bits >>>= 4;
+        }
+    }
+
+    /**
+     * Hashes a packed address. Addresses are already uniformly distributed, but vanity and synthetic
+     * addresses share long prefixes, so all three words are mixed in.
+     *
+     * @param high the first 8 address bytes
+     * @param middle the next 8 address bytes
+     * @param low the last 4 address bytes
+     * @return the hash
+     */
+    private static int hash(long high, long middle, int low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ middle * 0xC2B2AE3D27D4EB4FL ^ (low & 0xFFFFFFFFL);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
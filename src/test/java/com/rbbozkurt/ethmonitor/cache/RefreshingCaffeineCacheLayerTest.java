@@ -0,0 +1,95 @@
+package com.rbbozkurt.ethmonitor.cache;
+
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Unit tests for {@link RefreshingCaffeineCacheLayer}.
+ */
+public class RefreshingCaffeineCacheLayerTest extends TestCase {
+
+    private static final Duration REFRESH_AFTER = Duration.ofMillis(50);
+
+    private final Queue<Runnable> reloads = new ArrayDeque<>();  // Reloads started, run when the test says so
+    private final Executor executor = reloads::add;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, String> loader = key -> key + loads.incrementAndGet();
+
+    /**
+     * A read of a value due for a refresh returns the old value and starts exactly one reload, however many
+     * reads follow before it completes.
+     */
+    public void testStaleReadReturnsOldValueAndStartsOneReload() throws Exception {
+        CacheLayer<String, String> cache = cache(Duration.ofMinutes(1));
+        assertEquals("price1", cache.getOrCompute("price", loader));
+
+        Thread.sleep(2 * REFRESH_AFTER.toMillis());
+        assertEquals("price1", cache.getOrCompute("price", loader));
+        assertEquals("price1", cache.getOrCompute("price", loader));
+        assertEquals(1, reloads.size());
+        assertEquals(1, loads.get());
+
+        reloads.poll().run();
+        assertEquals("price2", cache.getOrCompute("price", loader));
+        assertTrue(reloads.isEmpty());
+    }
+
+    /**
+     * A value that could not be refreshed expires after the staleness bound, and the next read loads it
+     * in the foreground.
+     */
+    public void testValueExpiresAfterStalenessBound() throws Exception {
+        CacheLayer<String, String> cache = cache(REFRESH_AFTER.multipliedBy(3));
+        assertEquals("price1", cache.getOrCompute("price", loader));
+
+        Thread.sleep(REFRESH_AFTER.multipliedBy(5).toMillis());
+
+        assertNull(cache.get("price"));
+        assertEquals("price2", cache.getOrCompute("price", loader));
+        assertTrue(reloads.isEmpty());
+    }
+
+    /**
+     * A failed reload keeps the old value and lets a later read start another one.
+     */
+    public void testFailedReloadIsRetriedByALaterRead() throws Exception {
+        CacheLayer<String, String> cache = cache(Duration.ofMinutes(1));
+        cache.put("price", "old");
+        Thread.sleep(2 * REFRESH_AFTER.toMillis());
+
+        assertEquals("old", cache.getOrCompute("price", key -> {
+            throw new IllegalStateException("Prices endpoint down");
+        }));
+        reloads.poll().run();
+
+        assertEquals("old", cache.getOrCompute("price", loader));
+        reloads.poll().run();
+        assertEquals("price1", cache.get("price"));
+    }
+
+    /**
+     * A refresh-ahead cache cannot be built without the executor running its reloads.
+     */
+    public void testRefreshExecutorIsRequired() {
+        try {
+            new CaffeineCacheLayerBuilder<String, String>().withRefreshAfterWrite(REFRESH_AFTER).build();
+            fail("Expected the missing executor to be rejected");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("executor"));
+        }
+    }
+
+    private CacheLayer<String, String> cache(Duration ttl) {
+        return new CaffeineCacheLayerBuilder<String, String>()
+                .withRefreshAfterWrite(REFRESH_AFTER)
+                .withTTL(ttl)
+                .withRefreshExecutor(executor)
+                .build();
+    }
+}
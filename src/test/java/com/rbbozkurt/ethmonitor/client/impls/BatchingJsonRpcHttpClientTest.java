@@ -0,0 +1,148 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+import com.rbbozkurt.ethmonitor.dto.BlockNumberResponse;
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Unit tests for {@link BatchingJsonRpcHttpClient}.
+ */
+public class BatchingJsonRpcHttpClientTest extends TestCase {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    protected void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Override
+    protected void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * A batch response listing its elements in another order than the calls is matched back by id.
+     */
+    public void testOutOfOrderBatchResponsesAreMatchedById() throws Exception {
+        BatchEchoClient delegate = new BatchEchoClient();
+        BatchingJsonRpcHttpClient client = new BatchingJsonRpcHttpClient(delegate, 3, Duration.ofSeconds(10), scheduler);
+
+        List<CompletableFuture<BlockNumberResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(client.postAsync(call("eth_blockNumber", "0x" + i), BlockNumberResponse.class));
+        }
+
+        assertEquals(1, delegate.bodies.size());
+        assertTrue(objectMapper.readTree(delegate.bodies.get(0)).isArray());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("0x" + i, responses.get(i).get().getResult());
+        }
+    }
+
+    /**
+     * A batch of one is sent as a plain call and decoded into the caller's type, not through a tree.
+     */
+    public void testSingleCallIsDecodedIntoTheResponseType() throws Exception {
+        BatchEchoClient delegate = new BatchEchoClient();
+        BatchingJsonRpcHttpClient client = new BatchingJsonRpcHttpClient(delegate, 3, Duration.ofMillis(1), scheduler);
+
+        BlockNumberResponse response = client.postAsync(call("eth_blockNumber", "0x7"), BlockNumberResponse.class).get();
+
+        assertEquals("0x7", response.getResult());
+        assertEquals(List.of(BlockNumberResponse.class), delegate.responseTypes);
+    }
+
+    /**
+     * Transfer pages are never merged into a batch.
+     */
+    public void testAssetTransfersAreNotBatched() throws Exception {
+        BatchEchoClient delegate = new BatchEchoClient();
+        BatchingJsonRpcHttpClient client = new BatchingJsonRpcHttpClient(delegate, 2, Duration.ofSeconds(10), scheduler);
+
+        CompletableFuture<BlockNumberResponse> first = client.postAsync(call("alchemy_getAssetTransfers", "0x1"), BlockNumberResponse.class);
+        CompletableFuture<BlockNumberResponse> second = client.postAsync(call("alchemy_getAssetTransfers", "0x2"), BlockNumberResponse.class);
+
+        assertEquals("0x1", first.get().getResult());
+        assertEquals("0x2", second.get().getResult());
+        assertEquals(2, delegate.bodies.size());
+        for (String body : delegate.bodies) {
+            assertFalse(objectMapper.readTree(body).isArray());
+        }
+    }
+
+    /**
+     * Builds a JSON-RPC call whose single parameter is echoed back as its result by {@link BatchEchoClient}.
+     */
+    private static String call(String method, String echo) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":0,\"method\":\"" + method + "\",\"params\":[\"" + echo + "\"]}";
+    }
+
+    /**
+     * Answers each call with its first parameter as result, listing the elements of a batch response in
+     * reverse order.
+     */
+    private static class BatchEchoClient implements HttpClient {
+
+        private final List<String> bodies = new ArrayList<>();
+        private final List<Class<?>> responseTypes = new ArrayList<>();
+
+        @Override
+        public <T> T post(String jsonBody, Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T get(String url, Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+            bodies.add(jsonBody);
+            responseTypes.add(responseType);
+            try {
+                JsonNode request = objectMapper.readTree(jsonBody);
+                JsonNode response;
+                if (request.isArray()) {
+                    ArrayNode reversed = objectMapper.createArrayNode();
+                    for (int i = request.size() - 1; i >= 0; i--) {
+                        reversed.add(echo(request.get(i)));
+                    }
+                    response = reversed;
+                } else {
+                    response = echo(request);
+                }
+                return CompletableFuture.completedFuture(objectMapper.treeToValue(response, responseType));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static ObjectNode echo(JsonNode request) {
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("jsonrpc", "2.0");
+            response.set("id", request.get("id"));
+            response.set("result", request.get("params").get(0));
+            return response;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link Bulkhead}.
+ */
+public class BulkheadTest extends TestCase {
+
+    /**
+     * Without a maximum wait, a call finding every permit taken is rejected at once.
+     */
+    public void testRejectsAtOnceWithoutWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ZERO);
+        bulkhead.acquireAsync().get();
+
+        CompletableFuture<Void> rejected = bulkhead.acquireAsync();
+
+        assertTrue(rejected.isCompletedExceptionally());
+        assertRejected(rejected);
+        assertEquals(0, bulkhead.getAvailablePermits());
+    }
+
+    /**
+     * A waiting call gets the permit released by another call, in arrival order.
+     */
+    public void testWaitingCallGetsReleasedPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofSeconds(10));
+        bulkhead.acquireAsync().get();
+
+        CompletableFuture<Void> first = bulkhead.acquireAsync();
+        CompletableFuture<Void> second = bulkhead.acquireAsync();
+        assertFalse(first.isDone());
+        assertEquals(2, bulkhead.getWaitingCalls());
+
+        bulkhead.release();
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        bulkhead.release();
+        assertTrue(second.isDone());
+        bulkhead.release();
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    /**
+     * A call still waiting after the maximum wait is rejected and leaves the queue.
+     */
+    public void testRejectsAfterMaximumWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(20));
+        bulkhead.acquireAsync().get();
+
+        CompletableFuture<Void> waiting = bulkhead.acquireAsync();
+
+        assertRejected(waiting);
+        assertEquals(0, bulkhead.getWaitingCalls());
+        bulkhead.release();
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    /**
+     * The blocking acquire fails with the rejection itself.
+     */
+    public void testBlockingAcquireThrowsRejection() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(20));
+        bulkhead.acquire();
+        try {
+            bulkhead.acquire();
+            fail("Expected the second call to be rejected");
+        } catch (CallNotPermittedException expected) {
+            assertFalse(expected.isCircuitOpen());
+        }
+    }
+
+    private static void assertRejected(CompletableFuture<Void> permit) throws Exception {
+        try {
+            permit.get(5, TimeUnit.SECONDS);
+            fail("Expected the call to be rejected");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof CallNotPermittedException);
+        }
+    }
+}
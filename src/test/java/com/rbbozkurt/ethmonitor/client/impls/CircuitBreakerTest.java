@@ -0,0 +1,121 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import junit.framework.TestCase;
+
+import java.time.Duration;
+
+/**
+ * Unit tests for {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest extends TestCase {
+
+    /**
+     * The circuit opens once the failure rate over the window reaches the threshold, and then rejects calls.
+     */
+    public void testOpensAtFailureRateThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquirePermission());
+    }
+
+    /**
+     * After the open duration a limited number of probes are admitted, and the circuit closes once they
+     * all succeed.
+     */
+    public void testHalfOpenProbesCloseTheCircuit() {
+        CircuitBreaker breaker = opened(Duration.ZERO);
+
+        long first = breaker.tryAcquirePermission();
+        long second = breaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquirePermission());
+
+        breaker.onSuccess(first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(second);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    /**
+     * A failed probe reopens the circuit.
+     */
+    public void testFailedProbeReopensTheCircuit() {
+        CircuitBreaker breaker = opened(Duration.ZERO);
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * A released probe permission is handed to another call.
+     */
+    public void testReleasedProbeIsHandedOn() {
+        CircuitBreaker breaker = opened(Duration.ZERO);
+        long first = breaker.tryAcquirePermission();
+        breaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquirePermission());
+
+        breaker.releasePermission(first);
+
+        assertTrue(breaker.tryAcquirePermission() != CircuitBreaker.NOT_PERMITTED);
+    }
+
+    /**
+     * Outcomes of calls admitted before the circuit changed state neither close nor reopen the half-open
+     * circuit.
+     */
+    public void testStaleOutcomesAreIgnored() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        long staleSuccess = breaker.tryAcquirePermission();
+        long staleFailure = breaker.tryAcquirePermission();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquirePermission());
+        }
+        long probe = breaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(staleSuccess);
+        breaker.onSuccess(staleSuccess);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(staleFailure);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(probe);
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Builds a breaker opening at a 50% failure rate over a window of 4 calls, with 2 half-open probes.
+     */
+    private static CircuitBreaker breaker(Duration openDuration) {
+        return new CircuitBreakerBuilder()
+                .withFailureRateThreshold(0.5)
+                .withSlidingWindowSize(4)
+                .withMinimumCalls(4)
+                .withOpenDuration(openDuration)
+                .withHalfOpenProbes(2)
+                .build("test eth_call");
+    }
+
+    /**
+     * Builds a breaker and opens it with failed calls.
+     */
+    private static CircuitBreaker opened(Duration openDuration) {
+        CircuitBreaker breaker = breaker(openDuration);
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquirePermission());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
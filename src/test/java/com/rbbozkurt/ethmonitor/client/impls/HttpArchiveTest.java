@@ -0,0 +1,33 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for {@link HttpArchive}.
+ */
+public class HttpArchiveTest extends TestCase {
+
+    /**
+     * A session that was never closed does not make the archive unreadable for the sessions after it.
+     */
+    public void testRecordingAfterUnclosedSessionStaysReadable() throws Exception {
+        Path dir = Files.createTempDirectory("http-archive");
+        Path path = dir.resolve("archive.jsonl.gz");
+
+        HttpArchive crashed = new HttpArchive(path, HttpArchive.Mode.RECORD);
+        crashed.record("GET a", "{\"value\":1.10}", 5);
+        // Not closed, as after a kill: the gzip member has no trailer
+
+        HttpArchive next = new HttpArchive(path, HttpArchive.Mode.RECORD);
+        next.record("GET b", "{\"value\":2}", 7);
+        next.close();
+
+        HttpArchive replay = new HttpArchive(path, HttpArchive.Mode.REPLAY);
+        assertEquals(2, replay.size());
+        assertEquals("{\"value\":1.10}", replay.lookup("GET a").responseJson());
+        assertEquals(7, replay.lookup("GET b").latencyMicros());
+    }
+}
@@ -0,0 +1,130 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Unit tests for {@link MergedTransferStream}.
+ */
+public class MergedTransferStreamTest extends TestCase {
+
+    /**
+     * Transfers are emitted in block order, and transfers of the same block in stream order.
+     */
+    public void testMergesInBlockOrderThenStreamOrder() {
+        List<Transfer> outgoing = List.of(transfer(1, "a"), transfer(3, "b"), transfer(3, "c"), transfer(7, "d"));
+        List<Transfer> incoming = List.of(transfer(2, "e"), transfer(3, "f"), transfer(8, "g"));
+
+        List<String> merged = ids(merge(100, outgoing, incoming));
+
+        assertEquals(List.of("a", "e", "b", "c", "f", "d", "g"), merged);
+    }
+
+    /**
+     * A self-transfer is returned by both the outgoing and the incoming query, but emitted once and counted
+     * once towards {@code maxCount}, which is reached in the middle of the block.
+     */
+    public void testSelfTransferInBothDirectionsIsEmittedOnceUpToMaxCount() {
+        List<Transfer> outgoing = List.of(transfer(1, "a"), transfer(2, "self"), transfer(2, "b"), transfer(3, "c"));
+        List<Transfer> incoming = List.of(transfer(2, "self"), transfer(2, "x"), transfer(2, "y"), transfer(3, "d"));
+
+        MergedTransferStream stream = merge(4, outgoing, incoming);
+
+        assertEquals(List.of("a", "self", "b", "x"), ids(stream));
+        assertFalse(stream.hasNext());
+        try {
+            stream.next();
+            fail("Expected the stream to end at maxCount");
+        } catch (NoSuchElementException expected) {
+            // Ended
+        }
+        assertEquals(List.of("a", "self", "b", "x", "y", "c", "d"), ids(merge(100, outgoing, incoming)));
+    }
+
+    /**
+     * Transfers without a unique id are never taken for copies of each other.
+     */
+    public void testTransfersWithoutIdAreKept() {
+        List<Transfer> outgoing = List.of(transfer(5, null), transfer(5, "a"));
+        List<Transfer> incoming = List.of(transfer(5, null), transfer(5, "a"));
+
+        assertEquals(Arrays.asList(null, "a", null), ids(merge(100, outgoing, incoming)));
+    }
+
+    /**
+     * A stream going back to an earlier block fails the merge, since a copy of a transfer could otherwise be
+     * emitted twice.
+     */
+    public void testStreamGoingBackFails() {
+        List<Transfer> outgoing = List.of(transfer(2, "self"), transfer(3, "a"), transfer(2, "b"));
+        List<Transfer> incoming = List.of(transfer(2, "self"));
+
+        try {
+            ids(merge(100, outgoing, incoming));
+            fail("Expected the merge to fail");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("block 3 to block 2"));
+        }
+    }
+
+    /**
+     * An empty stream does not hold back the others, and closing the merged stream closes every stream.
+     */
+    public void testEmptyStreamAndClose() {
+        List<Boolean> closed = new ArrayList<>();
+        List<TransferStream> streams = List.of(
+                closing(List.of(), closed),
+                closing(List.of(transfer(4, "a"), transfer(6, "b")), closed));
+
+        try (MergedTransferStream stream = new MergedTransferStream(streams, 100)) {
+            assertEquals(List.of("a", "b"), ids(stream));
+        }
+        assertEquals(List.of(true, true), closed);
+    }
+
+    private static MergedTransferStream merge(int maxCount, List<Transfer> outgoing, List<Transfer> incoming) {
+        return new MergedTransferStream(List.of(TransferStream.of(outgoing), TransferStream.of(incoming)), maxCount);
+    }
+
+    /**
+     * Wraps transfers in a stream recording its closing.
+     */
+    private static TransferStream closing(List<Transfer> transfers, List<Boolean> closed) {
+        TransferStream stream = TransferStream.of(transfers);
+        return new TransferStream() {
+            @Override
+            public boolean hasNext() {
+                return stream.hasNext();
+            }
+
+            @Override
+            public Transfer next() {
+                return stream.next();
+            }
+
+            @Override
+            public void close() {
+                closed.add(true);
+            }
+        };
+    }
+
+    private static Transfer transfer(long block, String uniqueId) {
+        Transfer transfer = new Transfer();
+        transfer.setBlockNum("0x" + Long.toHexString(block));
+        transfer.setUniqueId(uniqueId);
+        return transfer;
+    }
+
+    private static List<String> ids(MergedTransferStream stream) {
+        List<String> ids = new ArrayList<>();
+        stream.forEachRemaining(transfer -> ids.add(transfer.getUniqueId()));
+        return ids;
+    }
+}
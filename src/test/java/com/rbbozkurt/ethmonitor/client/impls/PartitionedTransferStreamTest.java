@@ -0,0 +1,190 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.dto.BlockNumberResponse;
+import com.rbbozkurt.ethmonitor.dto.TokenMetadataResponse;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Unit tests for {@link PartitionedTransferStream}.
+ */
+public class PartitionedTransferStreamTest extends TestCase {
+
+    /**
+     * A probe page without a page key holds the whole history, so no range is fetched.
+     */
+    public void testProbePageHoldingTheWholeHistoryFetchesNothingElse() {
+        FakeChain chain = new FakeChain(history(1, 2, 2, 3), 10, 100);
+
+        List<Transfer> read = readAll(new PartitionedTransferStream(chain, latest(100), 0, 1_000, 2));
+
+        assertEquals(ids(chain.history), ids(read));
+        assertEquals(1, chain.calls.size());
+    }
+
+    /**
+     * The block the probe page ends in may be cut off, so it is left out of the head and fetched again by the
+     * first range only, and every transfer is emitted exactly once, in block order.
+     */
+    public void testCutOffLastBlockIsFetchedAgainOnce() {
+        FakeChain chain = new FakeChain(history(1, 2, 3, 3, 3, 5, 8, 8, 13, 21), 4, 30);
+
+        List<Transfer> read = readAll(new PartitionedTransferStream(chain, latest(30), 0, 1_000, 2));
+
+        assertEquals(ids(chain.history), ids(read));
+        int fetchesOfBlock3 = 0;
+        for (long[] call : chain.calls) {
+            if (call[1] >= 0 && call[0] <= 3 && 3 <= call[1] && call[2] == 0) {
+                fetchesOfBlock3++;
+            }
+        }
+        assertEquals(1, fetchesOfBlock3);
+        assertEquals(3, chain.calls.get(1)[0]);
+    }
+
+    /**
+     * Ranges completing in reverse order are still emitted in block order.
+     */
+    public void testRangesCompletingOutOfOrderAreEmittedInBlockOrder() {
+        FakeChain chain = new FakeChain(history(1, 2, 4, 6, 9, 11, 15, 18, 22, 25, 29, 30), 3, 40);
+        chain.deferRanges = true;
+        PartitionedTransferStream stream = new PartitionedTransferStream(chain, latest(40), 0, 1_000, 2);
+
+        // Complete the latest requested page first, until every range has been paged to its end
+        assertFalse(chain.pending.isEmpty());
+        while (!chain.pending.isEmpty()) {
+            chain.pending.pollLast().run();
+        }
+
+        assertEquals(ids(chain.history), ids(readAll(stream)));
+    }
+
+    /**
+     * A failed latest block probe fails the stream with the {@code eth_blockNumber} error.
+     */
+    public void testFailedBlockNumberProbeFailsWithIOException() {
+        BlockNumberResponse failed = new BlockNumberResponse();
+        failed.setError(new TokenMetadataResponse.RpcError());
+        failed.getError().setCode(-32000);
+        failed.getError().setMessage("header not found");
+        FakeChain chain = new FakeChain(history(1, 2, 3, 4, 5), 2, 10);
+
+        PartitionedTransferStream stream = new PartitionedTransferStream(chain, () -> {
+            try {
+                return CompletableFuture.completedFuture(AlchemyTransfersAPI.parseBlockNumber(failed));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }, 0, 1_000, 2);
+
+        try {
+            stream.hasNext();
+            fail("Expected the probe failure");
+        } catch (CompletionException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+            assertTrue(expected.getCause().getMessage().contains("eth_blockNumber"));
+        }
+    }
+
+    /**
+     * A block number response without a result is rejected rather than failing with a null pointer.
+     */
+    public void testMissingBlockNumberIsRejected() {
+        try {
+            AlchemyTransfersAPI.parseBlockNumber(new BlockNumberResponse());
+            fail("Expected a missing result to be rejected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("eth_blockNumber"));
+        }
+    }
+
+    private static List<Transfer> readAll(PartitionedTransferStream stream) {
+        List<Transfer> read = new ArrayList<>();
+        try (stream) {
+            while (stream.hasNext()) {
+                read.add(stream.next());
+            }
+        }
+        return read;
+    }
+
+    private static Supplier<CompletableFuture<Long>> latest(long block) {
+        return () -> CompletableFuture.completedFuture(block);
+    }
+
+    /**
+     * Builds a history with one transfer per given block number, ids numbered in order.
+     */
+    private static List<Transfer> history(long... blocks) {
+        List<Transfer> transfers = new ArrayList<>();
+        for (long block : blocks) {
+            Transfer transfer = new Transfer();
+            transfer.setBlockNum("0x" + Long.toHexString(block));
+            transfer.setUniqueId("id" + transfers.size());
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
+
+    private static List<String> ids(List<Transfer> transfers) {
+        List<String> ids = new ArrayList<>();
+        transfers.forEach(transfer -> ids.add(transfer.getUniqueId()));
+        return ids;
+    }
+
+    /**
+     * Serves a fixed history in pages, keyed by the offset into the transfers of the queried range. Each call
+     * is recorded as {@code {fromBlock, toBlock, offset}}; range pages can be held back to complete them later.
+     */
+    private static class FakeChain implements PartitionedTransferStream.RangePageFetcher {
+
+        private final List<Transfer> history;
+        private final int pageSize;
+        private final long latestBlock;
+        private final List<long[]> calls = new ArrayList<>();
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private boolean deferRanges;  // Whether range pages wait for the test to complete them
+
+        FakeChain(List<Transfer> history, int pageSize, long latestBlock) {
+            this.history = history;
+            this.pageSize = pageSize;
+            this.latestBlock = latestBlock;
+        }
+
+        @Override
+        public synchronized CompletableFuture<TransferResponse> fetch(long fromBlock, long toBlock, int count, String pageKey) {
+            int offset = pageKey == null ? 0 : Integer.parseInt(pageKey);
+            calls.add(new long[]{fromBlock, toBlock, offset});
+
+            long lastBlock = toBlock < 0 ? latestBlock : toBlock;
+            List<Transfer> matching = new ArrayList<>();
+            for (Transfer transfer : history) {
+                if (transfer.blockNumber() >= fromBlock && transfer.blockNumber() <= lastBlock) {
+                    matching.add(transfer);
+                }
+            }
+            int end = Math.min(matching.size(), offset + Math.min(pageSize, count));
+            TransferResponse response = new TransferResponse();
+            response.setResult(new TransferResponse.Result());
+            response.getResult().setTransfers(new ArrayList<>(matching.subList(Math.min(offset, end), end)));
+            response.getResult().setPageKey(end < matching.size() ? String.valueOf(end) : null);
+
+            if (deferRanges && toBlock >= 0) {
+                CompletableFuture<TransferResponse> future = new CompletableFuture<>();
+                pending.add(() -> future.complete(response));
+                return future;
+            }
+            return CompletableFuture.completedFuture(response);
+        }
+    }
+}
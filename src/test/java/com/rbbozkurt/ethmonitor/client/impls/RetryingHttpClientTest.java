@@ -0,0 +1,230 @@
+package com.rbbozkurt.ethmonitor.client.impls;
+
+import com.rbbozkurt.ethmonitor.client.interfaces.HttpClient;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link RetryingHttpClient}.
+ */
+public class RetryingHttpClientTest extends TestCase {
+
+    private static final String READ_CALL = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_blockNumber\",\"params\":[]}";
+    private static final String WRITE_CALL = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_sendRawTransaction\",\"params\":[]}";
+    private static final long HEDGE_DELAY_MILLIS = 20;
+
+    /**
+     * A slow request gets exactly one hedge, and the primary request is cancelled once the hedge wins.
+     */
+    public void testHedgeWinningCancelsThePrimary() throws Exception {
+        FakeClient delegate = new FakeClient();
+        RetryingHttpClient client = hedging(delegate);
+
+        CompletableFuture<String> response = client.postAsync(READ_CALL, String.class);
+        delegate.awaitRequests(2);
+        Thread.sleep(5 * HEDGE_DELAY_MILLIS);
+        assertEquals(2, delegate.requestCount());
+
+        delegate.request(1).complete("hedge");
+
+        assertEquals("hedge", response.get(5, TimeUnit.SECONDS));
+        assertCancelled(delegate.request(0));
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(0, client.getRetryCount());
+    }
+
+    /**
+     * The hedge is cancelled once the primary request wins.
+     */
+    public void testPrimaryWinningCancelsTheHedge() throws Exception {
+        FakeClient delegate = new FakeClient();
+        RetryingHttpClient client = hedging(delegate);
+
+        CompletableFuture<String> response = client.getAsync("https://example.org/prices", String.class);
+        delegate.awaitRequests(2);
+        delegate.request(0).complete("primary");
+
+        assertEquals("primary", response.get(5, TimeUnit.SECONDS));
+        assertCancelled(delegate.request(1));
+        assertEquals(1, client.getHedgeCount());
+    }
+
+    /**
+     * A request that is not safe to send twice is never hedged.
+     */
+    public void testWriteIsNotHedged() throws Exception {
+        FakeClient delegate = new FakeClient();
+        RetryingHttpClient client = hedging(delegate);
+
+        CompletableFuture<String> response = client.postAsync(WRITE_CALL, String.class);
+        Thread.sleep(5 * HEDGE_DELAY_MILLIS);
+        delegate.request(0).complete("sent");
+
+        assertEquals("sent", response.get(5, TimeUnit.SECONDS));
+        assertEquals(1, delegate.requestCount());
+        assertEquals(0, client.getHedgeCount());
+    }
+
+    /**
+     * The cancellation of the losing request passes through the circuit breaker, rate limiter, bulkhead and
+     * latency tracker down to the transport, and the loser's bulkhead permit is returned.
+     */
+    public void testLoserIsCancelledOnTheTransport() throws Exception {
+        FakeClient transport = new FakeClient();
+        LatencyTracker wireLatencies = latencies();
+        Bulkhead bulkhead = new Bulkhead("test", 2, Duration.ofSeconds(1));
+        ComputeUnitRateLimiter rateLimiter = new ComputeUnitRateLimiter(1_000_000, 1_000_000);
+        HttpClient chain = new CircuitBreakingHttpClient(
+                new RateLimitedHttpClient(
+                        new BulkheadHttpClient(new LatencyTrackingHttpClient(transport, wireLatencies), bulkhead),
+                        rateLimiter, ComputeUnitCosts.PRICES_COST),
+                "https://example.org", new CircuitBreakerBuilder());
+        RetryingHttpClient client = new RetryingHttpClient(chain, hedgingPolicy(), wireLatencies, rateLimiter);
+
+        CompletableFuture<String> response = client.postAsync(READ_CALL, String.class);
+        transport.awaitRequests(2);
+        transport.request(1).complete("hedge");
+
+        assertEquals("hedge", response.get(5, TimeUnit.SECONDS));
+        assertCancelled(transport.request(0));
+        // Both permits come back within the bulkhead's maximum wait
+        bulkhead.acquireAsync().get(5, TimeUnit.SECONDS);
+        bulkhead.acquireAsync().get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A {@code Retry-After} hint replaces the exponential backoff.
+     */
+    public void testRetryAfterIsHonored() throws Exception {
+        FakeClient delegate = new FakeClient();
+        RetryingHttpClient client = new RetryingHttpClient(delegate, new RetryPolicyBuilder()
+                .withInitialBackoff(Duration.ofMinutes(1))
+                .withJitter(0)
+                .build());
+
+        long start = System.nanoTime();
+        CompletableFuture<String> response = client.getAsync("https://example.org/prices", String.class);
+        delegate.request(0).completeExceptionally(new HttpStatusException("Too many requests", 429, Duration.ofMillis(50)));
+        delegate.awaitRequests(2);
+        delegate.request(1).complete("retried");
+
+        assertEquals("retried", response.get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, client.getRetryCount());
+    }
+
+    /**
+     * A {@code Retry-After} hint longer than the policy allows is capped.
+     */
+    public void testRetryAfterIsCapped() throws Exception {
+        FakeClient delegate = new FakeClient();
+        RetryingHttpClient client = new RetryingHttpClient(delegate, new RetryPolicyBuilder()
+                .withMaxRetryAfter(Duration.ofMillis(10))
+                .build());
+
+        CompletableFuture<String> response = client.getAsync("https://example.org/prices", String.class);
+        delegate.request(0).completeExceptionally(new HttpStatusException("Unavailable", 503, Duration.ofHours(1)));
+        delegate.awaitRequests(2);
+        delegate.request(1).complete("retried");
+
+        assertEquals("retried", response.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Waits for the request to be cancelled, which may happen on another thread after the response completed.
+     */
+    private static void assertCancelled(CompletableFuture<String> request) throws Exception {
+        try {
+            request.get(5, TimeUnit.SECONDS);
+            fail("Expected the request to be cancelled");
+        } catch (CancellationException expected) {
+            // Cancelled as the loser
+        }
+    }
+
+    /**
+     * Builds a client hedging after {@value #HEDGE_DELAY_MILLIS} ms, without retries.
+     */
+    private static RetryingHttpClient hedging(HttpClient delegate) {
+        return new RetryingHttpClient(delegate, hedgingPolicy(), latencies(), null);
+    }
+
+    private static RetryPolicy hedgingPolicy() {
+        return new RetryPolicyBuilder()
+                .withMaxAttempts(1)
+                .withHedgePercentile(0.5)
+                .withHedgeMinSamples(1)
+                .build();
+    }
+
+    /**
+     * Builds a tracker whose every sample is the hedge delay.
+     */
+    private static LatencyTracker latencies() {
+        LatencyTracker latencies = new LatencyTracker(16);
+        for (int i = 0; i < 16; i++) {
+            latencies.record(TimeUnit.MILLISECONDS.toNanos(HEDGE_DELAY_MILLIS));
+        }
+        return latencies;
+    }
+
+    /**
+     * Answers every asynchronous request with a future the test completes, recording them in order.
+     */
+    private static class FakeClient implements HttpClient {
+
+        private final List<CompletableFuture<?>> requests = new ArrayList<>();
+
+        @Override
+        public <T> T post(String jsonBody, Class<T> responseType) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T get(String url, Class<T> responseType) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> CompletableFuture<T> postAsync(String jsonBody, Class<T> responseType) {
+            return newRequest();
+        }
+
+        @Override
+        public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+            return newRequest();
+        }
+
+        private synchronized <T> CompletableFuture<T> newRequest() {
+            CompletableFuture<T> request = new CompletableFuture<>();
+            requests.add(request);
+            notifyAll();
+            return request;
+        }
+
+        synchronized int requestCount() {
+            return requests.size();
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized CompletableFuture<String> request(int index) {
+            return (CompletableFuture<String>) requests.get(index);
+        }
+
+        synchronized void awaitRequests(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (requests.size() < count) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                assertTrue("Expected " + count + " requests, got " + requests.size(), remaining > 0);
+                wait(remaining);
+            }
+        }
+    }
+}
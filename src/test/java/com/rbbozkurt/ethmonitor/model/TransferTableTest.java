@@ -0,0 +1,152 @@
+package com.rbbozkurt.ethmonitor.model;
+
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Metadata;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.RawContract;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import com.rbbozkurt.ethmonitor.model.WalletAnalysisReport.HistoricalTransfer;
+import com.rbbozkurt.ethmonitor.service.impls.HistoricalTransferConverter;
+import com.rbbozkurt.ethmonitor.util.Address;
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link TransferTable}.
+ */
+public class TransferTableTest extends TestCase {
+
+    private static final String WALLET = "0x00000000219ab540356cbb839cbe05303d7705fa";
+    private static final String TOKEN = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+    private static final String HASH = "0x88df016429689c079f3b2f6ad39fa052532c56795b733da78a91ebe6a713944b";
+
+    /**
+     * Every historical transfer added reads back unchanged, including hashes and values that do not fit the
+     * packed columns.
+     */
+    public void testHistoricalTransfersReadBackAsAdded() {
+        List<HistoricalTransfer> added = new ArrayList<>();
+        added.add(historical(HASH, new BigDecimal("1.5"), Instant.ofEpochSecond(1_700_000_000L)));
+        added.add(historical(HASH.toUpperCase().replace("0X", "0x"), new BigDecimal("0.000001"), null));
+        added.add(historical("0x1234", new BigDecimal("123456789012345678901234567890.123456789"), null));
+        added.add(historical(null, null, Instant.ofEpochSecond(0)));
+        added.add(historical("not a hash", new BigDecimal("1E-200"), Instant.ofEpochSecond(-1)));
+        added.add(historical(HASH, new BigDecimal("-42.00"), null));
+        added.add(historical(HASH, new BigDecimal("1E+3"), null));
+        added.add(historical(HASH, BigDecimal.valueOf(Long.MIN_VALUE, 3), null));
+
+        TransferTable.Builder builder = new TransferTable.Builder(2);
+        added.forEach(builder::add);
+        TransferTable table = builder.build();
+
+        assertEquals(added.size(), table.size());
+        for (int i = 0; i < added.size(); i++) {
+            HistoricalTransfer expected = added.get(i);
+            TransferTable.View row = table.view(i);
+            assertEquals(expected.getTxHash(), row.txHash());
+            assertEquals(expected.getFrom(), row.from());
+            assertEquals(expected.getTo(), row.to());
+            assertEquals(expected.getRawContractAddress(), row.rawContractAddress());
+            assertEquals(expected.getAsset(), row.asset());
+            assertEquals(expected.getCategory(), row.category());
+            assertEquals(expected.getTimestamp(), row.timestamp());
+            assertEquals(expected.getTimestamp() != null, row.hasTimestamp());
+            assertEquals(expected.getValue(), row.value());
+            assertEquals(expected.getValue() != null ? expected.getValue().signum() : 0, row.valueSignum());
+            assertEquals(0, row.blockNumber());
+            assertEquals(Address.parse(WALLET), row.fromAddress());
+            assertEquals(Address.parse(TOKEN), row.contractAddress());
+            assertNull(row.toAddress());
+            assertEquals(expected, row.toHistoricalTransfer());
+        }
+        assertEquals(added, table.asHistoricalTransfers());
+    }
+
+    /**
+     * A downloaded transfer reads back as it is converted into a {@link HistoricalTransfer}, with its block.
+     */
+    public void testDownloadedTransfersReadBackAsConverted() {
+        Transfer erc20 = transfer("0x10", HASH, "2500.000001", "2024-01-02T03:04:05Z");
+        erc20.setRawContract(new RawContract());
+        erc20.getRawContract().setAddress(TOKEN);
+        Transfer external = transfer("0xf4240", "0xABC", null, "2024-01-02T03:04:06Z");
+
+        TransferTable table = new TransferTable.Builder().add(erc20).add(external).build();
+
+        assertEquals(2, table.size());
+        assertEquals(HistoricalTransferConverter.convert(erc20), table.view(0).toHistoricalTransfer());
+        assertEquals(HistoricalTransferConverter.convert(external), table.view(1).toHistoricalTransfer());
+        assertEquals(16, table.view(0).blockNumber());
+        assertEquals(1_000_000, table.view(1).blockNumber());
+        assertEquals("0xABC", table.view(1).txHash());
+        assertEquals(BigDecimal.ZERO, table.view(1).value());
+        assertNull(table.view(1).rawContractAddress());
+        assertNull(table.view(1).contractAddress());
+    }
+
+    /**
+     * Each spelling of an address reads back as added, while every spelling parses to the same address.
+     */
+    public void testAddressesReadBackInTheCaseAdded() {
+        String checksummed = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+        HistoricalTransfer lower = historical(HASH, BigDecimal.ONE, null);
+        lower.setTo(TOKEN);
+        HistoricalTransfer mixed = historical(HASH, BigDecimal.ONE, null);
+        mixed.setFrom(checksummed);
+        mixed.setTo(checksummed);
+
+        TransferTable table = new TransferTable.Builder().add(lower).add(mixed).build();
+
+        assertEquals(TOKEN, table.view(0).to());
+        assertEquals(checksummed, table.view(1).from());
+        assertEquals(checksummed, table.view(1).to());
+        assertEquals(Address.parse(TOKEN), table.view(1).toAddress());
+        assertSame(table.view(0).toAddress(), table.view(1).toAddress());
+        assertEquals(lower, table.view(0).toHistoricalTransfer());
+        assertEquals(mixed, table.view(1).toHistoricalTransfer());
+    }
+
+    /**
+     * A transfer without a block timestamp is rejected without adding a row.
+     */
+    public void testUnreadableTransferAddsNoRow() {
+        Transfer broken = transfer("0x1", HASH, "1", null);
+        TransferTable.Builder builder = new TransferTable.Builder();
+        try {
+            builder.add(broken);
+            fail("Expected the transfer to be rejected");
+        } catch (RuntimeException expected) {
+            // Rejected as the converter rejects it
+        }
+        assertEquals(0, builder.build().size());
+    }
+
+    private static HistoricalTransfer historical(String hash, BigDecimal value, Instant timestamp) {
+        HistoricalTransfer transfer = new HistoricalTransfer();
+        transfer.setTxHash(hash);
+        transfer.setFrom(WALLET);
+        transfer.setTo("not an address");
+        transfer.setRawContractAddress(TOKEN);
+        transfer.setAsset("USDC");
+        transfer.setCategory("erc20");
+        transfer.setValue(value);
+        transfer.setTimestamp(timestamp);
+        return transfer;
+    }
+
+    private static Transfer transfer(String blockNum, String hash, String value, String blockTimestamp) {
+        Transfer transfer = new Transfer();
+        transfer.setBlockNum(blockNum);
+        transfer.setHash(hash);
+        transfer.setFrom(WALLET);
+        transfer.setTo(TOKEN);
+        transfer.setAsset(value != null ? "USDC" : "ETH");
+        transfer.setCategory(value != null ? "erc20" : "external");
+        transfer.setValue(value);
+        transfer.setMetadata(new Metadata());
+        transfer.getMetadata().setBlockTimestamp(blockTimestamp);
+        return transfer;
+    }
+}
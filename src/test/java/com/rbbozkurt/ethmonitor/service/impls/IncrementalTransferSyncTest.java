@@ -0,0 +1,132 @@
+package com.rbbozkurt.ethmonitor.service.impls;
+
+import com.rbbozkurt.ethmonitor.cache.TransferSyncStore;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferCategory;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransferStream;
+import com.rbbozkurt.ethmonitor.client.interfaces.TransfersAPI;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse;
+import com.rbbozkurt.ethmonitor.dto.TransferResponse.Transfer;
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for {@link IncrementalTransferSync}.
+ */
+public class IncrementalTransferSyncTest extends TestCase {
+
+    private static final String WALLET = "0x00000000000000000000000000000000000000aa";
+
+    private Path directory;
+    private ChainTransfersAPI chain;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("transfer-sync");
+        chain = new ChainTransfersAPI();
+    }
+
+    /**
+     * A sync that ends below its limit completes its last block, so the next one starts after it.
+     */
+    public void testCursorAdvancesPastCompleteBlocks() throws Exception {
+        chain.add(1, "a");
+        chain.add(2, "b");
+        chain.add(3, "c");
+        IncrementalTransferSync sync = new IncrementalTransferSync(chain, new TransferSyncStore(directory, 10));
+
+        assertEquals(List.of("a", "b", "c"), ids(sync.sync(WALLET, 10)));
+
+        chain.add(4, "d");
+        assertEquals(List.of("a", "b", "c", "d"), ids(sync.sync(WALLET, 10)));
+        assertEquals(List.of(0L, 4L), chain.fromBlocks);
+    }
+
+    /**
+     * A sync cut off inside a block fetches that block again without ingesting its transfers twice, and the
+     * state read back from disk by another store is the same.
+     */
+    public void testCutOffBlockIsFetchedAgainWithoutDuplicates() throws Exception {
+        chain.add(1, "a");
+        chain.add(2, "b");
+        chain.add(2, "c");
+        IncrementalTransferSync sync = new IncrementalTransferSync(chain, new TransferSyncStore(directory, 10));
+
+        assertEquals(List.of("a", "b"), ids(sync.sync(WALLET, 2)));
+        assertEquals(List.of("a", "b", "c"), ids(sync.sync(WALLET, 3)));
+        assertEquals(List.of(0L, 2L), chain.fromBlocks);
+
+        IncrementalTransferSync reloaded = new IncrementalTransferSync(chain, new TransferSyncStore(directory, 10));
+        assertEquals(List.of("a", "b", "c"), ids(reloaded.sync(WALLET, 3)));
+        assertEquals("answered from disk without a call", 2, chain.fromBlocks.size());
+    }
+
+    /**
+     * A streamed sync emits the ingested transfers first and dedups the block it fetches again.
+     */
+    public void testStreamedSyncDedupsCutOffBlock() throws Exception {
+        chain.add(1, "a");
+        chain.add(2, "b");
+        chain.add(2, "c");
+        chain.add(3, "d");
+        IncrementalTransferSync sync = new IncrementalTransferSync(chain, new TransferSyncStore(directory, 10));
+        assertEquals(List.of("a", "b"), ids(sync.sync(WALLET, 2)));
+
+        List<String> streamed = new ArrayList<>();
+        try (TransferStream stream = sync.stream(WALLET, 10)) {
+            stream.forEachRemaining(transfer -> streamed.add(transfer.getUniqueId()));
+        }
+        assertEquals(List.of("a", "b", "c", "d"), streamed);
+        assertEquals(List.of("a", "b", "c", "d"), ids(sync.sync(WALLET, 10)));
+        assertEquals(List.of(0L, 2L, 4L), chain.fromBlocks);
+    }
+
+    private static List<String> ids(TransferResponse response) {
+        return response.getResult().getTransfers().stream().map(Transfer::getUniqueId).toList();
+    }
+
+    /**
+     * Answers transfer queries from a list of transfers in block order, recording the first block of each query.
+     */
+    private static class ChainTransfersAPI implements TransfersAPI {
+
+        private final List<Transfer> transfers = new ArrayList<>();
+        private final List<Long> fromBlocks = new ArrayList<>();
+
+        void add(long block, String id) {
+            Transfer transfer = new Transfer();
+            transfer.setBlockNum("0x" + Long.toHexString(block));
+            transfer.setUniqueId(id);
+            transfers.add(transfer);
+        }
+
+        private List<Transfer> query(long fromBlock, int maxCount) {
+            fromBlocks.add(fromBlock);
+            return transfers.stream().filter(t -> t.blockNumber() >= fromBlock).limit(maxCount).toList();
+        }
+
+        @Override
+        public TransferResponse getTransferResponse(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) {
+            TransferResponse.Result result = new TransferResponse.Result();
+            result.setTransfers(query(fromBlock, maxCount));
+            TransferResponse response = new TransferResponse();
+            response.setResult(result);
+            return response;
+        }
+
+        @Override
+        public CompletableFuture<TransferResponse> getTransferResponseAsync(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) {
+            return CompletableFuture.completedFuture(getTransferResponse(address, fromBlock, maxCount, categories));
+        }
+
+        @Override
+        public TransferStream streamTransfers(String address, long fromBlock, int maxCount, Set<TransferCategory> categories) {
+            return TransferStream.of(query(fromBlock, maxCount));
+        }
+    }
+}
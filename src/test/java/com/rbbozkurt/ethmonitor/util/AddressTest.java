@@ -0,0 +1,74 @@
+package com.rbbozkurt.ethmonitor.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link Address}.
+ */
+public class AddressTest extends TestCase {
+
+    private static final String USDC = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+    private static final String USDC_CHECKSUMMED = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+
+    /**
+     * An address parses in any case and formats back in lower case.
+     */
+    public void testParseAndToString() {
+        assertEquals(USDC, Address.parse(USDC).toString());
+        assertEquals(USDC, Address.parse(USDC_CHECKSUMMED).toString());
+        assertEquals(USDC, Address.parse(USDC.toUpperCase().replace("0X", "0x")).toString());
+        assertEquals("0x0000000000000000000000000000000000000000",
+                Address.parse("0x0000000000000000000000000000000000000000").toString());
+        assertEquals("0xffffffffffffffffffffffffffffffffffffffff",
+                Address.parse("0xFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF").toString());
+    }
+
+    /**
+     * Text that is not a {@code 0x}-prefixed 40-digit hex address is rejected.
+     */
+    public void testInvalidAddressesAreRejected() {
+        String[] invalid = {
+                null,
+                "",
+                "0x",
+                USDC.substring(0, 41),
+                USDC + "0",
+                "0X" + USDC.substring(2),
+                "1x" + USDC.substring(2),
+                USDC.substring(0, 41) + "g",
+                "0x" + " ".repeat(40),
+        };
+        for (String text : invalid) {
+            assertNull(text, Address.tryParse(text));
+            assertFalse(text, Address.isValid(text));
+        }
+        try {
+            Address.parse("0x1234");
+            fail("Expected an invalid address to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("0x1234"));
+        }
+        assertTrue(Address.isValid(USDC_CHECKSUMMED));
+    }
+
+    /**
+     * Addresses are equal, with equal hashes, whatever the case they were parsed from, and differ as soon as
+     * any of their bytes does.
+     */
+    public void testEqualsAndHashCode() {
+        Address lower = Address.parse(USDC);
+        Address mixed = Address.parse(USDC_CHECKSUMMED);
+        assertEquals(lower, mixed);
+        assertEquals(lower.hashCode(), mixed.hashCode());
+        assertFalse(lower.equals(USDC));
+        assertFalse(lower.equals(null));
+
+        // One differing digit in each of the three packed words
+        int[] positions = {2, 17, 18, 33, 34, 41};
+        for (int position : positions) {
+            char digit = USDC.charAt(position) == '0' ? '1' : '0';
+            Address other = Address.parse(USDC.substring(0, position) + digit + USDC.substring(position + 1));
+            assertFalse("Digit " + position, lower.equals(other));
+        }
+    }
+}